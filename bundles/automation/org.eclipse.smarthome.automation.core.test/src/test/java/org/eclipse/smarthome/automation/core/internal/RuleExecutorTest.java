@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.core.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.automation.core.internal.RuleExecutor.Lane;
+import org.eclipse.smarthome.automation.core.internal.RuleExecutor.QueuePolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RuleExecutor}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class RuleExecutorTest {
+
+    private ExecutorService executor;
+    private RuleExecutor ruleExecutor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        ruleExecutor = new RuleExecutor(executor);
+    }
+
+    @After
+    public void tearDown() {
+        ruleExecutor.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRunsOfARuleAreSerialized() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.QUEUE, 1000);
+        List<Integer> runs = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger concurrentRuns = new AtomicInteger();
+        AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            final int run = i;
+            assertTrue(lane.submit(() -> {
+                maxConcurrentRuns.accumulateAndGet(concurrentRuns.incrementAndGet(), Math::max);
+                runs.add(run);
+                concurrentRuns.decrementAndGet();
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxConcurrentRuns.get());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), runs.get(i));
+        }
+    }
+
+    @Test
+    public void testSlowRuleDoesNotBlockOthers() throws InterruptedException {
+        Lane slowLane = ruleExecutor.createLane("slow", QueuePolicy.QUEUE, 1000);
+        Lane fastLane = ruleExecutor.createLane("fast", QueuePolicy.QUEUE, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastRuns = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            slowLane.submit(() -> await(release));
+            fastLane.submit(fastRuns::countDown);
+        }
+
+        assertTrue(fastRuns.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(9), ruleExecutor.getQueueDepths().get("slow"));
+        assertTrue(slowLane.isBusy());
+        release.countDown();
+    }
+
+    @Test
+    public void testDropPolicy() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.DROP, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertTrue(lane.submit(() -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(lane.submit(() -> {
+        }));
+        assertEquals(1, lane.getDroppedTriggers());
+        assertEquals(0, lane.getQueueDepth());
+        release.countDown();
+    }
+
+    @Test
+    public void testCoalescePolicyRunsOnlyTheLatestTrigger() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.COALESCE, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch latest = new CountDownLatch(1);
+        AtomicInteger coalescedRuns = new AtomicInteger();
+
+        lane.submit(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(lane.submit(coalescedRuns::incrementAndGet));
+        }
+        assertTrue(lane.submit(latest::countDown));
+        assertEquals(1, lane.getQueueDepth());
+        release.countDown();
+
+        assertTrue(latest.await(5, TimeUnit.SECONDS));
+        assertEquals(0, coalescedRuns.get());
+        assertEquals(5, lane.getDroppedTriggers());
+    }
+
+    @Test
+    public void testFullQueueDropsTriggers() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.QUEUE, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        lane.submit(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(lane.submit(() -> {
+        }));
+        assertTrue(lane.submit(() -> {
+        }));
+        assertFalse(lane.submit(() -> {
+        }));
+        assertEquals(2, lane.getQueueDepth());
+        assertEquals(1, lane.getDroppedTriggers());
+        release.countDown();
+    }
+
+    @Test
+    public void testStatistics() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.DROP, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        lane.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(lane.submit(() -> {
+        }));
+        release.countDown();
+
+        waitForIdle(lane);
+        RuleExecutionStatistics statistics = ruleExecutor.getStatistics().get("rule");
+        assertEquals(0, statistics.getQueueDepth());
+        assertEquals(1, statistics.getRuns());
+        assertEquals(1, statistics.getDroppedTriggers());
+        assertTrue(statistics.getMaxRunTime() >= 50);
+        assertEquals(statistics.getMaxRunTime(), statistics.getAverageRunTime(), 1);
+    }
+
+    @Test
+    public void testClosedLaneInterruptsTheRunAndDiscardsTriggers() throws InterruptedException {
+        Lane lane = ruleExecutor.createLane("rule", QueuePolicy.QUEUE, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger discardedRuns = new AtomicInteger();
+
+        lane.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        lane.submit(discardedRuns::incrementAndGet);
+        lane.close();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(lane.submit(discardedRuns::incrementAndGet));
+        Thread.sleep(100);
+        assertEquals(0, discardedRuns.get());
+        assertTrue(ruleExecutor.getQueueDepths().isEmpty());
+    }
+
+    private static void waitForIdle(Lane lane) throws InterruptedException {
+        for (int i = 0; i < 100 && lane.isBusy(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(lane.isBusy());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
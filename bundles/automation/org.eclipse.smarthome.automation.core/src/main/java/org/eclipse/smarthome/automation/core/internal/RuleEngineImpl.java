@@ -24,9 +24,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -67,6 +65,7 @@ import org.eclipse.smarthome.automation.type.ModuleType;
 import org.eclipse.smarthome.automation.type.ModuleTypeRegistry;
 import org.eclipse.smarthome.automation.type.Output;
 import org.eclipse.smarthome.automation.type.TriggerType;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventPublisher;
@@ -98,6 +97,7 @@ import org.slf4j.LoggerFactory;
  * @author Benedikt Niehues - change behavior for unregistering ModuleHandler
  * @author Markus Rathgeb - use a managed rule
  * @author Ana Dimova - new reference syntax: list[index], map["key"], bean.field
+ * @author Eclipse SmartHome - run the rules on a shared {@link RuleExecutor}
  */
 @Component(immediate = true)
 @NonNullByDefault
@@ -185,9 +185,9 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
     private final @NonNullByDefault({}) Map<String, Future<?>> scheduleTasks = new HashMap<>(31);
 
     /**
-     * Performs the {@link Rule} re-initialization tasks.
+     * Executes the triggered {@link Rule}s.
      */
-    private @Nullable ScheduledExecutorService executor;
+    private final RuleExecutor ruleExecutor = new RuleExecutor();
 
     /**
      * This field holds {@link RegistryChangeListener} that listen for changes in the rule registry.
@@ -552,12 +552,6 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
                     f.cancel(true);
                 }
             }
-            if (scheduleTasks.isEmpty()) {
-                if (executor != null) {
-                    executor.shutdown();
-                    executor = null;
-                }
-            }
         } else {
             // change status to UNINITIALIZED
             setStatus(rUID,
@@ -646,7 +640,8 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
     private synchronized TriggerHandlerCallbackImpl getTriggerHandlerCallback(String ruleUID) {
         TriggerHandlerCallbackImpl result = thCallbacks.get(ruleUID);
         if (result == null) {
-            result = new TriggerHandlerCallbackImpl(this, ruleUID);
+            result = new TriggerHandlerCallbackImpl(this, ruleUID, ruleExecutor.createLane(ruleUID,
+                    ruleRegistry.getQueuePolicy(ruleUID), ruleRegistry.getQueueCapacity()));
             thCallbacks.put(ruleUID, result);
         }
         return result;
@@ -911,8 +906,7 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
     protected void scheduleRuleInitialization(final String rUID) {
         Future<?> f = scheduleTasks.get(rUID);
         if (f == null || f.isDone()) {
-            ScheduledExecutorService ex = getScheduledExecutor();
-            f = ex.schedule(new Runnable() {
+            f = ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON).schedule(new Runnable() {
                 @Override
                 public void run() {
                     final WrappedRule managedRule = getManagedRule(rUID);
@@ -1232,13 +1226,29 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
         for (Future<?> f : scheduleTasks.values()) {
             f.cancel(true);
         }
-        if (scheduleTasks.isEmpty() && executor != null) {
-            executor.shutdown();
-            executor = null;
-        }
         scheduleTasks.clear();
         contextMap.clear();
         unsetRuleRegistry(ruleRegistry);
+        ruleExecutor.close();
+    }
+
+    /**
+     * Gets the number of triggers that are queued but not executed yet for every {@link Rule}.
+     *
+     * @return the queue depth indexed by the rule UID
+     */
+    public Map<String, Integer> getQueueDepths() {
+        return ruleExecutor.getQueueDepths();
+    }
+
+    /**
+     * Gets the execution statistics for every {@link Rule}: the queue depth, the number of runs and dropped triggers
+     * and the average and maximum run time.
+     *
+     * @return the statistics indexed by the rule UID
+     */
+    public Map<String, RuleExecutionStatistics> getRuleExecutionStatistics() {
+        return ruleExecutor.getStatistics();
     }
 
     /**
@@ -1255,16 +1265,6 @@ public class RuleEngineImpl implements RuleManager, RegistryChangeListener<Modul
         return null;
     }
 
-    private ScheduledExecutorService getScheduledExecutor() {
-        final ScheduledExecutorService currentExecutor = executor;
-        if (currentExecutor != null && !currentExecutor.isShutdown()) {
-            return currentExecutor;
-        }
-        final ScheduledExecutorService newExecutor = Executors.newSingleThreadScheduledExecutor();
-        executor = newExecutor;
-        return newExecutor;
-    }
-
     /**
      * Validates IDs of modules. The module ids must be alphanumeric with only underscores and dashes.
      *
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.core.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.automation.Rule;
+
+/**
+ * A snapshot of the execution statistics of a {@link Rule}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public class RuleExecutionStatistics {
+
+    private final int queueDepth;
+    private final long runs;
+    private final long droppedTriggers;
+    private final double averageRunTime;
+    private final long maxRunTime;
+
+    RuleExecutionStatistics(int queueDepth, long runs, long droppedTriggers, double averageRunTime, long maxRunTime) {
+        this.queueDepth = queueDepth;
+        this.runs = runs;
+        this.droppedTriggers = droppedTriggers;
+        this.averageRunTime = averageRunTime;
+        this.maxRunTime = maxRunTime;
+    }
+
+    /**
+     * Gets the number of triggers that are queued but not executed yet, not including the current run.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the number of completed runs.
+     *
+     * @return the number of runs
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the number of triggers that have been dropped or coalesced.
+     *
+     * @return the number of dropped triggers
+     */
+    public long getDroppedTriggers() {
+        return droppedTriggers;
+    }
+
+    /**
+     * Gets the average time of the completed runs.
+     *
+     * @return the average run time in milliseconds
+     */
+    public double getAverageRunTime() {
+        return averageRunTime;
+    }
+
+    /**
+     * Gets the longest time of the completed runs.
+     *
+     * @return the maximum run time in milliseconds
+     */
+    public long getMaxRunTime() {
+        return maxRunTime;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleExecutionStatistics [queueDepth=" + queueDepth + ", runs=" + runs + ", droppedTriggers="
+                + droppedTriggers + ", averageRunTime=" + averageRunTime + "ms, maxRunTime=" + maxRunTime + "ms]";
+    }
+
+}
@@ -0,0 +1,339 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.core.internal;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.automation.Rule;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the triggered {@link Rule}s on a shared thread pool, using one {@link Lane} per rule.
+ *
+ * The runs of a single rule are executed one after another, while different rules run concurrently on the threads of
+ * the {@value #THREAD_POOL_NAME} thread pool, whose size can be configured through the {@link ThreadPoolManager}. A
+ * lane yields its thread after every run, so a rule that is triggered very often does not starve the other rules.
+ * <p>
+ * As the pool has a fixed size, rules that block for a long time occupy its threads and delay all other rules. The
+ * size of the pool should be raised if such rules are used.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class RuleExecutor {
+
+    static final String THREAD_POOL_NAME = "ruleEngine";
+
+    /**
+     * Defines what happens to a trigger of a rule that is already running.
+     */
+    enum QueuePolicy {
+        /** The trigger is dropped. */
+        DROP,
+        /** The trigger is queued, up to the capacity of the lane. */
+        QUEUE,
+        /** The trigger replaces the trigger that is already queued, so only the latest trigger is executed. */
+        COALESCE;
+
+        /**
+         * Parse a queue policy, ignoring the case.
+         *
+         * @param value the name of the policy
+         * @return the policy or null if the value is not a valid policy
+         */
+        static @Nullable QueuePolicy parse(String value) {
+            for (QueuePolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value.trim())) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RuleExecutor.class);
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    /**
+     * Create a new rule executor using the {@value #THREAD_POOL_NAME} thread pool.
+     */
+    RuleExecutor() {
+        this(ThreadPoolManager.getPool(THREAD_POOL_NAME));
+    }
+
+    /**
+     * Create a new rule executor.
+     *
+     * @param executor the executor the rules are run on
+     */
+    RuleExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create the lane of a rule. An existing lane of the rule is closed.
+     *
+     * @param ruleUID the UID of the rule
+     * @param policy the policy for triggers of the rule while it is running
+     * @param capacity the maximum number of queued triggers, if the policy is {@link QueuePolicy#QUEUE}
+     * @return the new lane
+     */
+    Lane createLane(String ruleUID, QueuePolicy policy, int capacity) {
+        Lane lane = new Lane(ruleUID, policy, capacity);
+        Lane previous = lanes.put(ruleUID, lane);
+        if (previous != null) {
+            previous.close();
+        }
+        return lane;
+    }
+
+    /**
+     * Get the lanes of all rules.
+     *
+     * @return the lanes indexed by the rule UID
+     */
+    Map<String, Lane> getLanes() {
+        return Collections.unmodifiableMap(lanes);
+    }
+
+    /**
+     * Get the number of triggers that are queued but not executed yet for every rule.
+     *
+     * @return the queue depth indexed by the rule UID
+     */
+    Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> queueDepths = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            queueDepths.put(lane.getRuleUID(), lane.getQueueDepth());
+        }
+        return Collections.unmodifiableMap(queueDepths);
+    }
+
+    /**
+     * Get the execution statistics of every rule.
+     *
+     * @return the statistics indexed by the rule UID
+     */
+    Map<String, RuleExecutionStatistics> getStatistics() {
+        Map<String, RuleExecutionStatistics> statistics = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            statistics.put(lane.getRuleUID(), lane.getStatistics());
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Close all lanes and discard the triggers that have not been executed yet.
+     */
+    void close() {
+        for (Lane lane : lanes.values()) {
+            lane.close();
+        }
+        lanes.clear();
+    }
+
+    /**
+     * The ordered lane of the runs of a single rule.
+     */
+    class Lane {
+
+        private final String ruleUID;
+        private final QueuePolicy policy;
+        private final int capacity;
+
+        // the fields below are guarded by this lane
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private @Nullable Thread runner;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean full;
+        private long runs;
+        private long dropped;
+        private long totalRunTime;
+        private long maxRunTime;
+
+        private Lane(String ruleUID, QueuePolicy policy, int capacity) {
+            this.ruleUID = ruleUID;
+            this.policy = policy;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Submit a run of the rule.
+         *
+         * @param run the run
+         * @return true if the run has been accepted, false if it has been dropped
+         */
+        boolean submit(Runnable run) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (scheduled) {
+                    switch (policy) {
+                        case DROP:
+                            dropped++;
+                            return false;
+                        case COALESCE:
+                            if (!queue.isEmpty()) {
+                                queue.clear();
+                                dropped++;
+                            }
+                            break;
+                        default:
+                            if (queue.size() >= capacity) {
+                                dropped++;
+                                if (!full) {
+                                    full = true;
+                                    logger.warn("The trigger queue of rule '{}' is full ({} triggers), dropping"
+                                            + " triggers.", ruleUID, capacity);
+                                }
+                                return false;
+                            }
+                            break;
+                    }
+                    queue.add(run);
+                    return true;
+                }
+                queue.add(run);
+                scheduled = true;
+            }
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this::runNext);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    queue.clear();
+                    scheduled = false;
+                }
+                logger.warn("Could not schedule the execution of rule '{}': {}", ruleUID, e.getMessage());
+            }
+        }
+
+        private void runNext() {
+            Runnable run;
+            synchronized (this) {
+                run = queue.poll();
+                if (closed || run == null) {
+                    scheduled = false;
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            long start = System.nanoTime();
+            try {
+                run.run();
+            } catch (Throwable t) {
+                logger.error("Failed to execute rule '{}': {}", ruleUID, t.getMessage(), t);
+            }
+            long runTime = System.nanoTime() - start;
+            logger.debug("The run of rule '{}' took {}ms.", ruleUID, TimeUnit.NANOSECONDS.toMillis(runTime));
+            synchronized (this) {
+                runner = null;
+                runs++;
+                totalRunTime += runTime;
+                maxRunTime = Math.max(maxRunTime, runTime);
+                if (queue.isEmpty()) {
+                    full = false;
+                    scheduled = false;
+                    return;
+                }
+            }
+            // yield the thread to the other rules before the next run
+            schedule();
+        }
+
+        /**
+         * Close the lane, discard the queued runs and interrupt the current run.
+         */
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+            Thread runner = this.runner;
+            if (runner != null) {
+                runner.interrupt();
+            }
+            lanes.remove(ruleUID, this);
+        }
+
+        /**
+         * Check if the rule is running or has queued runs.
+         *
+         * @return true if the rule is running or has queued runs
+         */
+        synchronized boolean isBusy() {
+            return scheduled;
+        }
+
+        String getRuleUID() {
+            return ruleUID;
+        }
+
+        QueuePolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * Get the number of queued runs, not including the current run.
+         *
+         * @return the queue depth
+         */
+        synchronized int getQueueDepth() {
+            return queue.size();
+        }
+
+        /**
+         * Get the number of triggers that have been dropped or coalesced.
+         *
+         * @return the number of dropped triggers
+         */
+        synchronized long getDroppedTriggers() {
+            return dropped;
+        }
+
+        /**
+         * Get the execution statistics of the rule.
+         *
+         * @return a snapshot of the statistics
+         */
+        synchronized RuleExecutionStatistics getStatistics() {
+            double averageRunTime = runs == 0 ? 0 : (double) totalRunTime / runs / TimeUnit.MILLISECONDS.toNanos(1);
+            return new RuleExecutionStatistics(queue.size(), runs, dropped, averageRunTime,
+                    TimeUnit.NANOSECONDS.toMillis(maxRunTime));
+        }
+
+        @Override
+        public String toString() {
+            return "Lane [ruleUID=" + ruleUID + ", policy=" + policy + ", statistics=" + getStatistics() + "]";
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ package org.eclipse.smarthome.automation.core.internal;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,6 +31,7 @@ import org.eclipse.smarthome.automation.RuleRegistry;
 import org.eclipse.smarthome.automation.RuleStatus;
 import org.eclipse.smarthome.automation.RuleStatusInfo;
 import org.eclipse.smarthome.automation.core.ManagedRuleProvider;
+import org.eclipse.smarthome.automation.core.internal.RuleExecutor.QueuePolicy;
 import org.eclipse.smarthome.automation.core.internal.template.RuleTemplateRegistry;
 import org.eclipse.smarthome.automation.core.util.ConfigurationNormalizer;
 import org.eclipse.smarthome.automation.core.util.ReferenceResolver;
@@ -99,6 +101,7 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - refactored (managed) provider and registry implementation and other fixes
  * @author Benedikt Niehues - added events for rules
  * @author Victor Toni - return only copies of {@link Rule}s
+ * @author Eclipse SmartHome - queue policies of the rule execution
  */
 @Component(service = RuleRegistry.class, immediate = true, property = { "rule.reinitialization.delay:Long=500" })
 public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvider>
@@ -114,6 +117,27 @@ public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvide
      */
     private static final String CONFIG_PROPERTY_REINITIALIZATION_DELAY = "rule.reinitialization.delay";
 
+    /**
+     * Default policy for the triggers of a rule that is already running.
+     */
+    private static final QueuePolicy DEFAULT_QUEUE_POLICY = QueuePolicy.QUEUE;
+
+    /**
+     * Default maximum number of queued triggers of a rule.
+     */
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * Policy for the triggers of a rule that is already running. The policy of a single rule can be configured by
+     * appending '.' and the UID of the rule.
+     */
+    private static final String CONFIG_PROPERTY_QUEUE_POLICY = "rule.queue.policy";
+
+    /**
+     * Maximum number of queued triggers of a rule.
+     */
+    private static final String CONFIG_PROPERTY_QUEUE_CAPACITY = "rule.queue.capacity";
+
     private static final String SOURCE = RuleRegistryImpl.class.getSimpleName();
 
     private final Logger logger = LoggerFactory.getLogger(RuleRegistryImpl.class.getName());
@@ -122,6 +146,9 @@ public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvide
      * Delay between rule's re-initialization tries.
      */
     private long scheduleReinitializationDelay;
+    private QueuePolicy queuePolicy = DEFAULT_QUEUE_POLICY;
+    private Map<String, QueuePolicy> ruleQueuePolicies = Collections.emptyMap();
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
     private ModuleTypeRegistry moduleTypeRegistry;
     private RuleTemplateRegistry templateRegistry;
 
@@ -150,9 +177,10 @@ public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvide
     }
 
     /**
-     * This method is responsible for updating the value of delay between rule's re-initialization tries.
+     * This method is responsible for updating the value of delay between rule's re-initialization tries and the queue
+     * policies of the rule execution.
      *
-     * @param config a {@link Map} containing the new value of delay.
+     * @param config a {@link Map} containing the new value of delay and the queue policies.
      */
     @Modified
     protected void modified(Map<String, Object> config) {
@@ -162,6 +190,38 @@ public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvide
         if (value != null && !(value instanceof Number)) {
             logger.warn("Invalid configuration value: {}. It MUST be Number.", value);
         }
+
+        value = config == null ? null : config.get(CONFIG_PROPERTY_QUEUE_CAPACITY);
+        if (value instanceof Number && ((Number) value).intValue() > 0) {
+            this.queueCapacity = ((Number) value).intValue();
+        } else {
+            this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+            if (value != null) {
+                logger.warn("Invalid configuration value: {}. It MUST be a positive Number.", value);
+            }
+        }
+
+        QueuePolicy queuePolicy = DEFAULT_QUEUE_POLICY;
+        Map<String, QueuePolicy> ruleQueuePolicies = new HashMap<>();
+        if (config != null) {
+            for (Map.Entry<String, Object> entry : config.entrySet()) {
+                String key = entry.getKey();
+                if (!key.startsWith(CONFIG_PROPERTY_QUEUE_POLICY)) {
+                    continue;
+                }
+                QueuePolicy policy = QueuePolicy.parse(String.valueOf(entry.getValue()));
+                if (policy == null) {
+                    logger.warn("Invalid configuration value: {}. It MUST be one of {}.", entry.getValue(),
+                            Arrays.toString(QueuePolicy.values()));
+                } else if (key.equals(CONFIG_PROPERTY_QUEUE_POLICY)) {
+                    queuePolicy = policy;
+                } else if (key.charAt(CONFIG_PROPERTY_QUEUE_POLICY.length()) == '.') {
+                    ruleQueuePolicies.put(key.substring(CONFIG_PROPERTY_QUEUE_POLICY.length() + 1), policy);
+                }
+            }
+        }
+        this.queuePolicy = queuePolicy;
+        this.ruleQueuePolicies = ruleQueuePolicies;
     }
 
     @Override
@@ -689,4 +749,24 @@ public class RuleRegistryImpl extends AbstractRegistry<Rule, String, RuleProvide
         return scheduleReinitializationDelay;
     }
 
+    /**
+     * Gets the policy for the triggers of a rule that is already running.
+     *
+     * @param ruleUID the UID of the rule
+     * @return the queue policy of the rule
+     */
+    QueuePolicy getQueuePolicy(String ruleUID) {
+        QueuePolicy policy = ruleQueuePolicies.get(ruleUID);
+        return policy != null ? policy : queuePolicy;
+    }
+
+    /**
+     * Gets the maximum number of queued triggers of a rule.
+     *
+     * @return the queue capacity
+     */
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
 }
@@ -15,9 +15,6 @@ package org.eclipse.smarthome.automation.core.internal;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.eclipse.smarthome.automation.RuleStatus;
 import org.eclipse.smarthome.automation.RuleStatusInfo;
@@ -34,37 +31,33 @@ import org.eclipse.smarthome.automation.handler.TriggerHandlerCallback;
  *
  * @author Yordan Mihaylov - Initial Contribution
  * @author Kai Kreuzer - improved stability
+ * @author Eclipse SmartHome - run the rule on the lane of a shared {@link RuleExecutor}
  */
 public class TriggerHandlerCallbackImpl implements TriggerHandlerCallback {
 
     private final String ruleUID;
 
-    private ExecutorService executor;
-
-    private Future<?> future;
+    private final RuleExecutor.Lane lane;
 
     private final RuleEngineImpl re;
 
-    protected TriggerHandlerCallbackImpl(RuleEngineImpl re, String ruleUID) {
+    protected TriggerHandlerCallbackImpl(RuleEngineImpl re, String ruleUID, RuleExecutor.Lane lane) {
         this.re = re;
         this.ruleUID = ruleUID;
-        executor = Executors.newSingleThreadExecutor();
+        this.lane = lane;
     }
 
     @Override
     public void triggered(Trigger trigger, Map<String, ?> outputs) {
-        synchronized (this) {
-            if (executor == null) {
-                return;
-            }
-            future = executor.submit(new TriggerData(trigger, outputs));
+        if (lane.submit(new TriggerData(trigger, outputs))) {
+            re.logger.debug("The trigger '{}' of rule '{}' is triggered.", trigger.getId(), ruleUID);
+        } else {
+            re.logger.debug("The trigger '{}' of rule '{}' is dropped.", trigger.getId(), ruleUID);
         }
-        re.logger.debug("The trigger '{}' of rule '{}' is triggered.", trigger.getId(), ruleUID);
     }
 
     public boolean isRunning() {
-        Future<?> future = this.future;
-        return future == null || !future.isDone();
+        return lane.isBusy();
     }
 
     class TriggerData implements Runnable {
@@ -93,13 +86,10 @@ public class TriggerHandlerCallbackImpl implements TriggerHandlerCallback {
     }
 
     public void dispose() {
-        synchronized (this) {
-            AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
-                executor.shutdownNow();
-                return null;
-            });
-            executor = null;
-        }
+        AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+            lane.close();
+            return null;
+        });
     }
 
     @Override
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.module.core.handler;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.smarthome.automation.Trigger;
+import org.eclipse.smarthome.automation.core.util.ModuleBuilder;
+import org.eclipse.smarthome.automation.handler.TriggerHandlerCallback;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Tests for the trigger handlers that are created outside of the core module handler factory with the deprecated
+ * constructors, which register the handlers as {@link EventSubscriber}s.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@SuppressWarnings({ "deprecation", "rawtypes", "unchecked" })
+public class DeprecatedTriggerHandlerTest {
+
+    private BundleContext bundleContext;
+    private ServiceRegistration registration;
+    private TriggerHandlerCallback callback;
+
+    @Before
+    public void setUp() {
+        bundleContext = mock(BundleContext.class);
+        registration = mock(ServiceRegistration.class);
+        when(bundleContext.registerService(anyString(), any(), any(Dictionary.class))).thenReturn(registration);
+        callback = mock(TriggerHandlerCallback.class);
+    }
+
+    @Test
+    public void testItemStateTriggerHandlerRegistersAsEventSubscriber() {
+        Trigger trigger = createTrigger(ItemStateTriggerHandler.UPDATE_MODULE_TYPE_ID, "itemName", "ItemA");
+        ItemStateTriggerHandler handler = new ItemStateTriggerHandler(trigger, bundleContext);
+
+        assertRegistered(handler, "smarthome/items/ItemA/*");
+        handler.setCallback(callback);
+        handler.receive(ItemEventFactory.createStateEvent("ItemA", OnOffType.ON));
+        verify(callback).triggered(eq(trigger), anyMap());
+
+        handler.dispose();
+        verify(registration).unregister();
+    }
+
+    @Test
+    public void testItemCommandTriggerHandlerRegistersAsEventSubscriber() {
+        Trigger trigger = createTrigger(ItemCommandTriggerHandler.MODULE_TYPE_ID, "itemName", "ItemA");
+        ItemCommandTriggerHandler handler = new ItemCommandTriggerHandler(trigger, bundleContext);
+
+        assertRegistered(handler, "smarthome/items/ItemA/command");
+        handler.setCallback(callback);
+        handler.receive(ItemEventFactory.createCommandEvent("ItemA", OnOffType.ON));
+        verify(callback).triggered(eq(trigger), anyMap());
+
+        handler.dispose();
+        verify(registration).unregister();
+    }
+
+    @Test
+    public void testGenericEventTriggerHandlerRegistersAsEventSubscriber() {
+        Trigger trigger = createTrigger(GenericEventTriggerHandler.MODULE_TYPE_ID, "eventTopic", "smarthome/items/*");
+        GenericEventTriggerHandler handler = new GenericEventTriggerHandler(trigger, bundleContext);
+
+        assertRegistered(handler, "smarthome/items/*");
+
+        handler.dispose();
+        handler.dispose();
+        verify(registration, times(1)).unregister();
+    }
+
+    @Test
+    public void testHandlerOfTheFactoryDoesNotRegister() {
+        Trigger trigger = createTrigger(ItemStateTriggerHandler.CHANGE_MODULE_TYPE_ID, "itemName", "ItemA");
+        ItemStateTriggerHandler handler = new ItemStateTriggerHandler(trigger);
+
+        handler.dispose();
+        verifyZeroInteractions(bundleContext, registration);
+    }
+
+    private void assertRegistered(EventSubscriber handler, String topic) {
+        ArgumentCaptor<Dictionary> properties = ArgumentCaptor.forClass(Dictionary.class);
+        verify(bundleContext).registerService(eq(EventSubscriber.class.getName()), same(handler),
+                properties.capture());
+        assertEquals(topic, properties.getValue().get("event.topics"));
+    }
+
+    private Trigger createTrigger(String typeUID, String key, String value) {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put(key, value);
+        return ModuleBuilder.createTrigger().withId("trigger").withTypeUID(typeUID)
+                .withConfiguration(new Configuration(configuration)).build();
+    }
+
+}
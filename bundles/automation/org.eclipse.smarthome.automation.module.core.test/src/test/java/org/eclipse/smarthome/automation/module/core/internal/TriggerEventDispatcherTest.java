@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.module.core.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.smarthome.automation.Trigger;
+import org.eclipse.smarthome.automation.core.util.ModuleBuilder;
+import org.eclipse.smarthome.automation.handler.TriggerHandler;
+import org.eclipse.smarthome.automation.handler.TriggerHandlerCallback;
+import org.eclipse.smarthome.automation.module.core.handler.GenericEventTriggerHandler;
+import org.eclipse.smarthome.automation.module.core.handler.ItemCommandTriggerHandler;
+import org.eclipse.smarthome.automation.module.core.handler.ItemStateTriggerHandler;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateEvent;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TriggerEventDispatcher}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class TriggerEventDispatcherTest {
+
+    private TriggerEventDispatcher dispatcher;
+    private List<String> triggered;
+
+    @Before
+    public void setUp() {
+        dispatcher = new TriggerEventDispatcher();
+        triggered = new ArrayList<>();
+    }
+
+    @Test
+    public void testItemEventsAreDispatchedToTheTriggersOfTheItem() {
+        createItemStateTrigger("updateA", ItemStateTriggerHandler.UPDATE_MODULE_TYPE_ID, "ItemA");
+        createItemStateTrigger("changeA", ItemStateTriggerHandler.CHANGE_MODULE_TYPE_ID, "ItemA");
+        createItemStateTrigger("updateB", ItemStateTriggerHandler.UPDATE_MODULE_TYPE_ID, "ItemB");
+        createItemCommandTrigger("commandA", "ItemA");
+
+        dispatcher.receive(ItemEventFactory.createStateEvent("ItemA", OnOffType.ON));
+        dispatcher.receive(ItemEventFactory.createStateChangedEvent("ItemA", OnOffType.ON, OnOffType.OFF));
+        dispatcher.receive(ItemEventFactory.createCommandEvent("ItemA", OnOffType.ON));
+        dispatcher.receive(ItemEventFactory.createCommandEvent("ItemB", OnOffType.ON));
+        dispatcher.receive(ItemEventFactory.createStateEvent("ItemC", OnOffType.ON));
+
+        assertEquals(3, triggered.size());
+        assertEquals("updateA", triggered.get(0));
+        assertEquals("changeA", triggered.get(1));
+        assertEquals("commandA", triggered.get(2));
+    }
+
+    @Test
+    public void testGroupStateChangeIsDispatchedToTheTriggersOfTheGroup() {
+        createItemStateTrigger("changeGroup", ItemStateTriggerHandler.CHANGE_MODULE_TYPE_ID, "Group");
+        createItemStateTrigger("changeMember", ItemStateTriggerHandler.CHANGE_MODULE_TYPE_ID, "Member");
+
+        dispatcher.receive(
+                ItemEventFactory.createGroupStateChangedEvent("Group", "Member", OnOffType.ON, OnOffType.OFF));
+
+        assertEquals(1, triggered.size());
+        assertEquals("changeGroup", triggered.get(0));
+    }
+
+    @Test
+    public void testGenericEventsAreDispatchedByEventType() {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("eventTopic", "smarthome/items/*");
+        configuration.put("eventSource", "ItemA");
+        configuration.put("eventTypes", ItemStateEvent.TYPE);
+        GenericEventTriggerHandler handler = new GenericEventTriggerHandler(
+                createTrigger("generic", GenericEventTriggerHandler.MODULE_TYPE_ID, configuration));
+        dispatcher.addSubscriber(handler);
+        createHandler(handler);
+
+        dispatcher.receive(ItemEventFactory.createStateEvent("ItemA", OnOffType.ON));
+        dispatcher.receive(ItemEventFactory.createStateEvent("ItemB", OnOffType.ON));
+        dispatcher.receive(ItemEventFactory.createCommandEvent("ItemA", OnOffType.ON));
+
+        assertEquals(1, triggered.size());
+        assertEquals("generic", triggered.get(0));
+    }
+
+    @Test
+    public void testRemovedTriggerIsNotDispatched() {
+        ItemCommandTriggerHandler handler = createItemCommandTrigger("commandA", "ItemA");
+        dispatcher.removeItemSubscriber(handler.getItemName(), handler);
+
+        dispatcher.receive(ItemEventFactory.createCommandEvent("ItemA", OnOffType.ON));
+
+        assertTrue(triggered.isEmpty());
+    }
+
+    private void createItemStateTrigger(String id, String typeUID, String itemName) {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("itemName", itemName);
+        ItemStateTriggerHandler handler = new ItemStateTriggerHandler(createTrigger(id, typeUID, configuration));
+        dispatcher.addItemSubscriber(itemName, handler);
+        createHandler(handler);
+    }
+
+    private ItemCommandTriggerHandler createItemCommandTrigger(String id, String itemName) {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("itemName", itemName);
+        ItemCommandTriggerHandler handler = new ItemCommandTriggerHandler(
+                createTrigger(id, ItemCommandTriggerHandler.MODULE_TYPE_ID, configuration));
+        dispatcher.addItemSubscriber(itemName, handler);
+        createHandler(handler);
+        return handler;
+    }
+
+    private Trigger createTrigger(String id, String typeUID, Map<String, Object> configuration) {
+        return ModuleBuilder.createTrigger().withId(id).withTypeUID(typeUID)
+                .withConfiguration(new Configuration(configuration)).build();
+    }
+
+    private void createHandler(TriggerHandler handler) {
+        TriggerHandlerCallback callback = mock(TriggerHandlerCallback.class);
+        doAnswer(invocation -> {
+            Trigger trigger = invocation.getArgument(0);
+            Map<String, ?> values = invocation.getArgument(1);
+            assertTrue(values.get("event") instanceof Event);
+            triggered.add(trigger.getId());
+            return null;
+        }).when(callback).triggered(any(), any());
+        handler.setCallback(callback);
+    }
+
+}
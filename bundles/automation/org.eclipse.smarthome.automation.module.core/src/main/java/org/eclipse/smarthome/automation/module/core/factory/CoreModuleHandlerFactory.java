@@ -32,9 +32,12 @@ import org.eclipse.smarthome.automation.module.core.handler.ItemStateConditionHa
 import org.eclipse.smarthome.automation.module.core.handler.ItemStateTriggerHandler;
 import org.eclipse.smarthome.automation.module.core.handler.RuleEnablementActionHandler;
 import org.eclipse.smarthome.automation.module.core.handler.RunRuleActionHandler;
+import org.eclipse.smarthome.automation.module.core.internal.TriggerEventDispatcher;
 import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -48,6 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Benedikt Niehues - Initial contribution and API
  * @author Kai Kreuzer - refactored and simplified customized module handling
+ * @author Eclipse SmartHome - dispatch the events of the triggers through one {@link TriggerEventDispatcher}
  *
  */
 @Component
@@ -67,15 +71,27 @@ public class CoreModuleHandlerFactory extends BaseModuleHandlerFactory implement
 
     private BundleContext bundleContext;
 
+    private final TriggerEventDispatcher triggerEventDispatcher = new TriggerEventDispatcher();
+    private ServiceRegistration<?> triggerEventDispatcherRegistration;
+
     @Activate
     protected void activate(BundleContext bundleContext) {
         this.bundleContext = bundleContext;
+        triggerEventDispatcherRegistration = bundleContext.registerService(EventSubscriber.class.getName(),
+                triggerEventDispatcher, null);
     }
 
     @Override
     @Deactivate
     protected void deactivate() {
+        for (ModuleHandler handler : getHandlers().values()) {
+            removeFromDispatcher(handler);
+        }
         super.deactivate();
+        if (triggerEventDispatcherRegistration != null) {
+            triggerEventDispatcherRegistration.unregister();
+            triggerEventDispatcherRegistration = null;
+        }
     }
 
     @Override
@@ -153,14 +169,20 @@ public class CoreModuleHandlerFactory extends BaseModuleHandlerFactory implement
             // Handle triggers
 
             if (GenericEventTriggerHandler.MODULE_TYPE_ID.equals(moduleTypeUID)) {
-                return new GenericEventTriggerHandler((Trigger) module, bundleContext);
+                GenericEventTriggerHandler handler = new GenericEventTriggerHandler((Trigger) module);
+                triggerEventDispatcher.addSubscriber(handler);
+                return handler;
             } else if (ChannelEventTriggerHandler.MODULE_TYPE_ID.equals(moduleTypeUID)) {
                 return new ChannelEventTriggerHandler((Trigger) module, bundleContext);
             } else if (ItemCommandTriggerHandler.MODULE_TYPE_ID.equals(moduleTypeUID)) {
-                return new ItemCommandTriggerHandler((Trigger) module, bundleContext);
+                ItemCommandTriggerHandler handler = new ItemCommandTriggerHandler((Trigger) module);
+                triggerEventDispatcher.addItemSubscriber(handler.getItemName(), handler);
+                return handler;
             } else if (ItemStateTriggerHandler.CHANGE_MODULE_TYPE_ID.equals(moduleTypeUID)
                     || ItemStateTriggerHandler.UPDATE_MODULE_TYPE_ID.equals(moduleTypeUID)) {
-                return new ItemStateTriggerHandler((Trigger) module, bundleContext);
+                ItemStateTriggerHandler handler = new ItemStateTriggerHandler((Trigger) module);
+                triggerEventDispatcher.addItemSubscriber(handler.getItemName(), handler);
+                return handler;
             }
         } else if (module instanceof Condition) {
             // Handle conditions
@@ -191,4 +213,22 @@ public class CoreModuleHandlerFactory extends BaseModuleHandlerFactory implement
         logger.error("The ModuleHandler is not supported:{}", moduleTypeUID);
         return null;
     }
+
+    @Override
+    public void ungetHandler(Module module, String ruleUID, ModuleHandler handler) {
+        removeFromDispatcher(handler);
+        super.ungetHandler(module, ruleUID, handler);
+    }
+
+    private void removeFromDispatcher(ModuleHandler handler) {
+        if (handler instanceof GenericEventTriggerHandler) {
+            triggerEventDispatcher.removeSubscriber((GenericEventTriggerHandler) handler);
+        } else if (handler instanceof ItemCommandTriggerHandler) {
+            ItemCommandTriggerHandler itemHandler = (ItemCommandTriggerHandler) handler;
+            triggerEventDispatcher.removeItemSubscriber(itemHandler.getItemName(), itemHandler);
+        } else if (handler instanceof ItemStateTriggerHandler) {
+            ItemStateTriggerHandler itemHandler = (ItemStateTriggerHandler) handler;
+            triggerEventDispatcher.removeItemSubscriber(itemHandler.getItemName(), itemHandler);
+        }
+    }
 }
@@ -37,12 +37,14 @@ import org.slf4j.LoggerFactory;
  * if an event occurs. The eventType, eventSource and topic can be set with the
  * configuration. It is an generic approach which makes it easier to specify
  * more concrete event based triggers with the composite module approach of the
- * automation component. Each GenericTriggerHandler instance registers as
- * EventSubscriber, so the dispose method must be called for unregistering the
- * service.
+ * automation component. The events are dispatched to the GenericTriggerHandler
+ * instances by the core module handler factory, which creates them. Instances
+ * that are created with the deprecated constructor register as EventSubscriber,
+ * so the dispose method must be called for unregistering the service.
  *
  * @author Benedikt Niehues - Initial contribution and API
  * @author Kai Kreuzer - refactored and simplified customized module handling
+ * @author Eclipse SmartHome - receive the events from the dispatcher of the core module handler factory
  *
  */
 public class GenericEventTriggerHandler extends BaseTriggerModuleHandler implements EventSubscriber, EventFilter {
@@ -52,7 +54,6 @@ public class GenericEventTriggerHandler extends BaseTriggerModuleHandler impleme
     private final String source;
     private String topic;
     private final Set<String> types;
-    private final BundleContext bundleContext;
 
     public static final String MODULE_TYPE_ID = "core.GenericEventTrigger";
 
@@ -63,7 +64,7 @@ public class GenericEventTriggerHandler extends BaseTriggerModuleHandler impleme
     @SuppressWarnings("rawtypes")
     private ServiceRegistration eventSubscriberRegistration;
 
-    public GenericEventTriggerHandler(Trigger module, BundleContext bundleContext) {
+    public GenericEventTriggerHandler(Trigger module) {
         super(module);
         this.source = (String) module.getConfiguration().get(CFG_EVENT_SOURCE);
         this.topic = (String) module.getConfiguration().get(CFG_EVENT_TOPIC);
@@ -73,10 +74,22 @@ public class GenericEventTriggerHandler extends BaseTriggerModuleHandler impleme
         } else {
             this.types = Collections.emptySet();
         }
-        this.bundleContext = bundleContext;
+        logger.trace("Created EventSubscriber: Topic: {} Type: {} Source: {}", topic, types, source);
+    }
+
+    /**
+     * Creates a handler that registers itself as {@link EventSubscriber}. The registration is removed when the handler
+     * is disposed.
+     *
+     * @deprecated the core module handler factory dispatches the events to the handlers it creates, use
+     *             {@link #GenericEventTriggerHandler(Trigger)} instead
+     */
+    @Deprecated
+    public GenericEventTriggerHandler(Trigger module, BundleContext bundleContext) {
+        this(module);
         Dictionary<String, Object> properties = new Hashtable<String, Object>();
         properties.put("event.topics", topic);
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this,
+        eventSubscriberRegistration = bundleContext.registerService(EventSubscriber.class.getName(), this,
                 properties);
         logger.trace("Registered EventSubscriber: Topic: {} Type: {} Source: {}", topic, types, source);
     }
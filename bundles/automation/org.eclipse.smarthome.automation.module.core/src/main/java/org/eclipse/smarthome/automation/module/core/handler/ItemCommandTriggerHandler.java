@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
  * configuration.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - receive the events from the dispatcher of the core module handler factory
  *
  */
 public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implements EventSubscriber, EventFilter {
@@ -49,7 +50,6 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
     private final String topic;
 
     private final Set<String> types;
-    private final BundleContext bundleContext;
 
     public static final String MODULE_TYPE_ID = "core.ItemCommandTrigger";
 
@@ -59,16 +59,27 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
     @SuppressWarnings("rawtypes")
     private ServiceRegistration eventSubscriberRegistration;
 
-    public ItemCommandTriggerHandler(Trigger module, BundleContext bundleContext) {
+    public ItemCommandTriggerHandler(Trigger module) {
         super(module);
         this.itemName = (String) module.getConfiguration().get(CFG_ITEMNAME);
         this.command = (String) module.getConfiguration().get(CFG_COMMAND);
         this.types = Collections.singleton(ItemCommandEvent.TYPE);
-        this.bundleContext = bundleContext;
-        Dictionary<String, Object> properties = new Hashtable<String, Object>();
         this.topic = "smarthome/items/" + itemName + "/command";
+    }
+
+    /**
+     * Creates a handler that registers itself as {@link EventSubscriber}. The registration is removed when the handler
+     * is disposed.
+     *
+     * @deprecated the core module handler factory dispatches the events to the handlers it creates, use
+     *             {@link #ItemCommandTriggerHandler(Trigger)} instead
+     */
+    @Deprecated
+    public ItemCommandTriggerHandler(Trigger module, BundleContext bundleContext) {
+        this(module);
+        Dictionary<String, Object> properties = new Hashtable<String, Object>();
         properties.put("event.topics", topic);
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this,
+        eventSubscriberRegistration = bundleContext.registerService(EventSubscriber.class.getName(), this,
                 properties);
     }
 
@@ -99,6 +110,13 @@ public class ItemCommandTriggerHandler extends BaseTriggerModuleHandler implemen
         }
     }
 
+    /**
+     * @return the name of the item whose events trigger this handler
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
     /**
      * do the cleanup: unregistering eventSubscriber...
      */
@@ -42,6 +42,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Simon Merschjohann
+ * @author Eclipse SmartHome - receive the events from the dispatcher of the core module handler factory
  *
  */
 public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements EventSubscriber, EventFilter {
@@ -51,7 +52,6 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
     private final String state;
     private final String previousState;
     private Set<String> types;
-    private final BundleContext bundleContext;
 
     public static final String UPDATE_MODULE_TYPE_ID = "core.ItemStateUpdateTrigger";
     public static final String CHANGE_MODULE_TYPE_ID = "core.ItemStateChangeTrigger";
@@ -63,7 +63,7 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
     @SuppressWarnings("rawtypes")
     private ServiceRegistration eventSubscriberRegistration;
 
-    public ItemStateTriggerHandler(Trigger module, BundleContext bundleContext) {
+    public ItemStateTriggerHandler(Trigger module) {
         super(module);
         this.itemName = (String) module.getConfiguration().get(CFG_ITEMNAME);
         this.state = (String) module.getConfiguration().get(CFG_STATE);
@@ -76,10 +76,21 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
             set.add(GroupItemStateChangedEvent.TYPE);
             this.types = Collections.unmodifiableSet(set);
         }
-        this.bundleContext = bundleContext;
+    }
+
+    /**
+     * Creates a handler that registers itself as {@link EventSubscriber}. The registration is removed when the handler
+     * is disposed.
+     *
+     * @deprecated the core module handler factory dispatches the events to the handlers it creates, use
+     *             {@link #ItemStateTriggerHandler(Trigger)} instead
+     */
+    @Deprecated
+    public ItemStateTriggerHandler(Trigger module, BundleContext bundleContext) {
+        this(module);
         Dictionary<String, Object> properties = new Hashtable<String, Object>();
         properties.put("event.topics", "smarthome/items/" + itemName + "/*");
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this,
+        eventSubscriberRegistration = bundleContext.registerService(EventSubscriber.class.getName(), this,
                 properties);
     }
 
@@ -129,6 +140,13 @@ public class ItemStateTriggerHandler extends BaseTriggerModuleHandler implements
         return reqState.isEmpty() || reqState.equals(state.toFullString());
     }
 
+    /**
+     * @return the name of the item whose events trigger this handler
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
     /**
      * do the cleanup: unregistering eventSubscriber...
      */
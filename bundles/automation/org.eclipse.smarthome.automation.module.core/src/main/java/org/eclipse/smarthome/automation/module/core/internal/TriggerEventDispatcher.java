@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.automation.module.core.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.eclipse.smarthome.automation.handler.TriggerHandler;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single {@link EventSubscriber} that dispatches the events to the event based {@link TriggerHandler}s.
+ *
+ * The trigger handlers are indexed by the item name of their events or by their subscribed event types, so the cost
+ * of an event depends on the number of trigger handlers that may be interested in it and not on the number of all
+ * trigger handlers. The trigger handlers are still {@link EventSubscriber}s, their subscribed event types and their
+ * {@link EventFilter} are applied to the indexed candidates.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class TriggerEventDispatcher implements EventSubscriber {
+
+    private static final String ITEM_TOPIC_PREFIX = "smarthome/items/";
+
+    private final Logger logger = LoggerFactory.getLogger(TriggerEventDispatcher.class);
+
+    private final Set<String> subscribedEventTypes = Collections.singleton(ALL_EVENT_TYPES);
+
+    // item name -> subscribers for the events of the item
+    private final Map<String, Set<EventSubscriber>> itemSubscribers = new ConcurrentHashMap<>();
+
+    // event type -> subscribers for all events of the type
+    private final Map<String, Set<EventSubscriber>> typeSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Add a subscriber for the events of an item, i.e. the events whose topic starts with
+     * {@code smarthome/items/<itemName>/}.
+     *
+     * @param itemName the name of the item
+     * @param subscriber the subscriber
+     */
+    public void addItemSubscriber(String itemName, EventSubscriber subscriber) {
+        add(itemSubscribers, itemName, subscriber);
+    }
+
+    /**
+     * Remove a subscriber for the events of an item.
+     *
+     * @param itemName the name of the item
+     * @param subscriber the subscriber
+     */
+    public void removeItemSubscriber(String itemName, EventSubscriber subscriber) {
+        remove(itemSubscribers, itemName, subscriber);
+    }
+
+    /**
+     * Add a subscriber for all events of its subscribed event types.
+     *
+     * @param subscriber the subscriber
+     */
+    public void addSubscriber(EventSubscriber subscriber) {
+        for (String type : indexedTypes(subscriber)) {
+            add(typeSubscribers, type, subscriber);
+        }
+    }
+
+    /**
+     * Remove a subscriber for all events of its subscribed event types.
+     *
+     * @param subscriber the subscriber
+     */
+    public void removeSubscriber(EventSubscriber subscriber) {
+        for (String type : indexedTypes(subscriber)) {
+            remove(typeSubscribers, type, subscriber);
+        }
+    }
+
+    private static Set<String> indexedTypes(EventSubscriber subscriber) {
+        Set<String> types = subscriber.getSubscribedEventTypes();
+        // a subscriber for all event types is only indexed once, so it receives every event once
+        return types.contains(ALL_EVENT_TYPES) ? Collections.singleton(ALL_EVENT_TYPES) : types;
+    }
+
+    private static void add(Map<String, Set<EventSubscriber>> index, String key, EventSubscriber subscriber) {
+        index.computeIfAbsent(key, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+    }
+
+    private static void remove(Map<String, Set<EventSubscriber>> index, String key, EventSubscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        // the subscribers can be added and removed at any time, so all events are received
+        return subscribedEventTypes;
+    }
+
+    @Override
+    public EventFilter getEventFilter() {
+        return null;
+    }
+
+    @Override
+    public void receive(Event event) {
+        String itemName = itemName(event.getTopic());
+        if (itemName != null) {
+            dispatch(itemSubscribers.get(itemName), event);
+        }
+        dispatch(typeSubscribers.get(event.getType()), event);
+        dispatch(typeSubscribers.get(ALL_EVENT_TYPES), event);
+    }
+
+    private void dispatch(Set<EventSubscriber> subscribers, Event event) {
+        if (subscribers == null) {
+            return;
+        }
+        for (EventSubscriber subscriber : subscribers) {
+            Set<String> types = subscriber.getSubscribedEventTypes();
+            if (!types.contains(event.getType()) && !types.contains(ALL_EVENT_TYPES)) {
+                continue;
+            }
+            try {
+                EventFilter filter = subscriber.getEventFilter();
+                if (filter == null || filter.apply(event)) {
+                    subscriber.receive(event);
+                }
+            } catch (Exception e) {
+                logger.error("Dispatching event to trigger handler '{}' failed: {}", subscriber, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static String itemName(String topic) {
+        if (!topic.startsWith(ITEM_TOPIC_PREFIX)) {
+            return null;
+        }
+        int end = topic.indexOf('/', ITEM_TOPIC_PREFIX.length());
+        return end < 0 ? null : topic.substring(ITEM_TOPIC_PREFIX.length(), end);
+    }
+
+}
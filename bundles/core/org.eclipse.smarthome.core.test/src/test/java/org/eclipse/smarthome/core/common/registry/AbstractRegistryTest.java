@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.common.registry;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the snapshot handling of the {@link AbstractRegistry}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class AbstractRegistryTest {
+
+    private TestRegistry registry;
+    private TestProvider provider;
+
+    @Before
+    public void setUp() {
+        registry = new TestRegistry();
+        provider = new TestProvider(new TestElement("a", 1), new TestElement("b", 1));
+        registry.addProvider(provider);
+    }
+
+    @Test
+    public void testSnapshotIsSharedUntilModification() {
+        RegistrySnapshot<TestElement, String> snapshot = registry.getSnapshot();
+        assertSame(snapshot, registry.getSnapshot());
+        assertSame(snapshot.getAll(), registry.getAll());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), uids(registry.getAll()));
+
+        provider.add(new TestElement("c", 1));
+
+        RegistrySnapshot<TestElement, String> modified = registry.getSnapshot();
+        assertNotSame(snapshot, modified);
+        assertTrue(modified.getVersion() > snapshot.getVersion());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), uids(modified.getAll()));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), uids(snapshot.getAll()));
+        assertNull(snapshot.get("c"));
+        assertNotNull(modified.get("c"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsUnmodifiable() {
+        registry.getAll().clear();
+    }
+
+    @Test
+    public void testLookupsReflectModifications() {
+        TestElement updated = new TestElement("a", 2);
+        provider.update(updated);
+        assertSame(updated, registry.get("a"));
+        assertSame(updated, registry.getSnapshot().get("a"));
+        assertSame(provider, registry.getProvider("a"));
+        assertSame(provider, registry.getProvider(updated));
+
+        provider.remove("b");
+        assertNull(registry.get("b"));
+        assertNull(registry.getProvider("b"));
+        assertNull(registry.get(null));
+
+        long version = registry.getSnapshot().getVersion();
+        registry.removeProvider(provider);
+        assertTrue(registry.getAll().isEmpty());
+        assertTrue(registry.getSnapshot().getVersion() > version);
+    }
+
+    private Collection<String> uids(Collection<TestElement> elements) {
+        Collection<String> uids = new HashSet<>();
+        elements.forEach(element -> uids.add(element.getUID()));
+        return uids;
+    }
+
+    private static class TestElement implements Identifiable<String> {
+
+        private final String uid;
+        private final int revision;
+
+        TestElement(String uid, int revision) {
+            this.uid = uid;
+            this.revision = revision;
+        }
+
+        @Override
+        public String getUID() {
+            return uid;
+        }
+
+        @Override
+        public String toString() {
+            return uid + "@" + revision;
+        }
+    }
+
+    private static class TestProvider extends AbstractProvider<TestElement> {
+
+        private final List<TestElement> elements;
+
+        TestProvider(TestElement... elements) {
+            this.elements = new ArrayList<>(Arrays.asList(elements));
+        }
+
+        void add(TestElement element) {
+            elements.add(element);
+            notifyListenersAboutAddedElement(element);
+        }
+
+        void update(TestElement element) {
+            for (int i = 0; i < elements.size(); i++) {
+                TestElement oldElement = elements.get(i);
+                if (oldElement.getUID().equals(element.getUID())) {
+                    elements.set(i, element);
+                    notifyListenersAboutUpdatedElement(oldElement, element);
+                }
+            }
+        }
+
+        void remove(String uid) {
+            for (TestElement element : new ArrayList<>(elements)) {
+                if (element.getUID().equals(uid)) {
+                    elements.remove(element);
+                    notifyListenersAboutRemovedElement(element);
+                }
+            }
+        }
+
+        @Override
+        public Collection<TestElement> getAll() {
+            return new ArrayList<>(elements);
+        }
+    }
+
+    private static class TestRegistry extends AbstractRegistry<TestElement, String, TestProvider> {
+
+        TestRegistry() {
+            super(null);
+        }
+    }
+
+}
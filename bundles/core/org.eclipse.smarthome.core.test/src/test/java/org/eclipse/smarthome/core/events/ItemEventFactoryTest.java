@@ -15,16 +15,21 @@ package org.eclipse.smarthome.core.events;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.dto.ItemDTOMapper;
 import org.eclipse.smarthome.core.items.events.GroupItemStateChangedEvent;
 import org.eclipse.smarthome.core.items.events.ItemAddedEvent;
 import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateBatchEvent;
 import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.items.events.ItemStatePredictedEvent;
 import org.eclipse.smarthome.core.library.CoreItemFactory;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.RawType;
 import org.eclipse.smarthome.core.types.Command;
@@ -105,6 +110,40 @@ public class ItemEventFactoryTest {
         assertEquals(ITEM_COMMAND, event.getItemCommand());
     }
 
+    @Test
+    public void testCreateStateEvent_serializesPayloadLazily() throws Exception {
+        ItemStateEvent event = ItemEventFactory.createStateEvent(ITEM_NAME, ITEM_STATE, SOURCE);
+
+        assertTrue(event.isPayloadPending());
+        assertEquals(ITEM_STATE_EVENT_PAYLOAD, event.getPayload());
+        assertFalse(event.isPayloadPending());
+        assertSame(event.getPayload(), event.getPayload());
+    }
+
+    @Test
+    public void testCreateStateBatchEvent() throws Exception {
+        ItemStateBatchEvent batchEvent = ItemEventFactory.createStateBatchEvent(
+                Arrays.asList(ItemEventFactory.createStateEvent(ITEM_NAME, ITEM_STATE, SOURCE),
+                        ItemEventFactory.createStateEvent(GROUP_NAME, new DecimalType(21.5))),
+                null);
+
+        assertEquals(ItemStateBatchEvent.TYPE, batchEvent.getType());
+        assertTrue(batchEvent.isPayloadPending());
+
+        Event event = factory.createEvent(batchEvent.getType(), batchEvent.getTopic(), batchEvent.getPayload(), null);
+        assertEquals(ItemStateBatchEvent.class, event.getClass());
+        List<ItemStateEvent> stateEvents = ((ItemStateBatchEvent) event).getEvents();
+        assertEquals(2, stateEvents.size());
+        assertEquals(ITEM_NAME, stateEvents.get(0).getItemName());
+        assertEquals(ITEM_STATE, stateEvents.get(0).getItemState());
+        assertEquals(SOURCE, stateEvents.get(0).getSource());
+        assertEquals(ITEM_STATE_EVENT_TOPIC, stateEvents.get(0).getTopic());
+        assertEquals(ITEM_STATE_EVENT_PAYLOAD, stateEvents.get(0).getPayload());
+        assertEquals(GROUP_NAME, stateEvents.get(1).getItemName());
+        assertEquals(new DecimalType(21.5), stateEvents.get(1).getItemState());
+        assertNull(stateEvents.get(1).getSource());
+    }
+
     @Test
     public void testCreateEvent_ItemCommandEvent_RefreshType() throws Exception {
         Event event = factory.createEvent(ITEM_COMMAND_EVENT_TYPE, ITEM_COMMAND_EVENT_TOPIC,
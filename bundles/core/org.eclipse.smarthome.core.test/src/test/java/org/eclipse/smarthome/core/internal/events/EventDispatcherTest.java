@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateEvent;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EventDispatcher}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class EventDispatcherTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testEventsAreDeliveredInOrder() throws InterruptedException {
+        EventDispatcher dispatcher = new EventDispatcher(executor, 1000, 1000);
+        RecordingSubscriber subscriber = new RecordingSubscriber(500);
+        dispatcher.addSubscriber(subscriber);
+
+        for (int i = 0; i < 500; i++) {
+            dispatcher.dispatch(subscriber, createEvent(i));
+        }
+
+        assertTrue(subscriber.received.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(new DecimalType(i), subscriber.states.get(i));
+        }
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotBlockOthers() throws InterruptedException {
+        EventDispatcher dispatcher = new EventDispatcher(executor, 1000, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber slowSubscriber = new RecordingSubscriber(1) {
+            @Override
+            public void receive(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.receive(event);
+            }
+        };
+        RecordingSubscriber fastSubscriber = new RecordingSubscriber(10);
+        dispatcher.addSubscriber(slowSubscriber);
+        dispatcher.addSubscriber(fastSubscriber);
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(slowSubscriber, createEvent(i));
+            dispatcher.dispatch(fastSubscriber, createEvent(i));
+        }
+
+        assertTrue(fastSubscriber.received.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(9), dispatcher.getQueueDepths().get(slowSubscriber));
+        release.countDown();
+        assertTrue(slowSubscriber.received.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFullLaneWaitsForFreeSpace() throws InterruptedException {
+        EventDispatcher dispatcher = new EventDispatcher(executor, 5, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber subscriber = createBlockedSubscriber(10, release);
+        dispatcher.addSubscriber(subscriber);
+
+        // the first event is taken by the draining thread, the next five fill up the lane
+        dispatcher.dispatch(subscriber, createEvent(0));
+        Thread.sleep(100);
+        for (int i = 1; i < 6; i++) {
+            dispatcher.dispatch(subscriber, createEvent(i));
+        }
+        assertEquals(Integer.valueOf(5), dispatcher.getQueueDepths().get(subscriber));
+
+        executor.execute(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        for (int i = 6; i < 10; i++) {
+            dispatcher.dispatch(subscriber, createEvent(i));
+        }
+
+        assertTrue(subscriber.received.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(new DecimalType(i), subscriber.states.get(i));
+        }
+        assertEquals(Long.valueOf(0), dispatcher.getDroppedEvents().get(subscriber));
+    }
+
+    @Test
+    public void testFullLaneDropsEventsAfterOfferTimeout() throws InterruptedException {
+        EventDispatcher dispatcher = new EventDispatcher(executor, 5, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber subscriber = createBlockedSubscriber(6, release);
+        dispatcher.addSubscriber(subscriber);
+
+        dispatcher.dispatch(subscriber, createEvent(0));
+        Thread.sleep(100);
+        for (int i = 1; i < 10; i++) {
+            dispatcher.dispatch(subscriber, createEvent(i));
+        }
+        assertEquals(Integer.valueOf(5), dispatcher.getQueueDepths().get(subscriber));
+        assertEquals(Long.valueOf(4), dispatcher.getDroppedEvents().get(subscriber));
+
+        release.countDown();
+        assertTrue(subscriber.received.await(5, TimeUnit.SECONDS));
+        assertEquals(6, subscriber.states.size());
+    }
+
+    @Test
+    public void testRemovedSubscriberDoesNotReceiveEvents() throws InterruptedException {
+        EventDispatcher dispatcher = new EventDispatcher(executor, 1000, 1000);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        dispatcher.addSubscriber(subscriber);
+        dispatcher.removeSubscriber(subscriber);
+
+        dispatcher.dispatch(subscriber, createEvent(0));
+
+        assertFalse(subscriber.received.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(dispatcher.getQueueDepths().isEmpty());
+    }
+
+    private RecordingSubscriber createBlockedSubscriber(int expectedEvents, CountDownLatch release) {
+        return new RecordingSubscriber(expectedEvents) {
+            @Override
+            public void receive(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.receive(event);
+            }
+        };
+    }
+
+    private Event createEvent(int value) {
+        return ItemEventFactory.createStateEvent("item", new DecimalType(value));
+    }
+
+    private static class RecordingSubscriber implements EventSubscriber {
+
+        final List<State> states = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch received;
+
+        RecordingSubscriber(int expectedEvents) {
+            received = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public Set<String> getSubscribedEventTypes() {
+            return Collections.singleton(EventSubscriber.ALL_EVENT_TYPES);
+        }
+
+        @Override
+        public EventFilter getEventFilter() {
+            return null;
+        }
+
+        @Override
+        public void receive(Event event) {
+            states.add(((ItemStateEvent) event).getItemState());
+            received.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.events.CompositeEvent;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.events.TopicEventFilter;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EventSubscriberIndex}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class EventSubscriberIndexTest {
+
+    private static final String TYPE_A = "A";
+    private static final String TYPE_B = "B";
+
+    private static final List<String> TOPIC_REGEXES = Arrays.asList("smarthome/items/.*/state",
+            "smarthome/items/ItemA/state", "smarthome/items/.*", ".*", "smarthome/things/.*/status",
+            "smarthome/items/ItemA/.*", "smarthome/items/Item.*/state", ".*/state", "smarthome/items/.*/.*",
+            "smarthome/items/ItemA", "");
+
+    private static final List<String> TOPICS = Arrays.asList("smarthome/items/ItemA/state",
+            "smarthome/items/ItemB/state", "smarthome/items/GroupA/ItemA/state", "smarthome/items/ItemA/command",
+            "smarthome/items/ItemA", "smarthome/items/", "smarthome/items//state", "smarthome/things/a:b:c/status",
+            "smarthome/things/a:b:c/statuschanged", "state", "", "/", "smarthome/items/ItemA/state/");
+
+    @Test
+    public void testTopicFiltersMatchLikeRegularExpressions() {
+        List<EventSubscriber> subscribers = new ArrayList<>();
+        for (String topicRegex : TOPIC_REGEXES) {
+            subscribers.add(createSubscriber(Collections.singleton(TYPE_A), new TopicEventFilter(topicRegex)));
+        }
+        EventSubscriberIndex index = EventSubscriberIndex.build(subscribers);
+
+        for (String topic : TOPICS) {
+            Set<EventSubscriber> expected = new HashSet<>();
+            for (int i = 0; i < subscribers.size(); i++) {
+                if (topic.matches(TOPIC_REGEXES.get(i))) {
+                    expected.add(subscribers.get(i));
+                }
+            }
+            assertEquals("Topic: " + topic, expected, route(index, createEvent(TYPE_A, topic)));
+        }
+    }
+
+    @Test
+    public void testRouteByEventType() {
+        EventSubscriber typeA = createSubscriber(Collections.singleton(TYPE_A), null);
+        EventSubscriber typeAB = createSubscriber(new HashSet<>(Arrays.asList(TYPE_A, TYPE_B)), null);
+        EventSubscriber all = createSubscriber(Collections.singleton(EventSubscriber.ALL_EVENT_TYPES), null);
+        EventSubscriberIndex index = EventSubscriberIndex.build(Arrays.asList(typeA, typeAB, all));
+
+        assertEquals(new HashSet<>(Arrays.asList(typeA, typeAB, all)), route(index, createEvent(TYPE_A, "topic")));
+        assertEquals(new HashSet<>(Arrays.asList(typeAB, all)), route(index, createEvent(TYPE_B, "topic")));
+        assertEquals(Collections.singleton(all), route(index, createEvent("C", "topic")));
+        assertTrue(index.hasSubscribers("C"));
+        assertFalse(EventSubscriberIndex.build(Collections.singleton(typeA)).hasSubscribers("C"));
+    }
+
+    @Test
+    public void testCustomFilterIsApplied() {
+        EventSubscriber accepting = createSubscriber(Collections.singleton(TYPE_A), event -> true);
+        EventSubscriber rejecting = createSubscriber(Collections.singleton(TYPE_A), event -> false);
+        EventSubscriberIndex index = EventSubscriberIndex.build(Arrays.asList(accepting, rejecting));
+
+        assertEquals(Collections.singleton(accepting), route(index, createEvent(TYPE_A, "topic")));
+    }
+
+    @Test
+    public void testEventIsDeliveredOncePerSubscriber() {
+        EventSubscriber subscriber = createSubscriber(
+                new HashSet<>(Arrays.asList(TYPE_A, EventSubscriber.ALL_EVENT_TYPES)),
+                new TopicEventFilter("smarthome/.*"));
+        EventSubscriberIndex index = EventSubscriberIndex.build(Collections.singleton(subscriber));
+
+        List<EventSubscriber> routed = new ArrayList<>();
+        index.route(createEvent(TYPE_A, "smarthome/items/ItemA/state"), (s, e) -> routed.add(s));
+        assertEquals(Collections.singletonList(subscriber), routed);
+    }
+
+    @Test
+    public void testCompositeEventIsSplitForSubscribersOfTheSingleEvents() {
+        EventSubscriber composite = createSubscriber(new HashSet<>(Arrays.asList(TYPE_A, "Composite")), null);
+        EventSubscriber typeA = createSubscriber(Collections.singleton(TYPE_A), null);
+        EventSubscriber all = createSubscriber(Collections.singleton(EventSubscriber.ALL_EVENT_TYPES), null);
+        EventSubscriberIndex index = EventSubscriberIndex.build(Arrays.asList(composite, typeA, all));
+
+        Event event1 = createEvent(TYPE_A, "smarthome/items/ItemA/state");
+        Event event2 = createEvent(TYPE_A, "smarthome/items/ItemB/state");
+        CompositeEvent compositeEvent = mock(CompositeEvent.class);
+        when(compositeEvent.getType()).thenReturn("Composite");
+        when(compositeEvent.getTopic()).thenReturn("smarthome/items/state");
+        doReturn(Arrays.asList(event1, event2)).when(compositeEvent).getEvents();
+
+        List<String> routed = new ArrayList<>();
+        index.route(compositeEvent, (s, e) -> routed.add(s.hashCode() + ":" + e.hashCode()));
+        assertEquals(Arrays.asList(composite.hashCode() + ":" + compositeEvent.hashCode(),
+                typeA.hashCode() + ":" + event1.hashCode(), all.hashCode() + ":" + event1.hashCode(),
+                typeA.hashCode() + ":" + event2.hashCode(), all.hashCode() + ":" + event2.hashCode()), routed);
+    }
+
+    private Set<EventSubscriber> route(EventSubscriberIndex index, Event event) {
+        Set<EventSubscriber> routed = new HashSet<>();
+        index.route(event, (subscriber, e) -> assertTrue(routed.add(subscriber)));
+        return routed;
+    }
+
+    private EventSubscriber createSubscriber(Set<String> types, EventFilter filter) {
+        EventSubscriber subscriber = mock(EventSubscriber.class);
+        when(subscriber.getSubscribedEventTypes()).thenReturn(types);
+        when(subscriber.getEventFilter()).thenReturn(filter);
+        return subscriber;
+    }
+
+    private Event createEvent(String type, String topic) {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getTopic()).thenReturn(topic);
+        return event;
+    }
+
+}
@@ -28,8 +28,11 @@ import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.items.events.ItemStateChangedEvent;
+import org.eclipse.smarthome.core.library.items.NumberItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
 import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.test.java.JavaOSGiTest;
 import org.junit.Before;
 import org.junit.Test;
@@ -84,6 +87,20 @@ public class ItemUpdaterOSGiTest extends JavaOSGiTest {
         waitForAssert(() -> assertEquals(OnOffType.ON, switchItem.getState()));
     }
 
+    @Test
+    public void testItemUpdaterAcceptsSubtypesOfAcceptedStates() {
+        itemRegistry.add(new NumberItem("number"));
+        Item numberItem = itemRegistry.get("number");
+
+        eventPublisher.post(ItemEventFactory.createStateEvent("number", new PercentType(50)));
+        waitForAssert(() -> assertEquals(new PercentType(50), numberItem.getState()));
+
+        // not accepted by number items
+        eventPublisher.post(ItemEventFactory.createStateEvent("number", new StringType("text")));
+        eventPublisher.post(ItemEventFactory.createStateEvent("number", new PercentType(60)));
+        waitForAssert(() -> assertEquals(new PercentType(60), numberItem.getState()));
+    }
+
     @Test
     public void testItemUpdaterSendsStateChangedEvent() throws Exception {
         eventPublisher.post(ItemEventFactory.createStateEvent("switch", OnOffType.ON));
@@ -15,11 +15,17 @@ package org.eclipse.smarthome.core.items;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.i18n.UnitProvider;
 import org.eclipse.smarthome.core.items.events.ItemStateChangedEvent;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.library.types.RawType;
@@ -130,6 +136,87 @@ public class GenericItemTest {
         assertEquals(0, item.listeners.size());
     }
 
+    @Test
+    public void testListenerIsNotifiedAboutEveryUpdateInOrder() throws InterruptedException {
+        TestItem item = new TestItem("member1");
+        RecordingListener listener = new RecordingListener(100);
+        item.addStateChangeListener(listener);
+
+        for (int i = 0; i < 100; i++) {
+            item.setState(new DecimalType(i));
+        }
+
+        assertTrue(listener.updated.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(new DecimalType(i), listener.updates.get(i));
+        }
+        assertEquals(100, listener.changes.size());
+    }
+
+    @Test
+    public void testCoalescingListenerIsNotifiedAboutLatestState() throws InterruptedException {
+        TestItem item = new TestItem("member1");
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingRecordingListener listener = new CoalescingRecordingListener(2, release);
+        item.addStateChangeListener(listener);
+
+        // the first update is delivered and blocks the listener, the following updates are coalesced
+        item.setState(new DecimalType(0));
+        Thread.sleep(100);
+        for (int i = 1; i < 100; i++) {
+            item.setState(new DecimalType(i));
+        }
+        release.countDown();
+
+        assertTrue(listener.updated.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(Arrays.asList(new DecimalType(0), new DecimalType(99)), listener.updates);
+        assertEquals(Arrays.asList(new DecimalType(0), new DecimalType(99)), listener.changes);
+    }
+
+    private static class RecordingListener implements StateChangeListener {
+
+        final List<State> updates = Collections.synchronizedList(new ArrayList<>());
+        final List<State> changes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch updated;
+
+        RecordingListener(int expectedUpdates) {
+            updated = new CountDownLatch(expectedUpdates);
+        }
+
+        @Override
+        public void stateChanged(Item item, State oldState, State newState) {
+            changes.add(newState);
+        }
+
+        @Override
+        public void stateUpdated(Item item, State state) {
+            updates.add(state);
+            updated.countDown();
+        }
+    }
+
+    private static class CoalescingRecordingListener extends RecordingListener
+            implements CoalescingStateChangeListener {
+
+        private final CountDownLatch release;
+
+        CoalescingRecordingListener(int expectedUpdates, CountDownLatch release) {
+            super(expectedUpdates);
+            this.release = release;
+        }
+
+        @Override
+        public void stateUpdated(Item item, State state) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.stateUpdated(item, state);
+        }
+    }
+
     /**
      * Fooling the null-analysis tooling
      *
@@ -12,11 +12,14 @@
  */
 package org.eclipse.smarthome.core.library.types;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.eclipse.smarthome.core.items.GenericItem;
@@ -219,6 +222,56 @@ public class ArithmeticGroupFunctionTest {
         assertEquals(new DecimalType("2"), state);
     }
 
+    @Test
+    public void testAggregatorsCalculateLikeFunctions() {
+        List<GroupFunction> functions = Arrays.asList(new ArithmeticGroupFunction.And(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.Or(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.XOr(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.NAnd(OnOffType.ON, OnOffType.OFF),
+                new ArithmeticGroupFunction.NOr(OnOffType.ON, OnOffType.OFF), new ArithmeticGroupFunction.Avg(),
+                new ArithmeticGroupFunction.Sum(), new ArithmeticGroupFunction.Min(),
+                new ArithmeticGroupFunction.Max(), new ArithmeticGroupFunction.Count(new StringType("ON|1.*")));
+        State[] states = { OnOffType.ON, OnOffType.OFF, UnDefType.UNDEF, UnDefType.NULL, new DecimalType("1.5"),
+                new DecimalType("1.50"), new DecimalType("-2"), new DecimalType("10.125"), PercentType.HUNDRED };
+        Random random = new Random(42);
+
+        for (GroupFunction function : functions) {
+            items.clear();
+            List<TestItem> testItems = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                TestItem item = new TestItem("TestItem" + i, states[random.nextInt(states.length)]);
+                testItems.add(item);
+                items.add(item);
+            }
+            GroupFunction.Aggregator aggregator = function.createAggregator();
+            assertNotNull(aggregator);
+            testItems.forEach(aggregator::add);
+            assertAggregatorState(function, aggregator);
+
+            for (int i = 0; i < 200; i++) {
+                TestItem item = testItems.get(random.nextInt(testItems.size()));
+                item.setState(states[random.nextInt(states.length)]);
+                aggregator.update(item);
+                assertAggregatorState(function, aggregator);
+            }
+
+            for (TestItem item : testItems) {
+                items.remove(item);
+                aggregator.remove(item);
+                assertAggregatorState(function, aggregator);
+            }
+        }
+    }
+
+    private void assertAggregatorState(GroupFunction function, GroupFunction.Aggregator aggregator) {
+        assertEquals(function.calculate(items), aggregator.getState());
+        assertEquals(function.getStateAs(items, DecimalType.class), aggregator.getStateAs(DecimalType.class));
+        if (function instanceof ArithmeticGroupFunction.Sum || function instanceof ArithmeticGroupFunction.Avg) {
+            // the scale of the result must be the same as well
+            assertEquals(function.calculate(items).toString(), aggregator.getState().toString());
+        }
+    }
+
     private class TestItem extends GenericItem {
 
         public TestItem(String name, State state) {
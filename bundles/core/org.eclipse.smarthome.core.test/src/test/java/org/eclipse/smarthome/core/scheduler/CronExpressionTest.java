@@ -83,6 +83,39 @@ public class CronExpressionTest {
         assertEquals(checkDate, nextDate);
     }
 
+    @Test
+    public void getTimeAfterSpecialDays() throws ParseException {
+        // the nearest week day to Saturday, 2016-01-02 is Friday, 2016-01-01
+        assertNextTime("0 0 12 2W * ?", date(2016, 0, 1, 0, 0, 0), date(2016, 0, 1, 12, 0, 0));
+        // 12:00 on Friday, 2016-04-01 has passed; 2016-05-01 is a Sunday, the nearest week day within the month is
+        // Monday, 2016-05-02
+        assertNextTime("0 0 12 1W * ?", date(2016, 3, 1, 13, 0, 0), date(2016, 4, 2, 12, 0, 0));
+        // the last week day of April 2016 is Friday, 2016-04-29
+        assertNextTime("0 0 12 LW * ?", date(2016, 3, 1, 0, 0, 0), date(2016, 3, 29, 12, 0, 0));
+        // three days before the last day of February in a leap year
+        assertNextTime("0 0 12 L-3 * ?", date(2016, 1, 1, 0, 0, 0), date(2016, 1, 26, 12, 0, 0));
+        // months without a 31st day are skipped
+        assertNextTime("0 0 0 31 * ?", date(2016, 1, 1, 0, 0, 0), date(2016, 2, 31, 0, 0, 0));
+        assertNextTime("0 0 0 29 2 ?", date(2017, 0, 1, 0, 0, 0), date(2020, 1, 29, 0, 0, 0));
+        // the last Friday of the month
+        assertNextTime("0 15 10 ? * 6L", date(2016, 0, 29, 10, 15, 0), date(2016, 1, 26, 10, 15, 0));
+        // fractions of a second are ignored
+        assertNextTime("* * * * * ?", new Date(date(2016, 0, 1, 0, 0, 0).getTime() + 500), date(2016, 0, 1, 0, 0, 1));
+        // no time after the last year
+        Assert.assertNull(new CronExpression("0 0 0 1 1 ? 2016").getTimeAfter(date(2016, 0, 1, 0, 0, 0)));
+    }
+
+    private void assertNextTime(String expression, Date afterTime, Date expected) throws ParseException {
+        assertEquals(expression, expected, new CronExpression(expression, afterTime).getTimeAfter(afterTime));
+    }
+
+    private Date date(int year, int month, int day, int hour, int minute, int second) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(year, month, day, hour, minute, second);
+        return cal.getTime();
+    }
+
     @Test
     public void findNext() throws ParseException {
         final List<String> expressions = Arrays.asList(new String[] { //
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.types;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.RawType;
+import org.eclipse.smarthome.core.library.types.StringListType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TypeCodecRegistry}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class TypeCodecRegistryTest {
+
+    private static final List<Type> TYPES = Arrays.asList(UnDefType.NULL, RefreshType.REFRESH, OnOffType.OFF,
+            UpDownType.DOWN, new DecimalType("-12.5E-3"), new PercentType(42), new StringType("äöü,;"),
+            HSBType.fromRGB(10, 20, 30), new PointType("52.5,13.4,34"), new QuantityType<>("21.5 °C"),
+            new RawType(new byte[] { 1, 2, 3 }, "application/octet-stream"),
+            new DateTimeType("2018-10-18T10:15:30.000+0200"), new StringListType("a", "b,c"));
+
+    @Test
+    public void testCoreTypesAreParsedByTheirName() {
+        for (Type type : TYPES) {
+            String typeName = type.getClass().getSimpleName().replaceFirst("Type$", "");
+            TypeCodec<?> codec = TypeCodecRegistry.getCodec(typeName);
+            assertNotNull(typeName, codec);
+            assertSameValue(type, codec.parse(type.toFullString()));
+        }
+    }
+
+    @Test
+    public void testInvalidValuesAreNotParsed() {
+        assertNull(TypeCodecRegistry.getCodec(OnOffType.class).parse("on"));
+        assertNull(TypeCodecRegistry.getCodec(DecimalType.class).parse("ON"));
+        assertNull(TypeCodecRegistry.getCodec(DecimalType.class).parse("1e"));
+        assertNull(TypeCodecRegistry.getCodec(PercentType.class).parse("101"));
+        assertNull(TypeCodecRegistry.getCodec(HSBType.class).parse("10,20"));
+        assertNull(TypeCodecRegistry.getCodec(PointType.class).parse("abc"));
+        assertNull(TypeCodecRegistry.getCodec(QuantityType.class).parse("°C"));
+        assertNull(TypeCodecRegistry.getCodec(DateTimeType.class).parse("today"));
+        assertNull(TypeCodecRegistry.getCodec("Unknown"));
+    }
+
+    @Test
+    public void testBinaryRepresentation() {
+        for (Type type : TYPES) {
+            assertSameValue(type, TypeCodecRegistry.decode(TypeCodecRegistry.encode(type)));
+        }
+        assertThat(TypeCodecRegistry.encode(OnOffType.ON).length, is(2));
+    }
+
+    @Test
+    public void testRegisteredCodec() {
+        TypeCodec<TestType> codec = TypeCodec.of(TestType.class, TestType::new);
+        assertThat(codec.getTypeName(), is("Test"));
+
+        TypeCodecRegistry.register(codec);
+        try {
+            assertThat(TypeParser.parseType("TestType", "value"), is(new TestType("value")));
+            assertThat(TypeCodecRegistry.decode(TypeCodecRegistry.encode(new TestType("value"))),
+                    is(new TestType("value")));
+        } finally {
+            TypeCodecRegistry.unregister(codec);
+        }
+        assertNull(TypeCodecRegistry.getCodec("Test"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoreCodecCannotBeReplaced() {
+        TypeCodecRegistry.register(TypeCodec.of(DecimalType.class, DecimalType::valueOf));
+    }
+
+    @Test
+    public void testParseStateWithoutReflection() {
+        List<Class<? extends State>> types = Arrays.asList(UnDefType.class, OnOffType.class, PercentType.class,
+                StringType.class);
+        assertThat(TypeParser.parseState(types, "NULL"), is(UnDefType.NULL));
+        assertThat(TypeParser.parseState(types, "ON"), is(OnOffType.ON));
+        assertThat(TypeParser.parseState(types, "50"), is(new PercentType(50)));
+        assertThat(TypeParser.parseState(types, "150"), is(new StringType("150")));
+    }
+
+    private void assertSameValue(Type expected, Type actual) {
+        // not all types implement equals
+        assertThat(actual, is(instanceOf(expected.getClass())));
+        assertThat(actual.toFullString(), is(expected.toFullString()));
+    }
+
+    private static class TestType implements State {
+
+        private final String value;
+
+        TestType(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String format(String pattern) {
+            return String.format(pattern, value);
+        }
+
+        @Override
+        public String toFullString() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestType && ((TestType) obj).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+}
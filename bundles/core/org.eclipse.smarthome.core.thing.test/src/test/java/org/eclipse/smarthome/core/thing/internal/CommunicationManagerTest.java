@@ -19,6 +19,9 @@ import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,12 +30,17 @@ import javax.measure.quantity.Temperature;
 import org.eclipse.smarthome.core.common.SafeCaller;
 import org.eclipse.smarthome.core.common.registry.Provider;
 import org.eclipse.smarthome.core.common.registry.ProviderChangeListener;
+import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.i18n.UnitProvider;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemStateConverter;
 import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateBatchEvent;
+import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.library.CoreItemFactory;
 import org.eclipse.smarthome.core.library.items.NumberItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
@@ -41,6 +49,7 @@ import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.library.unit.SIUnits;
 import org.eclipse.smarthome.core.service.StateDescriptionService;
 import org.eclipse.smarthome.core.thing.Channel;
@@ -261,6 +270,58 @@ public class CommunicationManagerTest extends JavaOSGiTest {
         verifyNoMoreInteractions(triggerProfile);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testStateUpdated_removedItem() {
+        ArgumentCaptor<RegistryChangeListener<Item>> listenerCaptor = ArgumentCaptor
+                .forClass(RegistryChangeListener.class);
+        verify(itemRegistry).addRegistryChangeListener(listenerCaptor.capture());
+
+        manager.stateUpdated(STATE_CHANNEL_UID_1, OnOffType.ON);
+        verify(stateProfile).onStateUpdateFromHandler(eq(OnOffType.ON));
+
+        when(itemRegistry.get(eq(ITEM_NAME_1))).thenReturn(null);
+        listenerCaptor.getValue().removed(ITEM_1);
+
+        manager.stateUpdated(STATE_CHANNEL_UID_1, OnOffType.OFF);
+        verifyNoMoreInteractions(stateProfile);
+        verifyNoMoreInteractions(triggerProfile);
+    }
+
+    @Test
+    public void testStatesUpdated_singleEvent() {
+        doAnswer(invocation -> {
+            ProfileCallback callback = (ProfileCallback) invocation.getArguments()[1];
+            StateProfile profile = mock(StateProfile.class);
+            doAnswer(i -> {
+                callback.sendUpdate((State) i.getArguments()[0]);
+                return null;
+            }).when(profile).onStateUpdateFromHandler(isA(State.class));
+            return profile;
+        }).when(mockProfileFactory).createProfile(isA(ProfileTypeUID.class), isA(ProfileCallback.class),
+                isA(ProfileContext.class));
+        ItemStateConverter itemStateConverter = mock(ItemStateConverter.class);
+        when(itemStateConverter.convertToAcceptedState(isA(State.class), isA(Item.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+        manager.setItemStateConverter(itemStateConverter);
+
+        Map<ChannelUID, State> states = new LinkedHashMap<>();
+        states.put(STATE_CHANNEL_UID_1, OnOffType.ON);
+        states.put(STATE_CHANNEL_UID_2, OnOffType.OFF);
+        manager.statesUpdated(states);
+
+        ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+        verify(eventPublisher).post(eventCaptor.capture());
+        assertEquals(ItemStateBatchEvent.class, eventCaptor.getValue().getClass());
+        List<ItemStateEvent> stateEvents = ((ItemStateBatchEvent) eventCaptor.getValue()).getEvents();
+        assertEquals(3, stateEvents.size());
+        assertEquals(ITEM_NAME_1, stateEvents.get(0).getItemName());
+        assertEquals(OnOffType.ON, stateEvents.get(0).getItemState());
+        assertEquals(STATE_CHANNEL_UID_1.toString(), stateEvents.get(0).getSource());
+        assertEquals(OnOffType.OFF, stateEvents.get(1).getItemState());
+        assertEquals(OnOffType.OFF, stateEvents.get(2).getItemState());
+    }
+
     @Test
     public void testPostCommand_singleLink() {
         manager.postCommand(STATE_CHANNEL_UID_1, OnOffType.ON);
@@ -334,6 +395,24 @@ public class CommunicationManagerTest extends JavaOSGiTest {
         verifyNoMoreInteractions(triggerProfile);
     }
 
+    @Test
+    public void testItemCommandEvent_Decimal2Quantity_ChannelTypeProvidedLater() {
+        ChannelType channelType4 = channelTypeRegistry.getChannelType(CHANNEL_TYPE_UID_4);
+        when(channelTypeRegistry.getChannelType(CHANNEL_TYPE_UID_4)).thenReturn(null);
+        manager.receive(ItemEventFactory.createCommandEvent(ITEM_NAME_4, DecimalType.valueOf("20")));
+        waitForAssert(() -> {
+            verify(stateProfile).onCommandFromItem(eq(DecimalType.valueOf("20")));
+        });
+
+        when(channelTypeRegistry.getChannelType(CHANNEL_TYPE_UID_4)).thenReturn(channelType4);
+        manager.receive(ItemEventFactory.createCommandEvent(ITEM_NAME_4, DecimalType.valueOf("20")));
+        waitForAssert(() -> {
+            verify(stateProfile).onCommandFromItem(eq(QuantityType.valueOf("20 °C")));
+        });
+        verifyNoMoreInteractions(stateProfile);
+        verifyNoMoreInteractions(triggerProfile);
+    }
+
     @Test
     public void testItemCommandEvent_multiLink() {
         manager.receive(ItemEventFactory.createCommandEvent(ITEM_NAME_1, OnOffType.ON));
@@ -566,4 +645,27 @@ public class CommunicationManagerTest extends JavaOSGiTest {
         verifyNoMoreInteractions(triggerProfile);
     }
 
+    @Test
+    public void testItemCommandEvent_notAcceptedTypeIsNotForwarded() {
+        Thing thing = ThingBuilder.create(THING_TYPE_UID, THING_UID)
+                .withChannels(ChannelBuilder.create(STATE_CHANNEL_UID_2, "Dimmer").withKind(ChannelKind.STATE).build())
+                .build();
+        thing.setHandler(mockHandler);
+        when(thingRegistry.get(eq(THING_UID))).thenReturn(thing);
+
+        for (int i = 0; i < 2; i++) {
+            manager.receive(ItemEventFactory.createCommandEvent(ITEM_NAME_2, new StringType("text")));
+            manager.receive(ItemEventFactory.createCommandEvent(ITEM_NAME_2, HSBType.fromRGB(128, 128, 128)));
+        }
+        waitForAssert(() -> {
+            ArgumentCaptor<Command> commandCaptor = ArgumentCaptor.forClass(Command.class);
+            verify(stateProfile, times(2)).onCommandFromItem(commandCaptor.capture());
+            for (Command command : commandCaptor.getAllValues()) {
+                assertEquals(PercentType.class, command.getClass());
+            }
+        });
+        verifyNoMoreInteractions(stateProfile);
+        verifyNoMoreInteractions(triggerProfile);
+    }
+
 }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.thing.link;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.smarthome.core.common.registry.AbstractProvider;
+import org.eclipse.smarthome.core.common.registry.Provider;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the link indexes of the {@link ItemChannelLinkRegistry}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class ItemChannelLinkRegistryTest {
+
+    private static final ThingUID THING_UID_1 = new ThingUID("test", "thing1");
+    private static final ThingUID THING_UID_2 = new ThingUID("test", "thing2");
+    private static final ChannelUID CHANNEL_UID_1 = new ChannelUID(THING_UID_1, "channel1");
+    private static final ChannelUID CHANNEL_UID_2 = new ChannelUID(THING_UID_1, "channel2");
+    private static final ChannelUID CHANNEL_UID_3 = new ChannelUID(THING_UID_2, "channel1");
+    private static final ItemChannelLink LINK_1_1 = new ItemChannelLink("item1", CHANNEL_UID_1);
+    private static final ItemChannelLink LINK_1_2 = new ItemChannelLink("item1", CHANNEL_UID_2);
+    private static final ItemChannelLink LINK_2_2 = new ItemChannelLink("item2", CHANNEL_UID_2);
+    private static final ItemChannelLink LINK_2_3 = new ItemChannelLink("item2", CHANNEL_UID_3);
+
+    private TestLinkRegistry registry;
+    private TestLinkProvider provider;
+
+    @Before
+    public void setUp() {
+        registry = new TestLinkRegistry();
+        provider = new TestLinkProvider(LINK_1_1, LINK_1_2, LINK_2_2);
+        registry.addProvider(provider);
+    }
+
+    @Test
+    public void testLookups() {
+        assertEquals(new HashSet<>(Arrays.asList(LINK_1_1, LINK_1_2)), registry.getLinks("item1"));
+        assertEquals(new HashSet<>(Arrays.asList(LINK_1_2, LINK_2_2)), registry.getLinks(CHANNEL_UID_2));
+        assertEquals(new HashSet<>(Arrays.asList(LINK_1_1, LINK_1_2, LINK_2_2)),
+                registry.getLinksForThing(THING_UID_1));
+        assertEquals(new HashSet<>(Arrays.asList(CHANNEL_UID_1, CHANNEL_UID_2)), registry.getBoundChannels("item1"));
+        assertTrue(registry.isLinked("item2", CHANNEL_UID_2));
+        assertFalse(registry.isLinked("item2", CHANNEL_UID_1));
+        assertTrue(registry.isLinked(CHANNEL_UID_1));
+        assertFalse(registry.isLinked(CHANNEL_UID_3));
+        assertTrue(registry.getLinks("unknown").isEmpty());
+        assertTrue(registry.getLinksForThing(THING_UID_2).isEmpty());
+    }
+
+    @Test
+    public void testLinkSetsAreOnlyReplacedOnModification() {
+        Collection<ItemChannelLink> item1Links = registry.getLinks("item1");
+        Collection<ItemChannelLink> item2Links = registry.getLinks("item2");
+        assertSame(item1Links, registry.getLinks("item1"));
+
+        provider.add(LINK_2_3);
+
+        assertSame(item1Links, registry.getLinks("item1"));
+        assertNotSame(item2Links, registry.getLinks("item2"));
+        assertEquals(new HashSet<>(Arrays.asList(LINK_2_2, LINK_2_3)), registry.getLinks("item2"));
+        assertEquals(Collections.singleton(LINK_2_3), registry.getLinksForThing(THING_UID_2));
+
+        provider.remove(LINK_1_1);
+
+        assertEquals(Collections.singleton(LINK_1_2), registry.getLinks("item1"));
+        assertFalse(registry.isLinked(CHANNEL_UID_1));
+        assertFalse(registry.isLinked("item1", CHANNEL_UID_1));
+        assertEquals(Collections.singleton(CHANNEL_UID_2), registry.getBoundChannels("item1"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLinkSetsAreUnmodifiable() {
+        registry.getLinks("item1").clear();
+    }
+
+    private static class TestLinkRegistry extends ItemChannelLinkRegistry {
+        @Override
+        protected void addProvider(Provider<ItemChannelLink> provider) {
+            super.addProvider(provider);
+        }
+    }
+
+    private static class TestLinkProvider extends AbstractProvider<ItemChannelLink>
+            implements ItemChannelLinkProvider {
+
+        private final List<ItemChannelLink> links;
+
+        TestLinkProvider(ItemChannelLink... links) {
+            this.links = new ArrayList<>(Arrays.asList(links));
+        }
+
+        void add(ItemChannelLink link) {
+            links.add(link);
+            notifyListenersAboutAddedElement(link);
+        }
+
+        void remove(ItemChannelLink link) {
+            links.remove(link);
+            notifyListenersAboutRemovedElement(link);
+        }
+
+        @Override
+        public Collection<ItemChannelLink> getAll() {
+            return new ArrayList<>(links);
+        }
+    }
+
+}
@@ -61,6 +61,7 @@ import org.slf4j.LoggerFactory;
  * @author Stefan Bußweiler - Added new thing status handling, refactorings thing/bridge life cycle
  * @author Kai Kreuzer - Refactored isLinked method to not use deprecated functions anymore
  * @author Christoph Weitkamp - Moved OSGI ServiceTracker from BaseThingHandler to ThingHandlerCallback
+ * @author Eclipse SmartHome - Added bulk state update
  */
 @NonNullByDefault
 public abstract class BaseThingHandler implements ThingHandler {
@@ -293,6 +294,25 @@ public abstract class BaseThingHandler implements ThingHandler {
         }
     }
 
+    /**
+     * Updates the states of several channels of the thing at once. The resulting item state updates are published as
+     * a single event, so this should be preferred over calling {@link #updateState(ChannelUID, State)} for every
+     * channel, e.g. after polling all channels from a device.
+     *
+     * @param states the new states indexed by the unique id of the channels
+     */
+    protected void updateStates(Map<ChannelUID, State> states) {
+        synchronized (this) {
+            if (this.callback != null) {
+                this.callback.statesUpdated(states);
+            } else {
+                logger.warn(
+                        "Handler {} of thing {} tried updating {} channels although the handler was already disposed.",
+                        this.getClass().getSimpleName(), this.getThing().getUID(), states.size());
+            }
+        }
+    }
+
     /**
      *
      * Updates the state of the thing. Will use the thing UID to infer the
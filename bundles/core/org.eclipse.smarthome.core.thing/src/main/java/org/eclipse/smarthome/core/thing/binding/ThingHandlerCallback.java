@@ -41,6 +41,7 @@ import org.eclipse.smarthome.core.types.State;
  * @author Stefan Bußweiler - Added new thing status info, added new configuration update info
  * @author Christoph Weitkamp - Moved OSGI ServiceTracker from BaseThingHandler to ThingHandlerCallback
  * @author Christoph Weitkamp - Added preconfigured ChannelGroupBuilder
+ * @author Eclipse SmartHome - Added bulk state update
  */
 @NonNullByDefault
 public interface ThingHandlerCallback {
@@ -53,6 +54,16 @@ public interface ThingHandlerCallback {
      */
     void stateUpdated(ChannelUID channelUID, State state);
 
+    /**
+     * Informs about updated states for several channels at once, e.g. after all channels of a thing have been polled.
+     * The resulting item state updates are published as a single event.
+     *
+     * @param states the states indexed by the channel UID (must not be null)
+     */
+    default void statesUpdated(Map<ChannelUID, State> states) {
+        states.forEach(this::stateUpdated);
+    }
+
     /**
      * Informs about a command, which is sent from the channel.
      *
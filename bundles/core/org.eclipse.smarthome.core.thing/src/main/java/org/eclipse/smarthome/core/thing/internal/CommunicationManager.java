@@ -12,12 +12,15 @@
  */
 package org.eclipse.smarthome.core.thing.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -43,6 +46,8 @@ import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemStateConverter;
 import org.eclipse.smarthome.core.items.ItemUtil;
 import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateBatchEvent;
 import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.library.items.NumberItem;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -86,6 +91,9 @@ import org.slf4j.LoggerFactory;
  * It mainly mediates commands, state updates and triggers from ThingHandlers to the framework and vice versa.
  *
  * @author Simon Kaufmann - initial contribution and API, factored out of ThingManger
+ * @author Eclipse SmartHome - Precomputed link and profile routes
+ * @author Eclipse SmartHome - Added bulk state update
+ * @author Eclipse SmartHome - Cached accepted type resolution
  *
  */
 @NonNullByDefault
@@ -124,13 +132,48 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     // link UID -> profile
     private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
 
+    // item name -> routes to the channels the item is linked to, only for items with links
+    private final Map<String, ItemLinkRoutes> itemLinkRoutes = new ConcurrentHashMap<>();
+
+    // channel UID -> routes to the profiles of the links of the channel, only for channels with links
+    private final Map<ChannelUID, ChannelLinkRoutes> channelLinkRoutes = new ConcurrentHashMap<>();
+
+    private static final LinkRoute[] NO_LINK_ROUTES = new LinkRoute[0];
+    private static final ChannelLinkRoute[] NO_CHANNEL_LINK_ROUTES = new ChannelLinkRoute[0];
+
     // factory instance -> link UIDs which the factory has created profiles for
     private final Map<ProfileFactory, Set<String>> profileFactories = new ConcurrentHashMap<>();
 
     private final Set<ProfileAdvisor> profileAdvisors = new CopyOnWriteArraySet<>();
 
-    private final Map<String, @Nullable List<Class<? extends Command>>> acceptedCommandTypeMap = new ConcurrentHashMap<>();
-    private final Map<String, @Nullable List<Class<? extends State>>> acceptedStateTypeMap = new ConcurrentHashMap<>();
+    private final Map<String, AcceptedTypes<Command>> acceptedCommandTypeMap = new ConcurrentHashMap<>();
+    private final Map<String, AcceptedTypes<State>> acceptedStateTypeMap = new ConcurrentHashMap<>();
+
+    // accepted item type -> dimension of the item type, if any
+    private final Map<String, Optional<Class<? extends Quantity<?>>>> dimensions = new ConcurrentHashMap<>();
+
+    // channel type UID -> dimension of the item type of the channel type, if any
+    private final Map<ChannelTypeUID, Optional<Class<? extends Quantity<?>>>> channelTypeDimensions = new ConcurrentHashMap<>();
+
+    // the item state events of the bulk state update processed by the current thread, published at its end
+    private final ThreadLocal<@Nullable List<ItemStateEvent>> pendingStateEvents = new ThreadLocal<>();
+
+    private final RegistryChangeListener<Item> itemRegistryChangeListener = new RegistryChangeListener<Item>() {
+        @Override
+        public void added(Item element) {
+            evictRoutes(element.getName());
+        }
+
+        @Override
+        public void removed(Item element) {
+            evictRoutes(element.getName());
+        }
+
+        @Override
+        public void updated(Item oldElement, Item element) {
+            evictRoutes(element.getName());
+        }
+    };
 
     @Override
     public Set<String> getSubscribedEventTypes() {
@@ -158,8 +201,12 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     }
 
     private Profile getProfile(ItemChannelLink link, Item item, @Nullable Thing thing) {
+        Profile profile = profiles.get(link.getUID());
+        if (profile != null) {
+            return profile;
+        }
         synchronized (profiles) {
-            Profile profile = profiles.get(link.getUID());
+            profile = profiles.get(link.getUID());
             if (profile != null) {
                 return profile;
             }
@@ -176,7 +223,7 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     }
 
     private ProfileCallback createCallback(ItemChannelLink link) {
-        return new ProfileCallbackImpl(eventPublisher, safeCaller, itemStateConverter, link,
+        return new ProfileCallbackImpl(this::publish, safeCaller, itemStateConverter, link,
                 thingUID -> getThing(thingUID), itemName -> getItem(itemName));
     }
 
@@ -302,20 +349,21 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     }
 
     private <T extends Type> void handleEvent(String itemName, T type, @Nullable String source,
-            Function<@Nullable String, @Nullable List<Class<? extends T>>> acceptedTypesFunction,
-            ProfileAction<T> action) {
+            Function<String, @Nullable AcceptedTypes<T>> acceptedTypesFunction, ProfileAction<T> action) {
         final Item item = getItem(itemName);
         if (item == null) {
             logger.debug("Received an event for item {} which does not exist", itemName);
             return;
         }
 
-        itemChannelLinkRegistry.getLinks(itemName).stream().filter(link -> {
+        for (final LinkRoute route : getLinkRoutes(itemName)) {
             // make sure the command event is not sent back to its source
-            return !link.getLinkedUID().toString().equals(source);
-        }).forEach(link -> {
-            ChannelUID channelUID = link.getLinkedUID();
-            Thing thing = getThing(channelUID.getThingUID());
+            if (route.channelUIDAsString.equals(source)) {
+                continue;
+            }
+            final ItemChannelLink link = route.link;
+            final ChannelUID channelUID = route.channelUID;
+            Thing thing = getThing(route.thingUID);
             if (thing != null) {
                 Channel channel = thing.getChannel(channelUID.getId());
                 if (channel != null) {
@@ -337,14 +385,28 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
                 }
             } else {
                 logger.debug("Received  event '{}' for non-existing thing '{}', not forwarding it to the handler", type,
-                        channelUID.getThingUID());
+                        route.thingUID);
             }
-        });
+        }
+    }
+
+    private LinkRoute[] getLinkRoutes(String itemName) {
+        // the link registry returns the same set as long as the links of the item are not modified
+        final Set<ItemChannelLink> links = itemChannelLinkRegistry.getLinks(itemName);
+        if (links.isEmpty()) {
+            return NO_LINK_ROUTES;
+        }
+        ItemLinkRoutes routes = itemLinkRoutes.get(itemName);
+        if (routes == null || routes.links != links) {
+            routes = new ItemLinkRoutes(links);
+            itemLinkRoutes.put(itemName, routes);
+        }
+        return routes.routes;
     }
 
     @SuppressWarnings("unchecked")
     private <T extends Type> @Nullable T toAcceptedType(T originalType, Channel channel,
-            Function<@Nullable String, @Nullable List<Class<? extends T>>> acceptedTypesFunction, Item item) {
+            Function<String, @Nullable AcceptedTypes<T>> acceptedTypesFunction, Item item) {
         String acceptedItemType = channel.getAcceptedItemType();
 
         // DecimalType command sent to a NumberItem with dimension defined:
@@ -379,27 +441,22 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
             return originalType;
         }
 
-        List<Class<? extends T>> acceptedTypes = acceptedTypesFunction.apply(acceptedItemType);
+        AcceptedTypes<T> acceptedTypes = acceptedTypesFunction.apply(acceptedItemType);
         if (acceptedTypes == null) {
             return originalType;
         }
 
-        if (acceptedTypes.contains(originalType.getClass())) {
-            return originalType;
-        } else {
-            // Look for class hierarchy and convert appropriately
-            for (Class<? extends T> typeClass : acceptedTypes) {
-                if (!typeClass.isEnum() && typeClass.isAssignableFrom(originalType.getClass()) //
-                        && State.class.isAssignableFrom(typeClass) && originalType instanceof State) {
-                    T ret = (T) ((State) originalType).as((Class<? extends State>) typeClass);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Converted '{}' ({}) to accepted type '{}' ({}) for channel '{}' ", originalType,
-                                originalType.getClass().getSimpleName(), ret, ret.getClass().getName(),
-                                channel.getUID());
-                    }
-                    return ret;
-                }
+        Optional<Class<? extends T>> typeClass = acceptedTypes.getAcceptedType(originalType.getClass());
+        if (typeClass.isPresent()) {
+            if (typeClass.get() == originalType.getClass()) {
+                return originalType;
+            }
+            T ret = (T) ((State) originalType).as((Class<? extends State>) typeClass.get());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Converted '{}' ({}) to accepted type '{}' ({}) for channel '{}' ", originalType,
+                        originalType.getClass().getSimpleName(), ret, ret.getClass().getName(), channel.getUID());
             }
+            return ret;
         }
         logger.debug("Received not accepted type '{}' for channel '{}'", originalType.getClass().getSimpleName(),
                 channel.getUID());
@@ -411,8 +468,17 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
             return false;
         }
 
-        ChannelType channelType = channelTypeRegistry.getChannelType(channelTypeUID);
-        return channelType != null && getDimension(channelType.getItemType()) != null;
+        Optional<Class<? extends Quantity<?>>> dimension = channelTypeDimensions.get(channelTypeUID);
+        if (dimension == null) {
+            ChannelType channelType = channelTypeRegistry.getChannelType(channelTypeUID);
+            if (channelType == null) {
+                // the channel type may still be provided later, so its absence is not cached
+                return false;
+            }
+            dimension = Optional.ofNullable(getDimension(channelType.getItemType()));
+            channelTypeDimensions.put(channelTypeUID, dimension);
+        }
+        return dimension.isPresent();
     }
 
     private boolean hasDimension(Item item, @Nullable String acceptedItemType) {
@@ -445,12 +511,13 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
         if (acceptedItemType == null || acceptedItemType.isEmpty()) {
             return null;
         }
-        String itemTypeExtension = ItemUtil.getItemTypeExtension(acceptedItemType);
-        if (itemTypeExtension == null) {
-            return null;
-        }
-
-        return UnitUtils.parseDimension(itemTypeExtension);
+        return dimensions.computeIfAbsent(acceptedItemType, itemType -> {
+            String itemTypeExtension = ItemUtil.getItemTypeExtension(itemType);
+            if (itemTypeExtension == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(UnitUtils.parseDimension(itemTypeExtension));
+        }).orElse(null);
     }
 
     private @Nullable Item getItem(final String itemName) {
@@ -479,6 +546,60 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
         });
     }
 
+    /**
+     * Passes the states of several channels to the profiles of their links and publishes the resulting item state
+     * updates as a single {@link ItemStateBatchEvent}.
+     *
+     * @param states the states indexed by the channel UID
+     */
+    public void statesUpdated(Map<ChannelUID, State> states) {
+        final List<ItemStateEvent> stateEvents = new ArrayList<>(states.size());
+        final List<ItemStateEvent> outerStateEvents = pendingStateEvents.get();
+        pendingStateEvents.set(stateEvents);
+        try {
+            final Map<ThingUID, @Nullable Thing> things = new HashMap<>();
+            for (Entry<ChannelUID, State> entry : states.entrySet()) {
+                final ChannelUID channelUID = entry.getKey();
+                final State state = entry.getValue();
+                final ThingUID thingUID = channelUID.getThingUID();
+                if (!things.containsKey(thingUID)) {
+                    things.put(thingUID, getThing(thingUID));
+                }
+
+                handleCallFromHandler(channelUID, things.get(thingUID), profile -> {
+                    if (profile instanceof StateProfile) {
+                        ((StateProfile) profile).onStateUpdateFromHandler(state);
+                    }
+                });
+            }
+        } finally {
+            if (outerStateEvents == null) {
+                pendingStateEvents.remove();
+            } else {
+                pendingStateEvents.set(outerStateEvents);
+            }
+        }
+
+        if (stateEvents.size() == 1) {
+            eventPublisher.post(stateEvents.get(0));
+        } else if (!stateEvents.isEmpty()) {
+            eventPublisher.post(ItemEventFactory.createStateBatchEvent(stateEvents, null));
+        }
+    }
+
+    /**
+     * Publishes the events of the profile callbacks. The item state events created during a bulk state update are
+     * collected to be published at once.
+     */
+    private void publish(Event event) {
+        final List<ItemStateEvent> stateEvents = pendingStateEvents.get();
+        if (stateEvents != null && event instanceof ItemStateEvent) {
+            stateEvents.add((ItemStateEvent) event);
+        } else {
+            eventPublisher.post(event);
+        }
+    }
+
     public void postCommand(ChannelUID channelUID, Command command) {
         final Thing thing = getThing(channelUID.getThingUID());
 
@@ -490,13 +611,51 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     }
 
     void handleCallFromHandler(ChannelUID channelUID, @Nullable Thing thing, Consumer<Profile> action) {
-        itemChannelLinkRegistry.getLinks(channelUID).forEach(link -> {
-            final Item item = getItem(link.getItemName());
-            if (item != null) {
-                final Profile profile = getProfile(link, item, thing);
-                action.accept(profile);
+        for (final ChannelLinkRoute route : getChannelLinkRoutes(channelUID, thing)) {
+            action.accept(route.profile);
+        }
+    }
+
+    private ChannelLinkRoute[] getChannelLinkRoutes(ChannelUID channelUID, @Nullable Thing thing) {
+        // the link registry returns the same set as long as the links of the channel are not modified
+        final Set<ItemChannelLink> links = itemChannelLinkRegistry.getLinks(channelUID);
+        if (links.isEmpty()) {
+            return NO_CHANNEL_LINK_ROUTES;
+        }
+        ChannelLinkRoutes routes = channelLinkRoutes.get(channelUID);
+        if (routes != null && routes.links == links) {
+            return routes.routes;
+        }
+        // the routes are computed atomically with their eviction, so evicted routes are never put back
+        final List<ChannelLinkRoute> newRoutes = new ArrayList<>(links.size());
+        channelLinkRoutes.compute(channelUID, (uid, current) -> {
+            if (current != null && current.links == links) {
+                newRoutes.addAll(Arrays.asList(current.routes));
+                return current;
+            }
+            boolean complete = true;
+            for (ItemChannelLink link : links) {
+                final Item item = getItem(link.getItemName());
+                if (item != null) {
+                    final Profile profile = getProfile(link, item, thing);
+                    // the profile might be created later on, e.g. as soon as the thing or the profile factory is added
+                    complete &= !(profile instanceof NoOpProfile);
+                    newRoutes.add(new ChannelLinkRoute(profile));
+                }
             }
+            return complete ? new ChannelLinkRoutes(links, newRoutes) : null;
         });
+        return newRoutes.toArray(NO_CHANNEL_LINK_ROUTES);
+    }
+
+    private void evictRoutes(String itemName) {
+        itemLinkRoutes.remove(itemName);
+        if (itemChannelLinkRegistry == null) {
+            return;
+        }
+        for (ItemChannelLink link : itemChannelLinkRegistry.getLinks(itemName)) {
+            channelLinkRoutes.remove(link.getLinkedUID());
+        }
     }
 
     public void channelTriggered(Thing thing, ChannelUID channelUID, String event) {
@@ -508,6 +667,9 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
             profiles.remove(link.getUID());
         }
         profileFactories.values().forEach(list -> list.remove(link.getUID()));
+        itemLinkRoutes.remove(link.getItemName());
+        channelLinkRoutes.remove(link.getLinkedUID());
+        channelTypeDimensions.clear();
     }
 
     @Override
@@ -556,9 +718,11 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     @Reference
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        itemRegistry.addRegistryChangeListener(itemRegistryChangeListener);
     }
 
     protected void unsetItemRegistry(ItemRegistry itemRegistry) {
+        itemRegistry.removeRegistryChangeListener(itemRegistryChangeListener);
         this.itemRegistry = null;
     }
 
@@ -574,6 +738,7 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
                 profiles.remove(link);
             });
         }
+        channelLinkRoutes.clear();
     }
 
     @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
@@ -630,8 +795,8 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
             for (String itemTypeName : itemFactory.getSupportedItemTypes()) {
                 Item item = itemFactory.createItem(itemTypeName, "tmp");
                 if (item != null) {
-                    acceptedCommandTypeMap.put(itemTypeName, item.getAcceptedCommandTypes());
-                    acceptedStateTypeMap.put(itemTypeName, item.getAcceptedDataTypes());
+                    acceptedCommandTypeMap.put(itemTypeName, new AcceptedTypes<>(item.getAcceptedCommandTypes()));
+                    acceptedStateTypeMap.put(itemTypeName, new AcceptedTypes<>(item.getAcceptedDataTypes()));
                 } else {
                     logger.error("Item factory {} suggested it can create items of type {} but returned null",
                             itemFactory, itemTypeName);
@@ -652,12 +817,104 @@ public class CommunicationManager implements EventSubscriber, RegistryChangeList
     @Reference
     public void setChannelTypeRegistry(ChannelTypeRegistry channelTypeRegistry) {
         this.channelTypeRegistry = channelTypeRegistry;
+        channelTypeDimensions.clear();
     }
 
     public void unsetChannelTypeRegistry(ChannelTypeRegistry channelTypeRegistry) {
         this.channelTypeRegistry = null;
     }
 
+    /**
+     * The routes for the links of an item, computed from the set of links they have been created for.
+     */
+    private static class ItemLinkRoutes {
+        private final Set<ItemChannelLink> links;
+        private final LinkRoute[] routes;
+
+        ItemLinkRoutes(Set<ItemChannelLink> links) {
+            this.links = links;
+            this.routes = new LinkRoute[links.size()];
+            int i = 0;
+            for (ItemChannelLink link : links) {
+                routes[i++] = new LinkRoute(link);
+            }
+        }
+    }
+
+    /**
+     * The route from an item to a linked channel.
+     */
+    private static class LinkRoute {
+        private final ItemChannelLink link;
+        private final ChannelUID channelUID;
+        private final String channelUIDAsString;
+        private final ThingUID thingUID;
+
+        LinkRoute(ItemChannelLink link) {
+            this.link = link;
+            this.channelUID = link.getLinkedUID();
+            this.channelUIDAsString = channelUID.toString();
+            this.thingUID = channelUID.getThingUID();
+        }
+    }
+
+    /**
+     * The routes for the links of a channel, computed from the set of links they have been created for.
+     */
+    private static class ChannelLinkRoutes {
+        private final Set<ItemChannelLink> links;
+        private final ChannelLinkRoute[] routes;
+
+        ChannelLinkRoutes(Set<ItemChannelLink> links, List<ChannelLinkRoute> routes) {
+            this.links = links;
+            this.routes = routes.toArray(NO_CHANNEL_LINK_ROUTES);
+        }
+    }
+
+    /**
+     * The route from a channel to the profile of a link of an existing item.
+     */
+    private static class ChannelLinkRoute {
+        private final Profile profile;
+
+        ChannelLinkRoute(Profile profile) {
+            this.profile = profile;
+        }
+    }
+
+    /**
+     * The types accepted by an item type, along with the accepted type each received type is converted to.
+     */
+    private static class AcceptedTypes<T extends Type> {
+        private final List<Class<? extends T>> types;
+
+        // received type -> accepted type it is converted to, empty if it is not accepted
+        private final Map<Class<?>, Optional<Class<? extends T>>> conversions = new ConcurrentHashMap<>();
+
+        AcceptedTypes(List<Class<? extends T>> types) {
+            this.types = types;
+        }
+
+        Optional<Class<? extends T>> getAcceptedType(Class<?> typeClass) {
+            return conversions.computeIfAbsent(typeClass, this::findAcceptedType);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Optional<Class<? extends T>> findAcceptedType(Class<?> typeClass) {
+            if (types.contains(typeClass)) {
+                return Optional.of((Class<? extends T>) typeClass);
+            }
+            // Look for class hierarchy and convert appropriately
+            for (Class<? extends T> acceptedType : types) {
+                if (!acceptedType.isEnum() && acceptedType.isAssignableFrom(typeClass) //
+                        && State.class.isAssignableFrom(acceptedType) && State.class.isAssignableFrom(typeClass)) {
+                    return Optional.of(acceptedType);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
     private static class NoOpProfile implements Profile {
         @Override
         public @NonNull ProfileTypeUID getProfileTypeUID() {
@@ -167,6 +167,11 @@ public class ThingManagerImpl
             communicationManager.stateUpdated(channelUID, state);
         }
 
+        @Override
+        public void statesUpdated(Map<ChannelUID, State> states) {
+            communicationManager.statesUpdated(states);
+        }
+
         @Override
         public void postCommand(ChannelUID channelUID, Command command) {
             communicationManager.postCommand(channelUID, command);
@@ -12,13 +12,7 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
 import org.eclipse.smarthome.core.common.registry.Provider;
@@ -30,15 +24,17 @@ import org.eclipse.smarthome.core.thing.UID;
  *
  * @author Dennis Nobel - Initial contribution
  * @author Markus Rathgeb - Use separate collections to improve performance
+ * @author Eclipse SmartHome - Lock-free indexes with immutable link sets
  *
  * @param <L> Concrete type of the abstract link
  */
 public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Provider<L>>
         extends AbstractRegistry<L, String, P> {
 
-    private final ReentrantReadWriteLock toLinkLock = new ReentrantReadWriteLock();
-    private final Map<String, Set<L>> itemNameToLink = new HashMap<>();
-    private final Map<UID, Set<L>> linkedUidToLink = new HashMap<>();
+    private final LinkIndex<String, L> itemNameToLink = new LinkIndex<>();
+    private final LinkIndex<UID, L> linkedUidToLink = new LinkIndex<>();
+    private final LinkIndex<String, UID> itemNameToLinkedUid = new LinkIndex<>();
+    private final LinkIndex<UID, String> linkedUidToItemName = new LinkIndex<>();
 
     protected AbstractLinkRegistry(final Class<P> providerClazz) {
         super(providerClazz);
@@ -67,54 +63,20 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
         final String itemName = element.getItemName();
         final UID linkedUid = element.getLinkedUID();
 
-        toLinkLock.writeLock().lock();
-        try {
-            Set<L> set;
-
-            set = itemNameToLink.get(itemName);
-            if (set == null) {
-                set = new HashSet<>();
-                itemNameToLink.put(itemName, set);
-            }
-            set.add(element);
-
-            set = linkedUidToLink.get(linkedUid);
-            if (set == null) {
-                set = new HashSet<>();
-                linkedUidToLink.put(linkedUid, set);
-            }
-            set.add(element);
-        } finally {
-            toLinkLock.writeLock().unlock();
-        }
+        itemNameToLink.add(itemName, element);
+        linkedUidToLink.add(linkedUid, element);
+        itemNameToLinkedUid.add(itemName, linkedUid);
+        linkedUidToItemName.add(linkedUid, itemName);
     }
 
     private void toLinkRemoved(final L element) {
         final String itemName = element.getItemName();
         final UID linkedUid = element.getLinkedUID();
 
-        toLinkLock.writeLock().lock();
-        try {
-            Set<L> set;
-
-            set = itemNameToLink.get(itemName);
-            if (set != null) {
-                set.remove(element);
-                if (set.isEmpty()) {
-                    itemNameToLink.remove(itemName);
-                }
-            }
-
-            set = linkedUidToLink.get(linkedUid);
-            if (set != null) {
-                set.remove(element);
-                if (set.isEmpty()) {
-                    linkedUidToLink.remove(linkedUid);
-                }
-            }
-        } finally {
-            toLinkLock.writeLock().unlock();
-        }
+        itemNameToLink.remove(itemName, element);
+        linkedUidToLink.remove(linkedUid, element);
+        itemNameToLinkedUid.remove(itemName, linkedUid);
+        linkedUidToItemName.remove(linkedUid, itemName);
     }
 
     /**
@@ -126,18 +88,7 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return true if linked, false otherwise
      */
     public boolean isLinked(final String itemName, final UID uid) {
-        toLinkLock.readLock().lock();
-        try {
-            final Set<L> forItemName = itemNameToLink.get(itemName);
-            final Set<L> forLinkedUID = linkedUidToLink.get(uid);
-            if (forItemName == null || forLinkedUID == null) {
-                return false;
-            } else {
-                return forItemName.parallelStream().anyMatch(forLinkedUID::contains);
-            }
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return itemNameToLinkedUid.get(itemName).contains(uid);
     }
 
     /**
@@ -147,12 +98,7 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return true if a link exists, otherwise false
      */
     public boolean isLinked(final String itemName) {
-        toLinkLock.readLock().lock();
-        try {
-            return itemNameToLink.get(itemName) != null; // if present the set is not empty by definition
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return itemNameToLink.contains(itemName);
     }
 
     /**
@@ -162,12 +108,7 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return true if a link exists, otherwise false
      */
     public boolean isLinked(final UID uid) {
-        toLinkLock.readLock().lock();
-        try {
-            return linkedUidToLink.get(uid) != null; // if present the set is not empty by definition
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return linkedUidToLink.contains(uid);
     }
 
     /**
@@ -177,48 +118,43 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return a non-null unmodifiable collection of item names that are linked to the given UID.
      */
     public Set<String> getLinkedItemNames(final UID uid) {
-        toLinkLock.readLock().lock();
-        try {
-            final Set<L> forLinkedUID = linkedUidToLink.get(uid);
-            if (forLinkedUID == null) {
-                return Collections.emptySet();
-            }
-            return forLinkedUID.parallelStream().map(link -> link.getItemName()).collect(Collectors.toSet());
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return linkedUidToItemName.get(uid);
+    }
+
+    /**
+     * Returns the UIDs, which are bound to the given item name.
+     *
+     * @param itemName item name
+     * @return a non-null unmodifiable set of the UIDs that are linked to the given item name
+     */
+    protected Set<UID> getLinkedUIDs(final String itemName) {
+        return itemNameToLinkedUid.get(itemName);
     }
 
     /**
      * Returns all links for a given UID.
      *
+     * <p>
+     * The same set instance is returned as long as the links for the given UID are not modified.
+     *
      * @param uid a channel UID
      * @return an unmodifiable set of links for the given UID
      */
     public Set<L> getLinks(final UID uid) {
-        toLinkLock.readLock().lock();
-        try {
-            final Set<L> forLinkedUID = linkedUidToLink.get(uid);
-            return forLinkedUID != null ? new HashSet<>(forLinkedUID) : Collections.emptySet();
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return linkedUidToLink.get(uid);
     }
 
     /**
      * Returns all links for a given item name.
      *
+     * <p>
+     * The same set instance is returned as long as the links for the given item name are not modified.
+     *
      * @param itemName the name of the item
      * @return an unmodifiable set of links for the given item name
      */
     public Set<L> getLinks(final String itemName) {
-        toLinkLock.readLock().lock();
-        try {
-            final Set<L> forLinkedUID = itemNameToLink.get(itemName);
-            return forLinkedUID != null ? new HashSet<>(forLinkedUID) : Collections.emptySet();
-        } finally {
-            toLinkLock.readLock().unlock();
-        }
+        return itemNameToLink.get(itemName);
     }
 
 }
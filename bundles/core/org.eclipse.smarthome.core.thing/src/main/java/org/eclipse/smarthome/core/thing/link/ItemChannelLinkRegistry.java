@@ -16,6 +16,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.eclipse.smarthome.core.common.registry.ManagedProvider;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
@@ -37,6 +38,7 @@ import org.osgi.service.component.annotations.ReferencePolicy;
  * @author Dennis Nobel - Initial contribution
  * @author Markus Rathgeb - Linked items returns only existing items
  * @author Markus Rathgeb - Rewrite collection handling to improve performance
+ * @author Eclipse SmartHome - Index links by thing UID
  *
  */
 @Component(immediate = true, service = ItemChannelLinkRegistry.class)
@@ -45,28 +47,61 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
     private ThingRegistry thingRegistry;
     private ItemRegistry itemRegistry;
 
+    private final LinkIndex<ThingUID, ItemChannelLink> thingUidToLink = new LinkIndex<>();
+
     public ItemChannelLinkRegistry() {
         super(ItemChannelLinkProvider.class);
     }
 
+    @Override
+    protected void onAddElement(final ItemChannelLink element) {
+        super.onAddElement(element);
+        thingUidToLink.add(element.getLinkedUID().getThingUID(), element);
+    }
+
+    @Override
+    protected void onRemoveElement(final ItemChannelLink element) {
+        super.onRemoveElement(element);
+        thingUidToLink.remove(element.getLinkedUID().getThingUID(), element);
+    }
+
+    @Override
+    protected void onUpdateElement(final ItemChannelLink oldElement, final ItemChannelLink element) {
+        super.onUpdateElement(oldElement, element);
+        thingUidToLink.remove(oldElement.getLinkedUID().getThingUID(), oldElement);
+        thingUidToLink.add(element.getLinkedUID().getThingUID(), element);
+    }
+
     /**
      * Returns a set of bound channels for the given item name.
      *
      * @param itemName item name
      * @return an unmodifiable set of bound channels for the given item name
      */
+    @SuppressWarnings("unchecked")
     public Set<ChannelUID> getBoundChannels(final String itemName) {
-        return getLinks(itemName).parallelStream().map(link -> link.getLinkedUID()).collect(Collectors.toSet());
+        // the linked UIDs of item channel links are channel UIDs
+        return (Set<ChannelUID>) (Set<?>) getLinkedUIDs(itemName);
+    }
+
+    /**
+     * Returns all links to the channels of the given thing.
+     *
+     * @param thingUID the UID of the thing
+     * @return an unmodifiable set of links to the channels of the given thing
+     */
+    public Set<ItemChannelLink> getLinksForThing(final ThingUID thingUID) {
+        return thingUidToLink.get(thingUID);
     }
 
     @Override
     public Set<String> getLinkedItemNames(final UID uid) {
-        return super.getLinkedItemNames(uid).parallelStream().filter(itemName -> itemRegistry.get(itemName) != null)
+        return super.getLinkedItemNames(uid).stream().filter(itemName -> itemRegistry.get(itemName) != null)
                 .collect(Collectors.toSet());
     }
 
     public Set<Item> getLinkedItems(final UID uid) {
-        return super.getLinkedItemNames(uid).parallelStream().map(itemName -> itemRegistry.get(itemName))
+        return super.getLinkedItemNames(uid).stream().map(itemName -> itemRegistry.get(itemName))
                 .filter(Objects::nonNull).collect(Collectors.toSet());
     }
 
@@ -77,7 +112,7 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
      * @return an unmodifiable set of bound things for the given item name
      */
     public Set<Thing> getBoundThings(final String itemName) {
-        return getBoundChannels(itemName).parallelStream()
+        return getBoundChannels(itemName).stream()
                 .map(channelUID -> thingRegistry.get(channelUID.getThingUID())).filter(Objects::nonNull)
                 .collect(Collectors.toSet());
     }
@@ -121,9 +156,12 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
     }
 
     public void removeLinksForThing(final ThingUID thingUID) {
-        ((ManagedItemChannelLinkProvider) getManagedProvider()
-                .orElseThrow(() -> new IllegalStateException("ManagedProvider is not available")))
-                        .removeLinksForThing(thingUID);
+        ManagedProvider<ItemChannelLink, String> managedProvider = getManagedProvider()
+                .orElseThrow(() -> new IllegalStateException("ManagedProvider is not available"));
+        // the links of other providers are not known to the managed provider, removing them does nothing
+        for (ItemChannelLink link : getLinksForThing(thingUID)) {
+            managedProvider.remove(link.getUID());
+        }
     }
 
     @Override
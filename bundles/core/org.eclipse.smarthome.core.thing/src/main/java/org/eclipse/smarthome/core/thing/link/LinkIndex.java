@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.thing.link;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link LinkIndex} maps keys to sets of values, e.g. item names to links.
+ *
+ * <p>
+ * The sets are immutable and replaced on every modification, so the set for a key can be returned to the callers
+ * without copying it and the same set instance is returned as long as the values of the key are not modified. Lookups
+ * do not lock and modifications of the same key are atomic.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+class LinkIndex<K, V> {
+
+    private final Map<K, Set<V>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a value for a key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void add(K key, V value) {
+        index.compute(key, (k, values) -> {
+            if (values != null && values.contains(value)) {
+                return values;
+            }
+            final Set<V> newValues = values == null ? new HashSet<>(2) : new HashSet<>(values);
+            newValues.add(value);
+            return Collections.unmodifiableSet(newValues);
+        });
+    }
+
+    /**
+     * Removes a value for a key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void remove(K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            if (!values.contains(value)) {
+                return values;
+            }
+            if (values.size() == 1) {
+                return null;
+            }
+            final Set<V> newValues = new HashSet<>(values);
+            newValues.remove(value);
+            return Collections.unmodifiableSet(newValues);
+        });
+    }
+
+    /**
+     * Returns the values for a key.
+     *
+     * @param key the key
+     * @return an unmodifiable set of the values, empty if there are no values for the key
+     */
+    Set<V> get(K key) {
+        final Set<V> values = index.get(key);
+        return values != null ? values : Collections.emptySet();
+    }
+
+    /**
+     * Returns if there are values for a key.
+     *
+     * @param key the key
+     * @return true if there is at least one value for the key, otherwise false
+     */
+    boolean contains(K key) {
+        return index.containsKey(key);
+    }
+
+}
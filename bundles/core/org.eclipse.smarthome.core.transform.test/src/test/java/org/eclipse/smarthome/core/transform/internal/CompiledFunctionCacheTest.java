@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.transform.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompiledFunctionCache}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class CompiledFunctionCacheTest {
+
+    private final AtomicInteger compilations = new AtomicInteger();
+
+    private String compile(String function) {
+        compilations.incrementAndGet();
+        return function.toUpperCase();
+    }
+
+    @Test
+    public void testFunctionIsCompiledOnce() {
+        CompiledFunctionCache<String> cache = new CompiledFunctionCache<>(2);
+
+        assertEquals("A", cache.get("a", this::compile));
+        assertEquals("A", cache.get("a", this::compile));
+        assertEquals(1, compilations.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFunctionIsEvicted() {
+        CompiledFunctionCache<String> cache = new CompiledFunctionCache<>(2);
+
+        cache.get("a", this::compile);
+        cache.get("b", this::compile);
+        cache.get("a", this::compile);
+        cache.get("c", this::compile);
+        assertEquals(3, compilations.get());
+
+        // "b" has been evicted, "a" is still cached
+        cache.get("a", this::compile);
+        assertEquals(3, compilations.get());
+        cache.get("b", this::compile);
+        assertEquals(4, compilations.get());
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testCompilerExceptionIsPassedOn() throws TransformationException {
+        new CompiledFunctionCache<String>().get("a", function -> {
+            throw new TransformationException("invalid function " + function);
+        });
+    }
+
+}
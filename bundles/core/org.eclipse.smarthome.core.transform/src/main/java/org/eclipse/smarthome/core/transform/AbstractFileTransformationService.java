@@ -50,6 +50,7 @@ import org.slf4j.LoggerFactory;
  * @author Gaël L'hopital - Initial contribution
  * @author Kai Kreuzer - File caching mechanism
  * @author Markus Rathgeb - Add locale provider support
+ * @author Eclipse SmartHome - Access to the cached transformations for subclasses
  */
 @NonNullByDefault
 public abstract class AbstractFileTransformationService<T> implements TransformationService {
@@ -125,6 +126,26 @@ public abstract class AbstractFileTransformationService<T> implements Transforma
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
+        T transform = getCachedTransform(filename);
+
+        try {
+            return internalTransform(transform, source);
+        } catch (TransformationException e) {
+            logger.warn("Could not transform '{}' with the file '{}' : {}", source, filename, e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Returns the transformation held by a file. The transformation is loaded by
+     * {@link #internalLoadTransform(String)} on first use and kept until the file is modified or deleted.
+     *
+     * @param filename the name of the file which contains the transformation definition.
+     *            The name may contain subfoldernames as well
+     * @return the transformation held by the localized or the given file
+     * @throws TransformationException file couldn't be read for any reason
+     */
+    protected T getCachedTransform(String filename) throws TransformationException {
         final WatchService watchService = getWatchService();
         processFolderEvents(watchService);
 
@@ -134,13 +155,7 @@ public abstract class AbstractFileTransformationService<T> implements Transforma
             transform = internalLoadTransform(transformFile);
             cachedFiles.put(transformFile, transform);
         }
-
-        try {
-            return internalTransform(transform, source);
-        } catch (TransformationException e) {
-            logger.warn("Could not transform '{}' with the file '{}' : {}", source, filename, e.getMessage());
-            return "";
-        }
+        return transform;
     }
 
     /**
@@ -245,9 +260,11 @@ public abstract class AbstractFileTransformationService<T> implements Transforma
         }
 
         // the filename may already contain locale information
-        if (!filename.matches(".*_[a-z]{2}." + extension + "$")) {
+        final LocaleProvider localeProvider = this.localeProvider;
+        if (localeProvider != null && !filename.matches(".*_[a-z]{2}." + extension + "$")) {
             String basename = FilenameUtils.getBaseName(filename);
-            String alternateName = prefix + basename + "_" + getLocale().getLanguage() + "." + extension;
+            String alternateName = prefix + basename + "_" + localeProvider.getLocale().getLanguage() + "."
+                    + extension;
             String alternatePath = getSourcePath() + alternateName;
 
             File f = new File(alternatePath);
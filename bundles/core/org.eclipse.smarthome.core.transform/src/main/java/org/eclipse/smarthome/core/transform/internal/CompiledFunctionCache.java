@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.transform.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.transform.TransformationService;
+
+/**
+ * A bounded cache of compiled transformation functions, e.g. regular expressions or XPath expressions, for
+ * {@link TransformationService}s that compile the function they are called with.
+ *
+ * If the cache is full, the least recently used function is evicted.
+ *
+ * This class is not API. It is only exported for the transformation services of this project.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ *
+ * @param <V> the type of the compiled functions
+ */
+@NonNullByDefault
+public class CompiledFunctionCache<V> {
+
+    /**
+     * Compiles a transformation function.
+     *
+     * @param <V> the type of the compiled function
+     * @param <E> the type of the exception thrown if the function cannot be compiled
+     */
+    @FunctionalInterface
+    public interface Compiler<V, E extends Exception> {
+        V compile(String function) throws E;
+    }
+
+    /** The default maximum number of cached functions. */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    // function -> compiled function, in access order; guarded by itself
+    private final Map<String, V> compiledFunctions;
+
+    /**
+     * Create a cache for up to {@value #DEFAULT_CAPACITY} functions.
+     */
+    public CompiledFunctionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param capacity the maximum number of cached functions
+     */
+    public CompiledFunctionCache(final int capacity) {
+        this.compiledFunctions = new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the compiled function, compiling it if it is not cached yet.
+     *
+     * The function is compiled without holding the lock of the cache, so it might be compiled more than once if it is
+     * requested concurrently.
+     *
+     * @param function the function
+     * @param compiler the compiler used if the function is not cached
+     * @return the compiled function
+     * @throws E if the function cannot be compiled
+     */
+    public <E extends Exception> V get(String function, Compiler<V, E> compiler) throws E {
+        V compiledFunction;
+        synchronized (compiledFunctions) {
+            compiledFunction = compiledFunctions.get(function);
+        }
+        if (compiledFunction == null) {
+            compiledFunction = compiler.compile(function);
+            synchronized (compiledFunctions) {
+                compiledFunctions.put(function, compiledFunction);
+            }
+        }
+        return compiledFunction;
+    }
+
+}
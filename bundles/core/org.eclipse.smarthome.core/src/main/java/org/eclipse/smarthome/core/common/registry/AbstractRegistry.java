@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
@@ -46,6 +47,7 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - switched to parameterized logging
  * @author Hilbrand Bouwkamp - Made protected fields private and added new methods to give access.
  * @author Markus Rathgeb - Use separate collections to improve performance
+ * @author Eclipse SmartHome - Lock-free reads on a versioned snapshot
  *
  * @param <E> type of the element
  */
@@ -67,10 +69,18 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
     private final ReentrantReadWriteLock.ReadLock elementReadLock = elementLock.readLock();
     private final ReentrantReadWriteLock.WriteLock elementWriteLock = elementLock.writeLock();
     private final Map<Provider<E>, Collection<E>> providerToElements = new HashMap<>();
-    private final Map<E, Provider<E>> elementToProvider = new HashMap<>();
-    private final Map<K, E> identifierToElement = new HashMap<>();
+    private final Map<E, Provider<E>> elementToProvider = new ConcurrentHashMap<>();
+    private final Map<K, E> identifierToElement = new ConcurrentHashMap<>();
     private final Set<E> elements = new HashSet<>();
 
+    /*
+     * The version is incremented on every modification while holding the write lock. The snapshot of the elements is
+     * dropped on a modification and created again on the first read afterwards, so a bulk of modifications (e.g. all
+     * elements of a new provider) does not copy the elements for each single one.
+     */
+    private long version;
+    private volatile RegistrySnapshot<E, K> snapshot;
+
     private final Collection<RegistryChangeListener<E>> listeners = new CopyOnWriteArraySet<RegistryChangeListener<E>>();
 
     private Optional<ManagedProvider<E, K>> managedProvider = Optional.empty();
@@ -182,31 +192,72 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
                     ex.getMessage(), ex);
             return false;
         }
-        identifierToElement.put(element.getUID(), element);
+        // the provider must be known before the element can be found by its identifier
         elementToProvider.put(element, provider);
+        identifierToElement.put(element.getUID(), element);
         providerElements.add(element);
         elements.add(element);
+        modified();
         return true;
     }
 
+    /**
+     * Handle a modification of the elements.
+     *
+     * <p>
+     * This method must only be called if the write lock for elements has been locked!
+     */
+    private void modified() {
+        version++;
+        snapshot = null;
+    }
+
     @Override
     public void addRegistryChangeListener(RegistryChangeListener<E> listener) {
         listeners.add(listener);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The returned collection is an unmodifiable snapshot, that is not changed by later modifications of the registry.
+     */
     @Override
     public Collection<@NonNull E> getAll() {
-        elementReadLock.lock();
-        try {
-            return new HashSet<>(elements);
-        } finally {
-            elementReadLock.unlock();
-        }
+        return getSnapshot().getAll();
     }
 
     @Override
     public Stream<E> stream() {
-        return getAll().stream();
+        return getSnapshot().stream();
+    }
+
+    /**
+     * Returns an immutable snapshot of the elements of the registry.
+     *
+     * <p>
+     * The snapshot is shared by all readers until the registry is modified, so no lock is held and no element is
+     * copied as long as the registry is not modified. The version of the snapshot can be used to detect modifications
+     * of the registry, e.g. to invalidate data that has been derived from the elements.
+     *
+     * @return the current snapshot
+     */
+    public RegistrySnapshot<E, K> getSnapshot() {
+        RegistrySnapshot<E, K> snapshot = this.snapshot;
+        if (snapshot == null) {
+            elementReadLock.lock();
+            try {
+                snapshot = this.snapshot;
+                if (snapshot == null) {
+                    snapshot = new RegistrySnapshot<>(version, identifierToElement, elements);
+                    this.snapshot = snapshot;
+                }
+            } finally {
+                elementReadLock.unlock();
+            }
+        }
+        return snapshot;
     }
 
     @Override
@@ -234,6 +285,7 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
             elementToProvider.remove(existingElement);
             providerToElements.get(provider).remove(existingElement);
             elements.remove(existingElement);
+            modified();
         } finally {
             elementWriteLock.unlock();
         }
@@ -274,14 +326,18 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
                         ex.getMessage(), ex);
                 return;
             }
-            identifierToElement.put(uid, element);
-            elementToProvider.remove(existingElement);
+            // the provider must be known before the element can be found by its identifier
             elementToProvider.put(element, provider);
+            identifierToElement.put(uid, element);
+            if (!existingElement.equals(element)) {
+                elementToProvider.remove(existingElement);
+            }
             final Collection<E> providerElements = providerToElements.get(provider);
             providerElements.remove(existingElement);
             providerElements.add(element);
             elements.remove(existingElement);
             elements.add(element);
+            modified();
         } finally {
             elementWriteLock.unlock();
         }
@@ -290,12 +346,10 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
 
     @Override
     public E get(K key) {
-        elementReadLock.lock();
-        try {
-            return identifierToElement.get(key);
-        } finally {
-            elementReadLock.unlock();
+        if (key == null) {
+            return null;
         }
+        return identifierToElement.get(key);
     }
 
     /**
@@ -305,16 +359,16 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * @return provider and element entry or null if no element was found
      */
     protected Entry<Provider<E>, E> getValueAndProvider(K key) {
-        elementReadLock.lock();
-        try {
-            final E element = identifierToElement.get(key);
-            if (element == null) {
-                return null;
-            }
-            return new SimpleEntry<Provider<E>, E>(elementToProvider.get(element), element);
-        } finally {
-            elementReadLock.unlock();
+        final E element = get(key);
+        if (element == null) {
+            return null;
         }
+        final Provider<E> provider = elementToProvider.get(element);
+        if (provider == null) {
+            // the element has been removed in the meantime
+            return null;
+        }
+        return new SimpleEntry<Provider<E>, E>(provider, element);
     }
 
     @Override
@@ -406,16 +460,11 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * @return provider or null if no provider was found
      */
     protected Provider<E> getProvider(K key) {
-        elementReadLock.lock();
-        try {
-            final E element = identifierToElement.get(key);
-            if (element == null) {
-                return null;
-            }
-            return elementToProvider.get(element);
-        } finally {
-            elementReadLock.unlock();
+        final E element = get(key);
+        if (element == null) {
+            return null;
         }
+        return elementToProvider.get(element);
     }
 
     /**
@@ -425,12 +474,10 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * @return provider or null if no provider was found
      */
     public Provider<E> getProvider(E element) {
-        elementReadLock.lock();
-        try {
-            return elementToProvider.get(element);
-        } finally {
-            elementReadLock.unlock();
+        if (element == null) {
+            return null;
         }
+        return elementToProvider.get(element);
     }
 
     /**
@@ -442,7 +489,7 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on an immutable snapshot and so no lock is hold.
      *
      * @param provider provider to traverse elements of
      * @param consumer function to call with element
@@ -468,7 +515,7 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on an immutable snapshot and so no lock is hold.
      * 
      * @param consumer function to call with element
      */
@@ -491,7 +538,7 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
      * collections.
      * You should also not call third party code that could e.g. access the registry itself again. This could lead to a
      * dead lock and hard finding bugs.
-     * The {@link #getAll()} and {@link #stream()} method will operate on a copy and so no lock is hold.
+     * The {@link #getAll()} and {@link #stream()} method will operate on an immutable snapshot and so no lock is hold.
      * 
      * @param consumer function to call with the provider and element
      */
@@ -601,9 +648,10 @@ public abstract class AbstractRegistry<E extends Identifiable<K>, K, P extends P
                 }
                 removedElements.add(element);
                 elements.remove(element);
-                elementToProvider.remove(element);
                 identifierToElement.remove(element.getUID());
+                elementToProvider.remove(element);
             }
+            modified();
         } finally {
             elementWriteLock.unlock();
         }
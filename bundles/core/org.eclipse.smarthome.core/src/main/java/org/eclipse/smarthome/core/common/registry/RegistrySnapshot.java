@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.common.registry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link RegistrySnapshot} is an immutable view of the elements of a registry at a certain version.
+ *
+ * <p>
+ * The version is incremented on every modification of the registry, so the version of a snapshot can be compared with
+ * the version of a later snapshot of the same registry to decide if the registry has been modified in between. This
+ * allows to build caches on top of the registry elements that are only rebuilt on a modification.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ *
+ * @param <E> type of the elements
+ * @param <K> type of the element keys
+ */
+public final class RegistrySnapshot<E extends Identifiable<K>, K> {
+
+    private final long version;
+    private final Map<K, E> identifierToElement;
+    private final Collection<E> elements;
+
+    RegistrySnapshot(long version, Map<K, E> identifierToElement, Collection<E> elements) {
+        this.version = version;
+        this.identifierToElement = new HashMap<>(identifierToElement);
+        this.elements = Collections.unmodifiableSet(new HashSet<>(elements));
+    }
+
+    /**
+     * Returns the version of the registry this snapshot has been taken at.
+     *
+     * @return the version, which is incremented on every modification of the registry
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns all elements of the snapshot.
+     *
+     * @return an unmodifiable collection of the elements
+     */
+    public Collection<E> getAll() {
+        return elements;
+    }
+
+    /**
+     * Returns a stream of all elements of the snapshot.
+     *
+     * @return a stream of the elements
+     */
+    public Stream<E> stream() {
+        return elements.stream();
+    }
+
+    /**
+     * Returns the element with the given key.
+     *
+     * @param key the key of the element
+     * @return the element or null if the snapshot does not contain an element with the given key
+     */
+    public @Nullable E get(K key) {
+        return identifierToElement.get(key);
+    }
+
+    /**
+     * Returns the number of elements of the snapshot.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return elements.size();
+    }
+
+}
@@ -12,6 +12,8 @@
  */
 package org.eclipse.smarthome.core.events;
 
+import java.util.function.Supplier;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -25,7 +27,9 @@ public abstract class AbstractEvent implements Event {
 
     private final String topic;
 
-    private final String payload;
+    private volatile @Nullable String payload;
+
+    private final @Nullable Supplier<String> payloadSupplier;
 
     private final @Nullable String source;
 
@@ -39,6 +43,24 @@ public abstract class AbstractEvent implements Event {
     public AbstractEvent(String topic, String payload, @Nullable String source) {
         this.topic = topic;
         this.payload = payload;
+        this.payloadSupplier = null;
+        this.source = source;
+    }
+
+    /**
+     * Must be called in subclass constructor to create a new event whose payload is serialized lazily.
+     *
+     * The supplier is called on the first call of {@link #getPayload()}. Concurrent first calls may invoke it more than
+     * once, so it must always produce the same serialized payload.
+     *
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the payload
+     * @param source the source
+     */
+    protected AbstractEvent(String topic, Supplier<String> payloadSupplier, @Nullable String source) {
+        this.topic = topic;
+        this.payload = null;
+        this.payloadSupplier = payloadSupplier;
         this.source = source;
     }
 
@@ -49,9 +71,27 @@ public abstract class AbstractEvent implements Event {
 
     @Override
     public String getPayload() {
+        String payload = this.payload;
+        if (payload == null) {
+            final Supplier<String> payloadSupplier = this.payloadSupplier;
+            if (payloadSupplier == null) {
+                throw new IllegalStateException("The event has been created without a payload.");
+            }
+            payload = payloadSupplier.get();
+            this.payload = payload;
+        }
         return payload;
     }
 
+    /**
+     * Checks whether the payload is serialized lazily and has not been requested so far.
+     *
+     * @return true if the payload will be serialized on the next call of {@link #getPayload()}, otherwise false
+     */
+    public boolean isPayloadPending() {
+        return payload == null && payloadSupplier != null;
+    }
+
     @Override
     public @Nullable String getSource() {
         return source;
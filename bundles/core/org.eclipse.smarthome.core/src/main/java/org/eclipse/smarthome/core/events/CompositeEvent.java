@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.events;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A {@link CompositeEvent} bundles several events that are published at once, e.g. the state updates of all channels
+ * a binding has polled from a bridge.
+ *
+ * Only the {@link EventSubscriber}s that explicitly subscribe to the type of the composite event receive it as a whole.
+ * All other subscribers receive the single events it is composed of, as if they had been published one after another.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public interface CompositeEvent extends Event {
+
+    /**
+     * Gets the single events this event is composed of.
+     *
+     * @return the single events in the order they have been published
+     */
+    List<? extends Event> getEvents();
+
+}
@@ -43,6 +43,8 @@ public interface EventSubscriber {
      * Gets an {@link EventFilter} in order to receive specific events if the filter applies. If there is no
      * filter all subscribed event types are received.
      *
+     * Like the subscribed event types, the filter is requested once when the subscriber is registered.
+     *
      * @return the event filter, or null
      */
     @Nullable
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches Eclipse SmartHome events to the {@link EventSubscriber}s using one ordered {@link EventSubscriberLane} per
+ * subscriber.
+ *
+ * The lanes are drained concurrently by the threads of the {@value #THREAD_POOL_NAME} thread pool, whose size can be
+ * configured through the {@link ThreadPoolManager}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public class EventDispatcher {
+
+    static final String THREAD_POOL_NAME = "events";
+
+    /** The default maximum number of events queued for a single subscriber. */
+    static final int DEFAULT_LANE_CAPACITY = 10000;
+
+    /** The default time in milliseconds the routing thread waits for free space in a full lane. */
+    static final long DEFAULT_OFFER_TIMEOUT = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+
+    private final Map<EventSubscriber, EventSubscriberLane> lanes = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final int laneCapacity;
+    private final long offerTimeout;
+
+    /**
+     * Create a new event dispatcher using the default thread pool and lane settings.
+     */
+    public EventDispatcher() {
+        this(ThreadPoolManager.getPool(THREAD_POOL_NAME), DEFAULT_LANE_CAPACITY, DEFAULT_OFFER_TIMEOUT);
+    }
+
+    /**
+     * Create a new event dispatcher.
+     *
+     * @param executor the executor used to drain the lanes
+     * @param laneCapacity the maximum number of events queued for a single subscriber
+     * @param offerTimeout the time in milliseconds to wait for free space in a full lane before the event is dropped
+     */
+    public EventDispatcher(Executor executor, int laneCapacity, long offerTimeout) {
+        this.executor = executor;
+        this.laneCapacity = laneCapacity;
+        this.offerTimeout = offerTimeout;
+    }
+
+    /**
+     * Add a lane for the given subscriber.
+     *
+     * @param subscriber the subscriber
+     */
+    public void addSubscriber(EventSubscriber subscriber) {
+        lanes.computeIfAbsent(subscriber, s -> new EventSubscriberLane(s, executor, laneCapacity, offerTimeout));
+    }
+
+    /**
+     * Remove the lane of the given subscriber and discard the events that have not been delivered to it yet.
+     *
+     * @param subscriber the subscriber
+     */
+    public void removeSubscriber(EventSubscriber subscriber) {
+        final EventSubscriberLane lane = lanes.remove(subscriber);
+        if (lane != null) {
+            lane.close();
+        }
+    }
+
+    /**
+     * Queue an event for delivery to the given subscriber.
+     *
+     * If the lane of the subscriber is full, this method waits for free space up to the offer timeout.
+     *
+     * @param subscriber the subscriber
+     * @param event the event
+     */
+    public void dispatch(EventSubscriber subscriber, Event event) {
+        final EventSubscriberLane lane = lanes.get(subscriber);
+        if (lane == null) {
+            logger.debug("Ignore event for subscriber '{}' that has already been removed.", subscriber);
+            return;
+        }
+        lane.offer(event);
+    }
+
+    /**
+     * Get the number of events that are queued but not delivered yet for every subscriber.
+     *
+     * @return the queue depth indexed by the subscriber
+     */
+    public Map<EventSubscriber, Integer> getQueueDepths() {
+        final Map<EventSubscriber, Integer> queueDepths = new LinkedHashMap<>();
+        for (final EventSubscriberLane lane : lanes.values()) {
+            queueDepths.put(lane.getSubscriber(), lane.getQueueDepth());
+        }
+        return Collections.unmodifiableMap(queueDepths);
+    }
+
+    /**
+     * Get the number of events that have been dropped for every subscriber because its lane stayed full.
+     *
+     * @return the number of dropped events indexed by the subscriber
+     */
+    public Map<EventSubscriber, Long> getDroppedEvents() {
+        final Map<EventSubscriber, Long> droppedEvents = new LinkedHashMap<>();
+        for (final EventSubscriberLane lane : lanes.values()) {
+            droppedEvents.put(lane.getSubscriber(), lane.getDroppedEvents());
+        }
+        return Collections.unmodifiableMap(droppedEvents);
+    }
+
+    /**
+     * Close all lanes and discard the events that have not been delivered yet.
+     */
+    public void close() {
+        for (final EventSubscriberLane lane : lanes.values()) {
+            lane.close();
+        }
+        lanes.clear();
+    }
+
+}
@@ -13,16 +13,15 @@
 package org.eclipse.smarthome.core.internal.events;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.smarthome.core.common.SafeCaller;
+import org.eclipse.smarthome.core.events.CompositeEvent;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventFactory;
-import org.eclipse.smarthome.core.events.EventFilter;
 import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,27 +36,34 @@ public class EventHandler {
 
     private final Logger logger = LoggerFactory.getLogger(EventHandler.class);
 
-    private final Map<String, Set<EventSubscriber>> typedEventSubscribers;
+    private final Supplier<EventSubscriberIndex> subscriberIndex;
     private final Map<String, EventFactory> typedEventFactories;
-    private final SafeCaller safeCaller;
+    private final BiConsumer<EventSubscriber, Event> dispatcher;
 
     /**
      * Create a new event handler.
      *
-     * @param typedEventSubscribers the event subscribers indexed by the event type
+     * @param subscriberIndex the supplier of the current index of the event subscribers
      * @param typedEventFactories the event factories indexed by the event type
-     * @param safeCaller the safe caller to use
+     * @param dispatcher the dispatcher that delivers the events to the subscribers
      */
-    public EventHandler(final Map<String, Set<EventSubscriber>> typedEventSubscribers,
-            final Map<String, EventFactory> typedEventFactories, final SafeCaller safeCaller) {
-        this.typedEventSubscribers = typedEventSubscribers;
+    public EventHandler(final Supplier<EventSubscriberIndex> subscriberIndex,
+            final Map<String, EventFactory> typedEventFactories, final EventDispatcher dispatcher) {
+        this.subscriberIndex = subscriberIndex;
         this.typedEventFactories = typedEventFactories;
-        this.safeCaller = safeCaller;
+        this.dispatcher = dispatcher::dispatch;
     }
 
     public void handleEvent(org.osgi.service.event.Event osgiEvent) {
         logger.trace("Handle OSGi event (event: {})", osgiEvent);
 
+        Object eventObj = osgiEvent.getProperty("event");
+        if (eventObj instanceof Event) {
+            // the event has been posted in-process, so it can be dispatched as is
+            handleEvent((Event) eventObj);
+            return;
+        }
+
         Object typeObj = osgiEvent.getProperty("type");
         Object payloadObj = osgiEvent.getProperty("payload");
         Object topicObj = osgiEvent.getProperty("topic");
@@ -79,6 +85,21 @@ public class EventHandler {
         }
     }
 
+    private void handleEvent(final Event event) {
+        final String type = event.getType();
+        if (!typedEventFactories.containsKey(type)) {
+            logger.debug("Could not find an Event Factory for the event type '{}'.", type);
+            return;
+        }
+
+        final EventSubscriberIndex index = subscriberIndex.get();
+        if (!index.hasSubscribers(type) && !(event instanceof CompositeEvent)) {
+            return;
+        }
+
+        index.route(event, dispatcher);
+    }
+
     private void handleEvent(final String type, final String payload, final String topic,
             final @Nullable String source) {
         final EventFactory eventFactory = typedEventFactories.get(type);
@@ -87,8 +108,8 @@ public class EventHandler {
             return;
         }
 
-        final Set<EventSubscriber> eventSubscribers = getEventSubscribers(type);
-        if (eventSubscribers.isEmpty()) {
+        final EventSubscriberIndex index = subscriberIndex.get();
+        if (!index.hasSubscribers(type)) {
             return;
         }
 
@@ -97,21 +118,7 @@ public class EventHandler {
             return;
         }
 
-        dispatchESHEvent(eventSubscribers, eshEvent);
-    }
-
-    private Set<EventSubscriber> getEventSubscribers(String eventType) {
-        Set<EventSubscriber> eventTypeSubscribers = typedEventSubscribers.get(eventType);
-        Set<EventSubscriber> allEventTypeSubscribers = typedEventSubscribers.get(EventSubscriber.ALL_EVENT_TYPES);
-
-        Set<EventSubscriber> subscribers = new HashSet<>();
-        if (eventTypeSubscribers != null) {
-            subscribers.addAll(eventTypeSubscribers);
-        }
-        if (allEventTypeSubscribers != null) {
-            subscribers.addAll(allEventTypeSubscribers);
-        }
-        return subscribers;
+        index.route(eshEvent, dispatcher);
     }
 
     private @Nullable Event createESHEvent(final EventFactory eventFactory, final String type, final String payload,
@@ -128,19 +135,4 @@ public class EventHandler {
         return eshEvent;
     }
 
-    private synchronized void dispatchESHEvent(final Set<EventSubscriber> eventSubscribers, final Event event) {
-        for (final EventSubscriber eventSubscriber : eventSubscribers) {
-            EventFilter filter = eventSubscriber.getEventFilter();
-            if (filter == null || filter.apply(event)) {
-                safeCaller.create(eventSubscriber, EventSubscriber.class).withAsync().onTimeout(() -> {
-                    logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.",
-                            eventSubscriber.toString(), SafeCaller.DEFAULT_TIMEOUT);
-                }).onException(e -> {
-                    logger.error("Dispatching/filtering event for subscriber '{}' failed: {}",
-                            EventSubscriber.class.getName(), e.getMessage(), e);
-                }).build().receive(event);
-            }
-        }
-    }
-
 }
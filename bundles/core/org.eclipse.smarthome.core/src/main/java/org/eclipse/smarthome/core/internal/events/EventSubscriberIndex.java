@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.events.CompositeEvent;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.events.TopicEventFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable index of the {@link EventSubscriber}s, used to route an event to the subscribers it should be delivered
+ * to.
+ *
+ * The index is rebuilt whenever a subscriber is added or removed. For every subscribed event type it holds the
+ * subscribers without a filter, a {@link TopicFilterTrie} for the subscribers using a {@link TopicEventFilter} and the
+ * remaining subscribers, whose filters are evaluated for every event. Routing an event does not allocate any objects,
+ * except for composite events.
+ *
+ * A {@link CompositeEvent} is routed as a whole to the subscribers that are explicitly subscribed to its type. All
+ * other subscribers get the single events it is composed of.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public class EventSubscriberIndex {
+
+    /** An index without any subscribers. */
+    public static final EventSubscriberIndex EMPTY = new EventSubscriberIndex(new HashMap<>(),
+            new Route(new LinkedHashSet<>()), new HashMap<>());
+
+    private final Map<String, Route> typedRoutes;
+    private final Route allEventTypesRoute;
+
+    /* event type -> subscribers that are explicitly subscribed to it */
+    private final Map<String, Set<EventSubscriber>> typedSubscribers;
+
+    private EventSubscriberIndex(Map<String, Route> typedRoutes, Route allEventTypesRoute,
+            Map<String, Set<EventSubscriber>> typedSubscribers) {
+        this.typedRoutes = typedRoutes;
+        this.allEventTypesRoute = allEventTypesRoute;
+        this.typedSubscribers = typedSubscribers;
+    }
+
+    /**
+     * Build an index for the given subscribers.
+     *
+     * The subscribed event types and the event filter of every subscriber are requested once.
+     *
+     * @param eventSubscribers the subscribers
+     * @return the index
+     */
+    public static EventSubscriberIndex build(Collection<EventSubscriber> eventSubscribers) {
+        final Map<String, Set<EventSubscriber>> typedSubscribers = new LinkedHashMap<>();
+        final Set<EventSubscriber> allEventTypesSubscribers = new LinkedHashSet<>();
+        for (final EventSubscriber eventSubscriber : eventSubscribers) {
+            for (final String subscribedEventType : eventSubscriber.getSubscribedEventTypes()) {
+                if (EventSubscriber.ALL_EVENT_TYPES.equals(subscribedEventType)) {
+                    allEventTypesSubscribers.add(eventSubscriber);
+                } else {
+                    typedSubscribers.computeIfAbsent(subscribedEventType, type -> new LinkedHashSet<>())
+                            .add(eventSubscriber);
+                }
+            }
+        }
+
+        final Map<String, Route> typedRoutes = new HashMap<>();
+        for (final Entry<String, Set<EventSubscriber>> entry : typedSubscribers.entrySet()) {
+            final Set<EventSubscriber> subscribers = new LinkedHashSet<>(entry.getValue());
+            subscribers.addAll(allEventTypesSubscribers);
+            typedRoutes.put(entry.getKey(), new Route(subscribers));
+        }
+        return new EventSubscriberIndex(typedRoutes, new Route(allEventTypesSubscribers), typedSubscribers);
+    }
+
+    /**
+     * Check if there are any subscribers for the given event type.
+     *
+     * @param eventType the event type
+     * @return true if at least one subscriber is subscribed to the event type
+     */
+    public boolean hasSubscribers(String eventType) {
+        return !getRoute(eventType).isEmpty();
+    }
+
+    /**
+     * Pass every subscriber the event should be delivered to, together with the event, to the consumer.
+     *
+     * @param event the event
+     * @param consumer the consumer for the matching subscribers
+     */
+    public void route(Event event, BiConsumer<EventSubscriber, Event> consumer) {
+        if (event instanceof CompositeEvent) {
+            routeComposite((CompositeEvent) event, consumer);
+        } else {
+            getRoute(event.getType()).route(event, consumer);
+        }
+    }
+
+    private void routeComposite(CompositeEvent event, BiConsumer<EventSubscriber, Event> consumer) {
+        final String compositeType = event.getType();
+        final Set<EventSubscriber> compositeSubscribers = typedSubscribers.getOrDefault(compositeType,
+                Collections.emptySet());
+        if (!compositeSubscribers.isEmpty()) {
+            getRoute(compositeType).route(event, (subscriber, e) -> {
+                if (compositeSubscribers.contains(subscriber)) {
+                    consumer.accept(subscriber, e);
+                }
+            });
+        }
+        final BiConsumer<EventSubscriber, Event> singleEventConsumer = compositeSubscribers.isEmpty() ? consumer
+                : (subscriber, e) -> {
+                    if (!compositeSubscribers.contains(subscriber)) {
+                        consumer.accept(subscriber, e);
+                    }
+                };
+        for (final Event singleEvent : event.getEvents()) {
+            getRoute(singleEvent.getType()).route(singleEvent, singleEventConsumer);
+        }
+    }
+
+    private Route getRoute(String eventType) {
+        final Route route = typedRoutes.get(eventType);
+        return route != null ? route : allEventTypesRoute;
+    }
+
+    /**
+     * The subscribers of a single event type.
+     */
+    private static class Route {
+
+        private final Logger logger = LoggerFactory.getLogger(EventSubscriberIndex.class);
+
+        private final EventSubscriber[] unfilteredSubscribers;
+        private final TopicFilterTrie topicFilteredSubscribers = new TopicFilterTrie();
+        private final EventSubscriber[] filteredSubscribers;
+        private final EventFilter[] filters;
+        private final boolean empty;
+
+        Route(Set<EventSubscriber> subscribers) {
+            final List<EventSubscriber> unfiltered = new ArrayList<>();
+            final List<EventSubscriber> filtered = new ArrayList<>();
+            final List<EventFilter> filters = new ArrayList<>();
+            for (final EventSubscriber subscriber : subscribers) {
+                final EventFilter filter = getEventFilter(subscriber);
+                if (filter == null) {
+                    unfiltered.add(subscriber);
+                } else if (!(filter instanceof TopicEventFilter)
+                        || !topicFilteredSubscribers.add(((TopicEventFilter) filter).getTopicRegex(), subscriber)) {
+                    filtered.add(subscriber);
+                    filters.add(filter);
+                }
+            }
+            this.unfilteredSubscribers = unfiltered.toArray(new EventSubscriber[unfiltered.size()]);
+            this.filteredSubscribers = filtered.toArray(new EventSubscriber[filtered.size()]);
+            this.filters = filters.toArray(new EventFilter[filters.size()]);
+            this.empty = subscribers.isEmpty();
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        void route(Event event, BiConsumer<EventSubscriber, Event> consumer) {
+            for (final EventSubscriber subscriber : unfilteredSubscribers) {
+                consumer.accept(subscriber, event);
+            }
+            topicFilteredSubscribers.match(event, consumer);
+            for (int i = 0; i < filteredSubscribers.length; i++) {
+                final EventSubscriber subscriber = filteredSubscribers[i];
+                try {
+                    if (filters[i].apply(event)) {
+                        consumer.accept(subscriber, event);
+                    }
+                } catch (Exception e) {
+                    logger.error("Dispatching/filtering event for subscriber '{}' failed: {}",
+                            EventSubscriber.class.getName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        private @Nullable EventFilter getEventFilter(EventSubscriber subscriber) {
+            try {
+                return subscriber.getEventFilter();
+            } catch (Exception e) {
+                logger.error("Requesting the event filter of subscriber '{}' failed: {}", subscriber, e.getMessage(),
+                        e);
+                return null;
+            }
+        }
+    }
+
+}
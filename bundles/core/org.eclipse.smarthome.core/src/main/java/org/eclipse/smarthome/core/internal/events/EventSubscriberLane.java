@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.common.SafeCaller;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An ordered, bounded lane of events for a single {@link EventSubscriber}.
+ *
+ * The events of a lane are delivered one after another in the order they have been offered, so the subscriber sees
+ * all events (and therefore all events of a single item) in order. Different lanes are drained concurrently on a
+ * shared executor, so a slow subscriber only delays its own events.
+ *
+ * If the queue of the lane is full, the offering thread waits for free space for a bounded time, so a slow subscriber
+ * pushes back on the event routing instead of losing events. The lane is then marked as congested until the queue has
+ * drained to the half. An event is only dropped if no space became free within the offer timeout, every dropped event
+ * is logged and counted.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class EventSubscriberLane {
+
+    /** The maximum number of events that are delivered before the draining task yields its thread. */
+    private static final int MAX_EVENTS_PER_RUN = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(EventSubscriberLane.class);
+
+    private final EventSubscriber subscriber;
+    private final Executor executor;
+    private final BlockingQueue<Event> queue;
+    private final int capacity;
+    private final long offerTimeout;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean congested;
+    private volatile boolean closed;
+
+    /**
+     * Create a new lane.
+     *
+     * @param subscriber the subscriber the events of this lane are delivered to
+     * @param executor the executor used to drain the lane
+     * @param capacity the maximum number of queued events
+     * @param offerTimeout the time in milliseconds to wait for free space if the lane is full
+     */
+    EventSubscriberLane(EventSubscriber subscriber, Executor executor, int capacity, long offerTimeout) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.offerTimeout = offerTimeout;
+    }
+
+    /**
+     * Queue an event for delivery to the subscriber of this lane.
+     *
+     * If the lane is full, this method waits up to the offer timeout for free space.
+     *
+     * @param event the event
+     * @return true if the event has been queued, false if it has been dropped
+     */
+    boolean offer(Event event) {
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            if (!congested) {
+                congested = true;
+                logger.warn("The event queue of subscriber '{}' is full ({} events), waiting up to {}ms for free "
+                        + "space for each further event.", subscriber, capacity, offerTimeout);
+            }
+            if (!offerAndWait(event)) {
+                final long droppedEvents = dropped.incrementAndGet();
+                logger.warn("Dropped event '{}' on topic '{}' for subscriber '{}', its queue did not drain within "
+                        + "{}ms, {} events have been dropped in total.", event.getType(), event.getTopic(),
+                        subscriber, offerTimeout, droppedEvents);
+                return false;
+            }
+        }
+        schedule();
+        return true;
+    }
+
+    private boolean offerAndWait(Event event) {
+        try {
+            return queue.offer(event, offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                logger.warn("Could not schedule the event delivery for subscriber '{}': {}", subscriber,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        int delivered = 0;
+        Event event;
+        while (!closed && delivered < MAX_EVENTS_PER_RUN && (event = queue.poll()) != null) {
+            deliver(event);
+            delivered++;
+        }
+        if (congested && queue.size() <= capacity / 2) {
+            congested = false;
+            logger.info("The event queue of subscriber '{}' has drained to {} events, {} events have been dropped "
+                    + "in total.", subscriber, queue.size(), dropped.get());
+        }
+        scheduled.set(false);
+        if (!closed && !queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void deliver(Event event) {
+        final long start = System.nanoTime();
+        try {
+            subscriber.receive(event);
+        } catch (Exception e) {
+            logger.error("Dispatching/filtering event for subscriber '{}' failed: {}",
+                    subscriber.getClass().getName(), e.getMessage(), e);
+        }
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (duration > SafeCaller.DEFAULT_TIMEOUT) {
+            logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.", subscriber,
+                    SafeCaller.DEFAULT_TIMEOUT);
+        }
+    }
+
+    /**
+     * Close the lane and discard all events that have not been delivered yet.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * Get the subscriber of this lane.
+     *
+     * @return the subscriber
+     */
+    EventSubscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Get the number of events that are queued but not delivered yet.
+     *
+     * @return the queue depth
+     */
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of events that have been dropped because the lane stayed full for the offer timeout.
+     *
+     * @return the number of dropped events
+     */
+    long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "EventSubscriberLane [subscriber=" + subscriber + ", queueDepth=" + queue.size() + ", dropped="
+                + dropped.get() + "]";
+    }
+
+}
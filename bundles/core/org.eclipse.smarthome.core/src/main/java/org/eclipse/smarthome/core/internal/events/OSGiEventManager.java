@@ -12,13 +12,11 @@
  */
 package org.eclipse.smarthome.core.internal.events;
 
-import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
-import org.eclipse.smarthome.core.common.SafeCaller;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventFactory;
 import org.eclipse.smarthome.core.events.EventSubscriber;
@@ -40,22 +38,25 @@ import org.osgi.service.event.EventHandler;
  *
  * @author Stefan Bußweiler - Initial contribution
  * @author Markus Rathgeb - Return on received events as fast as possible (handle event in another thread)
+ * @author Eclipse SmartHome - Deliver events concurrently using one ordered lane per subscriber
  */
 @Component(immediate = true, property = { "event.topics:String=smarthome" })
 public class OSGiEventManager implements EventHandler {
 
-    /** The event subscribers indexed by the event type. */
-    // Use a concurrent hash map because the map is written and read by different threads!
-    private final Map<String, Set<EventSubscriber>> typedEventSubscribers = new ConcurrentHashMap<>();
+    private final Set<EventSubscriber> eventSubscribers = new LinkedHashSet<>();
+
+    /** The index of the event subscribers, rebuilt whenever a subscriber is added or removed. */
+    private volatile EventSubscriberIndex subscriberIndex = EventSubscriberIndex.EMPTY;
+
     private final Map<String, EventFactory> typedEventFactories = new ConcurrentHashMap<>();
 
-    private ThreadedEventHandler eventHandler;
+    private final EventDispatcher dispatcher = new EventDispatcher();
 
-    private SafeCaller safeCaller;
+    private ThreadedEventHandler eventHandler;
 
     @Activate
     protected void activate(ComponentContext componentContext) {
-        eventHandler = new ThreadedEventHandler(typedEventSubscribers, typedEventFactories, safeCaller);
+        eventHandler = new ThreadedEventHandler(() -> subscriberIndex, typedEventFactories, dispatcher);
         eventHandler.open();
     }
 
@@ -65,34 +66,24 @@ public class OSGiEventManager implements EventHandler {
             eventHandler.close();
             eventHandler = null;
         }
+        dispatcher.close();
     }
 
     @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
     protected void addEventSubscriber(final EventSubscriber eventSubscriber) {
-        final Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
-        for (final String subscribedEventType : subscribedEventTypes) {
-            final Set<EventSubscriber> entries = typedEventSubscribers.get(subscribedEventType);
-            if (entries == null) {
-                // Use a copy on write array set because the set is written and read by different threads!
-                typedEventSubscribers.put(subscribedEventType,
-                        new CopyOnWriteArraySet<>(Collections.singleton(eventSubscriber)));
-            } else {
-                entries.add(eventSubscriber);
-            }
+        dispatcher.addSubscriber(eventSubscriber);
+        synchronized (eventSubscribers) {
+            eventSubscribers.add(eventSubscriber);
+            subscriberIndex = EventSubscriberIndex.build(eventSubscribers);
         }
     }
 
     protected void removeEventSubscriber(EventSubscriber eventSubscriber) {
-        final Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
-        for (final String subscribedEventType : subscribedEventTypes) {
-            final Set<EventSubscriber> entries = typedEventSubscribers.get(subscribedEventType);
-            if (entries != null) {
-                entries.remove(eventSubscriber);
-                if (entries.isEmpty()) {
-                    typedEventSubscribers.remove(subscribedEventType);
-                }
-            }
+        synchronized (eventSubscribers) {
+            eventSubscribers.remove(eventSubscriber);
+            subscriberIndex = EventSubscriberIndex.build(eventSubscribers);
         }
+        dispatcher.removeSubscriber(eventSubscriber);
     }
 
     @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
@@ -116,18 +107,27 @@ public class OSGiEventManager implements EventHandler {
         }
     }
 
-    @Reference
-    protected void setSafeCaller(SafeCaller safeCaller) {
-        this.safeCaller = safeCaller;
+    @Override
+    public void handleEvent(org.osgi.service.event.Event osgiEvent) {
+        eventHandler.handleEvent(osgiEvent);
     }
 
-    protected void unsetSafeCaller(SafeCaller safeCaller) {
-        this.safeCaller = null;
+    /**
+     * Get the number of events that are queued but not delivered yet for every subscriber.
+     *
+     * @return the queue depth indexed by the subscriber
+     */
+    public Map<EventSubscriber, Integer> getQueueDepths() {
+        return dispatcher.getQueueDepths();
     }
 
-    @Override
-    public void handleEvent(org.osgi.service.event.Event osgiEvent) {
-        eventHandler.handleEvent(osgiEvent);
+    /**
+     * Get the number of events that have been dropped for every subscriber because its queue stayed full.
+     *
+     * @return the number of dropped events indexed by the subscriber
+     */
+    public Map<EventSubscriber, Long> getDroppedEvents() {
+        return dispatcher.getDroppedEvents();
     }
 
 }
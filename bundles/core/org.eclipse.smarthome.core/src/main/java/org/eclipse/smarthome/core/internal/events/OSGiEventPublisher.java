@@ -30,6 +30,9 @@ import org.osgi.service.event.EventAdmin;
  *
  * Events are send in an asynchronous way via OSGi Event Admin mechanism.
  *
+ * The original {@link Event} instance is attached to the OSGi event so it can be handed to the subscribers without
+ * re-parsing it. The payload is still added to the OSGi event for all other Event Admin handlers.
+ *
  * @author Stefan Bußweiler - Initial contribution
  * @author Simon Kaufmann - separated from OSGiEventManager
  */
@@ -60,10 +63,11 @@ public class OSGiEventPublisher implements EventPublisher {
             AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
                 @Override
                 public Void run() throws Exception {
-                    Dictionary<String, Object> properties = new Hashtable<String, Object>(3);
+                    Dictionary<String, Object> properties = new Hashtable<String, Object>(5);
                     properties.put("type", event.getType());
                     properties.put("payload", event.getPayload());
                     properties.put("topic", event.getTopic());
+                    properties.put("event", event);
                     if (event.getSource() != null) {
                         properties.put("source", event.getSource());
                     }
@@ -15,16 +15,14 @@ package org.eclipse.smarthome.core.internal.events;
 import java.io.Closeable;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
-import org.eclipse.smarthome.core.common.SafeCaller;
 import org.eclipse.smarthome.core.events.EventFactory;
-import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.osgi.service.event.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +30,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Handle Eclipse SmartHome events encapsulated by OSGi events in a separate thread.
  *
+ * The thread only routes the events to the matching subscribers, the events are delivered to the subscribers by the
+ * {@link EventDispatcher}.
+ *
  * @author Markus Rathgeb - Initial contribution
  */
 @NonNullByDefault
@@ -48,14 +49,14 @@ public class ThreadedEventHandler implements Closeable {
     /**
      * Create a new threaded event handler.
      *
-     * @param typedEventSubscribers the event subscribers
+     * @param subscriberIndex the supplier of the current index of the event subscribers
      * @param typedEventFactories the event factories indexed by the event type
-     * @param safeCaller the safe caller to use
+     * @param dispatcher the dispatcher that delivers the events to the subscribers
      */
-    ThreadedEventHandler(Map<String, Set<EventSubscriber>> typedEventSubscribers,
-            final Map<String, EventFactory> typedEventFactories, final SafeCaller safeCaller) {
+    ThreadedEventHandler(Supplier<EventSubscriberIndex> subscriberIndex,
+            final Map<String, EventFactory> typedEventFactories, final EventDispatcher dispatcher) {
         thread = new Thread(() -> {
-            final EventHandler worker = new EventHandler(typedEventSubscribers, typedEventFactories, safeCaller);
+            final EventHandler worker = new EventHandler(subscriberIndex, typedEventFactories, dispatcher);
             while (running.get()) {
                 try {
                     final Event event = queue.poll(1, TimeUnit.HOURS);
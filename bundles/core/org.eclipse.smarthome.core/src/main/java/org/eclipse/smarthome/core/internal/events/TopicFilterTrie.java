@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+
+/**
+ * A trie of topic regular expressions, organized by the '/' separated segments of the topics.
+ *
+ * Only regular expressions whose segments are either literals or the wildcard {@code .*} are supported, with at most
+ * one wildcard per expression. A wildcard segment matches one or more topic segments, which is exactly what the
+ * regular expression {@code .*} between two separators matches. Other expressions are rejected by
+ * {@link #add(String, EventSubscriber)} and must be evaluated as regular expression.
+ *
+ * Matching a topic against the trie does not allocate any objects.
+ *
+ * The trie is not thread-safe while subscribers are added. It must be safely published after it has been built.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class TopicFilterTrie {
+
+    private static final String WILDCARD = ".*";
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final Node root = new Node();
+
+    /**
+     * Add a subscriber for a topic regular expression.
+     *
+     * @param topicRegex the topic regular expression
+     * @param subscriber the subscriber
+     * @return true if the expression is supported and the subscriber has been added, otherwise false
+     */
+    boolean add(String topicRegex, EventSubscriber subscriber) {
+        final String[] segments = topicRegex.split("/", -1);
+        int wildcards = 0;
+        for (final String segment : segments) {
+            if (WILDCARD.equals(segment)) {
+                wildcards++;
+            } else if (!isLiteral(segment)) {
+                return false;
+            }
+        }
+        if (wildcards > 1) {
+            return false;
+        }
+
+        Node node = root;
+        for (final String segment : segments) {
+            node = WILDCARD.equals(segment) ? node.getOrCreateWildcard() : node.getOrCreateChild(segment);
+        }
+        node.addSubscriber(subscriber);
+        return true;
+    }
+
+    /**
+     * Pass every subscriber whose topic expression matches the topic of the event to the consumer.
+     *
+     * @param event the event
+     * @param consumer the consumer for the matching subscribers
+     */
+    void match(Event event, BiConsumer<EventSubscriber, Event> consumer) {
+        match(root, event.getTopic(), 0, event, consumer);
+    }
+
+    private void match(Node node, String topic, int segmentStart, Event event,
+            BiConsumer<EventSubscriber, Event> consumer) {
+        final int length = topic.length();
+        if (segmentStart > length) {
+            // all segments of the topic have been consumed
+            node.visitSubscribers(event, consumer);
+            return;
+        }
+
+        final int segmentEnd = segmentEnd(topic, segmentStart);
+        final Node child = node.getChild(topic, segmentStart, segmentEnd);
+        if (child != null) {
+            match(child, topic, segmentEnd + 1, event, consumer);
+        }
+
+        final Node wildcard = node.wildcard;
+        if (wildcard != null) {
+            // the wildcard consumes one or more segments
+            int end = segmentEnd;
+            while (true) {
+                match(wildcard, topic, end + 1, event, consumer);
+                if (end >= length) {
+                    break;
+                }
+                end = segmentEnd(topic, end + 1);
+            }
+        }
+    }
+
+    private static int segmentEnd(String topic, int segmentStart) {
+        final int end = topic.indexOf('/', segmentStart);
+        return end < 0 ? topic.length() : end;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(segment.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A node of the trie.
+     *
+     * The literal children are kept in an open addressing hash table, so they can be looked up by a region of the
+     * topic without creating a substring.
+     */
+    private static class Node {
+
+        private static final EventSubscriber[] NO_SUBSCRIBERS = new EventSubscriber[0];
+
+        private @Nullable String[] keys = new String[4];
+        private @Nullable Node[] children = new Node[4];
+        private int size;
+
+        private @Nullable Node wildcard;
+
+        private EventSubscriber[] subscribers = NO_SUBSCRIBERS;
+
+        Node getOrCreateChild(String segment) {
+            Node child = getChild(segment, 0, segment.length());
+            if (child == null) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                }
+                child = new Node();
+                put(segment, child);
+            }
+            return child;
+        }
+
+        Node getOrCreateWildcard() {
+            Node wildcard = this.wildcard;
+            if (wildcard == null) {
+                wildcard = new Node();
+                this.wildcard = wildcard;
+            }
+            return wildcard;
+        }
+
+        void addSubscriber(EventSubscriber subscriber) {
+            for (final EventSubscriber existing : subscribers) {
+                if (existing == subscriber) {
+                    return;
+                }
+            }
+            subscribers = Arrays.copyOf(subscribers, subscribers.length + 1);
+            subscribers[subscribers.length - 1] = subscriber;
+        }
+
+        void visitSubscribers(Event event, BiConsumer<EventSubscriber, Event> consumer) {
+            for (final EventSubscriber subscriber : subscribers) {
+                consumer.accept(subscriber, event);
+            }
+        }
+
+        @Nullable
+        Node getChild(String topic, int start, int end) {
+            final int length = end - start;
+            final int mask = keys.length - 1;
+            int index = hash(topic, start, end) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && topic.regionMatches(start, key, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private void put(String segment, Node child) {
+            final int mask = keys.length - 1;
+            int index = hash(segment, 0, segment.length()) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = segment;
+            children[index] = child;
+            size++;
+        }
+
+        private void resize() {
+            final @Nullable String[] oldKeys = keys;
+            final @Nullable Node[] oldChildren = children;
+            keys = new String[oldKeys.length * 2];
+            children = new Node[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                final String key = oldKeys[i];
+                final Node child = oldChildren[i];
+                if (key != null && child != null) {
+                    put(key, child);
+                }
+            }
+        }
+
+        private static int hash(String string, int start, int end) {
+            // the hash code of the region as computed by String#hashCode, spread like in HashMap
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + string.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+}
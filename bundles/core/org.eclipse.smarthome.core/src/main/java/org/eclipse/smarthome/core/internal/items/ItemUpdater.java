@@ -12,6 +12,16 @@
  */
 package org.eclipse.smarthome.core.internal.items;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.GroupItem;
@@ -20,6 +30,7 @@ import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.events.AbstractItemEventSubscriber;
 import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.eclipse.smarthome.core.items.events.ItemStateBatchEvent;
 import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.types.State;
 import org.osgi.service.component.annotations.Component;
@@ -29,25 +40,74 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The ItemUpdater listens on the event bus and passes any received status update
- * to the item registry.
+ * to the item registry. The status updates of an item state batch event are applied at once.
+ * Whether an item type accepts a state type is determined once and kept until the item registry changes.
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Stefan Bußweiler - Migration to new ESH event concept
+ * @author Eclipse SmartHome - Receive item state batch events
+ * @author Eclipse SmartHome - Cached accepted state types
  */
 @Component(immediate = true, service = EventSubscriber.class)
 public class ItemUpdater extends AbstractItemEventSubscriber {
 
     private final Logger logger = LoggerFactory.getLogger(ItemUpdater.class);
 
+    private final Set<String> subscribedEventTypes = Collections.unmodifiableSet(Stream
+            .of(ItemStateEvent.TYPE, ItemStateBatchEvent.TYPE, ItemCommandEvent.TYPE).collect(Collectors.toSet()));
+
+    // item class -> state class -> whether the state is accepted by items of that class
+    private final Map<Class<? extends Item>, Map<Class<? extends State>, Boolean>> acceptedStateTypes = new ConcurrentHashMap<>();
+
+    private final RegistryChangeListener<Item> registryChangeListener = new RegistryChangeListener<Item>() {
+        @Override
+        public void added(Item element) {
+            acceptedStateTypes.clear();
+        }
+
+        @Override
+        public void removed(Item element) {
+            acceptedStateTypes.clear();
+        }
+
+        @Override
+        public void updated(Item oldElement, Item element) {
+            acceptedStateTypes.clear();
+        }
+    };
+
     private ItemRegistry itemRegistry;
 
     @Reference
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        itemRegistry.addRegistryChangeListener(registryChangeListener);
     }
 
     protected void unsetItemRegistry(ItemRegistry itemRegistry) {
+        itemRegistry.removeRegistryChangeListener(registryChangeListener);
         this.itemRegistry = null;
+        acceptedStateTypes.clear();
+    }
+
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        return subscribedEventTypes;
+    }
+
+    @Override
+    public void receive(Event event) {
+        if (event instanceof ItemStateBatchEvent) {
+            receiveUpdates((ItemStateBatchEvent) event);
+        } else {
+            super.receive(event);
+        }
+    }
+
+    private void receiveUpdates(ItemStateBatchEvent batchEvent) {
+        for (ItemStateEvent updateEvent : batchEvent.getEvents()) {
+            receiveUpdate(updateEvent);
+        }
     }
 
     @Override
@@ -56,25 +116,7 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
         State newState = updateEvent.getItemState();
         try {
             GenericItem item = (GenericItem) itemRegistry.getItem(itemName);
-            boolean isAccepted = false;
-            if (item.getAcceptedDataTypes().contains(newState.getClass())) {
-                isAccepted = true;
-            } else {
-                // Look for class hierarchy
-                for (Class<? extends State> state : item.getAcceptedDataTypes()) {
-                    try {
-                        if (!state.isEnum() && state.newInstance().getClass().isAssignableFrom(newState.getClass())) {
-                            isAccepted = true;
-                            break;
-                        }
-                    } catch (InstantiationException e) {
-                        logger.warn("InstantiationException on {}", e.getMessage()); // Should never happen
-                    } catch (IllegalAccessException e) {
-                        logger.warn("IllegalAccessException on {}", e.getMessage()); // Should never happen
-                    }
-                }
-            }
-            if (isAccepted) {
+            if (isAccepted(item, newState.getClass())) {
                 item.setState(newState);
             } else {
                 logger.debug("Received update of a not accepted type ({}) for item {}",
@@ -85,6 +127,28 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
         }
     }
 
+    private boolean isAccepted(GenericItem item, Class<? extends State> stateClass) {
+        if (item instanceof GroupItem) {
+            // the accepted types of a group without base item depend on its members
+            return isAccepted(item.getAcceptedDataTypes(), stateClass);
+        }
+        return acceptedStateTypes.computeIfAbsent(item.getClass(), itemClass -> new ConcurrentHashMap<>())
+                .computeIfAbsent(stateClass, c -> isAccepted(item.getAcceptedDataTypes(), c));
+    }
+
+    private boolean isAccepted(List<Class<? extends State>> acceptedDataTypes, Class<? extends State> stateClass) {
+        if (acceptedDataTypes.contains(stateClass)) {
+            return true;
+        }
+        // Look for class hierarchy
+        for (Class<? extends State> state : acceptedDataTypes) {
+            if (!state.isEnum() && state.isAssignableFrom(stateClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void receiveCommand(ItemCommandEvent commandEvent) {
         try {
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.items;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A {@link StateChangeListener} that is only interested in the latest state of an item, e.g. to display it. Listeners
+ * that must observe every update or change, like persistence, must not implement this interface.
+ *
+ * If notifications for such a listener are still pending when the state of an item is updated again, the pending
+ * notifications are coalesced: the listener is notified about the latest state only and about a single change from
+ * the oldest pending to the latest state, if these differ. The notifications of a single item are still delivered in
+ * order.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public interface CoalescingStateChangeListener extends StateChangeListener {
+
+}
@@ -19,15 +19,14 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.i18n.UnitProvider;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
@@ -55,13 +54,14 @@ public abstract class GenericItem implements ActiveItem {
 
     private final Logger logger = LoggerFactory.getLogger(GenericItem.class);
 
-    private static final String ITEM_THREADPOOLNAME = "items";
-
     protected @Nullable EventPublisher eventPublisher;
 
     protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<StateChangeListener>(
             Collections.newSetFromMap(new WeakHashMap<StateChangeListener, Boolean>()));
 
+    /** The notifiers that deliver the state notifications to the listeners, weakly keyed by the listener. */
+    private final Map<StateChangeListener, StateChangeNotifier> notifiers = new WeakHashMap<>();
+
     protected List<String> groupNames = new ArrayList<String>();
 
     protected Set<String> tags = new HashSet<String>();
@@ -168,6 +168,9 @@ public abstract class GenericItem implements ActiveItem {
      */
     public void dispose() {
         this.listeners.clear();
+        synchronized (notifiers) {
+            notifiers.clear();
+        }
         this.eventPublisher = null;
         this.stateDescriptionService = null;
         this.unitProvider = null;
@@ -237,25 +240,25 @@ public abstract class GenericItem implements ActiveItem {
     }
 
     protected void notifyListeners(final State oldState, final State newState) {
-        // if nothing has changed, we send update notifications
-        Set<StateChangeListener> clonedListeners = null;
-        clonedListeners = new CopyOnWriteArraySet<StateChangeListener>(listeners);
-        ExecutorService pool = ThreadPoolManager.getPool(ITEM_THREADPOOLNAME);
-        for (final StateChangeListener listener : clonedListeners) {
-            pool.execute(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        listener.stateUpdated(GenericItem.this, newState);
-                        if (newState != null && !newState.equals(oldState)) {
-                            listener.stateChanged(GenericItem.this, oldState, newState);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("failed notifying listener '{}' about state update of item {}: {}", listener,
-                                GenericItem.this.getName(), e.getMessage(), e);
-                    }
-                }
-            });
+        // group items are updated right away, all listeners are notified asynchronously by their notifier, which
+        // tells an update from a change by comparing the states
+        // the iteration over the copy-on-write set works on a snapshot of the listeners
+        for (final StateChangeListener listener : listeners) {
+            if (listener instanceof GroupItem) {
+                ((GroupItem) listener).memberStateUpdated(this);
+            }
+            getNotifier(listener).notify(listener, oldState, newState);
+        }
+    }
+
+    private StateChangeNotifier getNotifier(StateChangeListener listener) {
+        synchronized (notifiers) {
+            StateChangeNotifier notifier = notifiers.get(listener);
+            if (notifier == null) {
+                notifier = new StateChangeNotifier(this, listener instanceof CoalescingStateChangeListener);
+                notifiers.put(listener, notifier);
+            }
+            return notifier;
         }
     }
 
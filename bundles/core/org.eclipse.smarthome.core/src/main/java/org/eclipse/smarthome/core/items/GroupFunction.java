@@ -15,6 +15,8 @@ package org.eclipse.smarthome.core.items;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
@@ -52,6 +54,68 @@ public interface GroupFunction {
      */
     State[] getParameters();
 
+    /**
+     * Creates an {@link Aggregator} that calculates the result of this function incrementally.
+     *
+     * A group item uses the aggregator to update its state in constant or logarithmic time when a single member is
+     * updated, instead of calculating the state over all members again.
+     *
+     * @return a new aggregator or null, if this function does not support an incremental calculation
+     */
+    default @Nullable Aggregator createAggregator() {
+        return null;
+    }
+
+    /**
+     * An aggregator keeps the contribution of every member item to the result of a {@link GroupFunction}, so the
+     * result can be updated incrementally when the state of a single member changes.
+     *
+     * The contribution of a member is always taken from its current state. An aggregator is not thread-safe.
+     *
+     * @author Eclipse SmartHome - Initial contribution
+     */
+    @NonNullByDefault
+    interface Aggregator {
+
+        /**
+         * Adds a member item. Adding an item that has been added before updates its contribution.
+         *
+         * @param item the member item
+         */
+        void add(Item item);
+
+        /**
+         * Updates the contribution of a member item from its current state.
+         * Items that have not been added are ignored.
+         *
+         * @param item the member item
+         */
+        void update(Item item);
+
+        /**
+         * Removes a member item.
+         *
+         * @param item the member item
+         */
+        void remove(Item item);
+
+        /**
+         * Returns the group state, as {@link GroupFunction#calculate(Set)} would for the added items.
+         *
+         * @return the group state
+         */
+        State getState();
+
+        /**
+         * Returns the group state in the requested type, as {@link GroupFunction#getStateAs(Set, Class)} would for the
+         * added items.
+         *
+         * @param stateClass the type in which the state should be returned
+         * @return the group state of the requested type or null, if the type is not supported
+         */
+        <T extends State> @Nullable T getStateAs(Class<T> stateClass);
+    }
+
     /**
      * This is the default group function that does nothing else than to check if all member items
      * have the same state. If this is the case, this state is returned, otherwise UNDEF is returned.
@@ -51,6 +51,14 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     protected @Nullable GroupFunction function;
 
+    /**
+     * Calculates the group state incrementally, if supported by the function. It is created lazily and discarded
+     * whenever the members change.
+     */
+    private GroupFunction.@Nullable Aggregator aggregator;
+
+    private final Object aggregatorLock = new Object();
+
     /**
      * Creates a plain GroupItem
      *
@@ -94,6 +102,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             unregisterStateListener(member);
         }
         members.clear();
+        resetAggregator();
     }
 
     /**
@@ -180,6 +189,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             ((GenericItem) item).addGroupName(this.getName());
         }
         registerStateListener(item);
+        resetAggregator();
     }
 
     private void registerStateListener(Item item) {
@@ -206,6 +216,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             unregisterStateListener(old);
         }
         registerStateListener(newItem);
+        resetAggregator();
     }
 
     /**
@@ -220,6 +231,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
         }
         members.remove(item);
         unregisterStateListener(item);
+        resetAggregator();
     }
 
     @Override
@@ -308,8 +320,9 @@ public class GroupItem extends GenericItem implements StateChangeListener {
         // if a group does not have a function it cannot have a state
         @Nullable
         T newState = null;
+        GroupFunction function = this.function;
         if (function != null) {
-            newState = function.getStateAs(getStateMembers(getMembers()), typeClass);
+            newState = calculateStateAs(function, typeClass);
         }
 
         if (newState == null && baseItem != null && baseItem instanceof GenericItem) {
@@ -370,8 +383,9 @@ public class GroupItem extends GenericItem implements StateChangeListener {
     @Override
     public void stateUpdated(Item item, State state) {
         State oldState = this.state;
+        GroupFunction function = this.function;
         if (function != null && baseItem != null) {
-            State calculatedState = function.calculate(getStateMembers(getMembers()));
+            State calculatedState = calculateState(function);
             if (calculatedState != UNMODIFIED) {
                 calculatedState = itemStateConverter.convertToAcceptedState(calculatedState, baseItem);
                 sendGroupStateEvent(item.getName(), calculatedState);
@@ -409,6 +423,75 @@ public class GroupItem extends GenericItem implements StateChangeListener {
         }
     }
 
+    /**
+     * Called synchronously by a member whenever its state is set, so the aggregator always reflects the current
+     * states of the members, independent of the asynchronous state change notifications.
+     *
+     * @param member the member whose state has been set
+     */
+    void memberStateUpdated(Item member) {
+        synchronized (aggregatorLock) {
+            GroupFunction.Aggregator aggregator = this.aggregator;
+            if (aggregator != null) {
+                aggregator.update(member);
+            }
+        }
+    }
+
+    private State calculateState(GroupFunction function) {
+        synchronized (aggregatorLock) {
+            GroupFunction.Aggregator aggregator = getAggregator(function);
+            if (aggregator != null) {
+                return aggregator.getState();
+            }
+        }
+        return function.calculate(getStateMembers(getMembers()));
+    }
+
+    private <T extends State> @Nullable T calculateStateAs(GroupFunction function, Class<T> typeClass) {
+        synchronized (aggregatorLock) {
+            GroupFunction.Aggregator aggregator = getAggregator(function);
+            if (aggregator != null) {
+                return aggregator.getStateAs(typeClass);
+            }
+        }
+        return function.getStateAs(getStateMembers(getMembers()), typeClass);
+    }
+
+    /**
+     * Returns the aggregator of the group function, which is created from the current member states if necessary.
+     *
+     * The aggregator is only used if all state members are direct members of this group: the members of nested groups
+     * without an own state are not observed by this group, so their updates would be missed.
+     *
+     * @param function the group function
+     * @return the aggregator or null, if the group state has to be calculated over all members
+     */
+    private GroupFunction.@Nullable Aggregator getAggregator(GroupFunction function) {
+        GroupFunction.Aggregator aggregator = this.aggregator;
+        if (aggregator == null) {
+            for (Item member : members) {
+                if (isGroupItem(member) && !hasOwnState((GroupItem) member)) {
+                    return null;
+                }
+            }
+            aggregator = function.createAggregator();
+            if (aggregator != null) {
+                for (Item member : members) {
+                    aggregator.add(member);
+                }
+                this.aggregator = aggregator;
+            }
+        }
+        return aggregator;
+    }
+
+    private void resetAggregator() {
+        synchronized (aggregatorLock) {
+            aggregator = null;
+        }
+    }
+
     private Set<Item> getStateMembers(Set<Item> items) {
         Set<Item> result = new HashSet<>();
         collectStateMembers(result, items);
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.items;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the state notifications of a single item to a single {@link StateChangeListener}.
+ *
+ * The notifications are queued and delivered in order by a single task, which is only submitted to the item thread
+ * pool if it is not running yet. A burst of state updates is therefore delivered in batches, without creating a task
+ * per update and listener. For a {@link CoalescingStateChangeListener}, pending notifications are merged into one.
+ *
+ * The notifier does not hold a reference to its listener, so it can be kept in a weak map keyed by the listener.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class StateChangeNotifier {
+
+    static final String ITEM_THREADPOOLNAME = "items";
+
+    /** The maximum number of notifications that are delivered before the task yields its thread. */
+    private static final int MAX_NOTIFICATIONS_PER_RUN = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(StateChangeNotifier.class);
+
+    private final GenericItem item;
+    private final boolean coalescing;
+
+    /** The pending notifications, as pairs of old and new state. Guarded by this. */
+    private final ArrayDeque<State> pending = new ArrayDeque<>();
+    private boolean scheduled;
+
+    StateChangeNotifier(GenericItem item, boolean coalescing) {
+        this.item = item;
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Queue a notification and schedule its delivery.
+     *
+     * @param listener the listener this notifier delivers to
+     * @param oldState the state before the update
+     * @param newState the state after the update
+     */
+    void notify(StateChangeListener listener, State oldState, State newState) {
+        synchronized (this) {
+            if (coalescing && !pending.isEmpty()) {
+                // keep the oldest pending state and replace the superseded new state
+                pending.pollLast();
+            } else {
+                pending.addLast(oldState);
+            }
+            pending.addLast(newState);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        schedule(listener);
+    }
+
+    private void schedule(StateChangeListener listener) {
+        try {
+            ThreadPoolManager.getPool(ITEM_THREADPOOLNAME).execute(() -> deliver(listener));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pending.clear();
+                scheduled = false;
+            }
+            logger.warn("Could not notify listener '{}' about state updates of item {}: {}", listener,
+                    item.getName(), e.getMessage());
+        }
+    }
+
+    private void deliver(StateChangeListener listener) {
+        for (int i = 0; i < MAX_NOTIFICATIONS_PER_RUN; i++) {
+            final @Nullable State oldState;
+            final @Nullable State newState;
+            synchronized (this) {
+                oldState = pending.pollFirst();
+                newState = pending.pollFirst();
+                if (oldState == null || newState == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            try {
+                listener.stateUpdated(item, newState);
+                if (!newState.equals(oldState)) {
+                    listener.stateChanged(item, oldState, newState);
+                }
+            } catch (Exception e) {
+                logger.warn("failed notifying listener '{}' about state update of item {}: {}", listener,
+                        item.getName(), e.getMessage(), e);
+            }
+        }
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                scheduled = false;
+                return;
+            }
+        }
+        // yield the thread to the notifications of other items and listeners
+        schedule(listener);
+    }
+
+}
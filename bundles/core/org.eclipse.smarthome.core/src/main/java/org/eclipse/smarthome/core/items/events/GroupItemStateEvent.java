@@ -12,6 +12,8 @@
  */
 package org.eclipse.smarthome.core.items.events;
 
+import java.util.function.Supplier;
+
 import org.eclipse.smarthome.core.types.State;
 
 /**
@@ -41,6 +43,21 @@ public class GroupItemStateEvent extends ItemStateEvent {
         this.memberName = memberName;
     }
 
+    /**
+     * Constructs a new groupitem state event with a lazily serialized payload.
+     *
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the payload
+     * @param itemName the item name
+     * @param itemState the item state
+     * @param source the source, can be null
+     */
+    protected GroupItemStateEvent(String topic, Supplier<String> payloadSupplier, String itemName, String memberName,
+            State itemState, String source) {
+        super(topic, payloadSupplier, itemName, itemState, source);
+        this.memberName = memberName;
+    }
+
     /**
      * @return the name of the changed group member
      */
@@ -12,8 +12,7 @@
  */
 package org.eclipse.smarthome.core.items.events;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,10 +26,10 @@ import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.dto.ItemDTO;
 import org.eclipse.smarthome.core.items.dto.ItemDTOMapper;
 import org.eclipse.smarthome.core.types.Command;
-import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.Type;
-import org.eclipse.smarthome.core.types.UnDefType;
+import org.eclipse.smarthome.core.types.TypeCodec;
+import org.eclipse.smarthome.core.types.TypeCodecRegistry;
 import org.osgi.service.component.annotations.Component;
 
 /**
@@ -38,18 +37,20 @@ import org.osgi.service.component.annotations.Component;
  * {@link ItemStateEvent}s.
  *
  * @author Stefan Bußweiler - Initial contribution
+ * @author Eclipse SmartHome - Parse types by their registered codecs
+ * @author Eclipse SmartHome - Added item state batch event
  */
 @Component(immediate = true, service = EventFactory.class)
 public class ItemEventFactory extends AbstractEventFactory {
 
     private static final String TYPE_POSTFIX = "Type";
 
-    private static final String CORE_LIBRARY_PACKAGE = "org.eclipse.smarthome.core.library.types.";
-
     private static final String ITEM_COMAND_EVENT_TOPIC = "smarthome/items/{itemName}/command";
 
     private static final String ITEM_STATE_EVENT_TOPIC = "smarthome/items/{itemName}/state";
 
+    private static final String ITEM_STATE_BATCH_EVENT_TOPIC = "smarthome/items/state";
+
     private static final String ITEM_STATE_PREDICTED_EVENT_TOPIC = "smarthome/items/{itemName}/statepredicted";
 
     private static final String ITEM_STATE_CHANGED_EVENT_TOPIC = "smarthome/items/{itemName}/statechanged";
@@ -70,7 +71,8 @@ public class ItemEventFactory extends AbstractEventFactory {
     public ItemEventFactory() {
         super(Stream.of(ItemCommandEvent.TYPE, ItemStateEvent.TYPE, ItemStatePredictedEvent.TYPE,
                 ItemStateChangedEvent.TYPE, ItemAddedEvent.TYPE, ItemUpdatedEvent.TYPE, ItemRemovedEvent.TYPE,
-                GroupItemStateChangedEvent.TYPE, GroupItemStateEvent.TYPE).collect(Collectors.toSet()));
+                GroupItemStateChangedEvent.TYPE, GroupItemStateEvent.TYPE, ItemStateBatchEvent.TYPE)
+                .collect(Collectors.toSet()));
     }
 
     @Override
@@ -80,6 +82,8 @@ public class ItemEventFactory extends AbstractEventFactory {
             event = createCommandEvent(topic, payload, source);
         } else if (eventType.equals(ItemStateEvent.TYPE)) {
             event = createStateEvent(topic, payload, source);
+        } else if (eventType.equals(ItemStateBatchEvent.TYPE)) {
+            event = createStateBatchEvent(topic, payload, source);
         } else if (eventType.equals(ItemStatePredictedEvent.TYPE)) {
             event = createStatePredictedEvent(topic, payload, source);
         } else if (eventType.equals(ItemStateChangedEvent.TYPE)) {
@@ -129,6 +133,16 @@ public class ItemEventFactory extends AbstractEventFactory {
         return new ItemStateEvent(topic, payload, itemName, state, source);
     }
 
+    private Event createStateBatchEvent(String topic, String payload, String source) {
+        ItemStateBatchEventPayloadBean[] beans = deserializePayload(payload, ItemStateBatchEventPayloadBean[].class);
+        List<ItemStateEvent> stateEvents = new ArrayList<>(beans.length);
+        for (ItemStateBatchEventPayloadBean bean : beans) {
+            State state = getState(bean.getType(), bean.getValue());
+            stateEvents.add(createStateEvent(bean.getItemName(), state, bean.getSource()));
+        }
+        return new ItemStateBatchEvent(topic, payload, stateEvents, source);
+    }
+
     private Event createStatePredictedEvent(String topic, String payload, String source) {
         String itemName = getItemName(topic);
         ItemStatePredictedEventPayloadBean bean = deserializePayload(payload, ItemStatePredictedEventPayloadBean.class);
@@ -165,9 +179,12 @@ public class ItemEventFactory extends AbstractEventFactory {
     }
 
     private <T> T parseType(String typeName, String valueToParse, Class<T> desiredClass) {
-        Object parsedObject = null;
         String simpleClassName = typeName + TYPE_POSTFIX;
-        parsedObject = parseSimpleClassName(simpleClassName, valueToParse);
+        TypeCodec<?> codec = TypeCodecRegistry.getCodec(typeName);
+        if (codec == null) {
+            throw new IllegalArgumentException("Error getting codec for simple name: '" + simpleClassName + "'.");
+        }
+        Object parsedObject = codec.parse(valueToParse);
 
         if (parsedObject == null || !desiredClass.isAssignableFrom(parsedObject.getClass())) {
             String parsedObjectClassName = parsedObject != null ? parsedObject.getClass().getName() : "<undefined>";
@@ -179,31 +196,6 @@ public class ItemEventFactory extends AbstractEventFactory {
         return desiredClass.cast(parsedObject);
     }
 
-    private Object parseSimpleClassName(String simpleClassName, String valueToParse) {
-        if (simpleClassName.equals(UnDefType.class.getSimpleName())) {
-            return UnDefType.valueOf(valueToParse);
-        }
-        if (simpleClassName.equals(RefreshType.class.getSimpleName())) {
-            return RefreshType.valueOf(valueToParse);
-        }
-
-        try {
-            Class<?> stateClass = Class.forName(CORE_LIBRARY_PACKAGE + simpleClassName);
-            Method valueOfMethod = stateClass.getMethod("valueOf", String.class);
-            return valueOfMethod.invoke(null, valueToParse);
-        } catch (ClassNotFoundException e) {
-            throw new IllegalArgumentException("Error getting class for simple name: '" + simpleClassName
-                    + "' using package name '" + CORE_LIBRARY_PACKAGE + "'.", e);
-        } catch (NoSuchMethodException | SecurityException e) {
-            throw new IllegalStateException(
-                    "Error getting method #valueOf(String) of class '" + CORE_LIBRARY_PACKAGE + simpleClassName + "'.",
-                    e);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new IllegalStateException("Error invoking #valueOf(String) on class '" + CORE_LIBRARY_PACKAGE
-                    + simpleClassName + "' with value '" + valueToParse + "'.", e);
-        }
-    }
-
     private Event createAddedEvent(String topic, String payload) {
         ItemDTO itemDTO = deserializePayload(payload, ItemDTO.class);
         return new ItemAddedEvent(topic, payload, itemDTO);
@@ -234,9 +226,7 @@ public class ItemEventFactory extends AbstractEventFactory {
     public static ItemCommandEvent createCommandEvent(String itemName, Command command, String source) {
         assertValidArguments(itemName, command, "command");
         String topic = buildTopic(ITEM_COMAND_EVENT_TOPIC, itemName);
-        ItemEventPayloadBean bean = new ItemEventPayloadBean(getCommandType(command), command.toString());
-        String payload = serializePayload(bean);
-        return new ItemCommandEvent(topic, payload, itemName, command, source);
+        return new ItemCommandEvent(topic, () -> serializeCommandPayload(command), itemName, command, source);
     }
 
     /**
@@ -263,9 +253,7 @@ public class ItemEventFactory extends AbstractEventFactory {
     public static ItemStateEvent createStateEvent(String itemName, State state, String source) {
         assertValidArguments(itemName, state, "state");
         String topic = buildTopic(ITEM_STATE_EVENT_TOPIC, itemName);
-        ItemEventPayloadBean bean = new ItemEventPayloadBean(getStateType(state), state.toFullString());
-        String payload = serializePayload(bean);
-        return new ItemStateEvent(topic, payload, itemName, state, source);
+        return new ItemStateEvent(topic, () -> serializeStatePayload(state), itemName, state, source);
     }
 
     /**
@@ -280,6 +268,24 @@ public class ItemEventFactory extends AbstractEventFactory {
         return createStateEvent(itemName, state, null);
     }
 
+    /**
+     * Creates an item state batch event, which delivers several item state events at once.
+     *
+     * @param stateEvents the item state events, created by {@link #createStateEvent(String, State, String)}
+     * @param source the name of the source identifying the sender (can be null)
+     * @return the created item state batch event
+     * @throws IllegalArgumentException if stateEvents is null or empty
+     */
+    public static ItemStateBatchEvent createStateBatchEvent(List<ItemStateEvent> stateEvents, String source) {
+        checkNotNull(stateEvents, "stateEvents");
+        if (stateEvents.isEmpty()) {
+            throw new IllegalArgumentException("The argument 'stateEvents' must not be empty.");
+        }
+        List<ItemStateEvent> events = new ArrayList<>(stateEvents);
+        return new ItemStateBatchEvent(ITEM_STATE_BATCH_EVENT_TOPIC, () -> serializeStateBatchPayload(events), events,
+                source);
+    }
+
     /**
      * Creates an item state predicted event.
      *
@@ -293,10 +299,8 @@ public class ItemEventFactory extends AbstractEventFactory {
             boolean isConfirmation) {
         assertValidArguments(itemName, state, "state");
         String topic = buildTopic(ITEM_STATE_PREDICTED_EVENT_TOPIC, itemName);
-        ItemStatePredictedEventPayloadBean bean = new ItemStatePredictedEventPayloadBean(getStateType(state),
-                state.toFullString(), isConfirmation);
-        String payload = serializePayload(bean);
-        return new ItemStatePredictedEvent(topic, payload, itemName, state, isConfirmation);
+        return new ItemStatePredictedEvent(topic, () -> serializeStatePredictedPayload(state, isConfirmation), itemName,
+                state, isConfirmation);
     }
 
     /**
@@ -311,10 +315,8 @@ public class ItemEventFactory extends AbstractEventFactory {
     public static ItemStateChangedEvent createStateChangedEvent(String itemName, State newState, State oldState) {
         assertValidArguments(itemName, newState, "state");
         String topic = buildTopic(ITEM_STATE_CHANGED_EVENT_TOPIC, itemName);
-        ItemStateChangedEventPayloadBean bean = new ItemStateChangedEventPayloadBean(getStateType(newState),
-                newState.toFullString(), getStateType(oldState), oldState.toFullString());
-        String payload = serializePayload(bean);
-        return new ItemStateChangedEvent(topic, payload, itemName, newState, oldState);
+        return new ItemStateChangedEvent(topic, () -> serializeStateChangedPayload(newState, oldState), itemName,
+                newState, oldState);
     }
 
     /**
@@ -330,9 +332,8 @@ public class ItemEventFactory extends AbstractEventFactory {
                 State state, String source) {
         assertValidArguments(itemName, memberName, state, "state");
         String topic = buildGroupTopic(GROUPITEM_STATE_EVENT_TOPIC, itemName, memberName);
-        ItemEventPayloadBean bean = new ItemEventPayloadBean(getStateType(state), state.toFullString());
-        String payload = serializePayload(bean);
-        return new GroupItemStateEvent(topic, payload, itemName, memberName, state, source);
+        return new GroupItemStateEvent(topic, () -> serializeStatePayload(state), itemName, memberName, state,
+                source);
     }
 
     /**
@@ -351,10 +352,8 @@ public class ItemEventFactory extends AbstractEventFactory {
             State newState, State oldState) {
         assertValidArguments(itemName, memberName, newState, "state");
         String topic = buildGroupTopic(GROUPITEM_STATE_CHANGED_EVENT_TOPIC, itemName, memberName);
-        ItemStateChangedEventPayloadBean bean = new ItemStateChangedEventPayloadBean(getStateType(newState),
-                newState.toFullString(), getStateType(oldState), oldState.toFullString());
-        String payload = serializePayload(bean);
-        return new GroupItemStateChangedEvent(topic, payload, itemName, memberName, newState, oldState);
+        return new GroupItemStateChangedEvent(topic, () -> serializeStateChangedPayload(newState, oldState), itemName,
+                memberName, newState, oldState);
     }
 
     /**
@@ -416,6 +415,35 @@ public class ItemEventFactory extends AbstractEventFactory {
         return buildTopic(topic, itemName).replace("{memberName}", memberName);
     }
 
+    private static String serializeCommandPayload(Command command) {
+        return serializePayload(new ItemEventPayloadBean(getCommandType(command), command.toString()));
+    }
+
+    private static String serializeStatePayload(State state) {
+        return serializePayload(new ItemEventPayloadBean(getStateType(state), state.toFullString()));
+    }
+
+    private static String serializeStateBatchPayload(List<ItemStateEvent> stateEvents) {
+        ItemStateBatchEventPayloadBean[] beans = new ItemStateBatchEventPayloadBean[stateEvents.size()];
+        for (int i = 0; i < beans.length; i++) {
+            ItemStateEvent stateEvent = stateEvents.get(i);
+            State state = stateEvent.getItemState();
+            beans[i] = new ItemStateBatchEventPayloadBean(stateEvent.getItemName(), getStateType(state),
+                    state.toFullString(), stateEvent.getSource());
+        }
+        return serializePayload(beans);
+    }
+
+    private static String serializeStatePredictedPayload(State state, boolean isConfirmation) {
+        return serializePayload(
+                new ItemStatePredictedEventPayloadBean(getStateType(state), state.toFullString(), isConfirmation));
+    }
+
+    private static String serializeStateChangedPayload(State newState, State oldState) {
+        return serializePayload(new ItemStateChangedEventPayloadBean(getStateType(newState), newState.toFullString(),
+                getStateType(oldState), oldState.toFullString()));
+    }
+
     private static ItemDTO map(Item item) {
         return ItemDTOMapper.map(item);
     }
@@ -471,6 +499,47 @@ public class ItemEventFactory extends AbstractEventFactory {
         }
     }
 
+    /**
+     * This is a java bean that is used to serialize/deserialize a single item state of the item state batch event
+     * payload.
+     */
+    private static class ItemStateBatchEventPayloadBean {
+        private String itemName;
+        private String type;
+        private String value;
+        private String source;
+
+        /**
+         * Default constructor for deserialization e.g. by Gson.
+         */
+        @SuppressWarnings("unused")
+        protected ItemStateBatchEventPayloadBean() {
+        }
+
+        public ItemStateBatchEventPayloadBean(String itemName, String type, String value, String source) {
+            this.itemName = itemName;
+            this.type = type;
+            this.value = value;
+            this.source = source;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+
     /**
      * This is a java bean that is used to serialize/deserialize item state changed event payload.
      */
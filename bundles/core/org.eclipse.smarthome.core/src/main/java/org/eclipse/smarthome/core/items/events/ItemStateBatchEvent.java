@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.items.events;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.eclipse.smarthome.core.events.AbstractEvent;
+import org.eclipse.smarthome.core.events.CompositeEvent;
+
+/**
+ * {@link ItemStateBatchEvent}s deliver the status updates of several items at once through the Eclipse SmartHome event
+ * bus. Subscribers that are not subscribed to this event type receive the contained {@link ItemStateEvent}s instead.
+ * State batch events must be created with the {@link ItemEventFactory}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class ItemStateBatchEvent extends AbstractEvent implements CompositeEvent {
+
+    /**
+     * The item state batch event type.
+     */
+    public static final String TYPE = ItemStateBatchEvent.class.getSimpleName();
+
+    private final List<ItemStateEvent> stateEvents;
+
+    /**
+     * Constructs a new item state batch event.
+     *
+     * @param topic the topic
+     * @param payload the payload
+     * @param stateEvents the item state events
+     * @param source the source, can be null
+     */
+    protected ItemStateBatchEvent(String topic, String payload, List<ItemStateEvent> stateEvents, String source) {
+        super(topic, payload, source);
+        this.stateEvents = Collections.unmodifiableList(stateEvents);
+    }
+
+    /**
+     * Constructs a new item state batch event with a lazily serialized payload.
+     *
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the payload
+     * @param stateEvents the item state events
+     * @param source the source, can be null
+     */
+    protected ItemStateBatchEvent(String topic, Supplier<String> payloadSupplier, List<ItemStateEvent> stateEvents,
+            String source) {
+        super(topic, payloadSupplier, source);
+        this.stateEvents = Collections.unmodifiableList(stateEvents);
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public List<ItemStateEvent> getEvents() {
+        return stateEvents;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d items updated", stateEvents.size());
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.GroupFunction;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * Base class for {@link GroupFunction.Aggregator}s that remember the contribution of every member item, so that the
+ * previous contribution of an item can be taken back when it is updated.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ *
+ * @param <C> the type of the contribution of a member item
+ */
+@NonNullByDefault
+abstract class AbstractGroupFunctionAggregator<C> implements GroupFunction.Aggregator {
+
+    private final Map<Item, @Nullable C> contributions = new HashMap<>();
+
+    @Override
+    public void add(Item item) {
+        updateContribution(item);
+    }
+
+    @Override
+    public void update(Item item) {
+        if (contributions.containsKey(item)) {
+            updateContribution(item);
+        }
+    }
+
+    @Override
+    public void remove(Item item) {
+        if (contributions.containsKey(item)) {
+            final C contribution = contributions.remove(item);
+            if (contribution != null) {
+                removeContribution(contribution);
+            }
+        }
+    }
+
+    private void updateContribution(Item item) {
+        final C contribution = getContribution(item);
+        final C oldContribution = contributions.put(item, contribution);
+        if (oldContribution != null) {
+            removeContribution(oldContribution);
+        }
+        if (contribution != null) {
+            addContribution(contribution);
+        }
+    }
+
+    @Override
+    public <T extends State> @Nullable T getStateAs(Class<T> stateClass) {
+        final State state = getState();
+        if (stateClass.isInstance(state)) {
+            return stateClass.cast(state);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of member items, including the items that do not contribute to the result.
+     *
+     * @return the number of member items
+     */
+    protected int getItemCount() {
+        return contributions.size();
+    }
+
+    /**
+     * Determines the contribution of a member item from its current state.
+     *
+     * @param item the member item
+     * @return the contribution or null, if the item does not contribute to the result
+     */
+    protected abstract @Nullable C getContribution(Item item);
+
+    /**
+     * Adds a contribution to the result.
+     *
+     * @param contribution the contribution
+     */
+    protected abstract void addContribution(C contribution);
+
+    /**
+     * Takes a contribution back from the result.
+     *
+     * @param contribution the contribution, which has been added before
+     */
+    protected abstract void removeContribution(C contribution);
+
+}
@@ -20,6 +20,7 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.items.GroupFunction;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.types.State;
@@ -32,6 +33,7 @@ import org.eclipse.smarthome.core.types.UnDefType;
  * @author Kai Kreuzer - Initial contribution and API
  * @author Thomas Eichstädt-Engelen - Added "N" functions
  * @author Gaël L'hopital - Added count function
+ * @author Eclipse SmartHome - Added incremental aggregators
  *
  */
 public interface ArithmeticGroupFunction extends GroupFunction {
@@ -106,6 +108,32 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[] { activeState, passiveState };
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new MatchingItemsAggregator(item -> activeState.equals(item.getStateAs(activeState.getClass()))) {
+                @Override
+                public State getState() {
+                    return calculate(getMatchingItemCount(), getItemCount());
+                }
+
+                @Override
+                protected DecimalType getCountState() {
+                    return new DecimalType(getItemCount() - getMatchingItemCount());
+                }
+            };
+        }
+
+        /**
+         * Calculates the group state from the number of items in the 'activeState'.
+         *
+         * @param activeItemCount the number of items in the 'activeState'
+         * @param itemCount the number of items
+         * @return the group state
+         */
+        protected State calculate(int activeItemCount, int itemCount) {
+            return itemCount > 0 && activeItemCount == itemCount ? activeState : passiveState;
+        }
     }
 
     /**
@@ -170,6 +198,27 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[] { activeState, passiveState };
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new MatchingItemsAggregator(item -> activeState.equals(item.getStateAs(activeState.getClass()))) {
+                @Override
+                public State getState() {
+                    return calculate(getMatchingItemCount(), getItemCount());
+                }
+            };
+        }
+
+        /**
+         * Calculates the group state from the number of items in the 'activeState'.
+         *
+         * @param activeItemCount the number of items in the 'activeState'
+         * @param itemCount the number of items
+         * @return the group state
+         */
+        protected State calculate(int activeItemCount, int itemCount) {
+            return activeItemCount > 0 ? activeState : passiveState;
+        }
     }
 
     /**
@@ -252,6 +301,27 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[] { activeState, passiveState };
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new MatchingItemsAggregator(item -> activeState.equals(item.getStateAs(activeState.getClass()))) {
+                @Override
+                public State getState() {
+                    return calculate(getMatchingItemCount(), getItemCount());
+                }
+            };
+        }
+
+        /**
+         * Calculates the group state from the number of items in the 'activeState'.
+         *
+         * @param activeItemCount the number of items in the 'activeState'
+         * @param itemCount the number of items
+         * @return the group state
+         */
+        protected State calculate(int activeItemCount, int itemCount) {
+            return activeItemCount == 1 ? activeState : passiveState;
+        }
     }
 
     /**
@@ -273,6 +343,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeItemCount, int itemCount) {
+            State result = super.calculate(activeItemCount, itemCount);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
@@ -294,6 +370,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeItemCount, int itemCount) {
+            State result = super.calculate(activeItemCount, itemCount);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
@@ -338,6 +420,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[0];
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new DecimalSumAggregator() {
+                @Override
+                public State getState() {
+                    if (getCount() > 0) {
+                        return new DecimalType(getSum().divide(BigDecimal.valueOf(getCount()), RoundingMode.HALF_UP));
+                    } else {
+                        return UnDefType.UNDEF;
+                    }
+                }
+            };
+        }
     }
 
     /**
@@ -376,6 +472,16 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[0];
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new DecimalSumAggregator() {
+                @Override
+                public State getState() {
+                    return new DecimalType(getSum());
+                }
+            };
+        }
     }
 
     /**
@@ -419,6 +525,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[0];
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new DecimalExtremumAggregator(false);
+        }
     }
 
     /**
@@ -462,6 +573,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[0];
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new DecimalExtremumAggregator(true);
+        }
     }
 
     /**
@@ -511,6 +627,16 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         public State[] getParameters() {
             return new State[] { new StringType(pattern.pattern()) };
         }
+
+        @Override
+        public @Nullable Aggregator createAggregator() {
+            return new MatchingItemsAggregator(item -> pattern.matcher(item.getState().toString()).matches()) {
+                @Override
+                public State getState() {
+                    return new DecimalType(getMatchingItemCount());
+                }
+            };
+        }
     }
 
     /**
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.math.BigDecimal;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+
+/**
+ * An aggregator that determines the minimum or maximum of the member states of decimal type.
+ *
+ * The states are counted in a sorted map, so updating the aggregator takes logarithmic time.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class DecimalExtremumAggregator extends AbstractGroupFunctionAggregator<BigDecimal> {
+
+    private final TreeMap<BigDecimal, Integer> valueCounts = new TreeMap<>();
+    private final boolean maximum;
+
+    /**
+     * Creates a new aggregator.
+     *
+     * @param maximum true to determine the maximum, false to determine the minimum
+     */
+    DecimalExtremumAggregator(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    @Override
+    protected @Nullable BigDecimal getContribution(Item item) {
+        final DecimalType state = item.getStateAs(DecimalType.class);
+        return state != null ? state.toBigDecimal() : null;
+    }
+
+    @Override
+    protected void addContribution(BigDecimal contribution) {
+        valueCounts.merge(contribution, 1, Integer::sum);
+    }
+
+    @Override
+    protected void removeContribution(BigDecimal contribution) {
+        final Integer valueCount = valueCounts.get(contribution);
+        if (valueCount != null && valueCount > 1) {
+            valueCounts.put(contribution, valueCount - 1);
+        } else {
+            valueCounts.remove(contribution);
+        }
+    }
+
+    @Override
+    public State getState() {
+        if (valueCounts.isEmpty()) {
+            return UnDefType.UNDEF;
+        }
+        return new DecimalType(maximum ? valueCounts.lastKey() : valueCounts.firstKey());
+    }
+
+}
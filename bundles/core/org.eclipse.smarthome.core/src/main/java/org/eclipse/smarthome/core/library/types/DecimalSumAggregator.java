@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.Item;
+
+/**
+ * An aggregator that sums up the member states of decimal type, for the sum and average group functions.
+ *
+ * The sum is kept exactly. Its scale is the same as if all states were added up again: the largest scale of the
+ * current states, which is tracked by counting the states per scale.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+abstract class DecimalSumAggregator extends AbstractGroupFunctionAggregator<BigDecimal> {
+
+    private final TreeMap<Integer, Integer> scaleCounts = new TreeMap<>();
+    private BigDecimal sum = BigDecimal.ZERO;
+    private int count;
+
+    @Override
+    protected @Nullable BigDecimal getContribution(Item item) {
+        final DecimalType state = item.getStateAs(DecimalType.class);
+        return state != null ? state.toBigDecimal() : null;
+    }
+
+    @Override
+    protected void addContribution(BigDecimal contribution) {
+        sum = sum.add(contribution);
+        count++;
+        scaleCounts.merge(contribution.scale(), 1, Integer::sum);
+    }
+
+    @Override
+    protected void removeContribution(BigDecimal contribution) {
+        sum = sum.subtract(contribution);
+        count--;
+        final Integer scaleCount = scaleCounts.get(contribution.scale());
+        if (scaleCount != null && scaleCount > 1) {
+            scaleCounts.put(contribution.scale(), scaleCount - 1);
+        } else {
+            scaleCounts.remove(contribution.scale());
+        }
+    }
+
+    /**
+     * Returns the sum of all member states of decimal type.
+     *
+     * @return the sum
+     */
+    protected BigDecimal getSum() {
+        final int scale = scaleCounts.isEmpty() ? 0 : Math.max(0, scaleCounts.lastKey());
+        // the sum does not have any digits beyond the largest scale of the current states
+        return sum.setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Returns the number of member states of decimal type.
+     *
+     * @return the number of states
+     */
+    protected int getCount() {
+        return count;
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * An aggregator that counts the member items which match a predicate, for the logical and counting group functions.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+abstract class MatchingItemsAggregator extends AbstractGroupFunctionAggregator<Boolean> {
+
+    private final Predicate<Item> predicate;
+    private int matchingItemCount;
+
+    MatchingItemsAggregator(Predicate<Item> predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected @Nullable Boolean getContribution(Item item) {
+        return predicate.test(item) ? Boolean.TRUE : null;
+    }
+
+    @Override
+    protected void addContribution(Boolean contribution) {
+        matchingItemCount++;
+    }
+
+    @Override
+    protected void removeContribution(Boolean contribution) {
+        matchingItemCount--;
+    }
+
+    @Override
+    public <T extends State> @Nullable T getStateAs(Class<T> stateClass) {
+        final State state = getState();
+        if (stateClass.isInstance(state)) {
+            return stateClass.cast(state);
+        } else if (stateClass == DecimalType.class) {
+            return stateClass.cast(getCountState());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of items that is provided if the group state is requested as {@link DecimalType}. By default,
+     * this is the number of matching items.
+     *
+     * @return the number of items as decimal state
+     */
+    protected DecimalType getCountState() {
+        return new DecimalType(matchingItemCount);
+    }
+
+    /**
+     * Returns the number of member items which match the predicate.
+     *
+     * @return the number of matching items
+     */
+    protected int getMatchingItemCount() {
+        return matchingItemCount;
+    }
+
+}
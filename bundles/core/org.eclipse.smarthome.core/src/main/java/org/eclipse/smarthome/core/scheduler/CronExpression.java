@@ -14,6 +14,7 @@ package org.eclipse.smarthome.core.scheduler;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedList;
@@ -36,13 +37,30 @@ import org.slf4j.LoggerFactory;
  * &quot;At 8:00am every Monday through Friday&quot; or &quot;At 1:30am every
  * last Friday of the month&quot;.
  *
+ * The next fire time is computed field by field from the values of the expression parts, without expanding candidate
+ * dates.
+ *
  * @author Karel Goderis - Initial contribution
+ * @author Eclipse SmartHome - Arithmetic computation of the next fire time
  *
  */
 public final class CronExpression extends AbstractExpression<CronExpressionPart> {
 
     private final Logger logger = LoggerFactory.getLogger(CronExpression.class);
 
+    // The values of the expression parts, used by getTimeAfter(Date). These fields are set while the super constructor
+    // parses the expression, so they must not have initializers.
+    private BitSet seconds;
+    private BitSet minutes;
+    private BitSet hours;
+    private BitSet daysOfMonth;
+    private BitSet months;
+    private BitSet daysOfWeek;
+    private BitSet years;
+    private DayOfMonthExpressionPart dayOfMonthPart;
+    private DayOfWeekExpressionPart dayOfWeekPart;
+    private Calendar calendar;
+
     public enum Month {
         JANUARY("JAN", Calendar.JANUARY, 31),
         FEBRUARY("FEB", Calendar.FEBRUARY, 28) {
@@ -251,6 +269,178 @@ public final class CronExpression extends AbstractExpression<CronExpressionPart>
             setExpressionParts(parts);
         }
 
+        seconds = toBitSet(getExpressionPart(SecondsExpressionPart.class));
+        minutes = toBitSet(getExpressionPart(MinutesExpressionPart.class));
+        hours = toBitSet(getExpressionPart(HoursExpressionPart.class));
+        daysOfMonth = toBitSet(domPart);
+        months = toBitSet(getExpressionPart(MonthsExpressionPart.class));
+        daysOfWeek = toBitSet(dowPart);
+        years = toBitSet(getExpressionPart(YearsExpressionPart.class));
+        dayOfMonthPart = domPart;
+        dayOfWeekPart = dowPart;
+        calendar = Calendar.getInstance(getTimeZone());
+    }
+
+    private static BitSet toBitSet(CronExpressionPart part) {
+        BitSet values = new BitSet();
+        for (Integer value : part.getValueSet()) {
+            values.set(value);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the next date/time after the given date/time which satisfies the expression.
+     *
+     * Starting at the next full second, the fields are adjusted from the year down to the second, each time skipping
+     * directly to the next matching value. The only object created is the returned date.
+     * <p>
+     * As a cron expression has a floating start date, the search starts at the given date/time, not at the start date
+     * of the expression, which is not modified by this call.
+     *
+     * @param afterTime the date/time at which to begin the search for the next valid date/time
+     * @return the next valid date/time, or null if there is no occurrence until the maximum year
+     */
+    @Override
+    public synchronized Date getTimeAfter(Date afterTime) {
+        final Calendar cal = calendar;
+        // cron expressions have a resolution of one second
+        final long time = afterTime.getTime();
+        cal.setTimeInMillis(time - Math.floorMod(time, 1000L) + 1000L);
+
+        while (true) {
+            final int year = cal.get(Calendar.YEAR);
+            if (year > YearsExpressionPart.MAX_YEAR) {
+                return null;
+            }
+            if (!years.get(year)) {
+                final int nextYear = years.nextSetBit(year);
+                if (nextYear < 0) {
+                    return null;
+                }
+                cal.set(nextYear, Calendar.JANUARY, 1, 0, 0, 0);
+                continue;
+            }
+
+            final int month = cal.get(Calendar.MONTH) + 1;
+            if (!months.get(month)) {
+                final int nextMonth = months.nextSetBit(month);
+                if (nextMonth < 0) {
+                    cal.set(year + 1, Calendar.JANUARY, 1, 0, 0, 0);
+                } else {
+                    cal.set(year, nextMonth - 1, 1, 0, 0, 0);
+                }
+                continue;
+            }
+
+            final int day = cal.get(Calendar.DAY_OF_MONTH);
+            if (!isSatisfiedByDay(day, lengthOfMonth(month, year), cal.get(Calendar.DAY_OF_WEEK))) {
+                cal.set(year, month - 1, day + 1, 0, 0, 0);
+                continue;
+            }
+
+            final int hour = cal.get(Calendar.HOUR_OF_DAY);
+            if (!hours.get(hour)) {
+                final int nextHour = hours.nextSetBit(hour);
+                if (nextHour < 0) {
+                    cal.set(year, month - 1, day + 1, 0, 0, 0);
+                } else {
+                    cal.set(year, month - 1, day, nextHour, 0, 0);
+                }
+                continue;
+            }
+
+            final int minute = cal.get(Calendar.MINUTE);
+            if (!minutes.get(minute)) {
+                final int nextMinute = minutes.nextSetBit(minute);
+                if (nextMinute < 0) {
+                    cal.set(year, month - 1, day, hour + 1, 0, 0);
+                } else {
+                    cal.set(year, month - 1, day, hour, nextMinute, 0);
+                }
+                continue;
+            }
+
+            final int second = cal.get(Calendar.SECOND);
+            if (!seconds.get(second)) {
+                final int nextSecond = seconds.nextSetBit(second);
+                if (nextSecond < 0) {
+                    cal.set(year, month - 1, day, hour, minute + 1, 0);
+                } else {
+                    cal.set(year, month - 1, day, hour, minute, nextSecond);
+                }
+                continue;
+            }
+
+            return cal.getTime();
+        }
+    }
+
+    /**
+     * Checks the day of month and day of week parts for a day. If the day of week part is specific, it takes
+     * precedence over the day of month part.
+     *
+     * @param day the day of month
+     * @param lastDay the last day of the month
+     * @param weekDay the day of week of the day, {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}
+     * @return true if the day satisfies the expression
+     */
+    private boolean isSatisfiedByDay(int day, int lastDay, int weekDay) {
+        if (!dayOfWeekPart.isNotSpecific()) {
+            if (dayOfWeekPart.isLastDayOfMonth()) {
+                // the last given day of week of the month, e.g. 6L
+                return weekDay == dayOfWeekPart.monthOffset && day + 7 > lastDay;
+            } else if (dayOfWeekPart.isLastDayOfWeek()) {
+                return weekDay == Calendar.SATURDAY;
+            } else if (dayOfWeekPart.isInstanceOfWeekday()) {
+                // the n-th given day of week of the month, e.g. 6#3
+                return weekDay == dayOfWeekPart.weekDay && (day - 1) / 7 + 1 == dayOfWeekPart.instanceOfMonth;
+            }
+            return daysOfWeek.get(weekDay);
+        }
+
+        if (dayOfMonthPart.isLastDayOfMonth()) {
+            return day == Math.max(1, lastDay - dayOfMonthPart.monthOffset);
+        } else if (dayOfMonthPart.isLastWeekDayOfMonth()) {
+            return day == nearestWeekDay(lastDay, lastDay, dayOfWeek(lastDay, day, weekDay));
+        } else if (dayOfMonthPart.isNearestWeekDay()) {
+            final int target = dayOfMonthPart.weekDay;
+            return target <= lastDay && day == nearestWeekDay(target, lastDay, dayOfWeek(target, day, weekDay));
+        }
+        return daysOfMonth.get(day);
+    }
+
+    /**
+     * Returns the week day (Monday to Friday) nearest to the given day, without leaving the month.
+     */
+    private static int nearestWeekDay(int day, int lastDay, int weekDay) {
+        if (weekDay == Calendar.SATURDAY) {
+            return day == 1 ? day + 2 : day - 1;
+        } else if (weekDay == Calendar.SUNDAY) {
+            return day == lastDay ? day - 2 : day + 1;
+        }
+        return day;
+    }
+
+    /**
+     * Returns the day of week of a day, given the day of week of another day of the same month.
+     */
+    private static int dayOfWeek(int day, int knownDay, int knownWeekDay) {
+        return Math.floorMod(knownWeekDay - 1 + day - knownDay, 7) + 1;
+    }
+
+    private static int lengthOfMonth(int month, int year) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
     }
 
     @Override
@@ -831,8 +1021,8 @@ public final class CronExpression extends AbstractExpression<CronExpressionPart>
                     break;
                 }
                 case "*": {
-                    getValueSet().add(MIN_MONTHDAY,
-                            Calendar.getInstance(getTimeZone()).getActualMaximum(Calendar.DAY_OF_MONTH), 1);
+                    // days beyond the end of a month are skipped when the expression is evaluated
+                    getValueSet().add(MIN_MONTHDAY, MAX_MONTHDAY, 1);
                     break;
                 }
                 case "?": {
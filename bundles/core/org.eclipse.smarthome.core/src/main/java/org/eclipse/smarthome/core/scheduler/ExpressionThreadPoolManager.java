@@ -12,26 +12,16 @@
  */
 package org.eclipse.smarthome.core.scheduler;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.CancellationException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.slf4j.Logger;
@@ -41,6 +31,7 @@ import org.slf4j.LoggerFactory;
  * This is an extended version of {@link ThreadPoolManager}, which can also handle expressions for scheduling tasks.
  *
  * @author Karel Goderis - Initial contribution
+ * @author Eclipse SmartHome - Self-rescheduling expression tasks instead of a monitor thread
  *
  */
 public class ExpressionThreadPoolManager extends ThreadPoolManager {
@@ -76,16 +67,16 @@ public class ExpressionThreadPoolManager extends ThreadPoolManager {
         }
     }
 
+    /**
+     * A scheduled thread pool that executes tasks at the times given by an {@link Expression}.
+     *
+     * Each scheduled expression has exactly one pending execution in the delay queue of the executor. When it fires,
+     * the next execution is computed and queued before the task is run, so no thread has to monitor the expressions.
+     * Removing an expression cancels its pending execution, which is removed from the delay queue right away.
+     */
     public static class ExpressionThreadPoolExecutor extends ScheduledThreadPoolExecutor {
-        private final Map<Expression, RunnableWrapper> scheduled = new ConcurrentHashMap<>();
-        private final Map<RunnableWrapper, List<ScheduledFuture<?>>> futures = Collections
-                .synchronizedMap(new HashMap<>());
-        private final Lock futuresLock = new ReentrantLock();
-        private final Map<Future<?>, Date> timestamps = Collections.synchronizedMap(new HashMap<Future<?>, Date>());
-        private volatile Thread monitor;
-        private final NamedThreadFactory monitorThreadFactory;
-        private final Lock monitoringLock = new ReentrantLock();
-        private final Condition newExpressionCondition = monitoringLock.newCondition();
+        private final Map<Expression, ScheduledExpression> scheduled = new ConcurrentHashMap<>();
+        private final Map<RunnableWrapper, Set<Expression>> expressionsByTask = new ConcurrentHashMap<>();
 
         public ExpressionThreadPoolExecutor(final String poolName, int corePoolSize) {
             this(poolName, corePoolSize, new NamedThreadFactory(poolName), new ThreadPoolExecutor.DiscardPolicy() {
@@ -102,231 +93,39 @@ public class ExpressionThreadPoolManager extends ThreadPoolManager {
         public ExpressionThreadPoolExecutor(String threadPool, int corePoolSize, NamedThreadFactory threadFactory,
                 RejectedExecutionHandler rejectedHandler) {
             super(corePoolSize, threadFactory, rejectedHandler);
-            this.monitorThreadFactory = new NamedThreadFactory(threadFactory.getName() + "-" + "Monitor");
+            // cancelled executions must not pile up in the delay queue until their time has come
+            setRemoveOnCancelPolicy(true);
         }
 
-        @Override
-        protected void afterExecute(Runnable runnable, Throwable throwable) {
-            logger.trace("Cleaning up after the execution of '{}'", runnable);
-            super.afterExecute(runnable, throwable);
-
-            if (runnable instanceof Future) {
-                Future<?> future = (Future<?>) runnable;
-                try {
-                    futuresLock.lock();
-                    for (Runnable aRunnable : futures.keySet()) {
-                        futures.get(aRunnable).removeIf(entry -> entry == future);
-                    }
-                } finally {
-                    futuresLock.unlock();
-                }
-                timestamps.remove(future);
-            } else {
-                List<ScheduledFuture<?>> obsoleteFutures = new ArrayList<ScheduledFuture<?>>();
-                try {
-                    futuresLock.lock();
-                    List<ScheduledFuture<?>> taskFutures = futures.get(runnable);
-
-                    if (taskFutures != null) {
-                        logger.trace("Runnable '{}' has {} Futures scheduled", runnable, taskFutures.size());
-
-                        for (ScheduledFuture<?> future : taskFutures) {
-                            if (future.isDone()) {
-                                obsoleteFutures.add(future);
-                            }
-                        }
-
-                        logger.trace("Runnable '{}' has {} Futures that will be removed", runnable,
-                                obsoleteFutures.size());
-                        for (Future<?> future : obsoleteFutures) {
-                            taskFutures.remove(future);
-                            timestamps.remove(future);
-                        }
-                    } else {
-                        logger.debug("Runnable '{}' has no Futures scheduled", runnable);
-                    }
-                } finally {
-                    futuresLock.unlock();
-                }
-            }
-
-            if (throwable != null) {
-                Throwable cause = throwable.getCause();
-                if (cause instanceof InterruptedException) {
-                    // Ignore this, might happen when we shutdownNow() the executor. We can't
-                    // log at this point as the logging system might be stopped already.
-                    return;
-                }
-            }
-        }
-
-        Runnable monitorTask = new Runnable() {
-
-            @Override
-            public void run() {
-                logger.debug("Starting the monitor thread '{}'", Thread.currentThread().getName());
-                while (true) {
-                    try {
-                        Date earliestExecution = null;
-                        final Date now = new Date();
-
-                        List<Expression> finishedExpressions = new ArrayList<Expression>();
-
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("There are {} scheduled expressions", scheduled.keySet().size());
-                            for (Entry<Expression, RunnableWrapper> entry : scheduled.entrySet()) {
-                                logger.trace("  Runnable {} with {}", entry.getValue(), entry.getValue());
-                            }
-                        }
-                        for (Expression e : scheduled.keySet()) {
-                            Date time = e.getTimeAfter(now);
-
-                            if (time != null) {
-                                logger.trace("Expression's '{}' next execution time is {}", e, time);
-
-                                final RunnableWrapper task = scheduled.get(e);
-
-                                if (task != null) {
-                                    try {
-                                        futuresLock.lock();
-                                        List<ScheduledFuture<?>> taskFutures = futures.get(task);
-
-                                        if (taskFutures == null) {
-                                            taskFutures = new ArrayList<ScheduledFuture<?>>();
-                                            futures.put(task, taskFutures);
-                                        }
-
-                                        boolean schedule = false;
-
-                                        long delay = time.getTime() - now.getTime();
-                                        if (taskFutures.size() == 0) {
-                                            // if no futures are currently scheduled, we definitely have to schedule the
-                                            // task
-                                            schedule = true;
-                                        } else {
-                                            // check the time stamp of the last scheduled task if an additional task
-                                            // needs
-                                            // to be scheduled
-                                            Date timestamp = timestamps.get(taskFutures.get(taskFutures.size() - 1));
-
-                                            if (time.after(timestamp)) {
-                                                schedule = true;
-                                            } else {
-                                                logger.trace("The task '{}' is already scheduled to execute in {} ms",
-                                                        task, delay);
-                                            }
-                                        }
-
-                                        if (schedule) {
-                                            logger.debug("Scheduling the task '{}' to execute in {} ms", task, delay);
-                                            ScheduledFuture<?> newFuture = ExpressionThreadPoolExecutor.this
-                                                    .schedule(task, delay, TimeUnit.MILLISECONDS);
-                                            taskFutures.add(newFuture);
-                                            logger.trace("Task '{}' has now {} Futures", task, taskFutures.size());
-                                            timestamps.put(newFuture, time);
-                                        }
-                                        if (logger.isTraceEnabled()) {
-                                            for (ScheduledFuture<?> future : taskFutures) {
-                                                logger.trace("Task {} ({}) will run in {}", task,
-                                                        System.identityHashCode(task),
-                                                        future.getDelay(TimeUnit.MILLISECONDS));
-                                            }
-                                        }
-                                    } finally {
-                                        futuresLock.unlock();
-                                    }
-                                } else {
-                                    logger.trace("Expressions without tasks are not valid");
-                                }
-
-                                if (earliestExecution == null) {
-                                    earliestExecution = time;
-                                } else {
-                                    if (time.before(earliestExecution)) {
-                                        earliestExecution = time;
-                                    }
-                                }
-                            } else {
-                                logger.debug("Expression '{}' has no future executions anymore", e);
-                                finishedExpressions.add(e);
-                            }
-                        }
-
-                        for (Expression e : finishedExpressions) {
-                            scheduled.remove(e);
-                            logger.trace("Cleaning up finished expression '{}'", e);
-                        }
-
-                        if (earliestExecution != null) {
-                            boolean newExpression = false;
-                            while (!newExpression && new Date().before(earliestExecution)) {
-                                if (logger.isTraceEnabled()) {
-                                    logger.trace("Putting the monitor thread '{}' to sleep for {} ms",
-                                            Thread.currentThread().getName(),
-                                            earliestExecution.getTime() - new Date().getTime());
-                                }
-                                try {
-                                    monitoringLock.lock();
-                                    newExpression = newExpressionCondition.await(
-                                            earliestExecution.getTime() - new Date().getTime(), TimeUnit.MILLISECONDS);
-                                    logger.trace("Monitor thread woke again with {}", newExpression);
-                                } finally {
-                                    monitoringLock.unlock();
-                                }
-                            }
-                        } else {
-                            logger.trace("Putting the monitor thread '{}' to sleep for {} ms",
-                                    Thread.currentThread().getName(), THREAD_MONITOR_SLEEP);
-                            try {
-                                monitoringLock.lock();
-                                newExpressionCondition.await(THREAD_MONITOR_SLEEP, TimeUnit.MILLISECONDS);
-                            } finally {
-                                monitoringLock.unlock();
-                            }
-                        }
-                    } catch (RejectedExecutionException ex) {
-                        logger.error("The executor has already been shut down : '{}'", ex.getMessage());
-                    } catch (CancellationException ex) {
-                        logger.error("Non executed tasks are cancelled : '{}'", ex.getMessage());
-                    } catch (InterruptedException ex) {
-                        logger.trace("The monitor thread was interrupted : '{}'", ex.getMessage());
-                    }
-                }
-            }
-        };
-
         public void schedule(final Runnable task, final Expression expression) {
             if (task == null || expression == null) {
                 throw new IllegalArgumentException("Task cannot be scheduled as task or expression is null.");
             }
             RunnableWrapper wrapper = new RunnableWrapper(task);
-            synchronized (this) {
-                if (monitor == null) {
-                    monitor = monitorThreadFactory.newThread(monitorTask);
-                    monitor.start();
-                }
-            }
             if (logger.isDebugEnabled()) {
-                if (scheduled.containsValue(wrapper)) {
+                if (expressionsByTask.containsKey(wrapper)) {
                     logger.debug("Task {} is already scheduled (potentially with a different expression).", wrapper);
                 }
             }
-            scheduled.put(expression, wrapper);
-            logger.debug("Scheduled task '{}' using expression '{}'", wrapper, expression);
-            try {
-                monitoringLock.lock();
-                newExpressionCondition.signalAll();
-            } finally {
-                monitoringLock.unlock();
+            ScheduledExpression scheduledExpression = new ScheduledExpression(expression, wrapper);
+            ScheduledExpression previous = scheduled.put(expression, scheduledExpression);
+            if (previous != null) {
+                previous.cancel();
+                removeExpressionOfTask(previous.task, expression);
             }
+            expressionsByTask.computeIfAbsent(wrapper, key -> ConcurrentHashMap.newKeySet()).add(expression);
+            logger.debug("Scheduled task '{}' using expression '{}'", wrapper, expression);
+            scheduledExpression.scheduleAfter(new Date());
         }
 
         public boolean remove(Expression expression) {
             logger.debug("Removing the expression '{}' from the scheduler", expression);
-            RunnableWrapper task = scheduled.remove(expression);
+            ScheduledExpression scheduledExpression = scheduled.remove(expression);
 
-            if (task != null) {
-                return doRemoveFutures(task);
+            if (scheduledExpression != null) {
+                scheduledExpression.cancel();
+                removeExpressionOfTask(scheduledExpression.task, expression);
+                return true;
             } else {
                 return false;
             }
@@ -334,58 +133,113 @@ public class ExpressionThreadPoolManager extends ThreadPoolManager {
 
         @Override
         public boolean remove(Runnable task) {
-            RunnableWrapper wrapper = new RunnableWrapper(task);
-            Expression theExpression = null;
-            for (Expression anExpression : scheduled.keySet()) {
-                if (wrapper.equals(scheduled.get(anExpression))) {
-                    theExpression = anExpression;
-                    break;
-                }
-            }
+            Set<Expression> expressions = expressionsByTask.get(new RunnableWrapper(task));
 
-            if (theExpression != null) {
-                return remove(theExpression);
+            if (expressions != null) {
+                boolean removed = false;
+                for (Expression expression : expressions) {
+                    removed |= remove(expression);
+                }
+                return removed;
             } else {
                 return super.remove(task);
             }
         }
 
+        /**
+         * Cancels the pending executions of the given task. The task remains scheduled and will be executed again at
+         * the next time of its expressions.
+         *
+         * @param task the task
+         * @return true if a pending execution has been cancelled
+         */
         public boolean removeFutures(Runnable task) {
-            RunnableWrapper wrapper = new RunnableWrapper(task);
-            return doRemoveFutures(wrapper);
+            Set<Expression> expressions = expressionsByTask.get(new RunnableWrapper(task));
+            boolean removed = false;
+            if (expressions != null) {
+                Date now = new Date();
+                for (Expression expression : expressions) {
+                    ScheduledExpression scheduledExpression = scheduled.get(expression);
+                    if (scheduledExpression != null) {
+                        removed |= scheduledExpression.reschedule(now);
+                    }
+                }
+            }
+            return removed;
         }
 
-        private boolean doRemoveFutures(RunnableWrapper task) {
-            logger.trace("Removing Runnable '{}' from the scheduler", task);
+        private void removeExpressionOfTask(RunnableWrapper task, Expression expression) {
+            expressionsByTask.computeIfPresent(task, (key, expressions) -> {
+                expressions.remove(expression);
+                return expressions.isEmpty() ? null : expressions;
+            });
+        }
 
-            List<Future<?>> obsoleteFutures = new ArrayList<Future<?>>();
-            try {
-                futuresLock.lock();
-                List<ScheduledFuture<?>> taskFutures = futures.get(task);
-                if (taskFutures != null) {
-                    if (taskFutures.size() != 0) {
-                        logger.trace("Runnable '{}' has {} Futures to be removed", task, taskFutures.size());
-                        for (Future<?> future : taskFutures) {
-                            future.cancel(false);
-                            timestamps.remove(future);
-                            obsoleteFutures.add(future);
-                        }
-                    }
+        /**
+         * An expression and its task, with the pending execution.
+         */
+        private class ScheduledExpression implements Runnable {
+            private final Expression expression;
+            private final RunnableWrapper task;
+
+            // guarded by this
+            private ScheduledFuture<?> future;
+            private Date fireTime;
+            private boolean cancelled;
+
+            ScheduledExpression(Expression expression, RunnableWrapper task) {
+                this.expression = expression;
+                this.task = task;
+            }
 
-                    for (Future<?> future : obsoleteFutures) {
-                        taskFutures.remove(future);
+            /**
+             * Queues the execution for the first time of the expression after the given date.
+             */
+            synchronized void scheduleAfter(Date date) {
+                if (cancelled) {
+                    return;
+                }
+                Date time = expression.getTimeAfter(date);
+                if (time == null) {
+                    logger.debug("Expression '{}' has no future executions anymore", expression);
+                    if (scheduled.remove(expression, this)) {
+                        removeExpressionOfTask(task, expression);
                     }
+                    return;
+                }
+                long delay = time.getTime() - System.currentTimeMillis();
+                logger.trace("Scheduling the task '{}' to execute in {} ms", task, delay);
+                fireTime = time;
+                future = ExpressionThreadPoolExecutor.this.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
 
-                    super.purge();
+            synchronized boolean reschedule(Date date) {
+                if (cancelled || future == null || !future.cancel(false)) {
+                    return false;
+                }
+                scheduleAfter(date);
+                return true;
+            }
+
+            synchronized void cancel() {
+                cancelled = true;
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
 
-                    if (taskFutures.size() == 0) {
-                        futures.remove(task);
-                        return true;
+            @Override
+            public void run() {
+                synchronized (this) {
+                    if (cancelled) {
+                        return;
                     }
+                    // queue the next execution first, so a long running task does not delay it. Executions that have
+                    // been missed, e.g. while the system was suspended, are skipped.
+                    Date now = new Date();
+                    scheduleAfter(fireTime.after(now) ? fireTime : now);
                 }
-                return false;
-            } finally {
-                futuresLock.unlock();
+                task.run();
             }
         }
     }
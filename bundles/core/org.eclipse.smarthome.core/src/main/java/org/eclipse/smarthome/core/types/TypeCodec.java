@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.types;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A {@link TypeCodec} converts the values of a {@link Type} from and to their string representation and a compact
+ * binary representation.
+ *
+ * Codecs are registered at the {@link TypeCodecRegistry} under their type name, which is the simple class name of the
+ * type without the "Type" suffix, e.g. "OnOff" for the {@link Type} <code>OnOffType</code>. This is the name used
+ * within the payload of the item events.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ *
+ * @param <T> the type handled by the codec
+ */
+@NonNullByDefault
+public abstract class TypeCodec<T extends Type> {
+
+    private static final String TYPE_POSTFIX = "Type";
+
+    private final Class<T> typeClass;
+    private final String typeName;
+
+    /**
+     * Creates a codec for the given type, named by the simple class name of the type without the "Type" suffix.
+     *
+     * @param typeClass the class of the type
+     */
+    protected TypeCodec(Class<T> typeClass) {
+        this.typeClass = typeClass;
+        String simpleName = typeClass.getSimpleName();
+        this.typeName = simpleName.endsWith(TYPE_POSTFIX)
+                ? simpleName.substring(0, simpleName.length() - TYPE_POSTFIX.length())
+                : simpleName;
+    }
+
+    /**
+     * Returns the class of the type handled by this codec.
+     *
+     * @return the class of the type
+     */
+    public Class<T> getTypeClass() {
+        return typeClass;
+    }
+
+    /**
+     * Returns the name of the type, i.e. the simple class name of the type without the "Type" suffix.
+     *
+     * @return the name of the type
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Parses a string into a value of the type.
+     *
+     * @param value the string to parse
+     * @return the parsed value or null, if the string is not a valid value of the type
+     */
+    public abstract @Nullable T parse(String value);
+
+    /**
+     * Formats a value of the type, so that it can be parsed again by {@link #parse(String)}.
+     *
+     * @param type the value to format
+     * @return the string representation of the value
+     */
+    public String format(T type) {
+        return type.toFullString();
+    }
+
+    /**
+     * Writes the binary representation of a value of the type.
+     *
+     * @param type the value to write
+     * @param out the output to write to
+     * @throws IOException if writing to the output fails
+     */
+    public void write(T type, DataOutput out) throws IOException {
+        writeString(format(type), out);
+    }
+
+    /**
+     * Reads a value of the type that has been written by {@link #write(Type, DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the value
+     * @throws IOException if reading from the input fails or the input does not contain a valid value
+     */
+    public T read(DataInput in) throws IOException {
+        String value = readString(in);
+        T type = parse(value);
+        if (type == null) {
+            throw new IOException("Invalid value '" + value + "' for type '" + typeName + "'.");
+        }
+        return type;
+    }
+
+    /**
+     * Writes a string of arbitrary length.
+     *
+     * @param value the string to write
+     * @param out the output to write to
+     * @throws IOException if writing to the output fails
+     */
+    protected static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string that has been written by {@link #writeString(String, DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the string
+     * @throws IOException if reading from the input fails
+     */
+    protected static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a codec that parses the values of a type by the given function, usually the static
+     * <code>valueOf(String)</code> method of the type.
+     *
+     * The function may throw a {@link RuntimeException} for invalid values, which is mapped to a <code>null</code>
+     * result of {@link #parse(String)}.
+     *
+     * @param typeClass the class of the type
+     * @param valueOf the function parsing a string into a value of the type
+     * @return the codec
+     */
+    public static <T extends Type> TypeCodec<T> of(Class<T> typeClass, Function<String, T> valueOf) {
+        return new TypeCodec<T>(typeClass) {
+            @Override
+            public @Nullable T parse(String value) {
+                try {
+                    return valueOf.apply(value);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a codec for an enum type. The values are parsed by their name and written as their ordinal.
+     *
+     * @param enumClass the class of the enum type
+     * @return the codec
+     */
+    public static <E extends Enum<E> & Type> TypeCodec<E> ofEnum(Class<E> enumClass) {
+        return new EnumTypeCodec<>(enumClass);
+    }
+
+    private static class EnumTypeCodec<E extends Enum<E> & Type> extends TypeCodec<E> {
+
+        private final E[] constants;
+        private final Map<String, E> constantsByName = new HashMap<>();
+
+        EnumTypeCodec(Class<E> enumClass) {
+            super(enumClass);
+            constants = enumClass.getEnumConstants();
+            for (E constant : constants) {
+                constantsByName.put(constant.name(), constant);
+            }
+        }
+
+        @Override
+        public @Nullable E parse(String value) {
+            return constantsByName.get(value);
+        }
+
+        @Override
+        public void write(E type, DataOutput out) throws IOException {
+            out.writeByte(type.ordinal());
+        }
+
+        @Override
+        public E read(DataInput in) throws IOException {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= constants.length) {
+                throw new IOException("Invalid ordinal " + ordinal + " for type '" + getTypeName() + "'.");
+            }
+            return constants[ordinal];
+        }
+    }
+
+}
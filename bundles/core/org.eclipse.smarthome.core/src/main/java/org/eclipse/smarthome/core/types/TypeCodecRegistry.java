@@ -0,0 +1,469 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.IncreaseDecreaseType;
+import org.eclipse.smarthome.core.library.types.NextPreviousType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PlayPauseType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.RawType;
+import org.eclipse.smarthome.core.library.types.RewindFastforwardType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.StringListType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+
+/**
+ * The {@link TypeCodecRegistry} holds the {@link TypeCodec}s for all {@link Type}s, so that types can be parsed and
+ * formatted without reflection.
+ *
+ * The codecs of the types of the core library and of {@link UnDefType} and {@link RefreshType} are always registered.
+ * Bindings can add the codecs of their own types by {@link #register(TypeCodec)}.
+ *
+ * The binary representation of a type created by {@link #encode(Type)} starts with a single byte identifying the type
+ * for the types of the core library, followed by the value written by the codec of the type. For all other types, the
+ * type name is written before the value.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public final class TypeCodecRegistry {
+
+    private static final int EXTENSION_CODEC_ID = 0;
+
+    /* the core codecs, the index + 1 is the id used within the binary representation and must never change */
+    private static final List<TypeCodec<?>> CORE_CODECS;
+
+    private static final Map<String, TypeCodec<?>> CODECS_BY_NAME = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, TypeCodec<?>> CODECS_BY_CLASS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Integer> CORE_CODEC_IDS = new ConcurrentHashMap<>();
+
+    static {
+        List<TypeCodec<?>> codecs = new ArrayList<>();
+        codecs.add(TypeCodec.ofEnum(UnDefType.class));
+        codecs.add(TypeCodec.ofEnum(RefreshType.class));
+        codecs.add(TypeCodec.ofEnum(OnOffType.class));
+        codecs.add(TypeCodec.ofEnum(OpenClosedType.class));
+        codecs.add(TypeCodec.ofEnum(UpDownType.class));
+        codecs.add(TypeCodec.ofEnum(IncreaseDecreaseType.class));
+        codecs.add(TypeCodec.ofEnum(NextPreviousType.class));
+        codecs.add(TypeCodec.ofEnum(PlayPauseType.class));
+        codecs.add(TypeCodec.ofEnum(RewindFastforwardType.class));
+        codecs.add(TypeCodec.ofEnum(StopMoveType.class));
+        codecs.add(new DecimalTypeCodec());
+        codecs.add(new PercentTypeCodec());
+        codecs.add(new StringTypeCodec());
+        codecs.add(new HSBTypeCodec());
+        codecs.add(new PointTypeCodec());
+        codecs.add(new QuantityTypeCodec());
+        codecs.add(new RawTypeCodec());
+        codecs.add(TypeCodec.of(DateTimeType.class, DateTimeType::valueOf));
+        codecs.add(TypeCodec.of(StringListType.class, StringListType::valueOf));
+        CORE_CODECS = Collections.unmodifiableList(codecs);
+
+        for (int i = 0; i < CORE_CODECS.size(); i++) {
+            TypeCodec<?> codec = CORE_CODECS.get(i);
+            CODECS_BY_NAME.put(codec.getTypeName(), codec);
+            CODECS_BY_CLASS.put(codec.getTypeClass(), codec);
+            CORE_CODEC_IDS.put(codec.getTypeClass(), i + 1);
+        }
+    }
+
+    /**
+     * No instances allowed.
+     */
+    private TypeCodecRegistry() {
+    }
+
+    /**
+     * Registers the codec of a type.
+     *
+     * @param codec the codec
+     * @throws IllegalArgumentException if there is already another codec registered for the type name or class
+     */
+    public static synchronized void register(TypeCodec<?> codec) {
+        TypeCodec<?> existing = CODECS_BY_NAME.get(codec.getTypeName());
+        if (existing == null) {
+            existing = CODECS_BY_CLASS.get(codec.getTypeClass());
+        }
+        if (existing != null && existing != codec) {
+            throw new IllegalArgumentException("A codec for the type '" + codec.getTypeName() + "' ("
+                    + codec.getTypeClass().getName() + ") is already registered.");
+        }
+        CODECS_BY_NAME.put(codec.getTypeName(), codec);
+        CODECS_BY_CLASS.put(codec.getTypeClass(), codec);
+    }
+
+    /**
+     * Unregisters the codec of a type. The codecs of the core types cannot be unregistered.
+     *
+     * @param codec the codec that has been passed to {@link #register(TypeCodec)}
+     */
+    public static synchronized void unregister(TypeCodec<?> codec) {
+        if (CORE_CODECS.contains(codec)) {
+            return;
+        }
+        CODECS_BY_NAME.remove(codec.getTypeName(), codec);
+        CODECS_BY_CLASS.remove(codec.getTypeClass(), codec);
+    }
+
+    /**
+     * Returns the codec for a type name.
+     *
+     * @param typeName the name of the type without the "Type" suffix, e.g. "OnOff"
+     * @return the codec or null, if there is no codec for the type name
+     */
+    public static @Nullable TypeCodec<?> getCodec(String typeName) {
+        return CODECS_BY_NAME.get(typeName);
+    }
+
+    /**
+     * Returns the codec for a type.
+     *
+     * @param typeClass the class of the type
+     * @return the codec or null, if there is no codec for the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type> @Nullable TypeCodec<T> getCodec(Class<T> typeClass) {
+        return (TypeCodec<T>) CODECS_BY_CLASS.get(typeClass);
+    }
+
+    /**
+     * Creates the binary representation of a type.
+     *
+     * @param type the type
+     * @return the binary representation
+     * @throws IllegalArgumentException if there is no codec for the type
+     */
+    public static byte[] encode(Type type) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            encode(type, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            // cannot happen for a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the binary representation of a type.
+     *
+     * @param type the type
+     * @param out the output to write to
+     * @throws IOException if writing to the output fails
+     * @throws IllegalArgumentException if there is no codec for the type
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static void encode(Type type, DataOutput out) throws IOException {
+        TypeCodec codec = CODECS_BY_CLASS.get(type.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("No codec registered for type '" + type.getClass().getName() + "'.");
+        }
+        Integer id = CORE_CODEC_IDS.get(type.getClass());
+        if (id != null) {
+            out.writeByte(id);
+        } else {
+            out.writeByte(EXTENSION_CODEC_ID);
+            out.writeUTF(codec.getTypeName());
+        }
+        codec.write(type, out);
+    }
+
+    /**
+     * Creates a type from its binary representation.
+     *
+     * @param bytes the binary representation created by {@link #encode(Type)}
+     * @return the type
+     * @throws IllegalArgumentException if the bytes are no valid representation of a type
+     */
+    public static Type decode(byte[] bytes) {
+        try {
+            return decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid binary representation of a type: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the binary representation of a type.
+     *
+     * @param in the input to read from
+     * @return the type
+     * @throws IOException if reading from the input fails or the input does not contain a valid type
+     */
+    public static Type decode(DataInput in) throws IOException {
+        int id = in.readUnsignedByte();
+        TypeCodec<?> codec;
+        if (id == EXTENSION_CODEC_ID) {
+            String typeName = in.readUTF();
+            codec = CODECS_BY_NAME.get(typeName);
+            if (codec == null) {
+                throw new IOException("No codec registered for type name '" + typeName + "'.");
+            }
+        } else if (id <= CORE_CODECS.size()) {
+            codec = CORE_CODECS.get(id - 1);
+        } else {
+            throw new IOException("Unknown type id " + id + ".");
+        }
+        return codec.read(in);
+    }
+
+    /**
+     * Checks whether a string is a valid argument of {@link BigDecimal#BigDecimal(String)}, so that numbers can be
+     * parsed without the need to catch a {@link NumberFormatException} for invalid values.
+     */
+    static boolean isDecimal(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && Character.isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && Character.isDigit(value.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static void writeDecimal(BigDecimal value, DataOutput out) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static class DecimalTypeCodec extends TypeCodec<DecimalType> {
+
+        DecimalTypeCodec() {
+            super(DecimalType.class);
+        }
+
+        @Override
+        public @Nullable DecimalType parse(String value) {
+            return isDecimal(value) ? new DecimalType(new BigDecimal(value)) : null;
+        }
+
+        @Override
+        public void write(DecimalType type, DataOutput out) throws IOException {
+            writeDecimal(type.toBigDecimal(), out);
+        }
+
+        @Override
+        public DecimalType read(DataInput in) throws IOException {
+            return new DecimalType(readDecimal(in));
+        }
+    }
+
+    private static class PercentTypeCodec extends TypeCodec<PercentType> {
+
+        private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+        PercentTypeCodec() {
+            super(PercentType.class);
+        }
+
+        @Override
+        public @Nullable PercentType parse(String value) {
+            if (!isDecimal(value)) {
+                return null;
+            }
+            BigDecimal decimal = new BigDecimal(value);
+            if (decimal.signum() < 0 || decimal.compareTo(HUNDRED) > 0) {
+                return null;
+            }
+            return new PercentType(decimal);
+        }
+
+        @Override
+        public void write(PercentType type, DataOutput out) throws IOException {
+            writeDecimal(type.toBigDecimal(), out);
+        }
+
+        @Override
+        public PercentType read(DataInput in) throws IOException {
+            try {
+                return new PercentType(readDecimal(in));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static class StringTypeCodec extends TypeCodec<StringType> {
+
+        StringTypeCodec() {
+            super(StringType.class);
+        }
+
+        @Override
+        public StringType parse(String value) {
+            return new StringType(value);
+        }
+    }
+
+    private static class HSBTypeCodec extends TypeCodec<HSBType> {
+
+        HSBTypeCodec() {
+            super(HSBType.class);
+        }
+
+        @Override
+        public @Nullable HSBType parse(String value) {
+            // a color consists of exactly three comma separated numbers
+            int first = value.indexOf(',');
+            int second = first < 0 ? -1 : value.indexOf(',', first + 1);
+            if (second < 0 || value.indexOf(',', second + 1) >= 0) {
+                return null;
+            }
+            try {
+                return new HSBType(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class PointTypeCodec extends TypeCodec<PointType> {
+
+        PointTypeCodec() {
+            super(PointType.class);
+        }
+
+        @Override
+        public @Nullable PointType parse(String value) {
+            // a point consists of two or three comma separated numbers
+            if (value.indexOf(',') < 0) {
+                return null;
+            }
+            try {
+                return new PointType(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class QuantityTypeCodec extends TypeCodec<QuantityType> {
+
+        QuantityTypeCodec() {
+            super(QuantityType.class);
+        }
+
+        @Override
+        public @Nullable QuantityType parse(String value) {
+            // a quantity starts with its numerical value
+            if (value.isEmpty() || !(Character.isDigit(value.charAt(0)) || value.charAt(0) == '-'
+                    || value.charAt(0) == '+' || value.charAt(0) == '.')) {
+                return null;
+            }
+            try {
+                return new QuantityType<>(value);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class RawTypeCodec extends TypeCodec<RawType> {
+
+        RawTypeCodec() {
+            super(RawType.class);
+        }
+
+        @Override
+        public @Nullable RawType parse(String value) {
+            if (!value.startsWith("data:")) {
+                return null;
+            }
+            try {
+                return RawType.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void write(RawType type, DataOutput out) throws IOException {
+            out.writeUTF(type.getMimeType());
+            out.writeInt(type.getBytes().length);
+            out.write(type.getBytes());
+        }
+
+        @Override
+        public RawType read(DataInput in) throws IOException {
+            String mimeType = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new RawType(bytes, mimeType);
+        }
+    }
+
+}
@@ -16,10 +16,16 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
+import org.apache.commons.lang.StringUtils;
+
 /**
  * This is a helper class that helps parsing a string into an Eclipse SmartHome type (state or command).
  *
+ * The types are parsed by the codecs of the {@link TypeCodecRegistry}; the static <code>valueOf(String)</code> method
+ * of a type is only invoked by reflection if there is no codec registered for it.
+ *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Parse types by their registered codecs
  *
  */
 public final class TypeParser {
@@ -31,6 +37,7 @@ public final class TypeParser {
     }
 
     private static final String CORE_LIBRARY_PACKAGE = "org.eclipse.smarthome.core.library.types.";
+    private static final String TYPE_POSTFIX = "Type";
 
     /**
      * Parses a string into a type.
@@ -40,6 +47,10 @@ public final class TypeParser {
      * @return Parsed type or null, if the type couldn't be parsed.
      */
     public static Type parseType(String typeName, String input) {
+        TypeCodec<?> codec = TypeCodecRegistry.getCodec(StringUtils.removeEnd(typeName, TYPE_POSTFIX));
+        if (codec != null) {
+            return codec.parse(input);
+        }
         try {
             Class<?> stateClass = Class.forName(CORE_LIBRARY_PACKAGE + typeName);
             Method valueOfMethod = stateClass.getMethod("valueOf", String.class);
@@ -66,7 +77,15 @@ public final class TypeParser {
      * @return the corresponding State instance or <code>null</code>
      */
     public static State parseState(List<Class<? extends State>> types, String s) {
-        for (Class<? extends Type> type : types) {
+        for (Class<? extends State> type : types) {
+            TypeCodec<? extends State> codec = TypeCodecRegistry.getCodec(type);
+            if (codec != null) {
+                State state = codec.parse(s);
+                if (state != null) {
+                    return state;
+                }
+                continue;
+            }
             try {
                 Method valueOf = type.getMethod("valueOf", String.class);
                 State state = (State) valueOf.invoke(type, s);
@@ -97,6 +116,14 @@ public final class TypeParser {
      */
     public static Command parseCommand(List<Class<? extends Command>> types, String s) {
         for (Class<? extends Command> type : types) {
+            TypeCodec<? extends Command> codec = TypeCodecRegistry.getCodec(type);
+            if (codec != null) {
+                Command value = codec.parse(s);
+                if (value != null) {
+                    return value;
+                }
+                continue;
+            }
             try {
                 Method valueOf = type.getMethod("valueOf", String.class);
                 Command value = (Command) valueOf.invoke(type, s);
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.rest.sitemap.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.ItemNotFoundException;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.eclipse.smarthome.io.rest.sitemap.SitemapSubscriptionService.SitemapSubscriptionCallback;
+import org.eclipse.smarthome.model.sitemap.Widget;
+import org.eclipse.smarthome.ui.items.ItemUIRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests for {@link WidgetEventDispatcher}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class WidgetEventDispatcherTest {
+
+    private static final String ITEM_NAME = "itemName";
+    private static final String SITEMAP_NAME = "defaultSitemap";
+    private static final String WIDGET_ID = "00";
+
+    @Mock
+    private ItemUIRegistry itemUIRegistry;
+
+    @Mock
+    private Widget widget;
+
+    private GenericItem item;
+    private WidgetEventDispatcher dispatcher;
+
+    @Before
+    public void setup() throws ItemNotFoundException {
+        initMocks(this);
+        item = new TestItem(ITEM_NAME);
+        dispatcher = new WidgetEventDispatcher(itemUIRegistry);
+
+        EClass textEClass = mock(EClass.class);
+        when(textEClass.getInstanceTypeName()).thenReturn("org.eclipse.smarthome.model.sitemap.Text");
+        when(widget.eClass()).thenReturn(textEClass);
+        when(widget.getItem()).thenReturn(ITEM_NAME);
+        when(widget.getVisibility()).thenReturn(new BasicEList<>());
+        when(widget.getLabelColor()).thenReturn(new BasicEList<>());
+        when(widget.getValueColor()).thenReturn(new BasicEList<>());
+
+        when(itemUIRegistry.getItem(ITEM_NAME)).thenReturn(item);
+        when(itemUIRegistry.getLabel(widget)).thenReturn("Label [1]");
+        when(itemUIRegistry.getWidgetId(widget)).thenReturn(WIDGET_ID);
+        when(itemUIRegistry.getVisiblity(widget)).thenReturn(true);
+        when(itemUIRegistry.convertState(eq(widget), eq(item), any())).thenAnswer(i -> i.getArgument(2));
+    }
+
+    @Test
+    public void testWidgetEventIsSharedByPages() {
+        List<SitemapEvent> eventsOfPage1 = new ArrayList<>();
+        List<SitemapEvent> eventsOfPage2 = new ArrayList<>();
+        createPage("page1", eventsOfPage1);
+        createPage("page2", eventsOfPage2);
+
+        dispatcher.stateChanged(item, UnDefType.NULL, new DecimalType(1));
+
+        assertEquals(1, eventsOfPage1.size());
+        assertEquals(1, eventsOfPage2.size());
+        SitemapWidgetEvent event1 = (SitemapWidgetEvent) eventsOfPage1.get(0);
+        SitemapWidgetEvent event2 = (SitemapWidgetEvent) eventsOfPage2.get(0);
+        assertEquals("page1", event1.pageId);
+        assertEquals("page2", event2.pageId);
+        assertEquals(SITEMAP_NAME, event2.sitemapName);
+        assertEquals(WIDGET_ID, event2.widgetId);
+        assertEquals("Label [1]", event2.label);
+        assertSame(event1.item, event2.item);
+        verify(itemUIRegistry, times(1)).getLabel(widget);
+    }
+
+    @Test
+    public void testUnchangedWidgetIsNotSent() {
+        List<SitemapEvent> events = new ArrayList<>();
+        createPage("page", events);
+
+        dispatcher.stateChanged(item, UnDefType.NULL, new DecimalType(1));
+        dispatcher.changeStateTo(item, new DecimalType(1));
+        assertEquals(1, events.size());
+
+        when(itemUIRegistry.getLabelColor(widget)).thenReturn("red");
+        dispatcher.changeStateTo(item, new DecimalType(1));
+        assertEquals(2, events.size());
+        assertEquals("red", ((SitemapWidgetEvent) events.get(1)).labelcolor);
+
+        dispatcher.changeStateTo(item, new DecimalType(2));
+        assertEquals(3, events.size());
+        assertEquals("2", ((SitemapWidgetEvent) events.get(2)).state);
+    }
+
+    @Test
+    public void testDisposedPageDoesNotReceiveEvents() {
+        List<SitemapEvent> events = new ArrayList<>();
+        PageChangeListener page = createPage("page", events);
+        page.dispose();
+
+        dispatcher.stateChanged(item, UnDefType.NULL, new DecimalType(1));
+
+        assertTrue(events.isEmpty());
+    }
+
+    private PageChangeListener createPage(String pageId, List<SitemapEvent> events) {
+        EList<Widget> widgets = new BasicEList<>();
+        widgets.add(widget);
+        PageChangeListener page = new PageChangeListener(SITEMAP_NAME, pageId, itemUIRegistry, dispatcher, widgets);
+        page.addCallback(new SitemapSubscriptionCallback() {
+            @Override
+            public void onEvent(SitemapEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onRelease(String subscriptionId) {
+            }
+        });
+        return page;
+    }
+
+    private class TestItem extends GenericItem {
+
+        public TestItem(String name) {
+            super("Number", name);
+        }
+
+        @Override
+        public List<Class<? extends State>> getAcceptedDataTypes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Class<? extends Command>> getAcceptedCommandTypes() {
+            return Collections.emptyList();
+        }
+    }
+
+}
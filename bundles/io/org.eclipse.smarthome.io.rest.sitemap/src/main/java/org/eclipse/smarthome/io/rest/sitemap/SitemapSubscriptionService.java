@@ -34,6 +34,7 @@ import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.events.ItemStatePredictedEvent;
 import org.eclipse.smarthome.io.rest.sitemap.internal.PageChangeListener;
 import org.eclipse.smarthome.io.rest.sitemap.internal.SitemapEvent;
+import org.eclipse.smarthome.io.rest.sitemap.internal.WidgetEventDispatcher;
 import org.eclipse.smarthome.model.core.EventType;
 import org.eclipse.smarthome.model.core.ModelRepositoryChangeListener;
 import org.eclipse.smarthome.model.sitemap.LinkableWidget;
@@ -60,6 +61,7 @@ import org.slf4j.LoggerFactory;
  * page.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Widget events shared by all pages
  */
 @Component(service = { SitemapSubscriptionService.class,
         EventSubscriber.class }, configurationPid = "org.eclipse.smarthome.sitemapsubscription")
@@ -93,6 +95,9 @@ public class SitemapSubscriptionService implements ModelRepositoryChangeListener
     /* sitemap+page -> listener */
     private final Map<String, PageChangeListener> pageChangeListeners = new ConcurrentHashMap<>();
 
+    /* creates the widget events for all pages */
+    private WidgetEventDispatcher widgetEventDispatcher;
+
     /* Max number of subscriptions at the same time */
     private int maxSubscriptions = DEFAULT_MAX_SUBSCRIPTIONS;
 
@@ -101,6 +106,7 @@ public class SitemapSubscriptionService implements ModelRepositoryChangeListener
 
     @Activate
     protected void activate(Map<String, Object> config) {
+        widgetEventDispatcher = new WidgetEventDispatcher(itemUIRegistry);
         applyConfig(config);
     }
 
@@ -112,6 +118,7 @@ public class SitemapSubscriptionService implements ModelRepositoryChangeListener
             listener.dispose();
         }
         pageChangeListeners.clear();
+        widgetEventDispatcher.dispose();
     }
 
     @Modified
@@ -259,7 +266,8 @@ public class SitemapSubscriptionService implements ModelRepositoryChangeListener
         PageChangeListener listener = pageChangeListeners.get(getValue(sitemapName, pageId));
         if (listener == null) {
             // there is no listener for this page yet, so let's try to create one
-            listener = new PageChangeListener(sitemapName, pageId, itemUIRegistry, collectWidgets(sitemapName, pageId));
+            listener = new PageChangeListener(sitemapName, pageId, itemUIRegistry, widgetEventDispatcher,
+                    collectWidgets(sitemapName, pageId));
             pageChangeListeners.put(getValue(sitemapName, pageId), listener);
         }
         if (listener != null) {
@@ -370,12 +378,10 @@ public class SitemapSubscriptionService implements ModelRepositoryChangeListener
                 // members and predictions aren't really possible in that case (or at least would be highly complex).
                 return;
             }
-            for (PageChangeListener pageChangeListener : pageChangeListeners.values()) {
-                if (prediction.isConfirmation()) {
-                    pageChangeListener.keepCurrentState(item);
-                } else {
-                    pageChangeListener.changeStateTo(item, prediction.getPredictedState());
-                }
+            if (prediction.isConfirmation()) {
+                widgetEventDispatcher.keepCurrentState(item);
+            } else {
+                widgetEventDispatcher.changeStateTo(item, prediction.getPredictedState());
             }
         }
     }
@@ -14,23 +14,16 @@ package org.eclipse.smarthome.io.rest.sitemap.internal;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
 
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.smarthome.core.common.ThreadPoolManager;
-import org.eclipse.smarthome.core.items.GenericItem;
-import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
-import org.eclipse.smarthome.core.items.StateChangeListener;
-import org.eclipse.smarthome.core.library.CoreItemFactory;
-import org.eclipse.smarthome.core.types.State;
-import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTOMapper;
 import org.eclipse.smarthome.io.rest.sitemap.SitemapSubscriptionService.SitemapSubscriptionCallback;
 import org.eclipse.smarthome.model.sitemap.Chart;
 import org.eclipse.smarthome.model.sitemap.ColorArray;
@@ -40,21 +33,22 @@ import org.eclipse.smarthome.model.sitemap.Widget;
 import org.eclipse.smarthome.ui.items.ItemUIRegistry;
 
 /**
- * This is a class that listens on item state change events and creates sitemap events for a dedicated sitemap page.
+ * This is a class that sends the sitemap events for a dedicated sitemap page. The widget events are created by the
+ * {@link WidgetEventDispatcher} on item state changes.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Widget events created by a shared dispatcher
  *
  */
-public class PageChangeListener implements StateChangeListener {
+public class PageChangeListener {
 
-    private static final int REVERT_INTERVAL = 300;
-    private final ScheduledExecutorService scheduler = ThreadPoolManager
-            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
     private final String sitemapName;
     private final String pageId;
     private final ItemUIRegistry itemUIRegistry;
-    private EList<Widget> widgets;
-    private Set<Item> items;
+    private final WidgetEventDispatcher widgetEventDispatcher;
+    private Set<Item> items = Collections.emptySet();
+    /* item name -> widgets of the page which have to be updated on a state change of the item */
+    private volatile Map<String, List<Widget>> widgetsByItemName = Collections.emptyMap();
     private final List<SitemapSubscriptionCallback> callbacks = Collections
             .synchronizedList(new ArrayList<SitemapSubscriptionCallback>());
     private Set<SitemapSubscriptionCallback> distinctCallbacks = Collections.emptySet();
@@ -65,34 +59,35 @@ public class PageChangeListener implements StateChangeListener {
      * @param sitemapName the sitemap name of the page
      * @param pageId the id of the page for which events are created
      * @param itemUIRegistry the ItemUIRegistry which is needed for the functionality
+     * @param widgetEventDispatcher the dispatcher which creates the widget events
      * @param widgets the list of widgets that are part of the page.
      */
-    public PageChangeListener(String sitemapName, String pageId, ItemUIRegistry itemUIRegistry, EList<Widget> widgets) {
+    public PageChangeListener(String sitemapName, String pageId, ItemUIRegistry itemUIRegistry,
+            WidgetEventDispatcher widgetEventDispatcher, EList<Widget> widgets) {
         this.sitemapName = sitemapName;
         this.pageId = pageId;
         this.itemUIRegistry = itemUIRegistry;
+        this.widgetEventDispatcher = widgetEventDispatcher;
 
         updateItemsAndWidgets(widgets);
     }
 
-    private void updateItemsAndWidgets(EList<Widget> widgets) {
-        if (this.widgets != null) {
-            // cleanup statechange listeners in case widgets were removed
-            items = getAllItems(this.widgets);
-            for (Item item : items) {
-                if (item instanceof GenericItem) {
-                    ((GenericItem) item).removeStateChangeListener(this);
-                }
-            }
-        }
+    private synchronized void updateItemsAndWidgets(EList<Widget> widgets) {
+        // cleanup the registration in case widgets were removed
+        widgetEventDispatcher.removePage(this, items);
 
-        this.widgets = widgets;
-        items = getAllItems(widgets);
-        for (Item item : items) {
-            if (item instanceof GenericItem) {
-                ((GenericItem) item).addStateChangeListener(this);
+        Map<String, List<Widget>> widgetsByItemName = new HashMap<>();
+        if (itemUIRegistry != null) {
+            Map<String, Set<Widget>> widgetSets = new HashMap<>();
+            collectWidgets(widgets, widgetSets);
+            for (Map.Entry<String, Set<Widget>> entry : widgetSets.entrySet()) {
+                widgetsByItemName.put(entry.getKey(), new ArrayList<>(entry.getValue()));
             }
         }
+        this.widgetsByItemName = widgetsByItemName;
+
+        items = getAllItems(widgetsByItemName.keySet());
+        widgetEventDispatcher.addPage(this, items);
     }
 
     public String getSitemapName() {
@@ -117,50 +112,57 @@ public class PageChangeListener implements StateChangeListener {
     /**
      * Disposes this instance and releases all resources.
      */
-    public void dispose() {
-        for (Item item : items) {
-            if (item instanceof GenericItem) {
-                ((GenericItem) item).removeStateChangeListener(this);
-            } else if (item instanceof GroupItem) {
-                ((GroupItem) item).removeStateChangeListener(this);
-            }
-        }
+    public synchronized void dispose() {
+        widgetEventDispatcher.removePage(this, items);
     }
 
     /**
-     * Collects all items that are represented by a given list of widgets
+     * Collects the widgets which have to be updated on state changes, including the widgets within frames.
      *
-     * @param widgets
-     *            the widget list to get the items for added to all bundles containing REST resources
-     * @return all items that are represented by the list of widgets
+     * @param widgets the widget list to collect
+     * @param widgetsByItemName the collected widgets by the names of the items they depend on
      */
-    private Set<Item> getAllItems(EList<Widget> widgets) {
-        Set<Item> items = new HashSet<Item>();
-        if (itemUIRegistry != null) {
-            for (Widget widget : widgets) {
-                addItemWithName(items, widget.getItem());
-                if (widget instanceof Frame) {
-                    items.addAll(getAllItems(((Frame) widget).getChildren()));
-                }
-                // now scan visibility rules
-                for (VisibilityRule rule : widget.getVisibility()) {
-                    addItemWithName(items, rule.getItem());
-                }
-                // now scan label color rules
-                for (ColorArray rule : widget.getLabelColor()) {
-                    addItemWithName(items, rule.getItem());
-                }
-                // now scan value color rules
-                for (ColorArray rule : widget.getValueColor()) {
-                    addItemWithName(items, rule.getItem());
-                }
+    private void collectWidgets(List<Widget> widgets, Map<String, Set<Widget>> widgetsByItemName) {
+        for (Widget w : widgets) {
+            if (w instanceof Frame) {
+                collectWidgets(itemUIRegistry.getChildren((Frame) w), widgetsByItemName);
+            }
+
+            // We skip the chart widgets having a refresh argument
+            boolean skipWidget = w instanceof Chart && ((Chart) w).getRefresh() > 0;
+            if (!skipWidget) {
+                addWidget(widgetsByItemName, w.getItem(), w);
+            }
+            // now scan visibility rules
+            for (VisibilityRule rule : w.getVisibility()) {
+                addWidget(widgetsByItemName, rule.getItem(), w);
+            }
+            // now scan label color rules
+            for (ColorArray rule : w.getLabelColor()) {
+                addWidget(widgetsByItemName, rule.getItem(), w);
+            }
+            // now scan value color rules
+            for (ColorArray rule : w.getValueColor()) {
+                addWidget(widgetsByItemName, rule.getItem(), w);
             }
         }
-        return items;
     }
 
-    private void addItemWithName(Set<Item> items, String itemName) {
+    private void addWidget(Map<String, Set<Widget>> widgetsByItemName, String itemName, Widget w) {
         if (itemName != null) {
+            widgetsByItemName.computeIfAbsent(itemName, name -> new LinkedHashSet<>()).add(w);
+        }
+    }
+
+    /**
+     * Collects all items with the given names
+     *
+     * @param itemNames the names of the items represented by the widgets of the page
+     * @return all items that are represented by the widgets of the page
+     */
+    private Set<Item> getAllItems(Set<String> itemNames) {
+        Set<Item> items = new HashSet<Item>();
+        for (String itemName : itemNames) {
             try {
                 Item item = itemUIRegistry.getItem(itemName);
                 items.add(item);
@@ -168,106 +170,30 @@ public class PageChangeListener implements StateChangeListener {
                 // ignore
             }
         }
+        return items;
     }
 
-    private void constructAndSendEvents(Item item, State newState) {
-        Set<SitemapEvent> events = constructSitemapEvents(item, newState, widgets);
-        for (SitemapEvent event : events) {
-            for (SitemapSubscriptionCallback callback : distinctCallbacks) {
-                callback.onEvent(event);
-            }
-        }
-    }
-
-    @Override
-    public void stateChanged(Item item, State oldState, State newState) {
-        // For all items except group, send an event only when the event state is changed.
-        if (item instanceof GroupItem) {
-            return;
-        }
-        constructAndSendEvents(item, newState);
-    }
-
-    @Override
-    public void stateUpdated(Item item, State state) {
-        // For group item only, send an event each time the event state is updated.
-        // It allows updating the group label while the group state is unchanged,
-        // for example the count in label for Group:Switch:OR
-        if (!(item instanceof GroupItem)) {
-            return;
-        }
-        constructAndSendEvents(item, state);
-    }
-
-    public void keepCurrentState(Item item) {
-        scheduler.schedule(() -> {
-            constructAndSendEvents(item, item.getState());
-        }, REVERT_INTERVAL, TimeUnit.MILLISECONDS);
-    }
-
-    public void changeStateTo(Item item, State state) {
-        constructAndSendEvents(item, state);
-    }
-
-    private Set<SitemapEvent> constructSitemapEvents(Item item, State state, List<Widget> widgets) {
-        Set<SitemapEvent> events = new HashSet<>();
-        for (Widget w : widgets) {
-            if (w instanceof Frame) {
-                events.addAll(constructSitemapEvents(item, state, itemUIRegistry.getChildren((Frame) w)));
-            }
-
-            boolean skipWidget = (w.getItem() == null) || !w.getItem().equals(item.getName());
-            // We skip the chart widgets having a refresh argument
-            if (!skipWidget && w instanceof Chart) {
-                Chart chartWidget = (Chart) w;
-                skipWidget = chartWidget.getRefresh() > 0;
-            }
-            if (!skipWidget || definesVisibilityOrColor(w, item.getName())) {
-                SitemapWidgetEvent event = new SitemapWidgetEvent();
-                event.sitemapName = sitemapName;
-                event.pageId = pageId;
-                event.label = itemUIRegistry.getLabel(w);
-                event.labelcolor = itemUIRegistry.getLabelColor(w);
-                event.valuecolor = itemUIRegistry.getValueColor(w);
-                event.widgetId = itemUIRegistry.getWidgetId(w);
-                event.visibility = itemUIRegistry.getVisiblity(w);
-                // event.item contains data from the item including its state (in event.item.state)
-                String widgetTypeName = w.eClass().getInstanceTypeName()
-                        .substring(w.eClass().getInstanceTypeName().lastIndexOf(".") + 1);
-                boolean drillDown = "mapview".equalsIgnoreCase(widgetTypeName);
-                Predicate<Item> itemFilter = (i -> i.getType().equals(CoreItemFactory.LOCATION));
-                event.item = EnrichedItemDTOMapper.map(item, drillDown, itemFilter, null, null);
-
-                // event.state is an adjustment of the item state to the widget type.
-                event.state = itemUIRegistry.convertState(w, item, state).toFullString();
-                // In case this state is identical to the item state, its value is set to null.
-                if (event.state != null && event.state.equals(event.item.state)) {
-                    event.state = null;
-                }
-
-                events.add(event);
-            }
-        }
-        return events;
+    /**
+     * Returns the widgets of the page which have to be updated on a state change of an item.
+     *
+     * @param itemName the name of the item
+     * @return the widgets showing the item or depending on it by their visibility or color rules
+     */
+    public List<Widget> getWidgets(String itemName) {
+        List<Widget> widgets = widgetsByItemName.get(itemName);
+        return widgets == null ? Collections.emptyList() : widgets;
     }
 
-    private boolean definesVisibilityOrColor(Widget w, String name) {
-        for (VisibilityRule rule : w.getVisibility()) {
-            if (name.equals(rule.getItem())) {
-                return true;
-            }
-        }
-        for (ColorArray rule : w.getLabelColor()) {
-            if (name.equals(rule.getItem())) {
-                return true;
-            }
-        }
-        for (ColorArray rule : w.getValueColor()) {
-            if (name.equals(rule.getItem())) {
-                return true;
-            }
+    /**
+     * Sends a widget event to the subscriptions of this page.
+     *
+     * @param event the widget event, which is shared with the other pages showing the widget
+     */
+    public void sendWidgetEvent(SitemapWidgetEvent event) {
+        SitemapWidgetEvent pageEvent = new SitemapWidgetEvent(event, sitemapName, pageId);
+        for (SitemapSubscriptionCallback callback : distinctCallbacks) {
+            callback.onEvent(pageEvent);
         }
-        return false;
     }
 
     public void sitemapContentChanged(EList<Widget> widgets) {
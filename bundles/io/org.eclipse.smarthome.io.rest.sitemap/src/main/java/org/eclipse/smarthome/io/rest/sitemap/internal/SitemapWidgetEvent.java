@@ -18,6 +18,7 @@ import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTO;
  * A sitemap event, which provides details about a widget that has changed.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Copy of an event for another page
  */
 public class SitemapWidgetEvent extends SitemapEvent {
 
@@ -33,4 +34,24 @@ public class SitemapWidgetEvent extends SitemapEvent {
 
     public SitemapWidgetEvent() {
     }
+
+    /**
+     * Creates a copy of a widget event for a page.
+     *
+     * @param event the widget event
+     * @param sitemapName the sitemap name of the page
+     * @param pageId the id of the page
+     */
+    public SitemapWidgetEvent(SitemapWidgetEvent event, String sitemapName, String pageId) {
+        this.sitemapName = sitemapName;
+        this.pageId = pageId;
+        this.widgetId = event.widgetId;
+        this.label = event.label;
+        this.icon = event.icon;
+        this.labelcolor = event.labelcolor;
+        this.valuecolor = event.valuecolor;
+        this.visibility = event.visibility;
+        this.state = event.state;
+        this.item = event.item;
+    }
 }
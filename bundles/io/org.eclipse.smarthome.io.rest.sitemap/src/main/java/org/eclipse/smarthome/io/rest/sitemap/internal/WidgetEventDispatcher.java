@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.rest.sitemap.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.CoalescingStateChangeListener;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.GroupItem;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.library.CoreItemFactory;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTOMapper;
+import org.eclipse.smarthome.model.sitemap.Widget;
+import org.eclipse.smarthome.ui.items.ItemUIRegistry;
+
+/**
+ * This class listens on the state changes of all items that are shown on a subscribed sitemap page and creates the
+ * widget events for the pages.
+ *
+ * There is a single state change listener per item, regardless of the number of pages showing it. The event of a
+ * widget is created once per state change and handed to all pages showing the widget. An event is only created if
+ * the rendered widget differs from the last event that has been sent for it.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class WidgetEventDispatcher implements CoalescingStateChangeListener {
+
+    private static final int REVERT_INTERVAL = 300;
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private final ItemUIRegistry itemUIRegistry;
+
+    /* item -> pages showing a widget for the item, guarded by itself */
+    private final Map<Item, Set<PageChangeListener>> pagesByItem = new HashMap<>();
+
+    /*
+     * widget -> last sent event. The widgets of a changed sitemap are new objects, so the entries of the old widgets
+     * are dropped together with them.
+     */
+    private final Map<Widget, RenderedWidget> renderedWidgets = Collections
+            .synchronizedMap(new WeakHashMap<Widget, RenderedWidget>());
+
+    /**
+     * Creates a new instance.
+     *
+     * @param itemUIRegistry the ItemUIRegistry which is needed for the functionality
+     */
+    public WidgetEventDispatcher(ItemUIRegistry itemUIRegistry) {
+        this.itemUIRegistry = itemUIRegistry;
+    }
+
+    /**
+     * Starts to send the widget events of the given items to a page.
+     *
+     * @param page the page
+     * @param items the items shown on the page
+     */
+    public void addPage(PageChangeListener page, Collection<Item> items) {
+        synchronized (pagesByItem) {
+            for (Item item : items) {
+                Set<PageChangeListener> pages = pagesByItem.get(item);
+                if (pages == null) {
+                    pages = new LinkedHashSet<>();
+                    pagesByItem.put(item, pages);
+                    if (item instanceof GenericItem) {
+                        ((GenericItem) item).addStateChangeListener(this);
+                    }
+                }
+                pages.add(page);
+            }
+        }
+    }
+
+    /**
+     * Stops to send the widget events of the given items to a page.
+     *
+     * @param page the page
+     * @param items the items that have been passed to {@link #addPage(PageChangeListener, Collection)}
+     */
+    public void removePage(PageChangeListener page, Collection<Item> items) {
+        synchronized (pagesByItem) {
+            for (Item item : items) {
+                Set<PageChangeListener> pages = pagesByItem.get(item);
+                if (pages != null && pages.remove(page) && pages.isEmpty()) {
+                    pagesByItem.remove(item);
+                    if (item instanceof GenericItem) {
+                        ((GenericItem) item).removeStateChangeListener(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Disposes this instance and releases all resources.
+     */
+    public void dispose() {
+        synchronized (pagesByItem) {
+            for (Item item : pagesByItem.keySet()) {
+                if (item instanceof GenericItem) {
+                    ((GenericItem) item).removeStateChangeListener(this);
+                }
+            }
+            pagesByItem.clear();
+        }
+        renderedWidgets.clear();
+    }
+
+    @Override
+    public void stateChanged(Item item, State oldState, State newState) {
+        // For all items except group, send an event only when the event state is changed.
+        if (item instanceof GroupItem) {
+            return;
+        }
+        constructAndSendEvents(item, newState, false);
+    }
+
+    @Override
+    public void stateUpdated(Item item, State state) {
+        // For group item only, send an event each time the event state is updated.
+        // It allows updating the group label while the group state is unchanged,
+        // for example the count in label for Group:Switch:OR
+        if (!(item instanceof GroupItem)) {
+            return;
+        }
+        constructAndSendEvents(item, state, false);
+    }
+
+    public void keepCurrentState(Item item) {
+        // the clients may already show the predicted state, so the current state is sent even if it is unchanged
+        scheduler.schedule(() -> {
+            constructAndSendEvents(item, item.getState(), true);
+        }, REVERT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void changeStateTo(Item item, State state) {
+        constructAndSendEvents(item, state, false);
+    }
+
+    private void constructAndSendEvents(Item item, State state, boolean force) {
+        List<PageChangeListener> pages;
+        synchronized (pagesByItem) {
+            Set<PageChangeListener> pagesOfItem = pagesByItem.get(item);
+            if (pagesOfItem == null) {
+                return;
+            }
+            pages = new ArrayList<>(pagesOfItem);
+        }
+
+        // a widget may be shown on several pages, e.g. a page widget on its parent page and as the title of its page
+        Map<Widget, SitemapWidgetEvent> events = new IdentityHashMap<>();
+        for (PageChangeListener page : pages) {
+            for (Widget w : page.getWidgets(item.getName())) {
+                SitemapWidgetEvent event;
+                if (events.containsKey(w)) {
+                    event = events.get(w);
+                } else {
+                    event = constructSitemapEvent(w, item, state, force);
+                    events.put(w, event);
+                }
+                if (event != null) {
+                    page.sendWidgetEvent(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the event for a widget.
+     *
+     * @return the event or null if the widget is rendered like in the last event sent for it
+     */
+    private SitemapWidgetEvent constructSitemapEvent(Widget w, Item item, State state, boolean force) {
+        RenderedWidget rendered = renderedWidgets.computeIfAbsent(w, widget -> new RenderedWidget());
+        synchronized (rendered) {
+            SitemapWidgetEvent event = new SitemapWidgetEvent();
+            event.label = itemUIRegistry.getLabel(w);
+            event.labelcolor = itemUIRegistry.getLabelColor(w);
+            event.valuecolor = itemUIRegistry.getValueColor(w);
+            event.widgetId = itemUIRegistry.getWidgetId(w);
+            event.visibility = itemUIRegistry.getVisiblity(w);
+            // event.item contains data from the item including its state (in event.item.state)
+            String widgetTypeName = w.eClass().getInstanceTypeName()
+                    .substring(w.eClass().getInstanceTypeName().lastIndexOf(".") + 1);
+            boolean drillDown = "mapview".equalsIgnoreCase(widgetTypeName);
+            Predicate<Item> itemFilter = (i -> i.getType().equals(CoreItemFactory.LOCATION));
+            event.item = EnrichedItemDTOMapper.map(item, drillDown, itemFilter, null, null);
+
+            // event.state is an adjustment of the item state to the widget type.
+            event.state = itemUIRegistry.convertState(w, item, state).toFullString();
+            // In case this state is identical to the item state, its value is set to null.
+            if (event.state != null && event.state.equals(event.item.state)) {
+                event.state = null;
+            }
+
+            if (!force && rendered.isRenderedAs(event)) {
+                return null;
+            }
+            rendered.event = event;
+            return event;
+        }
+    }
+
+    /**
+     * The last event that has been sent for a widget.
+     */
+    private static class RenderedWidget {
+        SitemapWidgetEvent event;
+
+        boolean isRenderedAs(SitemapWidgetEvent other) {
+            SitemapWidgetEvent event = this.event;
+            return event != null && event.visibility == other.visibility && Objects.equals(event.label, other.label)
+                    && Objects.equals(event.labelcolor, other.labelcolor)
+                    && Objects.equals(event.valuecolor, other.valuecolor) && Objects.equals(event.state, other.state)
+                    && Objects.equals(event.item.name, other.item.name)
+                    && Objects.equals(event.item.state, other.item.state)
+                    && Objects.equals(event.item.transformedState, other.item.transformedState);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.rest.sse.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventBuffer.BufferedEvent;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SseEventBuffer}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class SseEventBufferTest {
+
+    @Test
+    public void testEventIdsAreIncreasing() {
+        SseEventBuffer buffer = new SseEventBuffer(3, 100);
+
+        assertThat(addEvent(buffer, 1).getId(), is(101L));
+        assertThat(addEvent(buffer, 2).getId(), is(102L));
+    }
+
+    @Test
+    public void testMissedEventsAreReturned() {
+        SseEventBuffer buffer = new SseEventBuffer(3, 100);
+        for (int i = 1; i <= 5; i++) {
+            addEvent(buffer, i);
+        }
+
+        List<BufferedEvent> missedEvents = buffer.getEventsAfter(103);
+        assertThat(missedEvents.size(), is(2));
+        assertThat(missedEvents.get(0).getId(), is(104L));
+        assertThat(missedEvents.get(1).getId(), is(105L));
+
+        assertThat(buffer.getEventsAfter(102).size(), is(3));
+        assertThat(buffer.getEventsAfter(105).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testUnknownOrDroppedEventIds() {
+        SseEventBuffer buffer = new SseEventBuffer(3, 100);
+        for (int i = 1; i <= 5; i++) {
+            addEvent(buffer, i);
+        }
+
+        // event 102 is the last one before the buffered events 103 to 105
+        assertThat(buffer.getEventsAfter(101), is(nullValue()));
+        assertThat(buffer.getEventsAfter(106), is(nullValue()));
+    }
+
+    @Test
+    public void testOutboundEventIsShared() {
+        SseEventBuffer buffer = new SseEventBuffer(3, 100);
+        BufferedEvent event = addEvent(buffer, 1);
+
+        assertThat(event.getOutboundEvent(), is(sameInstance(event.getOutboundEvent())));
+        assertThat(event.getOutboundEvent().getId(), is("101"));
+    }
+
+    private BufferedEvent addEvent(SseEventBuffer buffer, int value) {
+        return buffer.add(ItemEventFactory.createStateEvent("item", new DecimalType(value)));
+    }
+
+}
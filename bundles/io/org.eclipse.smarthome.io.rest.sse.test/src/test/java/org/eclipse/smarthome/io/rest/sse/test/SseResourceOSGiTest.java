@@ -17,6 +17,7 @@ import static org.junit.Assert.assertThat;
 
 import java.util.List;
 
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.eclipse.smarthome.test.java.JavaOSGiTest;
 import org.junit.Test;
@@ -112,4 +113,17 @@ public class SseResourceOSGiTest extends JavaOSGiTest {
         assertThat("smarthome/items/anyitem/added".matches(regexes.get(0)), is(true));
         assertThat("smarthome/items/anyitem/removed".matches(regexes.get(0)), is(false));
     }
+
+    @Test
+    public void testEventOutputMatchesTopic() {
+        SseEventOutput eventOutput = new SseEventOutput("smarthome/items/*/added, smarthome/things", Runnable::run, 10);
+
+        assertThat(eventOutput.matchesTopic("smarthome/items/anyitem/added"), is(true));
+        assertThat(eventOutput.matchesTopic("smarthome/items/anyitem/removed"), is(false));
+        assertThat(eventOutput.matchesTopic("smarthome/things/anything/updated"), is(true));
+        assertThat(eventOutput.matchesTopic("qivicon/things/anything/updated"), is(false));
+
+        eventOutput = new SseEventOutput("", Runnable::run, 10);
+        assertThat(eventOutput.matchesTopic("smarthome/items/anyitem/added"), is(true));
+    }
 }
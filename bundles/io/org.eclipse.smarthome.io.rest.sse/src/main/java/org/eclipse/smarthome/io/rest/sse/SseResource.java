@@ -13,6 +13,9 @@
 package org.eclipse.smarthome.io.rest.sse;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -21,6 +24,7 @@ import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
@@ -31,13 +35,18 @@ import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.smarthome.core.auth.Role;
+import org.eclipse.smarthome.core.common.ThreadFactoryBuilder;
 import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventBuffer;
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventBuffer.BufferedEvent;
 import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
 import org.glassfish.jersey.media.sse.SseFeature;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -50,6 +59,8 @@ import io.swagger.annotations.ApiResponses;
  *
  * @author Ivan Iliev - Initial Contribution and API
  * @author Yordan Zhelev - Added Swagger annotations
+ * @author Eclipse SmartHome - Per client write queues instead of a single broadcaster
+ * @author Eclipse SmartHome - Replay of missed events for reconnecting clients
  *
  */
 @Component(immediate = true, service = SseResource.class)
@@ -63,9 +74,37 @@ public class SseResource {
 
     private static final String X_ACCEL_BUFFERING_HEADER = "X-Accel-Buffering";
 
-    private final SseBroadcaster broadcaster;
+    private static final String WRITER_THREAD_NAME = "sse-writer";
 
-    private final ExecutorService executorService;
+    /** The number of recent events that are kept to be replayed to reconnecting clients. */
+    private static final int EVENT_BUFFER_SIZE = 1000;
+
+    /**
+     * The maximum number of events queued for a single client before its connection is closed. It must not be
+     * smaller than the event buffer, so all buffered events can be replayed.
+     */
+    private static final int CLIENT_QUEUE_CAPACITY = EVENT_BUFFER_SIZE;
+
+    private final Logger logger = LoggerFactory.getLogger(SseResource.class);
+
+    private final Set<SseEventOutput> eventOutputs = new CopyOnWriteArraySet<>();
+
+    /**
+     * The recent events. The ids start at the current time, so ids that have been sent by a previous run are not
+     * mistaken for ids of this run. Adding an event and queuing it for the clients, as well as replaying the missed
+     * events and registering a reconnecting client, is done while holding the lock of the buffer, so a client
+     * receives every event exactly once.
+     */
+    private final SseEventBuffer eventBuffer = new SseEventBuffer(EVENT_BUFFER_SIZE, System.currentTimeMillis());
+
+    /**
+     * Writes the queued events to the clients. A write blocks as long as the client does not read, so the clients do
+     * not share a bounded pool: at most one thread writes to a client at a time, and the threads are only kept while
+     * events are written. A client that does not keep up only blocks its own thread, its connection is closed as soon
+     * as its queue is full.
+     */
+    private final ExecutorService writerExecutor = Executors.newCachedThreadPool(
+            ThreadFactoryBuilder.create().withName(WRITER_THREAD_NAME).withDaemonThreads(true).build());
 
     @Context
     private UriInfo uriInfo;
@@ -76,16 +115,28 @@ public class SseResource {
     @Context
     private HttpServletRequest request;
 
-    public SseResource() {
-        this.executorService = Executors.newSingleThreadExecutor();
-        this.broadcaster = new SseBroadcaster();
+    @Deactivate
+    protected void deactivate() {
+        for (SseEventOutput eventOutput : eventOutputs) {
+            try {
+                eventOutput.close();
+            } catch (IOException e) {
+                // the connection is closed anyway
+            }
+        }
+        eventOutputs.clear();
+        writerExecutor.shutdown();
     }
 
     /**
      * Subscribes the connecting client to the stream of events filtered by the
      * given eventFilter.
      *
+     * If the client sends the id of the last event it has received, the events it has missed are sent first, as long
+     * as they are still buffered.
+     *
      * @param eventFilter
+     * @param lastEventId the id of the last event the client has received before it reconnected, or null
      * @return {@link EventOutput} object associated with the incoming
      *         connection.
      * @throws IOException
@@ -96,7 +147,8 @@ public class SseResource {
     @ApiOperation(value = "Get all events.", response = EventOutput.class)
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 400, message = "Topic is empty or contains invalid characters") })
-    public Object getEvents(@QueryParam("topics") @ApiParam(value = "topics") String eventFilter)
+    public Object getEvents(@QueryParam("topics") @ApiParam(value = "topics") String eventFilter,
+            @HeaderParam(SseFeature.LAST_EVENT_ID_HEADER) @ApiParam(value = "last event id") String lastEventId)
             throws IOException, InterruptedException {
         if (!SseUtil.isValidTopicFilter(eventFilter)) {
             return Response.status(Status.BAD_REQUEST).build();
@@ -104,8 +156,11 @@ public class SseResource {
 
         // construct an EventOutput that will only write out events that match
         // the given filter
-        final EventOutput eventOutput = new SseEventOutput(eventFilter);
-        broadcaster.add(eventOutput);
+        final SseEventOutput eventOutput = new SseEventOutput(eventFilter, writerExecutor, CLIENT_QUEUE_CAPACITY);
+        synchronized (eventBuffer) {
+            replayMissedEvents(eventOutput, lastEventId);
+            eventOutputs.add(eventOutput);
+        }
 
         // Disables proxy buffering when using an nginx http server proxy for this response.
         // This allows you to not disable proxy buffering in nginx and still have working sse
@@ -134,15 +189,48 @@ public class SseResource {
      * Broadcasts an event described by the given parameter to all currently
      * listening clients.
      *
-     * @param sseEventType the SSE event type
+     * The event is serialized once and queued for every client whose topic filter matches, the clients are written
+     * to asynchronously. The event is serialized before the lock of the event buffer is taken, unless there are no
+     * clients; then it is only serialized if it is replayed to a reconnecting client.
+     *
      * @param event the event
      */
     public void broadcastEvent(final Event event) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                broadcaster.broadcast(SseUtil.buildEvent(event));
+        final String topic = event.getTopic();
+        final String data = eventOutputs.isEmpty() ? null : SseUtil.toJson(event);
+        synchronized (eventBuffer) {
+            final BufferedEvent bufferedEvent = eventBuffer.add(event, data);
+            for (SseEventOutput eventOutput : eventOutputs) {
+                if (eventOutput.isClosed()) {
+                    eventOutputs.remove(eventOutput);
+                } else if (eventOutput.matchesTopic(topic)) {
+                    if (!eventOutput.offer(bufferedEvent.getOutboundEvent())) {
+                        eventOutputs.remove(eventOutput);
+                    }
+                }
+            }
+        }
+    }
+
+    private void replayMissedEvents(SseEventOutput eventOutput, String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return;
+        }
+        final List<BufferedEvent> missedEvents;
+        try {
+            missedEvents = eventBuffer.getEventsAfter(Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring the invalid last event id '{}' of an SSE client.", lastEventId);
+            return;
+        }
+        if (missedEvents == null) {
+            logger.debug("The events following the last event id '{}' are not available anymore.", lastEventId);
+            return;
+        }
+        for (BufferedEvent missedEvent : missedEvents) {
+            if (eventOutput.matchesTopic(missedEvent.getEvent().getTopic())) {
+                eventOutput.offer(missedEvent.getOutboundEvent());
             }
-        });
+        }
     }
 }
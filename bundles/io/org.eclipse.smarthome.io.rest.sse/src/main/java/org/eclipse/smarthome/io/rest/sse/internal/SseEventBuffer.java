@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.rest.sse.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+
+/**
+ * A bounded ring buffer of the most recent events, which assigns monotonically increasing ids to the events.
+ *
+ * The buffer allows clients that reconnect with the id of the last event they have received to get the events they
+ * have missed in between. It is not thread-safe, the callers have to synchronize on the buffer.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class SseEventBuffer {
+
+    private final BufferedEvent[] events;
+    private long lastId;
+    private int size;
+
+    /**
+     * Creates a new event buffer.
+     *
+     * @param capacity the maximum number of buffered events
+     * @param initialId the id preceding the id of the first event
+     */
+    public SseEventBuffer(int capacity, long initialId) {
+        this.events = new BufferedEvent[capacity];
+        this.lastId = initialId;
+    }
+
+    /**
+     * Adds an event to the buffer, replacing the oldest event if the buffer is full.
+     *
+     * @param event the event
+     * @return the buffered event with its id
+     */
+    public BufferedEvent add(Event event) {
+        return add(event, null);
+    }
+
+    /**
+     * Adds an event to the buffer, replacing the oldest event if the buffer is full.
+     *
+     * @param event the event
+     * @param data the JSON of the event, which has been serialized by {@link SseUtil#toJson(Event)} before, or null
+     *            if it is serialized when the event is sent for the first time
+     * @return the buffered event with its id
+     */
+    public BufferedEvent add(Event event, String data) {
+        BufferedEvent bufferedEvent = new BufferedEvent(++lastId, event, data);
+        events[(int) (lastId % events.length)] = bufferedEvent;
+        if (size < events.length) {
+            size++;
+        }
+        return bufferedEvent;
+    }
+
+    /**
+     * Returns the events following the event with the given id.
+     *
+     * @param lastEventId the id of the last event a client has received
+     * @return the events after the given id in the order they have been added, or null if the given id is unknown or
+     *         some of the following events are not buffered anymore
+     */
+    public List<BufferedEvent> getEventsAfter(long lastEventId) {
+        long firstBufferedId = lastId - size + 1;
+        if (lastEventId > lastId || lastEventId < firstBufferedId - 1) {
+            return null;
+        }
+        List<BufferedEvent> missedEvents = new ArrayList<>((int) (lastId - lastEventId));
+        for (long id = lastEventId + 1; id <= lastId; id++) {
+            missedEvents.add(events[(int) (id % events.length)]);
+        }
+        return missedEvents;
+    }
+
+    /**
+     * An event in the buffer. The {@link OutboundEvent} is built the first time it is needed and shared by all
+     * clients. It is only built while holding the lock of the buffer, the JSON of the event is usually serialized
+     * before.
+     */
+    public static class BufferedEvent {
+        private final long id;
+        private final Event event;
+        private final String data;
+        private OutboundEvent outboundEvent;
+
+        BufferedEvent(long id, Event event, String data) {
+            this.id = id;
+            this.event = event;
+            this.data = data;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+
+        public OutboundEvent getOutboundEvent() {
+            if (outboundEvent == null) {
+                outboundEvent = data != null ? SseUtil.buildEvent(data, id) : SseUtil.buildEvent(event, id);
+            }
+            return outboundEvent;
+        }
+    }
+
+}
@@ -13,39 +13,136 @@
 package org.eclipse.smarthome.io.rest.sse.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
-import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.glassfish.jersey.media.sse.EventOutput;
 import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * {@link EventOutput} implementation that takes a filter parameter and only writes out events that match this filter.
- * Should only be used when the {@link OutboundEvent}s sent through this {@link EventOutput} contain a data object of
- * type {@link EventBean}
- * 
+ * {@link EventOutput} implementation for a single SSE client, which takes a topic filter parameter and only accepts
+ * events whose topic matches this filter.
+ *
+ * The topic filter is compiled once when the connection is opened. Events are queued in a bounded queue and written to
+ * the client by a task on the given executor, so a slow client does not delay the other clients. At most one task
+ * writes to the client at a time. If the client does not keep up and the queue is full, the connection is closed and
+ * the client has to reconnect.
+ *
  * @author Ivan Iliev - Initial contribution and API
- * 
+ * @author Eclipse SmartHome - Compiled topic filter and asynchronous write queue
+ *
  */
 public class SseEventOutput extends EventOutput {
 
-    private List<String> regexFilters;
+    /** The maximum number of events that are written before the writing task yields its thread. */
+    private static final int MAX_EVENTS_PER_RUN = 100;
 
-    public SseEventOutput(String topicFilter) {
+    private final Logger logger = LoggerFactory.getLogger(SseEventOutput.class);
+
+    private final List<Pattern> topicPatterns;
+    private final Executor executor;
+    private final BlockingQueue<OutboundEvent> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Creates a new event output.
+     *
+     * @param topicFilter the topic filter of the client
+     * @param executor the executor used to write the queued events. A write blocks while the client does not read,
+     *            so the executor should not have a fixed number of threads that are shared with other clients.
+     * @param capacity the maximum number of events that are queued for the client
+     */
+    public SseEventOutput(String topicFilter, Executor executor, int capacity) {
         super();
-        this.regexFilters = SseUtil.convertToRegex(topicFilter);
+        this.topicPatterns = new ArrayList<>();
+        for (String regex : SseUtil.convertToRegex(topicFilter)) {
+            topicPatterns.add(Pattern.compile(regex));
+        }
+        this.executor = executor;
+        this.queue = new LinkedBlockingQueue<>(capacity);
     }
 
-    @Override
-    public void write(OutboundEvent chunk) throws IOException {
-        EventBean event = (EventBean) chunk.getData();
+    /**
+     * Checks if the given topic matches the topic filter of this event output.
+     *
+     * @param topic the topic of an event
+     * @return true if the topic matches the topic filter
+     */
+    public boolean matchesTopic(String topic) {
+        for (Pattern pattern : topicPatterns) {
+            if (pattern.matcher(topic).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        for (String filter : regexFilters) {
-            if (event.topic.matches(filter)) {
-                super.write(chunk);
-                return;
+    /**
+     * Queues an event to be written to the client. If the queue is full, the connection is closed.
+     *
+     * @param event the event
+     * @return true if the event has been queued, false if this event output is closed
+     */
+    public boolean offer(OutboundEvent event) {
+        if (isClosed()) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            logger.debug("The event queue of an SSE client is full ({} events), closing the connection.",
+                    queue.size());
+            closeQuietly();
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                logger.debug("Could not schedule the writing of SSE events: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        int written = 0;
+        OutboundEvent event;
+        while (!isClosed() && written < MAX_EVENTS_PER_RUN && (event = queue.poll()) != null) {
+            try {
+                write(event);
+            } catch (IOException e) {
+                logger.debug("Writing an event to an SSE client failed, closing the connection: {}",
+                        e.getMessage());
+                closeQuietly();
             }
+            written++;
+        }
+        scheduled.set(false);
+        if (isClosed()) {
+            queue.clear();
+        } else if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            logger.debug("Closing the connection of an SSE client failed: {}", e.getMessage());
         }
     }
 
@@ -24,15 +24,20 @@ import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
 import org.glassfish.jersey.media.sse.OutboundEvent;
 
+import com.google.gson.Gson;
+
 /**
  * Utility class containing helper methods for the SSE implementation.
  * 
  * @author Ivan Iliev - Initial Contribution and API
  * @author Dennis Nobel - Changed EventBean
+ * @author Eclipse SmartHome - Serialize the event data once per event
  */
 public class SseUtil {
     static final String TOPIC_VALIDATE_PATTERN = "(\\w*\\*?\\/?,?\\s*)*";
 
+    private static final Gson GSON = new Gson();
+
     static {
         boolean servlet3 = false;
         try {
@@ -52,24 +57,50 @@ public class SseUtil {
     /**
      * Creates a new {@link OutboundEvent} object containing an {@link EventBean} created for the given Eclipse
      * SmartHome {@link Event}.
-     * 
+     *
      * @param event the event
-     * 
+     * @param eventId the id of the event, which the client sends as last event id when it reconnects
+     *
      * @return a new OutboundEvent
      */
-    public static OutboundEvent buildEvent(Event event) {
-        EventBean eventBean = new EventBean();
-        eventBean.topic = event.getTopic();
-        eventBean.type = event.getType();
-        eventBean.payload = event.getPayload();
+    public static OutboundEvent buildEvent(Event event, long eventId) {
+        return buildEvent(toJson(event), eventId);
+    }
 
+    /**
+     * Creates a new {@link OutboundEvent} object containing the given event data.
+     *
+     * The data is written as plain text, the media type of the data is not part of the SSE stream. So the same
+     * outbound event can be written to many clients without serializing it for every client.
+     *
+     * @param data the JSON of the {@link EventBean} of the event, see {@link #toJson(Event)}
+     * @param eventId the id of the event, which the client sends as last event id when it reconnects
+     *
+     * @return a new OutboundEvent
+     */
+    public static OutboundEvent buildEvent(String data, long eventId) {
         OutboundEvent.Builder eventBuilder = new OutboundEvent.Builder();
-        OutboundEvent outboundEvent = eventBuilder.name("message").mediaType(MediaType.APPLICATION_JSON_TYPE)
-                .data(eventBean).build();
+        OutboundEvent outboundEvent = eventBuilder.name("message").id(String.valueOf(eventId))
+                .mediaType(MediaType.TEXT_PLAIN_TYPE).data(String.class, data).build();
 
         return outboundEvent;
     }
 
+    /**
+     * Serializes an {@link EventBean} created for the given Eclipse SmartHome {@link Event} to JSON.
+     *
+     * @param event the event
+     *
+     * @return the JSON of the event bean
+     */
+    public static String toJson(Event event) {
+        EventBean eventBean = new EventBean();
+        eventBean.topic = event.getTopic();
+        eventBean.type = event.getType();
+        eventBean.payload = event.getPayload();
+        return GSON.toJson(eventBean);
+    }
+
     /**
      * Used to mark our current thread(request processing) that SSE blocking
      * should be enabled.
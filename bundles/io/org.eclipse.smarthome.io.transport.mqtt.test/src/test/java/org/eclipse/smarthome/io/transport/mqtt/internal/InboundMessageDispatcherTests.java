@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+/**
+ * Tests the InboundMessageDispatcher class
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class InboundMessageDispatcherTests {
+    // Runs the submitted tasks on demand
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Executor executor = tasks::add;
+    private final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+
+    private InboundMessageDispatcher createDispatcher(int capacity) {
+        return new InboundMessageDispatcher(executor, capacity,
+                (topic, payload) -> processed.add(topic + "=" + new String(payload)));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void messagesOfATopicAreProcessedInOrder() {
+        InboundMessageDispatcher dispatcher = createDispatcher(10);
+
+        dispatcher.dispatch("a", "1".getBytes(), false);
+        dispatcher.dispatch("b", "1".getBytes(), false);
+        dispatcher.dispatch("a", "2".getBytes(), false);
+        assertThat(processed.isEmpty(), is(true));
+        assertThat(dispatcher.getQueueSize(), is(3));
+        // One task per topic
+        assertThat(tasks.size(), is(2));
+
+        runTasks();
+        assertThat(processed, is(Arrays.asList("a=1", "a=2", "b=1")));
+        assertThat(dispatcher.getQueueSize(), is(0));
+        assertThat(dispatcher.getDispatchedCount(), is(3L));
+    }
+
+    @Test
+    public void fullQueueCoalescesRetainedMessagesOfATopic() {
+        InboundMessageDispatcher dispatcher = createDispatcher(2);
+
+        dispatcher.dispatch("a", "1".getBytes(), true);
+        dispatcher.dispatch("a", "2".getBytes(), true);
+        dispatcher.dispatch("a", "3".getBytes(), true);
+        assertThat(dispatcher.getQueueSize(), is(2));
+        assertThat(dispatcher.getCoalescedCount(), is(1L));
+
+        runTasks();
+        assertThat(processed, is(Arrays.asList("a=1", "a=3")));
+    }
+
+    @Test
+    public void fullQueueDeliversEveryNonRetainedMessageInOrder() throws InterruptedException {
+        InboundMessageDispatcher dispatcher = createDispatcher(2);
+
+        dispatcher.dispatch("a", "1".getBytes(), true);
+        dispatcher.dispatch("a", "2".getBytes(), true);
+        Thread receiver = new Thread(() -> {
+            dispatcher.dispatch("a", "3".getBytes(), false);
+            dispatcher.dispatch("a", "4".getBytes(), true);
+        });
+        receiver.start();
+        while (dispatcher.getBlockedCount() == 0) {
+            Thread.sleep(10);
+        }
+        // The bound is kept while the receiving thread waits
+        assertThat(dispatcher.getQueueSize(), is(2));
+        assertThat(processed.isEmpty(), is(true));
+
+        while (receiver.isAlive() || !tasks.isEmpty()) {
+            runTasks();
+            Thread.sleep(10);
+        }
+        assertThat(processed, is(Arrays.asList("a=1", "a=2", "a=3", "a=4")));
+        assertThat(dispatcher.getCoalescedCount(), is(0L));
+        assertThat(dispatcher.getQueueSize(), is(0));
+    }
+
+    @Test
+    public void fullQueueProcessesOtherTopicsOnTheReceivingThread() {
+        InboundMessageDispatcher dispatcher = createDispatcher(1);
+
+        dispatcher.dispatch("a", "1".getBytes(), false);
+        dispatcher.dispatch("b", "1".getBytes(), false);
+        assertThat(processed, is(Arrays.asList("b=1")));
+        assertThat(dispatcher.getInlineCount(), is(1L));
+
+        runTasks();
+        assertThat(processed, is(Arrays.asList("b=1", "a=1")));
+
+        // The queue has space again
+        dispatcher.dispatch("b", "2".getBytes(), false);
+        assertThat(processed.size(), is(2));
+        runTasks();
+        assertThat(processed, is(Arrays.asList("b=1", "a=1", "b=2")));
+    }
+}
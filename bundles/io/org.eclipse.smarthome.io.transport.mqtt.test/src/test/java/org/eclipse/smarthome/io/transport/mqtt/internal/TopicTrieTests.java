@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Tests the TopicTrie class
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class TopicTrieTests {
+    private final TopicTrie trie = new TopicTrie();
+
+    private void put(String... topicFilters) {
+        for (String topicFilter : topicFilters) {
+            trie.put(topicFilter, new TopicSubscribers(topicFilter));
+        }
+    }
+
+    private Set<String> matches(String topic) {
+        Set<String> matches = new TreeSet<>();
+        trie.forEachMatch(topic, subscribers -> matches.add(subscribers.topic));
+        return matches;
+    }
+
+    private Set<String> set(String... topicFilters) {
+        return new TreeSet<>(Arrays.asList(topicFilters));
+    }
+
+    @Test
+    public void exactTopics() {
+        put("homie/device123/$name", "homie/device123", "homie/device123/$name/sub", "a.b/c");
+
+        assertThat(matches("homie/device123/$name"), is(set("homie/device123/$name")));
+        assertThat(matches("homie/device123"), is(set("homie/device123")));
+        // No regex semantics for topic characters
+        assertThat(matches("aXb/c"), is(set()));
+        assertThat(matches("a.b/c"), is(set("a.b/c")));
+    }
+
+    @Test
+    public void wildcardTopics() {
+        put("homie/device123/+", "#", "homie/#", "homie/+/$name", "+/+", "other/#");
+
+        assertThat(matches("homie/device123/$name"),
+                is(set("homie/device123/+", "#", "homie/#", "homie/+/$name")));
+        assertThat(matches("homie/device123"), is(set("#", "homie/#", "+/+")));
+        assertThat(matches("homie"), is(set("#", "homie/#")));
+        assertThat(matches("other/a/b/c"), is(set("#", "other/#")));
+    }
+
+    @Test
+    public void emptyLevels() {
+        put("a//b", "a/+/b", "+");
+
+        assertThat(matches("a//b"), is(set("a//b", "a/+/b")));
+        assertThat(matches(""), is(set("+")));
+        assertThat(matches("a/b"), is(set()));
+    }
+
+    @Test
+    public void removeTopics() {
+        put("a/b/c", "a/b", "a/+/c", "a/#");
+
+        trie.remove("a/b/c");
+        assertThat(matches("a/b/c"), is(set("a/+/c", "a/#")));
+        assertThat(matches("a/b"), is(set("a/b", "a/#")));
+
+        trie.remove("a/#");
+        trie.remove("a/+/c");
+        trie.remove("not/subscribed");
+        assertThat(matches("a/b/c"), is(set()));
+        assertThat(matches("a/b"), is(set("a/b")));
+
+        trie.clear();
+        assertThat(matches("a/b"), is(set()));
+    }
+}
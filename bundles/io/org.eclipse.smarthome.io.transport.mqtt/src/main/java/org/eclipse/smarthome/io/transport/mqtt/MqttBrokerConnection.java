@@ -42,8 +42,10 @@ import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.io.transport.mqtt.internal.ClientCallback;
+import org.eclipse.smarthome.io.transport.mqtt.internal.InboundMessageDispatcher;
 import org.eclipse.smarthome.io.transport.mqtt.internal.MqttActionAdapterCallback;
 import org.eclipse.smarthome.io.transport.mqtt.internal.TopicSubscribers;
+import org.eclipse.smarthome.io.transport.mqtt.internal.TopicTrie;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.AbstractReconnectStrategy;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.PeriodicReconnectStrategy;
 import org.eclipse.smarthome.io.transport.mqtt.sslcontext.AcceptAllCertificatesSSLContext;
@@ -60,6 +62,8 @@ import org.slf4j.LoggerFactory;
  * @author David Graeff - All operations are async now. More flexible sslContextProvider and reconnectStrategy added.
  * @author Davy Vanherbergen
  * @author Markus Rathgeb - added connection state callback
+ * @author Eclipse SmartHome - Match received topics with a topic trie
+ * @author Eclipse SmartHome - Optional executor for received messages
  */
 @NonNullByDefault
 public class MqttBrokerConnection {
@@ -100,12 +104,17 @@ public class MqttBrokerConnection {
     protected final List<MqttConnectionObserver> connectionObservers = new CopyOnWriteArrayList<>();
 
     protected final Map<String, TopicSubscribers> subscribers = new HashMap<>();
+    // The subscribed topics, modified while holding the lock of the subscribers map
+    protected final TopicTrie subscriberTrie = new TopicTrie();
 
     // Connection timeout handling
     protected final AtomicReference<@Nullable ScheduledFuture<?>> timeoutFuture = new AtomicReference<>(null);
     protected @Nullable ScheduledExecutorService timeoutExecutor;
     private int timeout = 1200; /* Connection timeout in milliseconds */
 
+    // Processing of received messages, if not done on the paho callback thread
+    protected @Nullable InboundMessageDispatcher inboundDispatcher;
+
     /**
      * Create a IMqttActionListener object for being used as a callback for a connection attempt.
      * The callback will interact with the {@link AbstractReconnectStrategy} as well as inform registered
@@ -169,7 +178,7 @@ public class MqttBrokerConnection {
     }
 
     /** Client callback object */
-    protected ClientCallback clientCallback = new ClientCallback(this, connectionObservers, subscribers);
+    protected ClientCallback clientCallback = new ClientCallback(this, connectionObservers, subscriberTrie);
     /** Connection callback object */
     protected ConnectionCallback connectionCallback;
     /** Action callback object */
@@ -257,6 +266,72 @@ public class MqttBrokerConnection {
         this.timeout = timeoutInMS;
     }
 
+    /**
+     * Set an executor for received messages. If none is set, the {@link MqttMessageSubscriber}s are called on the
+     * thread of the MQTT client, which does not receive further messages until they return. The default executor is
+     * none.
+     *
+     * The messages of a topic are processed in the order they have been received. If the given number of messages is
+     * waiting to be processed, a new retained message replaces the waiting retained message of the same topic. Other
+     * messages are processed on the thread of the MQTT client if nothing of their topic is waiting or being processed,
+     * or the thread of the MQTT client waits until the queue has space again.
+     *
+     * @param executor The executor processing received messages, or null to process them on the MQTT client thread
+     * @param queueCapacity The maximum number of messages waiting to be processed
+     */
+    public void setInboundExecutor(@Nullable Executor executor, int queueCapacity) {
+        InboundMessageDispatcher dispatcher = executor != null
+                ? new InboundMessageDispatcher(executor, queueCapacity, clientCallback::processMessage)
+                : null;
+        inboundDispatcher = dispatcher;
+        clientCallback.setDispatcher(dispatcher);
+    }
+
+    /**
+     * Return the number of received messages waiting to be processed by the executor set with
+     * {@link #setInboundExecutor(Executor, int)}.
+     */
+    public int getInboundQueueSize() {
+        InboundMessageDispatcher dispatcher = inboundDispatcher;
+        return dispatcher != null ? dispatcher.getQueueSize() : 0;
+    }
+
+    /**
+     * Return the number of received messages that have been passed to the executor set with
+     * {@link #setInboundExecutor(Executor, int)}.
+     */
+    public long getInboundDispatchedCount() {
+        InboundMessageDispatcher dispatcher = inboundDispatcher;
+        return dispatcher != null ? dispatcher.getDispatchedCount() : 0;
+    }
+
+    /**
+     * Return the number of received retained messages that have been replaced by a newer retained message of the same
+     * topic before they have been processed, because the inbound queue was full.
+     */
+    public long getInboundCoalescedCount() {
+        InboundMessageDispatcher dispatcher = inboundDispatcher;
+        return dispatcher != null ? dispatcher.getCoalescedCount() : 0;
+    }
+
+    /**
+     * Return the number of received messages that have been processed on the MQTT client thread, because the inbound
+     * queue was full.
+     */
+    public long getInboundInlineCount() {
+        InboundMessageDispatcher dispatcher = inboundDispatcher;
+        return dispatcher != null ? dispatcher.getInlineCount() : 0;
+    }
+
+    /**
+     * Return the number of received messages for which the thread of the MQTT client had to wait, because the inbound
+     * queue was full.
+     */
+    public long getInboundBlockedCount() {
+        InboundMessageDispatcher dispatcher = inboundDispatcher;
+        return dispatcher != null ? dispatcher.getBlockedCount() : 0;
+    }
+
     /**
      * Get the MQTT broker protocol
      */
@@ -483,8 +558,12 @@ public class MqttBrokerConnection {
     public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
         CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
         synchronized (subscribers) {
-            TopicSubscribers subscriberList = subscribers.getOrDefault(topic, new TopicSubscribers(topic));
-            subscribers.put(topic, subscriberList);
+            TopicSubscribers subscriberList = subscribers.get(topic);
+            if (subscriberList == null) {
+                subscriberList = new TopicSubscribers(topic);
+                subscribers.put(topic, subscriberList);
+                subscriberTrie.put(topic, subscriberList);
+            }
             subscriberList.add(subscriber);
         }
         final MqttAsyncClient client = this.client;
@@ -550,6 +629,7 @@ public class MqttBrokerConnection {
             }
             // Remove from subscriber list
             subscribers.remove(topic);
+            subscriberTrie.remove(topic);
             // No more subscribers to this topic. Unsubscribe topic on the broker
             MqttAsyncClient client = this.client;
             if (client != null) {
@@ -789,6 +869,7 @@ public class MqttBrokerConnection {
                 futures.add(unsubscribeRaw(client, topic));
             });
             subscribers.clear();
+            subscriberTrie.clear();
         }
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
     }
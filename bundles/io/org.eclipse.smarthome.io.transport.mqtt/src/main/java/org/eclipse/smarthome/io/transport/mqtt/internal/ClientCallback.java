@@ -12,9 +12,7 @@
  */
 package org.eclipse.smarthome.io.transport.mqtt.internal;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
@@ -24,7 +22,6 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttException;
-import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.AbstractReconnectStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,15 +30,17 @@ import org.slf4j.LoggerFactory;
  * Processes the paho MqttCallbacks for the {@link MqttBrokerConnection}.
  *
  * @author David Graeff - Initial contribution
+ * @author Eclipse SmartHome - Match subscribers by a topic trie
  */
 public class ClientCallback implements MqttCallback {
     final Logger logger = LoggerFactory.getLogger(ClientCallback.class);
     private final MqttBrokerConnection connection;
     private final List<MqttConnectionObserver> connectionObservers;
-    private final Map<String, TopicSubscribers> subscribers;
+    private final TopicTrie subscribers;
+    private volatile @Nullable InboundMessageDispatcher dispatcher;
 
     public ClientCallback(MqttBrokerConnection mqttBrokerConnectionImpl,
-            List<MqttConnectionObserver> connectionObservers, Map<String, TopicSubscribers> subscribers) {
+            List<MqttConnectionObserver> connectionObservers, TopicTrie subscribers) {
         this.connection = mqttBrokerConnectionImpl;
         this.connectionObservers = connectionObservers;
         this.subscribers = subscribers;
@@ -69,25 +68,42 @@ public class ClientCallback implements MqttCallback {
         logger.trace("Message with id {} delivered.", token.getMessageId());
     }
 
+    /**
+     * Sets the dispatcher that processes received messages. Without a dispatcher, messages are processed on the paho
+     * callback thread.
+     *
+     * @param dispatcher The dispatcher or null
+     */
+    public void setDispatcher(@Nullable InboundMessageDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
     @Override
     public void messageArrived(String topic, MqttMessage message) {
         byte[] payload = message.getPayload();
-        logger.trace("Received message on topic '{}' : {}", topic, new String(payload));
-        List<MqttMessageSubscriber> matches = new ArrayList<>();
-        synchronized (subscribers) {
-            subscribers.values().forEach(subscriberList -> {
-                if (topic.matches(subscriberList.regexMatchTopic)) {
-                    logger.trace("Topic match for '{}' using regex {}", topic, subscriberList.regexMatchTopic);
-                    subscriberList.forEach(consumer -> matches.add(consumer));
-                } else {
-                    logger.trace("No topic match for '{}' using regex {}", topic, subscriberList.regexMatchTopic);
-
-                }
-            });
-
+        if (logger.isTraceEnabled()) {
+            logger.trace("Received message on topic '{}' : {}", topic, new String(payload));
         }
+        InboundMessageDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(topic, payload, message.isRetained());
+        } else {
+            processMessage(topic, payload);
+        }
+    }
+
+    /**
+     * Passes a received message to the subscribers of matching topics.
+     *
+     * @param topic The topic of the message
+     * @param payload The payload of the message
+     */
+    public void processMessage(String topic, byte[] payload) {
         try {
-            matches.forEach(subscriber -> subscriber.processMessage(topic, payload));
+            subscribers.forEachMatch(topic, subscriberList -> {
+                logger.trace("Topic match for '{}' using subscription {}", topic, subscriberList.topic);
+                subscriberList.forEach(subscriber -> subscriber.processMessage(topic, payload));
+            });
         } catch (Exception e) {
             logger.error("MQTT message received. MqttMessageSubscriber#processMessage() implementation failure", e);
         }
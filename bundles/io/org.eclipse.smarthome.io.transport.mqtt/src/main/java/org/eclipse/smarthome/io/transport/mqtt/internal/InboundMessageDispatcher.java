@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands received messages over to an executor, so that the paho callback thread is not blocked by slow message
+ * subscribers.
+ *
+ * The messages of a topic are processed one after another in the order they have been received. Messages of
+ * different topics are processed in parallel.
+ *
+ * The number of queued messages is bounded. If the queue is full, a retained message replaces the queued retained
+ * message of the same topic, as only the latest retained value of a topic is of interest. Other messages are never
+ * dropped: If nothing of the topic is queued or being processed, the message is processed on the receiving thread.
+ * Otherwise the receiving thread waits until the queue has space again, so that the order of the topic is kept. Both
+ * slow down the reception of further messages from the broker.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public class InboundMessageDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(InboundMessageDispatcher.class);
+
+    private final Executor executor;
+    private final int capacity;
+    private final BiConsumer<String, byte[]> processor;
+
+    // topic -> messages of the topic which are queued or being processed, guarded by this
+    private final Map<String, TopicQueue> topicQueues = new HashMap<>();
+    private int queueSize = 0;
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong inlineCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param executor The executor processing the messages.
+     * @param capacity The maximum number of queued messages.
+     * @param processor Processes a message, given the topic and the payload.
+     */
+    public InboundMessageDispatcher(Executor executor, int capacity, BiConsumer<String, byte[]> processor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity has to be positive: " + capacity);
+        }
+        this.executor = executor;
+        this.capacity = capacity;
+        this.processor = processor;
+    }
+
+    /**
+     * Queues a received message for processing. Blocks while the queue is full and messages of the topic are queued
+     * or being processed.
+     *
+     * @param topic The topic of the message.
+     * @param payload The payload of the message.
+     * @param retained True if the message is a retained message.
+     */
+    public void dispatch(String topic, byte[] payload, boolean retained) {
+        Message message = new Message(payload, retained);
+        TopicQueue topicQueue;
+        synchronized (this) {
+            boolean blocked = false;
+            while (true) {
+                topicQueue = topicQueues.get(topic);
+                if (queueSize < capacity) {
+                    break;
+                }
+                if (topicQueue == null) {
+                    // Nothing is queued for this topic, so processing the message right away keeps the order
+                    inlineCount.incrementAndGet();
+                    break;
+                }
+                Message last = topicQueue.messages.peekLast();
+                if (retained && last != null && last.retained) {
+                    topicQueue.messages.pollLast();
+                    topicQueue.messages.addLast(message);
+                    coalescedCount.incrementAndGet();
+                    return;
+                }
+                if (!blocked) {
+                    blocked = true;
+                    blockedCount.incrementAndGet();
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.debug("Interrupted while waiting for the queue, dropping a message of topic '{}'", topic);
+                    return;
+                }
+            }
+            if (queueSize < capacity) {
+                if (topicQueue != null) {
+                    // The topic queue is waiting for the executor or its messages are being processed
+                    topicQueue.messages.addLast(message);
+                    queueSize++;
+                    dispatchedCount.incrementAndGet();
+                    return;
+                }
+                topicQueue = new TopicQueue(topic);
+                topicQueue.messages.addLast(message);
+                topicQueues.put(topic, topicQueue);
+                queueSize++;
+                dispatchedCount.incrementAndGet();
+            }
+        }
+        if (topicQueue == null) {
+            process(topic, payload);
+            return;
+        }
+        try {
+            executor.execute(topicQueue);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Executor rejected the processing of topic '{}', processing it on the receiving thread",
+                    topic);
+            topicQueue.run();
+        }
+    }
+
+    /**
+     * Returns the number of queued messages.
+     */
+    public synchronized int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Returns the number of messages that have been queued.
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * Returns the number of queued retained messages that have been replaced by a newer retained message of the same
+     * topic, because the queue was full.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of messages that have been processed on the receiving thread, because the queue was full.
+     */
+    public long getInlineCount() {
+        return inlineCount.get();
+    }
+
+    /**
+     * Returns the number of messages for which the receiving thread had to wait, because the queue was full.
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    private void process(String topic, byte[] payload) {
+        try {
+            processor.accept(topic, payload);
+        } catch (RuntimeException e) {
+            logger.warn("Processing a message of topic '{}' failed", topic, e);
+        }
+    }
+
+    private static class Message {
+        private final byte[] payload;
+        private final boolean retained;
+
+        Message(byte[] payload, boolean retained) {
+            this.payload = payload;
+            this.retained = retained;
+        }
+    }
+
+    /**
+     * The messages of a topic. Processes the messages until there are no more messages of the topic.
+     */
+    private class TopicQueue implements Runnable {
+        private final String topic;
+        private final ArrayDeque<Message> messages = new ArrayDeque<>();
+
+        TopicQueue(String topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Message message;
+                synchronized (InboundMessageDispatcher.this) {
+                    message = messages.pollFirst();
+                    if (message == null) {
+                        topicQueues.remove(topic);
+                        InboundMessageDispatcher.this.notifyAll();
+                        return;
+                    }
+                    queueSize--;
+                    InboundMessageDispatcher.this.notifyAll();
+                }
+                process(topic, message.payload);
+            }
+        }
+    }
+}
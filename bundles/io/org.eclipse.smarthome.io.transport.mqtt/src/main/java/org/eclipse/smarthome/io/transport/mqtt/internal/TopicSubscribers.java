@@ -12,26 +12,24 @@
  */
 package org.eclipse.smarthome.io.transport.mqtt.internal;
 
-import java.util.ArrayList;
-import java.util.regex.Matcher;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
 
 /**
- * A list of all subscribers for a given topic. This object also stores a regex version of the topic, where
- * the MQTT wildcards got replaced.
+ * A list of all subscribers for a given topic. The list may be iterated while subscribers are added or removed,
+ * as it is looked up in the {@link TopicTrie} without locking.
  *
  * @author David Graeff - Initial contribution
+ * @author Eclipse SmartHome - Matched by the {@link TopicTrie}
  */
 @NonNullByDefault
-public class TopicSubscribers extends ArrayList<MqttMessageSubscriber> {
+public class TopicSubscribers extends CopyOnWriteArrayList<MqttMessageSubscriber> {
     private static final long serialVersionUID = -2969599983479371961L;
-    final String regexMatchTopic;
+    final String topic;
 
     public TopicSubscribers(String topic) {
-        this.regexMatchTopic = StringUtils.replace(StringUtils.replace(Matcher.quoteReplacement(topic), "+", "[^/]*"),
-                "#", ".*");
+        this.topic = topic;
     }
 }
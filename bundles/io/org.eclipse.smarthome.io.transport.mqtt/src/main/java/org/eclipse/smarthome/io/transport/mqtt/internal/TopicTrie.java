@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A trie of the subscribed topic filters, split into their topic levels. The MQTT wildcards "+" and "#" are stored
+ * as levels of their own, so that the subscribers of a topic are found by walking the levels of the topic once,
+ * instead of matching the topic against every subscribed filter.
+ *
+ * Lookups do not lock and may run concurrently to modifications. Modifications have to be synchronized by the
+ * caller.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+public class TopicTrie {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node root = new Node();
+
+    private static class Node {
+        final Map<String, Node> children = new ConcurrentHashMap<>();
+        volatile @Nullable TopicSubscribers subscribers;
+
+        boolean isEmpty() {
+            return subscribers == null && children.isEmpty();
+        }
+    }
+
+    /**
+     * Stores the subscribers of a topic filter, replacing the previous subscribers of the filter.
+     *
+     * @param topicFilter The topic filter, which may contain wildcards.
+     * @param subscribers The subscribers of the topic filter.
+     */
+    public void put(String topicFilter, TopicSubscribers subscribers) {
+        Node node = root;
+        for (String level : split(topicFilter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node());
+        }
+        node.subscribers = subscribers;
+    }
+
+    /**
+     * Removes the subscribers of a topic filter.
+     *
+     * @param topicFilter The topic filter, which may contain wildcards.
+     */
+    public void remove(String topicFilter) {
+        remove(root, split(topicFilter), 0);
+    }
+
+    private boolean remove(Node node, String[] levels, int index) {
+        if (index == levels.length) {
+            node.subscribers = null;
+        } else {
+            Node child = node.children.get(levels[index]);
+            if (child != null && remove(child, levels, index + 1)) {
+                node.children.remove(levels[index]);
+            }
+        }
+        // Prune nodes which do not lead to any subscribers anymore
+        return node.isEmpty();
+    }
+
+    /**
+     * Removes all subscribers.
+     */
+    public void clear() {
+        root.children.clear();
+        root.subscribers = null;
+    }
+
+    /**
+     * Passes the subscribers of every topic filter matching the given topic to the action.
+     *
+     * @param topic A topic without wildcards, as received from the broker.
+     * @param action The action to perform on the subscribers of each matching topic filter.
+     */
+    public void forEachMatch(String topic, Consumer<TopicSubscribers> action) {
+        forEachMatch(root, split(topic), 0, action);
+    }
+
+    private void forEachMatch(Node node, String[] levels, int index, Consumer<TopicSubscribers> action) {
+        // "a/#" matches "a" as well as all topics below "a"
+        Node multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevel != null) {
+            accept(multiLevel, action);
+        }
+        if (index == levels.length) {
+            accept(node, action);
+            return;
+        }
+        Node child = node.children.get(levels[index]);
+        if (child != null) {
+            forEachMatch(child, levels, index + 1, action);
+        }
+        Node singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevel != null) {
+            forEachMatch(singleLevel, levels, index + 1, action);
+        }
+    }
+
+    private void accept(Node node, Consumer<TopicSubscribers> action) {
+        TopicSubscribers subscribers = node.subscribers;
+        if (subscribers != null) {
+            action.accept(subscribers);
+        }
+    }
+
+    private static String[] split(String topic) {
+        // Empty levels are significant in MQTT, e.g. "a//b" has three levels
+        return topic.split("/", -1);
+    }
+}
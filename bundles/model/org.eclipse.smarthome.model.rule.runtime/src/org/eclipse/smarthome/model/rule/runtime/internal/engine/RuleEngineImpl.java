@@ -15,7 +15,9 @@ package org.eclipse.smarthome.model.rule.runtime.internal.engine;
 import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes.*;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -50,9 +52,11 @@ import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
 import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.xbase.interpreter.IEvaluationContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,12 +69,20 @@ import com.google.inject.Injector;
  * It listens to changes to the rules folder, evaluates the trigger conditions of the rules and
  * schedules them for execution dependent on their triggering conditions.
  *
+ * The scripts of the rules are created once when a rule file is loaded and reused for every execution, together with
+ * the global context of the rule file. The rules are still evaluated by the Xbase interpreter, reusing the scripts only
+ * saves creating the script, looking up its interpreter and looking up the global context on every execution. This can
+ * be switched off with the {@code prepareScripts} configuration property, in which case the script is created on
+ * every execution. Rules whose script cannot be created when the rule file is loaded are always executed this way.
+ *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Oliver Libutzki - Bugfixing
+ * @author Eclipse SmartHome - Unsynchronized rule lookup, prepared scripts
  *
  */
 @SuppressWarnings("restriction")
-@Component(immediate = true, service = { EventSubscriber.class, RuleEngine.class })
+@Component(immediate = true, service = { EventSubscriber.class,
+        RuleEngine.class }, configurationPid = "org.eclipse.smarthome.ruleengine")
 public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeListener, ModelRepositoryChangeListener,
         RuleEngine, EventSubscriber {
 
@@ -78,6 +90,8 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
 
     private static final String THREAD_POOL_NAME = "ruleEngine";
 
+    private static final String PROPERTY_PREPARE_SCRIPTS = "prepareScripts";
+
     protected final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME);
 
     private ItemRegistry itemRegistry;
@@ -90,13 +104,19 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
 
     private ScheduledFuture<?> startupJob;
 
+    private volatile boolean prepareScripts = true;
+
+    // the prepared scripts of the loaded rules
+    private final Map<Rule, PreparedRule> preparedRules = new ConcurrentHashMap<>();
+
     // This flag is used to signal that items are still being added and that we hence do not consider the rule engine
     // ready to be operational.
     // This field is package private to allow access for unit tests.
     boolean starting = true;
 
     @Activate
-    public void activate() {
+    public void activate(Map<String, Object> config) {
+        modified(config);
         injector = RulesStandaloneSetup.getInjector();
         triggerManager = new RuleTriggerManager(injector);
 
@@ -108,6 +128,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
             if (model instanceof RuleModel) {
                 RuleModel ruleModel = (RuleModel) model;
                 triggerManager.addRuleModel(ruleModel);
+                prepareRules(ruleModel);
             }
         }
 
@@ -135,6 +156,25 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         executeRules(triggerManager.getRules(SHUTDOWN));
         triggerManager.clearAll();
         triggerManager = null;
+        preparedRules.clear();
+    }
+
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        Object value = config == null ? null : config.get(PROPERTY_PREPARE_SCRIPTS);
+        boolean prepareScripts = value == null || Boolean.parseBoolean(value.toString());
+        boolean enabled = prepareScripts && !this.prepareScripts;
+        this.prepareScripts = prepareScripts;
+        if (!prepareScripts) {
+            preparedRules.clear();
+        } else if (enabled && triggerManager != null) {
+            for (String ruleModelName : modelRepository.getAllModelNamesOfType("rules")) {
+                EObject model = modelRepository.getModel(ruleModelName);
+                if (model instanceof RuleModel) {
+                    prepareRules((RuleModel) model);
+                }
+            }
+        }
     }
 
     @Reference
@@ -271,12 +311,15 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
                 if (type == org.eclipse.smarthome.model.core.EventType.REMOVED
                         || type == org.eclipse.smarthome.model.core.EventType.MODIFIED) {
                     triggerManager.removeRuleModel(model);
+                    // the rules of a modified model have been unloaded already
+                    preparedRules.keySet().removeIf(rule -> rule.eResource() == null || rule.eContainer() == model);
                 }
 
                 // add new and modified rules to the trigger sets
                 if (model != null && (type == org.eclipse.smarthome.model.core.EventType.ADDED
                         || type == org.eclipse.smarthome.model.core.EventType.MODIFIED)) {
                     triggerManager.addRuleModel(model);
+                    prepareRules(model);
                     // now execute all rules that are meant to trigger at startup
                     scheduleStartupRules();
                 }
@@ -300,11 +343,11 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
             for (Rule rule : startupRules) {
                 scheduler.execute(() -> {
                     try {
-                        Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
+                        PreparedRule preparedRule = getPreparedRule(rule);
                         logger.debug("Executing startup rule '{}'", rule.getName());
                         RuleEvaluationContext context = new RuleEvaluationContext();
-                        context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
-                        script.execute(context);
+                        context.setGlobalContext(preparedRule.getGlobalContext());
+                        preparedRule.script.execute(context);
                         triggerManager.removeRule(STARTUP, rule);
                     } catch (ScriptExecutionException e) {
                         if (!e.getMessage().contains("cannot be resolved to an item or type")) {
@@ -330,15 +373,15 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRule(Rule rule, RuleEvaluationContext context) {
+    protected void executeRule(Rule rule, RuleEvaluationContext context) {
 
         scheduler.execute(() -> {
-            Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
+            PreparedRule preparedRule = getPreparedRule(rule);
 
             logger.debug("Executing rule '{}'", rule.getName());
-            context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
+            context.setGlobalContext(preparedRule.getGlobalContext());
             try {
-                script.execute(context);
+                preparedRule.script.execute(context);
             } catch (Exception e) {
                 String msg = e.getMessage();
                 if (msg == null) {
@@ -350,14 +393,14 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         });
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules) {
+    protected void executeRules(Iterable<Rule> rules) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             executeRule(rule, context);
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, ChannelTriggeredEvent event) {
+    protected void executeRules(Iterable<Rule> rules, ChannelTriggeredEvent event) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_RECEIVED_EVENT), event);
@@ -365,7 +408,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, Item item) {
+    protected void executeRules(Iterable<Rule> rules, Item item) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_TRIGGERING_ITEM), item);
@@ -373,7 +416,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, Item item, Command command) {
+    protected void executeRules(Iterable<Rule> rules, Item item, Command command) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_TRIGGERING_ITEM), item);
@@ -382,7 +425,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, Item item, State oldState) {
+    protected void executeRules(Iterable<Rule> rules, Item item, State oldState) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_TRIGGERING_ITEM), item);
@@ -391,7 +434,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, ThingStatus oldThingStatus) {
+    protected void executeRules(Iterable<Rule> rules, ThingStatus oldThingStatus) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_PREVIOUS_STATE), oldThingStatus.toString());
@@ -399,6 +442,30 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
+    private void prepareRules(RuleModel model) {
+        if (!prepareScripts || scriptEngine == null) {
+            return;
+        }
+        for (Rule rule : model.getRules()) {
+            try {
+                preparedRules.put(rule,
+                        new PreparedRule(rule, scriptEngine.newScriptFromXExpression(rule.getScript())));
+            } catch (RuntimeException e) {
+                logger.debug("Script of rule '{}' cannot be prepared, it is created on every execution: {}",
+                        rule.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private PreparedRule getPreparedRule(Rule rule) {
+        PreparedRule preparedRule = preparedRules.get(rule);
+        if (preparedRule == null) {
+            // create the script for this execution only
+            preparedRule = new PreparedRule(rule, scriptEngine.newScriptFromXExpression(rule.getScript()));
+        }
+        return preparedRule;
+    }
+
     @Override
     public void updated(Item oldItem, Item item) {
         removed(oldItem);
@@ -432,4 +499,28 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
     RuleTriggerManager getTriggerManager() {
         return triggerManager;
     }
+
+    /**
+     * A rule with its script and the global context of its rule file, which is looked up on the first execution.
+     */
+    private class PreparedRule {
+
+        private final Rule rule;
+        private final Script script;
+        private volatile IEvaluationContext globalContext;
+
+        PreparedRule(Rule rule, Script script) {
+            this.rule = rule;
+            this.script = script;
+        }
+
+        IEvaluationContext getGlobalContext() {
+            IEvaluationContext globalContext = this.globalContext;
+            if (globalContext == null) {
+                globalContext = RuleContextHelper.getContext(rule, injector);
+                this.globalContext = globalContext;
+            }
+            return globalContext;
+        }
+    }
 }
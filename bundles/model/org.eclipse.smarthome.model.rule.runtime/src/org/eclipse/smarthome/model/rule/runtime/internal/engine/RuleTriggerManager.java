@@ -23,8 +23,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -68,7 +71,12 @@ import com.google.inject.Injector;
  * It keeps lists of which rule must be executed for which trigger and takes
  * over the evaluation of states and trigger conditions for the rule engine.
  *
+ * The lookup maps may be read concurrently by the rule engine while rules are added or removed; all modifications are
+ * synchronized. The expected states of item triggers are parsed once per item type into a {@link TriggerIndex}, which
+ * is rebuilt after the mapping tables have been modified.
+ *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Pre-parsed trigger states
  *
  */
 public class RuleTriggerManager {
@@ -91,17 +99,23 @@ public class RuleTriggerManager {
     private static final String GROUP_NAME_PREFIX = "*GROUP*";
 
     // lookup maps for different triggering conditions
-    private final Map<String, Set<Rule>> updateEventTriggeredRules = new HashMap<>();
-    private final Map<String, Set<Rule>> changedEventTriggeredRules = new HashMap<>();
-    private final Map<String, Set<Rule>> commandEventTriggeredRules = new HashMap<>();
-    private final Map<String, Set<Rule>> thingUpdateEventTriggeredRules = new HashMap<>();
-    private final Map<String, Set<Rule>> thingChangedEventTriggeredRules = new HashMap<>();
+    private final Map<String, Set<Rule>> updateEventTriggeredRules = new ConcurrentHashMap<>();
+    private final Map<String, Set<Rule>> changedEventTriggeredRules = new ConcurrentHashMap<>();
+    private final Map<String, Set<Rule>> commandEventTriggeredRules = new ConcurrentHashMap<>();
+    private final Map<String, Set<Rule>> thingUpdateEventTriggeredRules = new ConcurrentHashMap<>();
+    private final Map<String, Set<Rule>> thingChangedEventTriggeredRules = new ConcurrentHashMap<>();
     // Maps from channelName -> Rules
-    private final Map<String, Set<Rule>> triggerEventTriggeredRules = new HashMap<>();
+    private final Map<String, Set<Rule>> triggerEventTriggeredRules = new ConcurrentHashMap<>();
     private final Set<Rule> systemStartupTriggeredRules = new CopyOnWriteArraySet<>();
     private final Set<Rule> systemShutdownTriggeredRules = new CopyOnWriteArraySet<>();
     private final Set<Rule> timerEventTriggeredRules = new CopyOnWriteArraySet<>();
 
+    // the pre-parsed item triggers, built from the lookup maps on demand
+    private final Map<TriggerIndexKey, TriggerIndex> triggerIndexes = new ConcurrentHashMap<>();
+
+    // incremented on every modification of the lookup maps, invalidates the trigger indexes
+    private volatile long generation;
+
     // the scheduler used for timer events
     private Scheduler scheduler;
 
@@ -291,113 +305,134 @@ public class RuleTriggerManager {
 
     private void internalGetUpdateRules(String name, Boolean isGroup, List<Class<? extends State>> acceptedDataTypes,
             State state, List<Rule> result) {
-        final String mapName = (isGroup) ? GROUP_NAME_PREFIX + name : name;
-        for (Rule rule : getAllRules(UPDATE, mapName)) {
-            for (EventTrigger t : rule.getEventtrigger()) {
-                String triggerStateString = null;
-                if ((!isGroup) && (t instanceof UpdateEventTrigger)) {
-                    final UpdateEventTrigger ut = (UpdateEventTrigger) t;
-                    if (ut.getItem().equals(name)) {
-                        triggerStateString = ut.getState() != null ? ut.getState().getValue() : null;
-                    } else {
+        getTriggerIndex(UPDATE, name, isGroup, acceptedDataTypes,
+                stateString -> TypeParser.parseState(acceptedDataTypes, stateString)).getRules(null, state, result);
+    }
+
+    private void internalGetChangeRules(String name, Boolean isGroup, List<Class<? extends State>> acceptedDataTypes,
+            State newState, State oldState, List<Rule> result) {
+        getTriggerIndex(CHANGE, name, isGroup, acceptedDataTypes,
+                stateString -> TypeParser.parseState(acceptedDataTypes, stateString)).getRules(oldState, newState,
+                        result);
+    }
+
+    private void internalGetCommandRules(String name, Boolean isGroup,
+            List<Class<? extends Command>> acceptedCommandTypes, Command command, List<Rule> result) {
+        getTriggerIndex(COMMAND, name, isGroup, acceptedCommandTypes,
+                commandString -> TypeParser.parseCommand(acceptedCommandTypes, commandString)).getRules(null, command,
+                        result);
+    }
+
+    /**
+     * Returns the index of the item triggers of the given type for an item or group, building it if there is none or
+     * if the mapping tables have been modified since it has been built.
+     *
+     * @param type the trigger type, one of {@link TriggerTypes#UPDATE}, {@link TriggerTypes#CHANGE} and
+     *            {@link TriggerTypes#COMMAND}
+     * @param name the name of the item or group
+     * @param isGroup true if the triggers for the members of the group are requested
+     * @param acceptedTypes the accepted data or command types of the item, which the expected states are parsed for
+     * @param parser the parser for the expected states
+     * @return the trigger index
+     */
+    private TriggerIndex getTriggerIndex(TriggerTypes type, String name, boolean isGroup, List<?> acceptedTypes,
+            Function<String, Type> parser) {
+        final long currentGeneration = generation;
+        final String mapName = isGroup ? GROUP_NAME_PREFIX + name : name;
+        final TriggerIndexKey key = new TriggerIndexKey(type, mapName, acceptedTypes);
+        TriggerIndex index = triggerIndexes.get(key);
+        if (index == null || index.generation != currentGeneration) {
+            index = new TriggerIndex(currentGeneration);
+            for (Rule rule : getAllRules(type, mapName)) {
+                for (EventTrigger t : rule.getEventtrigger()) {
+                    final String[] expectedStates = getExpectedStates(type, t, name, isGroup);
+                    if (expectedStates == null) {
                         continue;
                     }
-                } else if ((isGroup) && (t instanceof GroupMemberUpdateEventTrigger)) {
-                    final GroupMemberUpdateEventTrigger gmut = (GroupMemberUpdateEventTrigger) t;
-                    if (gmut.getGroup().equals(name)) {
-                        triggerStateString = gmut.getState() != null ? gmut.getState().getValue() : null;
-                    } else {
-                        continue;
+                    Type oldState = null;
+                    if (expectedStates[0] != null) {
+                        oldState = parser.apply(expectedStates[0]);
+                        if (oldState == null) {
+                            // a state that cannot be parsed for the item type never matches
+                            continue;
+                        }
                     }
-                } else {
-                    continue;
-                }
-                if (triggerStateString != null) {
-                    final State triggerState = TypeParser.parseState(acceptedDataTypes, triggerStateString);
-                    if (!state.equals(triggerState)) {
-                        continue;
+                    Type state = null;
+                    if (expectedStates[1] != null) {
+                        state = parser.apply(expectedStates[1]);
+                        if (state == null) {
+                            continue;
+                        }
                     }
+                    index.add(new TriggerEntry(rule, oldState, state));
                 }
-                result.add(rule);
             }
+            triggerIndexes.put(key, index);
         }
+        return index;
     }
 
-    private void internalGetChangeRules(String name, Boolean isGroup, List<Class<? extends State>> acceptedDataTypes,
-            State newState, State oldState, List<Rule> result) {
-        final String mapName = (isGroup) ? GROUP_NAME_PREFIX + name : name;
-        for (Rule rule : getAllRules(CHANGE, mapName)) {
-            for (EventTrigger t : rule.getEventtrigger()) {
-                String triggerOldStateString = null;
-                String triggerNewStateString = null;
-                if ((!isGroup) && (t instanceof ChangedEventTrigger)) {
+    /**
+     * Returns the expected old and new state (or command) of an item trigger.
+     *
+     * @return an array of the expected old and new state, which are null if the trigger does not expect a state, or
+     *         null if the trigger is not a trigger of the given type for the given item or group
+     */
+    private String[] getExpectedStates(TriggerTypes type, EventTrigger t, String name, boolean isGroup) {
+        switch (type) {
+            case UPDATE:
+                if (!isGroup && t instanceof UpdateEventTrigger) {
+                    final UpdateEventTrigger ut = (UpdateEventTrigger) t;
+                    if (ut.getItem().equals(name)) {
+                        return new String[] { null, ut.getState() != null ? ut.getState().getValue() : null };
+                    }
+                } else if (isGroup && t instanceof GroupMemberUpdateEventTrigger) {
+                    final GroupMemberUpdateEventTrigger gmut = (GroupMemberUpdateEventTrigger) t;
+                    if (gmut.getGroup().equals(name)) {
+                        return new String[] { null, gmut.getState() != null ? gmut.getState().getValue() : null };
+                    }
+                }
+                break;
+            case CHANGE:
+                if (!isGroup && t instanceof ChangedEventTrigger) {
                     final ChangedEventTrigger ct = (ChangedEventTrigger) t;
                     if (ct.getItem().equals(name)) {
-                        triggerOldStateString = ct.getOldState() != null ? ct.getOldState().getValue() : null;
-                        triggerNewStateString = ct.getNewState() != null ? ct.getNewState().getValue() : null;
-                    } else {
-                        continue;
+                        return new String[] { ct.getOldState() != null ? ct.getOldState().getValue() : null,
+                                ct.getNewState() != null ? ct.getNewState().getValue() : null };
                     }
-                } else if ((isGroup) && (t instanceof GroupMemberChangedEventTrigger)) {
+                } else if (isGroup && t instanceof GroupMemberChangedEventTrigger) {
                     final GroupMemberChangedEventTrigger gmct = (GroupMemberChangedEventTrigger) t;
                     if (gmct.getGroup().equals(name)) {
-                        triggerOldStateString = gmct.getOldState() != null ? gmct.getOldState().getValue() : null;
-                        triggerNewStateString = gmct.getNewState() != null ? gmct.getNewState().getValue() : null;
-                    } else {
-                        continue;
-                    }
-                } else {
-                    continue;
-                }
-                if (triggerOldStateString != null) {
-                    final State triggerOldState = TypeParser.parseState(acceptedDataTypes, triggerOldStateString);
-                    if (!oldState.equals(triggerOldState)) {
-                        continue;
-                    }
-                }
-                if (triggerNewStateString != null) {
-                    final State triggerNewState = TypeParser.parseState(acceptedDataTypes, triggerNewStateString);
-                    if (!newState.equals(triggerNewState)) {
-                        continue;
+                        return new String[] { gmct.getOldState() != null ? gmct.getOldState().getValue() : null,
+                                gmct.getNewState() != null ? gmct.getNewState().getValue() : null };
                     }
                 }
-                result.add(rule);
-            }
-        }
-    }
-
-    private void internalGetCommandRules(String name, Boolean isGroup,
-            List<Class<? extends Command>> acceptedCommandTypes, Command command, List<Rule> result) {
-        final String mapName = (isGroup) ? GROUP_NAME_PREFIX + name : name;
-        for (Rule rule : getAllRules(COMMAND, mapName)) {
-            for (final EventTrigger t : rule.getEventtrigger()) {
-                String triggerCommandString = null;
-                if ((!isGroup) && (t instanceof CommandEventTrigger)) {
+                break;
+            case COMMAND:
+                if (!isGroup && t instanceof CommandEventTrigger) {
                     final CommandEventTrigger ct = (CommandEventTrigger) t;
                     if (ct.getItem().equals(name)) {
-                        triggerCommandString = ct.getCommand()!=null?ct.getCommand().getValue() : null;
-                    } else {
-                        continue;
+                        return new String[] { null, ct.getCommand() != null ? ct.getCommand().getValue() : null };
                     }
-                } else if ((isGroup) && (t instanceof GroupMemberCommandEventTrigger)) {
+                } else if (isGroup && t instanceof GroupMemberCommandEventTrigger) {
                     final GroupMemberCommandEventTrigger gmct = (GroupMemberCommandEventTrigger) t;
                     if (gmct.getGroup().equals(name)) {
-                        triggerCommandString = gmct.getCommand() != null ? gmct.getCommand().getValue() : null;
-                    } else {
-                        continue;
-                    }
-                } else {
-                    continue;
-                }
-                if (triggerCommandString != null) {
-                    final Command triggerCommand = TypeParser.parseCommand(acceptedCommandTypes, triggerCommandString);
-                    if (!command.equals(triggerCommand)) {
-                        continue;
+                        return new String[] { null, gmct.getCommand() != null ? gmct.getCommand().getValue() : null };
                     }
                 }
-                result.add(rule);
-            }
+                break;
+            default:
+                break;
         }
+        return null;
+    }
+
+    /**
+     * Must be called after every modification of the lookup maps.
+     */
+    private void invalidateTriggerIndexes() {
+        generation++;
+        triggerIndexes.clear();
     }
 
     private Iterable<Rule> internalGetRules(TriggerTypes triggerType, Item item, Type oldType, Type newType) {
@@ -509,7 +544,7 @@ public class RuleTriggerManager {
      *
      * @param type the trigger type
      */
-    public void clear(TriggerTypes type) {
+    public synchronized void clear(TriggerTypes type) {
         switch (type) {
             case STARTUP:
                 systemStartupTriggeredRules.clear();
@@ -542,12 +577,13 @@ public class RuleTriggerManager {
                 thingChangedEventTriggeredRules.clear();
                 break;
         }
+        invalidateTriggerIndexes();
     }
 
     /**
      * Removes all rules from all mapping tables.
      */
-    public void clearAll() {
+    public synchronized void clearAll() {
         clear(STARTUP);
         clear(SHUTDOWN);
         clear(UPDATE);
@@ -573,52 +609,22 @@ public class RuleTriggerManager {
                 systemShutdownTriggeredRules.add(rule);
             } else if (t instanceof CommandEventTrigger) {
                 CommandEventTrigger ceTrigger = (CommandEventTrigger) t;
-                Set<Rule> rules = commandEventTriggeredRules.get(ceTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    commandEventTriggeredRules.put(ceTrigger.getItem(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(commandEventTriggeredRules, ceTrigger.getItem(), rule);
             } else if (t instanceof GroupMemberCommandEventTrigger) {
                 GroupMemberCommandEventTrigger gmceTrigger = (GroupMemberCommandEventTrigger) t;
-                Set<Rule> rules = commandEventTriggeredRules.get(GROUP_NAME_PREFIX + gmceTrigger.getGroup());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    commandEventTriggeredRules.put(GROUP_NAME_PREFIX + gmceTrigger.getGroup(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(commandEventTriggeredRules, GROUP_NAME_PREFIX + gmceTrigger.getGroup(), rule);
             } else if (t instanceof UpdateEventTrigger) {
                 UpdateEventTrigger ueTrigger = (UpdateEventTrigger) t;
-                Set<Rule> rules = updateEventTriggeredRules.get(ueTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    updateEventTriggeredRules.put(ueTrigger.getItem(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(updateEventTriggeredRules, ueTrigger.getItem(), rule);
             } else if (t instanceof GroupMemberUpdateEventTrigger) {
                 GroupMemberUpdateEventTrigger gmueTrigger = (GroupMemberUpdateEventTrigger) t;
-                Set<Rule> rules = updateEventTriggeredRules.get(GROUP_NAME_PREFIX + gmueTrigger.getGroup());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    updateEventTriggeredRules.put(GROUP_NAME_PREFIX + gmueTrigger.getGroup(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(updateEventTriggeredRules, GROUP_NAME_PREFIX + gmueTrigger.getGroup(), rule);
             } else if (t instanceof ChangedEventTrigger) {
                 ChangedEventTrigger ceTrigger = (ChangedEventTrigger) t;
-                Set<Rule> rules = changedEventTriggeredRules.get(ceTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    changedEventTriggeredRules.put(ceTrigger.getItem(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(changedEventTriggeredRules, ceTrigger.getItem(), rule);
             } else if (t instanceof GroupMemberChangedEventTrigger) {
                 GroupMemberChangedEventTrigger gmceTrigger = (GroupMemberChangedEventTrigger) t;
-                Set<Rule> rules = changedEventTriggeredRules.get(GROUP_NAME_PREFIX + gmceTrigger.getGroup());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    changedEventTriggeredRules.put(GROUP_NAME_PREFIX + gmceTrigger.getGroup(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(changedEventTriggeredRules, GROUP_NAME_PREFIX + gmceTrigger.getGroup(), rule);
             } else if (t instanceof TimerTrigger) {
                 try {
                     createTimer(rule, (TimerTrigger) t);
@@ -628,30 +634,20 @@ public class RuleTriggerManager {
                 }
             } else if (t instanceof EventEmittedTrigger) {
                 EventEmittedTrigger eeTrigger = (EventEmittedTrigger) t;
-                Set<Rule> rules = triggerEventTriggeredRules.get(eeTrigger.getChannel());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    triggerEventTriggeredRules.put(eeTrigger.getChannel(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(triggerEventTriggeredRules, eeTrigger.getChannel(), rule);
             } else if (t instanceof ThingStateUpdateEventTrigger) {
                 ThingStateUpdateEventTrigger tsuTrigger = (ThingStateUpdateEventTrigger) t;
-                Set<Rule> rules = thingUpdateEventTriggeredRules.get(tsuTrigger.getThing());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    thingUpdateEventTriggeredRules.put(tsuTrigger.getThing(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(thingUpdateEventTriggeredRules, tsuTrigger.getThing(), rule);
             } else if (t instanceof ThingStateChangedEventTrigger) {
                 ThingStateChangedEventTrigger tscTrigger = (ThingStateChangedEventTrigger) t;
-                Set<Rule> rules = thingChangedEventTriggeredRules.get(tscTrigger.getThing());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    thingChangedEventTriggeredRules.put(tscTrigger.getThing(), rules);
-                }
-                rules.add(rule);
+                addToLookupMap(thingChangedEventTriggeredRules, tscTrigger.getThing(), rule);
             }
         }
+        invalidateTriggerIndexes();
+    }
+
+    private static void addToLookupMap(Map<String, Set<Rule>> lookupMap, String name, Rule rule) {
+        lookupMap.computeIfAbsent(name, k -> new CopyOnWriteArraySet<>()).add(rule);
     }
 
     /**
@@ -660,7 +656,7 @@ public class RuleTriggerManager {
      * @param type the trigger type for which the rule should be removed
      * @param rule the rule to add
      */
-    public void removeRule(TriggerTypes type, Rule rule) {
+    public synchronized void removeRule(TriggerTypes type, Rule rule) {
         switch (type) {
             case STARTUP:
                 systemStartupTriggeredRules.remove(rule);
@@ -703,6 +699,7 @@ public class RuleTriggerManager {
                 }
                 break;
         }
+        invalidateTriggerIndexes();
     }
 
     /**
@@ -710,7 +707,7 @@ public class RuleTriggerManager {
      *
      * @param model the rule model
      */
-    public void addRuleModel(RuleModel model) {
+    public synchronized void addRuleModel(RuleModel model) {
         for (Rule rule : model.getRules()) {
             addRule(rule);
         }
@@ -721,7 +718,7 @@ public class RuleTriggerManager {
      *
      * @param ruleModel the rule model
      */
-    public void removeRuleModel(RuleModel ruleModel) {
+    public synchronized void removeRuleModel(RuleModel ruleModel) {
         removeRules(UPDATE, updateEventTriggeredRules.values(), ruleModel);
         removeRules(CHANGE, changedEventTriggeredRules.values(), ruleModel);
         removeRules(COMMAND, commandEventTriggeredRules.values(), ruleModel);
@@ -731,6 +728,7 @@ public class RuleTriggerManager {
         removeRules(TIMER, Collections.singletonList(timerEventTriggeredRules), ruleModel);
         removeRules(THINGUPDATE, thingUpdateEventTriggeredRules.values(), ruleModel);
         removeRules(THINGCHANGE, thingChangedEventTriggeredRules.values(), ruleModel);
+        invalidateTriggerIndexes();
     }
 
     private void removeRules(TriggerTypes type, Collection<? extends Collection<Rule>> ruleSets, RuleModel model) {
@@ -846,4 +844,117 @@ public class RuleTriggerManager {
             logger.error("Error while starting the scheduler service: {}", e.getMessage());
         }
     }
+
+    /**
+     * The key of a {@link TriggerIndex}. The accepted types are part of the key, since the expected states are parsed
+     * for them and items of different types may share a name over time.
+     */
+    private static class TriggerIndexKey {
+
+        private final TriggerTypes type;
+        private final String mapName;
+        private final List<?> acceptedTypes;
+        private final int hashCode;
+
+        TriggerIndexKey(TriggerTypes type, String mapName, List<?> acceptedTypes) {
+            this.type = type;
+            this.mapName = mapName;
+            this.acceptedTypes = acceptedTypes;
+            this.hashCode = Objects.hash(type, mapName, acceptedTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TriggerIndexKey)) {
+                return false;
+            }
+            TriggerIndexKey other = (TriggerIndexKey) obj;
+            return type == other.type && mapName.equals(other.mapName) && acceptedTypes.equals(other.acceptedTypes);
+        }
+    }
+
+    /**
+     * An item trigger with its parsed expected states.
+     */
+    private static class TriggerEntry {
+
+        private final Rule rule;
+        private final Type oldState;
+        private final Type state;
+
+        TriggerEntry(Rule rule, Type oldState, Type state) {
+            this.rule = rule;
+            this.oldState = oldState;
+            this.state = state;
+        }
+
+        boolean matchesOldState(Type oldType) {
+            return oldState == null || (oldType != null && oldType.equals(oldState));
+        }
+    }
+
+    /**
+     * The item triggers of one type for an item or group, indexed by their expected state.
+     *
+     * States of enum types, like {@code ON} or {@code OPEN}, are looked up by hash. Other states, like a
+     * {@code DecimalType}, compare by value (so 1 equals 1.0) with a hash code that does not, hence they are compared
+     * one by one with the received state, as before.
+     */
+    private static class TriggerIndex {
+
+        private final long generation;
+        private final List<TriggerEntry> anyState = new ArrayList<>();
+        private final Map<Type, List<TriggerEntry>> enumStates = new HashMap<>();
+        private final List<TriggerEntry> otherStates = new ArrayList<>();
+
+        TriggerIndex(long generation) {
+            this.generation = generation;
+        }
+
+        void add(TriggerEntry entry) {
+            if (entry.state == null) {
+                anyState.add(entry);
+            } else if (entry.state instanceof Enum) {
+                enumStates.computeIfAbsent(entry.state, k -> new ArrayList<>()).add(entry);
+            } else {
+                otherStates.add(entry);
+            }
+        }
+
+        /**
+         * Adds the rules of all triggers which match the received state to the result, once per trigger.
+         *
+         * @param oldType the previous state for change triggers, null otherwise
+         * @param newType the received state or command
+         * @param result the list to add the rules to
+         */
+        void getRules(Type oldType, Type newType, List<Rule> result) {
+            addMatching(anyState, oldType, result);
+            final List<TriggerEntry> entries = enumStates.get(newType);
+            if (entries != null) {
+                addMatching(entries, oldType, result);
+            }
+            for (TriggerEntry entry : otherStates) {
+                if (newType.equals(entry.state) && entry.matchesOldState(oldType)) {
+                    result.add(entry.rule);
+                }
+            }
+        }
+
+        private static void addMatching(List<TriggerEntry> entries, Type oldType, List<Rule> result) {
+            for (TriggerEntry entry : entries) {
+                if (entry.matchesOldState(oldType)) {
+                    result.add(entry.rule);
+                }
+            }
+        }
+    }
 }
@@ -118,6 +118,30 @@ public class RuleExecutionTest extends JavaOSGiTest {
         assertExecutionWith(model, ItemEventFactory.createStateEvent("TestSwitch", OnOffType.ON), TriggerTypes.CHANGE);
     }
 
+    @Test
+    public void testUpdateEventTriggerWithState() throws Exception {
+        String model = "rule Test " + //
+                "when " + //
+                "    Item TestSwitch received update ON " + //
+                "then " + //
+                "    TestResult.send(ON) " + //
+                "end ";
+
+        assertExecutionWith(model, ItemEventFactory.createStateEvent("TestSwitch", OnOffType.ON), TriggerTypes.UPDATE);
+    }
+
+    @Test
+    public void testChangedEventTriggerWithState() throws Exception {
+        String model = "rule Test " + //
+                "when " + //
+                "    Item TestSwitch changed to ON " + //
+                "then " + //
+                "    TestResult.send(ON) " + //
+                "end ";
+
+        assertExecutionWith(model, ItemEventFactory.createStateEvent("TestSwitch", OnOffType.ON), TriggerTypes.CHANGE);
+    }
+
     @Test
     public void testMemberUpdateEventTrigger() throws Exception {
         String model = "rule Test " + //
@@ -29,6 +29,7 @@ import com.google.inject.Inject;
  * This is the default implementation of a {@link Script}.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author Eclipse SmartHome - Reuse of the interpreter
  *
  */
 @SuppressWarnings("restriction")
@@ -36,6 +37,9 @@ public class ScriptImpl implements Script {
 
     private XExpression xExpression;
 
+    // the interpreter is looked up on the first execution and kept for a script which is executed repeatedly
+    private IExpressionInterpreter interpreter;
+
     @Inject
     public ScriptImpl() {
     }
@@ -44,6 +48,7 @@ public class ScriptImpl implements Script {
     void setXExpression(XExpression xExpression) {
 
         this.xExpression = xExpression;
+        this.interpreter = null;
     }
 
     /* package-local */
@@ -69,11 +74,14 @@ public class ScriptImpl implements Script {
     @Override
     public Object execute(final IEvaluationContext evaluationContext) throws ScriptExecutionException {
         if (xExpression != null) {
-            Resource resource = xExpression.eResource();
-            IExpressionInterpreter interpreter = null;
-            if (resource instanceof XtextResource) {
-                IResourceServiceProvider provider = ((XtextResource) resource).getResourceServiceProvider();
-                interpreter = provider.get(IExpressionInterpreter.class);
+            IExpressionInterpreter interpreter = this.interpreter;
+            if (interpreter == null) {
+                Resource resource = xExpression.eResource();
+                if (resource instanceof XtextResource) {
+                    IResourceServiceProvider provider = ((XtextResource) resource).getResourceServiceProvider();
+                    interpreter = provider.get(IExpressionInterpreter.class);
+                    this.interpreter = interpreter;
+                }
             }
             if (interpreter == null) {
                 throw new ScriptExecutionException("Script interpreter couldn't be obtain");
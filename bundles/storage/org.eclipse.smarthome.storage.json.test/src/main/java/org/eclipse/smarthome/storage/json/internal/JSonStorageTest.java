@@ -126,6 +126,118 @@ public class JSonStorageTest extends JavaTest {
         assertEquals(storageString1, storageString2);
     }
 
+    @Test
+    public void testJournalIsReplayedOnStartup() throws IOException {
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+        objectStorage.put("DummyObject", new DummyObject());
+        waitForAssert(() -> assertEquals(1, countLines(journalFile)));
+        objectStorage.commitDatabase();
+        assertFalse(journalFile.exists());
+        String storageString = FileUtils.readFileToString(tmpFile);
+
+        objectStorage.put("OtherObject", new DummyObject());
+        objectStorage.remove("DummyObject");
+        waitForAssert(() -> assertEquals(2, countLines(journalFile)));
+
+        // the storage file is not rewritten by the deferred commits
+        assertEquals(storageString, FileUtils.readFileToString(tmpFile));
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+        assertNull(objectStorage.get("DummyObject"));
+        DummyObject dummy = objectStorage.get("OtherObject");
+        assertNotNull(dummy);
+        assertTrue(dummy.configuration.get("testLong") instanceof BigDecimal);
+        assertEquals(((BigDecimal) dummy.channels.get(0).configuration.get("testChildLong")).scale(), 0);
+
+        objectStorage.commitDatabase();
+        assertFalse(journalFile.exists());
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0);
+        assertNotNull(objectStorage.get("OtherObject"));
+        assertNull(objectStorage.get("DummyObject"));
+    }
+
+    @Test
+    public void testDamagedJournalIsCompacted() throws IOException {
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+        objectStorage.put("DummyObject", new DummyObject());
+        waitForAssert(() -> assertEquals(1, countLines(journalFile)));
+
+        // simulate a crash while a record has been written
+        FileUtils.writeStringToFile(journalFile, "{\"key\":\"OtherObject\",\"cla", true);
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+        assertNotNull(objectStorage.get("DummyObject"));
+        assertFalse(journalFile.exists());
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0);
+        assertNotNull(objectStorage.get("DummyObject"));
+    }
+
+    @Test
+    public void testJournalIsKeptIfDatabaseCannotBeWritten() throws IOException {
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+        objectStorage.put("DummyObject", new DummyObject());
+        waitForAssert(() -> assertEquals(1, countLines(journalFile)));
+
+        // a directory in place of the storage file cannot be written
+        assertTrue(tmpFile.delete());
+        assertTrue(tmpFile.mkdir());
+        try {
+            objectStorage.dispose();
+            assertEquals(1, countLines(journalFile));
+
+            objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0, true);
+            assertNotNull(objectStorage.get("DummyObject"));
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    @Test
+    public void testDisposeWritesPendingChanges() {
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 10000, 60000);
+        objectStorage.put("DummyObject", new DummyObject());
+        objectStorage.dispose();
+
+        assertEquals(0, countBackups());
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 0, 0);
+        assertNotNull(objectStorage.get("DummyObject"));
+    }
+
+    @Test
+    public void testDisposeWithoutChangesDoesNotWrite() {
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 10000, 60000);
+        objectStorage.put("DummyObject", new DummyObject());
+        objectStorage.dispose();
+        assertTrue(tmpFile.setLastModified(1000));
+
+        objectStorage = new JsonStorage<>(tmpFile, this.getClass().getClassLoader(), 0, 10000, 60000);
+        assertNotNull(objectStorage.get("DummyObject"));
+        objectStorage.dispose();
+
+        assertEquals(1000, tmpFile.lastModified());
+    }
+
+    private int countBackups() {
+        File[] backups = new File(tmpFile.getParentFile(), "backup")
+                .listFiles((dir, name) -> name.endsWith("--" + tmpFile.getName()));
+        return backups == null ? 0 : backups.length;
+    }
+
+    private int countLines(File file) {
+        try {
+            return file.exists() ? FileUtils.readLines(file).size() : 0;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static class DummyObject {
 
         private final Configuration configuration = new Configuration();
@@ -12,23 +12,35 @@
  */
 package org.eclipse.smarthome.storage.json.internal;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.config.core.ConfigurationDeserializer;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +49,9 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 
 /**
@@ -46,10 +61,18 @@ import com.google.gson.JsonSyntaxException;
  * A deferred write mechanism of WRITE_DELAY milliseconds is used to improve performance.
  * The service keeps backups in a /backup folder, and maintains a maximum of MAX_FILES
  * at any time
+ * <p>
+ * In journal mode a deferred commit does not rewrite the whole file. Instead, the changed entries are appended to a
+ * journal file next to the storage file, one JSON object per line. As soon as the journal holds more records than the
+ * storage has entries, it is compacted into the storage file (and a backup) in the background. On startup the journal
+ * is replayed on top of the storage file, regardless of the mode.
+ * <p>
+ * The deferred commits of all storages are executed by one shared scheduler.
  *
  * @author Chris Jackson - Initial Contribution
  * @author Stefan Triller - Removed dependency to internal GSon packages
  * @author Simon Kaufmann - Distinguish between inner and outer de-/serialization, keep json structures in map
+ * @author Eclipse SmartHome - Journal mode and shared commit scheduler
  */
 @NonNullByDefault
 public class JsonStorage<T> implements Storage<T> {
@@ -62,23 +85,51 @@ public class JsonStorage<T> implements Storage<T> {
 
     static final String CLASS = "class";
     static final String VALUE = "value";
+    static final String KEY = "key";
     private final String BACKUP_EXTENSION = "backup";
+    private final String JOURNAL_EXTENSION = ".journal";
     private final String SEPARATOR = "--";
 
-    private final Timer commitTimer;
-    private @Nullable TimerTask commitTimerTask = null;
+    private static final String COMMIT_THREADPOOL_NAME = "jsonStorage";
 
-    private long deferredSince = 0;
+    /** the minimum number of journal records before the journal is compacted */
+    private static final int MIN_COMPACTION_RECORDS = 100;
+
+    private final ScheduledExecutorService commitScheduler = ThreadPoolManager
+            .getScheduledPool(COMMIT_THREADPOOL_NAME);
+    private @Nullable ScheduledFuture<?> commitJob = null;
+
+    // the time the first deferred commit has been requested since the last write, 0 if no commit is deferred
+    private final AtomicLong deferredSince = new AtomicLong();
 
     private final File file;
+    private final File journalFile;
+    private final boolean journal;
     private final ClassLoader classLoader;
     private final Map<String, StorageEntry> map = new ConcurrentHashMap<String, StorageEntry>();
 
+    // key -> entry, or null if the entry has been removed; guarded by itself
+    private final Map<String, @Nullable StorageEntry> journalChanges = new LinkedHashMap<>();
+    // serializes the writes to the database file and the journal
+    private final Object fileLock = new Object();
+    // guarded by fileLock
+    private int journalRecords = 0;
+    // true if the database file has to be rewritten because changes could not be journaled; guarded by fileLock
+    private boolean compactionPending = false;
+
     private transient Gson internalMapper;
     private transient Gson entityMapper;
+    private transient Gson journalMapper;
 
     public JsonStorage(File file, ClassLoader classLoader, int maxBackupFiles, int writeDelay, int maxDeferredPeriod) {
+        this(file, classLoader, maxBackupFiles, writeDelay, maxDeferredPeriod, false);
+    }
+
+    public JsonStorage(File file, ClassLoader classLoader, int maxBackupFiles, int writeDelay, int maxDeferredPeriod,
+            boolean journal) {
         this.file = file;
+        this.journalFile = new File(file.getPath() + JOURNAL_EXTENSION);
+        this.journal = journal;
         this.classLoader = classLoader;
         this.maxBackupFiles = maxBackupFiles;
         this.writeDelay = writeDelay;
@@ -89,8 +140,8 @@ public class JsonStorage<T> implements Storage<T> {
                 .create();
         this.entityMapper = new GsonBuilder().registerTypeAdapter(Configuration.class, new ConfigurationDeserializer())
                 .setPrettyPrinting().create();
-
-        commitTimer = new Timer();
+        // the journal records must not contain line breaks
+        this.journalMapper = new Gson();
 
         Map<String, StorageEntry> inputMap = null;
         if (file.exists()) {
@@ -125,6 +176,12 @@ public class JsonStorage<T> implements Storage<T> {
             map.putAll(inputMap);
             logger.debug("Opened Json storage file at '{}'.", file.getAbsolutePath());
         }
+
+        // Apply the changes that have not been compacted into the storage file yet
+        if (journalFile.exists() && !replayJournal()) {
+            // do not append to a damaged journal
+            commitDatabase();
+        }
     }
 
     @Override
@@ -134,7 +191,15 @@ public class JsonStorage<T> implements Storage<T> {
         }
 
         StorageEntry val = new StorageEntry(value.getClass().getName(), entityMapper.toJsonTree(value));
-        StorageEntry previousValue = map.put(key, val);
+        StorageEntry previousValue;
+        if (journal) {
+            synchronized (journalChanges) {
+                previousValue = map.put(key, val);
+                journalChanges.put(key, val);
+            }
+        } else {
+            previousValue = map.put(key, val);
+        }
         deferredCommit();
 
         if (previousValue == null) {
@@ -146,7 +211,15 @@ public class JsonStorage<T> implements Storage<T> {
 
     @Override
     public @Nullable T remove(String key) {
-        StorageEntry removedElement = map.remove(key);
+        StorageEntry removedElement;
+        if (journal) {
+            synchronized (journalChanges) {
+                removedElement = map.remove(key);
+                journalChanges.put(key, null);
+            }
+        } else {
+            removedElement = map.remove(key);
+        }
         deferredCommit();
         if (removedElement == null) {
             return null;
@@ -267,12 +340,19 @@ public class JsonStorage<T> implements Storage<T> {
         return fileTimes;
     }
 
-    private void writeDatabaseFile(File dataFile, String data) {
+    /**
+     * Write the data to the given file.
+     *
+     * @return true if the data has been written, false if an error occurred
+     */
+    private boolean writeDatabaseFile(File dataFile, String data) {
         try (FileOutputStream outputStream = new FileOutputStream(dataFile, false)) {
             outputStream.write(data.getBytes());
             outputStream.flush();
+            return true;
         } catch (Exception e) {
             logger.error("Error writing JsonDB to {}. Cause {}.", dataFile.getPath(), e.getMessage());
+            return false;
         }
     }
 
@@ -283,61 +363,195 @@ public class JsonStorage<T> implements Storage<T> {
      * having to either rename the file later (which may leave a small window for there to
      * be no file if the system crashes during the write process), or to copy the file when
      * writing the backup copy (which would require a read and write, and is thus slower).
+     * <p>
+     * As the database file contains all entries, the journal is not needed anymore afterwards and is deleted. If the
+     * database file could not be written, the journal is kept.
+     * <p>
+     * The writers of this storage are not blocked. An entry that is changed while the entries are serialized is
+     * written by the commit that its change has scheduled.
      */
     public void commitDatabase() {
-        String json = internalMapper.toJson(map);
+        synchronized (fileLock) {
+            deferredSince.set(0);
+            String json = internalMapper.toJson(map);
 
-        synchronized (map) {
             // Write the database file
-            writeDatabaseFile(file, json);
+            if (!writeDatabaseFile(file, json)) {
+                // the journal and the database file are incomplete, try again with the next commit
+                compactionPending = true;
+                return;
+            }
 
             // And also write the backup
             writeDatabaseFile(new File(file.getParent() + File.separator + BACKUP_EXTENSION,
                     System.currentTimeMillis() + SEPARATOR + file.getName()), json);
 
-            deferredSince = 0;
+            // The changes that are still pending will be appended to a new journal, applying them again on top of
+            // the database file does not change the result
+            if (journalFile.exists() && !journalFile.delete()) {
+                logger.error("Error deleting JsonDB journal {}.", journalFile.getPath());
+            }
+            journalRecords = 0;
+            compactionPending = false;
         }
     }
 
-    private class CommitTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            // Save the database
-            commitDatabase();
-            List<Long> fileTimes = calculateFileTimes();
-
-            // delete the oldest
-            if (fileTimes.size() > maxBackupFiles) {
-                for (int counter = 0; counter < fileTimes.size() - maxBackupFiles; counter++) {
-                    File deleter = new File(file.getParent() + File.separator + BACKUP_EXTENSION,
-                            fileTimes.get(counter) + SEPARATOR + file.getName());
-                    deleter.delete();
+    /**
+     * Append the pending changes to the journal.
+     *
+     * @return true if the changes have been appended, false if the journal could not be written
+     */
+    private boolean appendJournal() {
+        synchronized (fileLock) {
+            final List<String> records = new ArrayList<>();
+            synchronized (journalChanges) {
+                for (Entry<String, @Nullable StorageEntry> change : journalChanges.entrySet()) {
+                    records.add(journalMapper.toJson(toJournalRecord(change.getKey(), change.getValue())));
+                }
+                journalChanges.clear();
+            }
+            deferredSince.set(0);
+            if (records.isEmpty()) {
+                return true;
+            }
+
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(journalFile, true),
+                    StandardCharsets.UTF_8)) {
+                for (String record : records) {
+                    writer.write(record);
+                    writer.write('\n');
                 }
+                writer.flush();
+            } catch (IOException e) {
+                logger.error("Error writing JsonDB journal {}. Cause {}.", journalFile.getPath(), e.getMessage());
+                // the changes are only contained in the map now, they must be written by a compaction
+                compactionPending = true;
+                return false;
             }
+            journalRecords += records.size();
+            return true;
         }
     }
 
-    public synchronized void deferredCommit() {
-        // Handle a maximum time for deferring the commit.
-        // This stops a pathological loop preventing saving
-        if (deferredSince != 0 && deferredSince < System.nanoTime() - maxDeferredPeriod) {
+    private JsonObject toJournalRecord(String key, @Nullable StorageEntry entry) {
+        JsonObject record = new JsonObject();
+        record.addProperty(KEY, key);
+        if (entry != null) {
+            // the entry has been added or updated, otherwise it has been removed
+            record.addProperty(CLASS, entry.getEntityClassName());
+            record.add(VALUE, (JsonElement) entry.getValue());
+        }
+        return record;
+    }
+
+    /**
+     * Apply the records of the journal to the map.
+     *
+     * @return true if all records have been applied, false if the journal is damaged
+     */
+    private boolean replayJournal() {
+        int records = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            JsonParser parser = new JsonParser();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonObject record = parser.parse(line).getAsJsonObject();
+                String key = record.get(KEY).getAsString();
+                JsonElement entityClassName = record.get(CLASS);
+                if (entityClassName != null) {
+                    map.put(key, new StorageEntry(entityClassName.getAsString(), record.get(VALUE)));
+                } else {
+                    map.remove(key);
+                }
+                records++;
+            }
+        } catch (IOException | JsonParseException | IllegalStateException | NullPointerException e) {
+            // the last record might be incomplete if the system crashed while it has been written
+            logger.warn("Error reading JsonDB journal {} after {} records. Cause {}.", journalFile.getPath(), records,
+                    e.getMessage());
+            return false;
+        }
+        journalRecords = records;
+        logger.debug("Applied {} records of the Json storage journal at '{}'.", records,
+                journalFile.getAbsolutePath());
+        return true;
+    }
+
+    private void deleteOldBackups() {
+        List<Long> fileTimes = calculateFileTimes();
+
+        // delete the oldest
+        if (fileTimes.size() > maxBackupFiles) {
+            for (int counter = 0; counter < fileTimes.size() - maxBackupFiles; counter++) {
+                File deleter = new File(file.getParent() + File.separator + BACKUP_EXTENSION,
+                        fileTimes.get(counter) + SEPARATOR + file.getName());
+                deleter.delete();
+            }
+        }
+    }
+
+    private void commit() {
+        if (journal) {
+            synchronized (fileLock) {
+                if (appendJournal() && !compactionPending
+                        && journalRecords <= Math.max(MIN_COMPACTION_RECORDS, map.size())) {
+                    return;
+                }
+                // Save the database
+                commitDatabase();
+            }
+        } else {
+            // Save the database
             commitDatabase();
         }
-        if (deferredSince == 0) {
-            deferredSince = System.nanoTime();
+        deleteOldBackups();
+    }
+
+    public synchronized void deferredCommit() {
+        // Stop any existing commit job
+        ScheduledFuture<?> commitJob = this.commitJob;
+        if (commitJob != null) {
+            commitJob.cancel(false);
+            this.commitJob = null;
         }
 
-        // Stop any existing timer
-        if (commitTimerTask != null) {
-            commitTimerTask.cancel();
-            commitTimerTask = null;
+        long delay = writeDelay;
+        // Handle a maximum time for deferring the commit.
+        // This stops a pathological loop preventing saving
+        final long now = System.nanoTime();
+        if (!deferredSince.compareAndSet(0, now)
+                && now - deferredSince.get() > TimeUnit.MILLISECONDS.toNanos(maxDeferredPeriod)) {
+            delay = 0;
         }
 
-        // Create the timer task
-        commitTimerTask = new CommitTimerTask();
+        // Schedule the commit job
+        this.commitJob = commitScheduler.schedule(this::commit, delay, TimeUnit.MILLISECONDS);
+    }
 
-        // Start the timer
-        commitTimer.schedule(commitTimerTask, writeDelay);
+    /**
+     * Cancel the pending deferred commit and write out the changes it would have written.
+     * <p>
+     * Nothing is written if there are no pending changes. To be called when the storage is not used anymore.
+     */
+    public void dispose() {
+        boolean pending = false;
+        synchronized (this) {
+            ScheduledFuture<?> commitJob = this.commitJob;
+            if (commitJob != null) {
+                // a job that can still be cancelled has not written its changes yet
+                pending = commitJob.cancel(false);
+                this.commitJob = null;
+            }
+        }
+        synchronized (fileLock) {
+            if (pending || compactionPending) {
+                commit();
+            }
+        }
     }
 
 }
@@ -43,10 +43,12 @@ public class JsonStorageService implements StorageService {
     private final String CFG_MAX_BACKUP_FILES = "backup_files";
     private final String CFG_WRITE_DELAY = "write_delay";
     private final String CFG_MAX_DEFER_DELAY = "max_defer_delay";
+    private final String CFG_JOURNAL = "journal";
 
     private int maxBackupFiles = 5;
     private int writeDelay = 500;
     private int maxDeferredPeriod = 60000;
+    private boolean journal = false;
 
     private final Map<String, JsonStorage<Object>> storageList = new HashMap<String, JsonStorage<Object>>();
 
@@ -90,12 +92,15 @@ public class JsonStorageService implements StorageService {
             logger.error("Value {} for {} is invalid. Using {}.", properties.get(CFG_MAX_DEFER_DELAY),
                     CFG_MAX_DEFER_DELAY, maxDeferredPeriod);
         }
+        if (properties.get(CFG_JOURNAL) != null) {
+            journal = Boolean.parseBoolean(properties.get(CFG_JOURNAL).toString());
+        }
     }
 
     protected void deactivate() {
         // Since we're using a delayed commit, we need to write out any data
         for (JsonStorage<Object> storage : storageList.values()) {
-            storage.commitDatabase();
+            storage.dispose();
         }
         logger.debug("Json Storage Service: Deactivated.");
     }
@@ -112,11 +117,11 @@ public class JsonStorageService implements StorageService {
         }
 
         JsonStorage<T> newStorage = new JsonStorage<T>(file, classLoader, maxBackupFiles, writeDelay,
-                maxDeferredPeriod);
+                maxDeferredPeriod, journal);
 
         JsonStorage<Object> oldStorage = storageList.put(name, (JsonStorage<Object>) newStorage);
         if (oldStorage != null) {
-            oldStorage.commitDatabase();
+            oldStorage.dispose();
         }
         return newStorage;
     }
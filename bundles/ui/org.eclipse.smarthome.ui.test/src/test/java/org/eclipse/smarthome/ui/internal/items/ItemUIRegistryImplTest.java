@@ -19,7 +19,9 @@ import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.smarthome.core.i18n.UnitProvider;
@@ -34,6 +36,8 @@ import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.library.types.QuantityType;
 import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.StateDescription;
 import org.eclipse.smarthome.core.types.StateOption;
@@ -107,6 +111,17 @@ public class ItemUIRegistryImplTest {
         assertEquals("Label [State]", label);
     }
 
+    @Test
+    public void getLabel_labelChangedAfterFirstRendering() {
+        when(widget.getLabel()).thenReturn("Label [%s]");
+        when(item.getState()).thenReturn(new StringType("State"));
+        assertEquals("Label [State]", uiRegistry.getLabel(widget));
+
+        when(widget.getLabel()).thenReturn("Other label [%.1f]");
+        when(item.getState()).thenReturn(new DecimalType(10));
+        assertEquals("Other label [10.0]", uiRegistry.getLabel(widget));
+    }
+
     @Test
     public void getLabel_labelWithIntegerValue() {
         String testLabel = "Label [%d]";
@@ -395,6 +410,21 @@ public class ItemUIRegistryImplTest {
         assertEquals("Label [State]", label);
     }
 
+    @Test
+    public void getLabel_labelWithFunctionValueOfAddedTransformationService() throws TransformationException {
+        TransformationService transformationService = mock(TransformationService.class);
+        when(transformationService.transform("de.map", "State")).thenReturn("Zustand");
+        Map<String, Object> properties = Collections.singletonMap("smarthome.transform", "MAP");
+
+        when(widget.getLabel()).thenReturn("Label [MAP(de.map):%s]");
+        when(item.getState()).thenReturn(new StringType("State"));
+        uiRegistry.addTransformationService(transformationService, properties);
+        assertEquals("Label [Zustand]", uiRegistry.getLabel(widget));
+
+        uiRegistry.removeTransformationService(transformationService, properties);
+        assertEquals("Label [State]", uiRegistry.getLabel(widget));
+    }
+
     @Test
     public void getLabel_groupLabelWithValue() {
         String testLabel = "Label [%d]";
@@ -19,8 +19,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -64,7 +67,6 @@ import org.eclipse.smarthome.core.library.types.PlayPauseType;
 import org.eclipse.smarthome.core.library.types.QuantityType;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.transform.TransformationException;
-import org.eclipse.smarthome.core.transform.TransformationHelper;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.StateDescription;
@@ -83,7 +85,6 @@ import org.eclipse.smarthome.model.sitemap.Slider;
 import org.eclipse.smarthome.model.sitemap.Switch;
 import org.eclipse.smarthome.model.sitemap.VisibilityRule;
 import org.eclipse.smarthome.model.sitemap.Widget;
-import org.eclipse.smarthome.ui.internal.UIActivator;
 import org.eclipse.smarthome.ui.items.ItemUIProvider;
 import org.eclipse.smarthome.ui.items.ItemUIRegistry;
 import org.osgi.service.component.annotations.Component;
@@ -102,6 +103,7 @@ import org.slf4j.LoggerFactory;
  * @author Chris Jackson
  * @author Stefan Triller - Method to convert a state into something a sitemap entity can understand
  * @author Erdoan Hadzhiyusein - Adapted the class to work with the new DateTimeType
+ * @author Eclipse SmartHome - Cached label templates and transformation services
  *
  */
 @Component
@@ -122,6 +124,12 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 
     private static final Pattern LABEL_PATTERN = Pattern.compile(".*?\\[.*? (.*?)\\]");
 
+    /* The delimiter between a transformation function and the value, every transformation call contains it. */
+    private static final String TRANSFORMFUNCTION_VALUE_DELIMITER = "):";
+
+    /* The service property holding the type of a transformation service. */
+    private static final String TRANSFORMATION_TYPE_PROPERTY = "smarthome.transform";
+
     protected Set<ItemUIProvider> itemUIProviders = new HashSet<ItemUIProvider>();
 
     protected ItemRegistry itemRegistry;
@@ -130,6 +138,19 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 
     private final Map<Widget, Widget> defaultWidgets = Collections.synchronizedMap(new WeakHashMap<Widget, Widget>());
 
+    /*
+     * The compiled labels of the widgets. The widgets of a changed sitemap model are new objects, so the templates of
+     * the old widgets are dropped together with them.
+     */
+    private final Map<Widget, LabelTemplate> labelTemplates = Collections
+            .synchronizedMap(new WeakHashMap<Widget, LabelTemplate>());
+
+    /*
+     * The transformation services by their type, so they are not looked up in the service registry for every label.
+     * The first service of a type is used.
+     */
+    private final Map<String, List<TransformationService>> transformationServices = new ConcurrentHashMap<>();
+
     public ItemUIRegistryImpl() {
     }
 
@@ -160,6 +181,40 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
         this.itemBuilderFactory = null;
     }
 
+    @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+    protected void addTransformationService(TransformationService transformationService,
+            Map<String, Object> properties) {
+        Object type = properties.get(TRANSFORMATION_TYPE_PROPERTY);
+        if (type instanceof String) {
+            transformationServices.compute((String) type, (key, services) -> {
+                List<TransformationService> result = services != null ? services : new CopyOnWriteArrayList<>();
+                result.add(transformationService);
+                return result;
+            });
+        }
+    }
+
+    protected void removeTransformationService(TransformationService transformationService,
+            Map<String, Object> properties) {
+        Object type = properties.get(TRANSFORMATION_TYPE_PROPERTY);
+        if (type instanceof String) {
+            transformationServices.computeIfPresent((String) type, (key, services) -> {
+                services.remove(transformationService);
+                return services.isEmpty() ? null : services;
+            });
+        }
+    }
+
+    private TransformationService getTransformationService(String type) {
+        List<TransformationService> services = transformationServices.get(type);
+        if (services != null) {
+            for (TransformationService service : services) {
+                return service;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String getCategory(String itemName) {
         for (ItemUIProvider provider : itemUIProviders) {
@@ -318,7 +373,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
         String labelMappedOption = null;
         State state = null;
         StateDescription stateDescription = null;
-        String formatPattern = getFormatPattern(label);
+        LabelTemplate template = null;
 
         // now insert the value, if the state is a string or decimal value and there is some formatting pattern defined
         // in the label
@@ -336,38 +391,42 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
             // returned StateDescription. What is expected is the display of a value using the pattern
             // provided by the channel state description provider.
             stateDescription = item.getStateDescription();
-            if (formatPattern == null && stateDescription != null && stateDescription.getPattern() != null) {
+            if (!hasFormatPattern(label) && stateDescription != null && stateDescription.getPattern() != null) {
                 label = label + " [" + stateDescription.getPattern() + "]";
             }
 
-            String updatedPattern = getFormatPattern(label);
-            if (updatedPattern != null) {
-                formatPattern = updatedPattern;
+            template = getLabelTemplate(w, label);
+            if (template.formatPattern != null) {
                 state = item.getState();
 
-                if (formatPattern.contains("%d")) {
-                    if (!(state instanceof Number)) {
-                        // States which do not provide a Number will be converted to DecimalType.
-                        // e.g.: GroupItem can provide a count of items matching the active state
-                        // for some group functions.
-                        state = item.getStateAs(DecimalType.class);
-                    }
-
-                    // for fraction digits in state we dont want to risk format exceptions,
-                    // so treat everything as floats:
-                    formatPattern = formatPattern.replaceAll("\\%d", "%.0f");
+                if (template.integerFormat && !(state instanceof Number)) {
+                    // States which do not provide a Number will be converted to DecimalType.
+                    // e.g.: GroupItem can provide a count of items matching the active state
+                    // for some group functions.
+                    state = item.getStateAs(DecimalType.class);
                 }
             }
         } catch (ItemNotFoundException e) {
             logger.error("Cannot retrieve item for widget {}", w.eClass().getInstanceTypeName());
         }
 
-        if (formatPattern != null) {
-            if (formatPattern.isEmpty()) {
-                label = label.substring(0, label.indexOf("[")).trim();
+        if (template == null) {
+            // the item does not exist, so the value is undefined
+            template = getLabelTemplate(w, label);
+            if (template.formatPattern != null) {
+                label = template.formatPattern.isEmpty() ? template.emptyPatternLabel
+                        : template.labelPrefix + formatUndefined(template.formatPattern) + "]";
+            }
+            return transform(label, null);
+        }
+
+        if (template.formatPattern != null) {
+            if (template.formatPattern.isEmpty()) {
+                label = template.emptyPatternLabel;
             } else {
+                String formatPattern = template.valuePattern;
                 if (state == null || state instanceof UnDefType) {
-                    formatPattern = formatUndefined(formatPattern);
+                    formatPattern = template.getUndefinedValue();
                 } else if (state instanceof Type) {
                     // if the channel contains options, we build a label with the mapped option value
                     if (stateDescription != null && stateDescription.getOptions() != null) {
@@ -376,9 +435,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
                                 State stateOption = new StringType(option.getLabel());
                                 try {
                                     String formatPatternOption = stateOption.format(formatPattern);
-                                    labelMappedOption = label.trim();
-                                    labelMappedOption = labelMappedOption.substring(0,
-                                            labelMappedOption.indexOf("[") + 1) + formatPatternOption + "]";
+                                    labelMappedOption = template.labelPrefix + formatPatternOption + "]";
                                 } catch (IllegalArgumentException e) {
                                     logger.debug(
                                             "Mapping option value '{}' for item {} using format '{}' failed ({}); mapping is ignored",
@@ -395,13 +452,13 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
                         // sanity convert current state to the item state description unit in case it was updated in the
                         // meantime. The item state is still in the "original" unit while the state description will
                         // display the new unit:
-                        Unit<?> patternUnit = UnitUtils.parseUnit(formatPattern);
+                        Unit<?> patternUnit = template.patternUnit;
                         if (patternUnit != null && !quantityState.getUnit().equals(patternUnit)) {
                             quantityState = quantityState.toUnit(patternUnit);
                         }
 
                         // The widget may define its own unit in the widget label. Convert to this unit:
-                        quantityState = convertStateToWidgetUnit(quantityState, w);
+                        quantityState = convertStateToWidgetUnit(quantityState, template.widgetUnit);
                         state = quantityState;
                     }
 
@@ -410,7 +467,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
                     // Without this catch, the whole sitemap, or page can not be displayed!
                     // This also handles IllegalFormatConversionException, which is a subclass of IllegalArgument.
                     try {
-                        formatPattern = fillFormatPattern(formatPattern, state);
+                        formatPattern = template.fillFormatPattern((Type) state);
                     } catch (IllegalArgumentException e) {
                         logger.warn("Exception while formatting value '{}' of item {} with format '{}': {}", state,
                                 itemName, formatPattern, e.getMessage());
@@ -418,8 +475,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
                     }
                 }
 
-                label = label.trim();
-                label = label.substring(0, label.indexOf("[") + 1) + formatPattern + "]";
+                label = template.labelPrefix + formatPattern + "]";
             }
         }
 
@@ -427,7 +483,10 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
     }
 
     private QuantityType<?> convertStateToWidgetUnit(QuantityType<?> quantityState, @NonNull Widget w) {
-        Unit<?> widgetUnit = UnitUtils.parseUnit(getFormatPattern(w.getLabel()));
+        return convertStateToWidgetUnit(quantityState, UnitUtils.parseUnit(getFormatPattern(w.getLabel())));
+    }
+
+    private QuantityType<?> convertStateToWidgetUnit(QuantityType<?> quantityState, Unit<?> widgetUnit) {
         if (widgetUnit != null && !widgetUnit.equals(quantityState.getUnit())) {
             return quantityState.toUnit(widgetUnit);
         }
@@ -435,6 +494,20 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
         return quantityState;
     }
 
+    private LabelTemplate getLabelTemplate(Widget w, String label) {
+        String widgetLabel = w.getLabel();
+        LabelTemplate template = labelTemplates.get(w);
+        if (template == null || !template.label.equals(label) || !Objects.equals(template.widgetLabel, widgetLabel)) {
+            template = new LabelTemplate(label, widgetLabel);
+            labelTemplates.put(w, template);
+        }
+        return template;
+    }
+
+    private boolean hasFormatPattern(String label) {
+        return getFormatPattern(label) != null;
+    }
+
     private String getFormatPattern(String label) {
         if (label == null) {
             return null;
@@ -500,14 +573,13 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
      */
     private String transform(String label, String labelMappedOption) {
         String ret = label;
-        if (getFormatPattern(label) != null) {
+        if (label.contains(TRANSFORMFUNCTION_VALUE_DELIMITER) && hasFormatPattern(label)) {
             Matcher matcher = EXTRACT_TRANSFORMFUNCTION_PATTERN.matcher(label);
             if (matcher.find()) {
                 String type = matcher.group(1);
                 String pattern = matcher.group(2);
                 String value = matcher.group(3);
-                TransformationService transformation = TransformationHelper
-                        .getTransformationService(UIActivator.getContext(), type);
+                TransformationService transformation = getTransformationService(type);
                 if (transformation != null) {
                     try {
                         String transformationResult = transformation.transform(pattern, value);
@@ -531,22 +603,8 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
             } else if (labelMappedOption != null) {
                 ret = labelMappedOption;
             }
-        }
-        return ret;
-    }
-
-    private String fillFormatPattern(String formatPattern, Type state) throws IllegalArgumentException {
-        String ret = formatPattern;
-        if (ret != null && state != null) {
-            Matcher matcher = EXTRACT_TRANSFORMFUNCTION_PATTERN_WITHOUT_SQUARE_BRACKETS.matcher(ret);
-            if (matcher.find()) {
-                String type = matcher.group(1);
-                String pattern = matcher.group(2);
-                String value = matcher.group(3);
-                ret = type + "(" + pattern + "):" + state.format(value);
-            } else {
-                ret = state.format(formatPattern);
-            }
+        } else if (labelMappedOption != null && hasFormatPattern(label)) {
+            ret = labelMappedOption;
         }
         return ret;
     }
@@ -1366,4 +1424,98 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
         }
     }
 
+    /**
+     * A label with its format pattern, compiled for rendering states into the label.
+     *
+     * The template is derived from the label of a widget, possibly completed by the pattern of the state description.
+     * It is reused as long as the label and the widget label do not change.
+     */
+    private class LabelTemplate {
+        final String label;
+        final String widgetLabel;
+
+        /* the format pattern within the square brackets, null if the label has no format pattern */
+        final String formatPattern;
+        /* true if the format pattern contains an integer conversion */
+        final boolean integerFormat;
+        /* the format pattern with integer conversions replaced by float conversions */
+        final String valuePattern;
+        /* the label up to and including the opening bracket */
+        final String labelPrefix;
+        /* the label without the brackets, used for an empty format pattern */
+        final String emptyPatternLabel;
+        final Unit<?> patternUnit;
+        final Unit<?> widgetUnit;
+
+        /* the transformation call of the format pattern, e.g. MAP(en.map):%s */
+        final String transformationType;
+        final String transformationFunction;
+        final String transformationValueFormat;
+
+        private volatile String undefinedValue;
+
+        LabelTemplate(String label, String widgetLabel) {
+            this.label = label;
+            this.widgetLabel = widgetLabel;
+            this.formatPattern = getFormatPattern(label);
+            this.widgetUnit = UnitUtils.parseUnit(getFormatPattern(widgetLabel));
+
+            String pattern = formatPattern;
+            if (pattern == null) {
+                integerFormat = false;
+                valuePattern = null;
+                labelPrefix = null;
+                emptyPatternLabel = null;
+                patternUnit = null;
+                transformationType = null;
+                transformationFunction = null;
+                transformationValueFormat = null;
+                return;
+            }
+
+            integerFormat = pattern.contains("%d");
+            // for fraction digits in state we dont want to risk format exceptions,
+            // so treat everything as floats:
+            valuePattern = integerFormat ? pattern.replaceAll("\\%d", "%.0f") : pattern;
+            String trimmedLabel = label.trim();
+            labelPrefix = trimmedLabel.substring(0, trimmedLabel.indexOf("[") + 1);
+            emptyPatternLabel = label.substring(0, label.indexOf("[")).trim();
+            patternUnit = UnitUtils.parseUnit(valuePattern);
+
+            Matcher matcher = EXTRACT_TRANSFORMFUNCTION_PATTERN_WITHOUT_SQUARE_BRACKETS.matcher(valuePattern);
+            if (matcher.find()) {
+                transformationType = matcher.group(1);
+                transformationFunction = matcher.group(2);
+                transformationValueFormat = matcher.group(3);
+            } else {
+                transformationType = null;
+                transformationFunction = null;
+                transformationValueFormat = null;
+            }
+        }
+
+        /**
+         * Returns the value pattern formatted for an undefined state.
+         */
+        String getUndefinedValue() {
+            String value = undefinedValue;
+            if (value == null) {
+                value = formatUndefined(valuePattern);
+                undefinedValue = value;
+            }
+            return value;
+        }
+
+        /**
+         * Formats the state with the value pattern. A transformation call is kept and only its value is formatted.
+         */
+        String fillFormatPattern(Type state) throws IllegalArgumentException {
+            if (transformationType != null) {
+                return transformationType + "(" + transformationFunction + "):"
+                        + state.format(transformationValueFormat);
+            }
+            return state.format(valuePattern);
+        }
+    }
+
 }
@@ -27,6 +27,7 @@ import org.eclipse.smarthome.binding.mqtt.internal.ssl.PinType;
 import org.eclipse.smarthome.binding.mqtt.internal.ssl.PinnedCallback;
 import org.eclipse.smarthome.binding.mqtt.internal.ssl.PinningSSLContextProvider;
 import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
@@ -44,9 +45,12 @@ import org.slf4j.LoggerFactory;
  * connection to the {@link MqttService}.
  *
  * @author David Graeff - Initial contribution
+ * @author Eclipse SmartHome - Process received messages on a thread pool if configured
  */
 @NonNullByDefault
 public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallback {
+    private static final String INBOUND_THREAD_POOL_NAME = "mqtt";
+
     private final Logger logger = LoggerFactory.getLogger(BrokerHandler.class);
     protected BrokerHandlerConfig config = new BrokerHandlerConfig();
 
@@ -211,6 +215,10 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
         if (config.timeoutInMs != null) {
             connection.setTimeoutExecutor(scheduler, TIMEOUT_DEFAULT);
         }
+        final Integer inboundQueueSize = config.inboundQueueSize;
+        if (inboundQueueSize != null && inboundQueueSize > 0) {
+            connection.setInboundExecutor(ThreadPoolManager.getPool(INBOUND_THREAD_POOL_NAME), inboundQueueSize);
+        }
 
         connection.setRetain(config.retainMessages);
 
@@ -27,6 +27,8 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnectionConfig;
 public class BrokerHandlerConfig extends MqttBrokerConnectionConfig {
     public @Nullable Integer reconnectTime;
     public @Nullable Integer timeoutInMs;
+    // Received messages are processed on a thread pool, if a queue size is given
+    public @Nullable Integer inboundQueueSize;
 
     // For more security, the following optional parameters can be altered
 
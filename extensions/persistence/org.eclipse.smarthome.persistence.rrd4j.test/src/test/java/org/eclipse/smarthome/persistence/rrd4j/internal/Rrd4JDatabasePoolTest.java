@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+
+/**
+ * Tests for the {@link Rrd4JDatabasePool}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class Rrd4JDatabasePoolTest {
+
+    private static final int THREADS = 8;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentAcquireOpensDatabaseOnce() throws Exception {
+        Rrd4JDatabasePool pool = new Rrd4JDatabasePool(10, this::open);
+        Path path = path("item");
+        Set<RrdDb> databases = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    try (Rrd4JDatabasePool.Handle handle = pool.acquire(path, true)) {
+                        databases.add(handle.getDb());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(opened.get(), is(1));
+        assertThat(databases.size(), is(1));
+        pool.close();
+        assertThat(databases.iterator().next().isClosed(), is(true));
+    }
+
+    @Test
+    public void testEvictionKeepsDatabasesInUse() throws IOException {
+        Rrd4JDatabasePool pool = new Rrd4JDatabasePool(1, this::open);
+        try (Rrd4JDatabasePool.Handle inUse = pool.acquire(path("inUse"), true)) {
+            RrdDb first;
+            try (Rrd4JDatabasePool.Handle handle = pool.acquire(path("first"), true)) {
+                first = handle.getDb();
+            }
+            RrdDb second;
+            try (Rrd4JDatabasePool.Handle handle = pool.acquire(path("second"), true)) {
+                second = handle.getDb();
+            }
+
+            assertThat(inUse.getDb().isClosed(), is(false));
+            assertThat(first.isClosed(), is(true));
+            assertThat(second.isClosed(), is(true));
+        }
+
+        // the released database is kept open within the capacity
+        try (Rrd4JDatabasePool.Handle handle = pool.acquire(path("inUse"), false)) {
+            assertThat(handle.getDb().isClosed(), is(false));
+        }
+        assertThat(opened.get(), is(3));
+        pool.close();
+    }
+
+    @Test
+    public void testDeleteClosesDatabaseBeforeDeletingFile() throws IOException {
+        Rrd4JDatabasePool pool = new Rrd4JDatabasePool(10, this::open);
+        Path path = path("item");
+        RrdDb db;
+        try (Rrd4JDatabasePool.Handle handle = pool.acquire(path, true)) {
+            db = handle.getDb();
+        }
+
+        assertThat(pool.delete(path), is(true));
+        assertThat(db.isClosed(), is(true));
+        assertThat(Files.exists(path), is(false));
+        assertThat(pool.delete(path), is(false));
+        try {
+            pool.acquire(path, false);
+            fail("The deleted database has been acquired");
+        } catch (NoSuchFileException e) {
+            // expected
+        }
+        pool.close();
+    }
+
+    @Test
+    public void testDeleteWaitsForDatabaseInUse() throws Exception {
+        Rrd4JDatabasePool pool = new Rrd4JDatabasePool(10, this::open);
+        Path path = path("item");
+        Rrd4JDatabasePool.Handle handle = pool.acquire(path, true);
+        Future<Boolean> deleted = executor.submit(() -> pool.delete(path));
+        try {
+            deleted.get(200, TimeUnit.MILLISECONDS);
+            fail("The database has been deleted while it was in use");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertThat(handle.getDb().isClosed(), is(false));
+        assertThat(Files.exists(path), is(true));
+
+        handle.close();
+
+        assertThat(deleted.get(10, TimeUnit.SECONDS), is(true));
+        assertThat(handle.getDb().isClosed(), is(true));
+        assertThat(Files.exists(path), is(false));
+        pool.close();
+    }
+
+    @Test
+    public void testReplacedFileIsReopened() throws IOException {
+        Rrd4JDatabasePool pool = new Rrd4JDatabasePool(10, this::open);
+        Path path = path("item");
+        RrdDb db;
+        try (Rrd4JDatabasePool.Handle handle = pool.acquire(path, true)) {
+            db = handle.getDb();
+        }
+        Path replacement = path("replacement");
+        open(replacement).close();
+        Files.move(replacement, path, StandardCopyOption.REPLACE_EXISTING);
+
+        try (Rrd4JDatabasePool.Handle handle = pool.acquire(path, false)) {
+            assertThat(handle.getDb(), is(not(sameInstance(db))));
+        }
+        assertThat(db.isClosed(), is(true));
+        pool.close();
+    }
+
+    private Path path(String name) {
+        return folder.getRoot().toPath().resolve(name + ".rrd");
+    }
+
+    private RrdDb open(Path path) throws IOException {
+        opened.incrementAndGet();
+        if (Files.exists(path)) {
+            return new RrdDb(path.toString());
+        }
+        RrdDef def = new RrdDef(path.toString(), 1);
+        def.addDatasource("state", DsType.GAUGE, 60, Double.NaN, Double.NaN);
+        def.addArchive(ConsolFun.AVERAGE, .5, 1, 60);
+        return new RrdDb(def);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.persistence.rrd4j.internal;
+
+import static org.eclipse.smarthome.persistence.rrd4j.internal.Rrd4JDatabaseUtil.databasePath;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.eclipse.smarthome.core.library.items.NumberItem;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rrd4j.core.RrdDb;
+
+/**
+ * Tests for the batched writes of the {@link Rrd4JPersistenceService}.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+public class Rrd4JPersistenceServiceTest {
+
+    private static final String ITEM_NAME = "Rrd4JPersistenceServiceTest_Item";
+
+    private final Rrd4JPersistenceService service = new Rrd4JPersistenceService();
+
+    @Before
+    public void setUp() throws IOException {
+        Files.deleteIfExists(databasePath(ITEM_NAME));
+        service.activate();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(databasePath(ITEM_NAME));
+    }
+
+    @Test
+    public void testDeactivateWritesPendingValues() throws IOException {
+        service.store(item(42));
+
+        service.deactivate();
+
+        try (RrdDb db = new RrdDb(databasePath(ITEM_NAME).toString(), true)) {
+            assertThat(db.getLastDatasourceValue("state"), is(42.0));
+        }
+    }
+
+    @Test
+    public void testDeleteDatabaseDiscardsPendingValues() throws IOException {
+        service.store(item(42));
+
+        assertThat(service.deleteDatabase(ITEM_NAME), is(false));
+        service.deactivate();
+
+        assertThat(Files.exists(databasePath(ITEM_NAME)), is(false));
+    }
+
+    @Test
+    public void testDeleteDatabaseClosesDatabase() throws IOException {
+        service.store(item(42));
+        service.deactivate();
+        Rrd4JPersistenceService reactivated = new Rrd4JPersistenceService();
+        reactivated.activate();
+        reactivated.store(item(43));
+        // opens the database in the pool
+        assertThat(reactivated.getItemInfo().isEmpty(), is(false));
+
+        assertThat(reactivated.deleteDatabase(ITEM_NAME), is(true));
+
+        assertThat(Files.exists(databasePath(ITEM_NAME)), is(false));
+        reactivated.deactivate();
+        assertThat(Files.exists(databasePath(ITEM_NAME)), is(false));
+    }
+
+    private NumberItem item(int value) {
+        NumberItem item = new NumberItem(ITEM_NAME);
+        item.setState(new DecimalType(value));
+        return item;
+    }
+}
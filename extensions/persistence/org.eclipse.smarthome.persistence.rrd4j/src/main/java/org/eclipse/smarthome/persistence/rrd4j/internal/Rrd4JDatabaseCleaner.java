@@ -12,15 +12,12 @@
  */
 package org.eclipse.smarthome.persistence.rrd4j.internal;
 
-import static java.nio.file.Files.deleteIfExists;
 import static java.util.Collections.singleton;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.smarthome.persistence.rrd4j.internal.Rrd4JConstants.SERVICE_NAME;
-import static org.eclipse.smarthome.persistence.rrd4j.internal.Rrd4JDatabaseUtil.databasePath;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
@@ -55,6 +52,9 @@ public class Rrd4JDatabaseCleaner implements EventSubscriber {
     @NonNullByDefault({})
     private ItemRegistry items;
 
+    @NonNullByDefault({})
+    private Rrd4JPersistenceService persistenceService;
+
     @Reference
     protected void setItemRegistry(ItemRegistry items) {
         this.items = items;
@@ -64,6 +64,15 @@ public class Rrd4JDatabaseCleaner implements EventSubscriber {
         this.items = null;
     }
 
+    @Reference
+    protected void setPersistenceService(Rrd4JPersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+    }
+
+    protected void unsetPersistenceService(Rrd4JPersistenceService persistenceService) {
+        this.persistenceService = null;
+    }
+
     protected void activate(Map<String, String> properties) {
         if (properties == null) return;
         enabled = Boolean.parseBoolean(properties.get(Configuration.enabled));
@@ -107,11 +116,10 @@ public class Rrd4JDatabaseCleaner implements EventSubscriber {
         // if the Item has reappeared, keep its data around
         if (item != null) return;
         // otherwise delete the associated database file
-        Path path = databasePath(name);
         try {
-            deleteIfExists(path);
+            persistenceService.deleteDatabase(name);
         } catch (IOException e) {
-            logger.warn("Failed to delete database '{}'({}): {}", path, name, e);
+            logger.warn("Failed to delete database of '{}': {}", name, e);
         }
     }
 
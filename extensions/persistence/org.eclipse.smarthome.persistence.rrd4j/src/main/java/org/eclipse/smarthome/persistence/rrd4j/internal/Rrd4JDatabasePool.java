@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of open {@link RrdDb}s.
+ *
+ * The databases are kept open after they have been released. If more databases than the capacity are open, the least
+ * recently used ones that are not in use are closed. There is at most one open database per file, so the databases can
+ * be shared by readers and writers, which are synchronized by the database itself. The files are opened outside of the
+ * lock of the pool.
+ *
+ * The databases should be deleted through the pool, which closes them before their files are deleted. A database whose
+ * file has changed anyway, e.g. because it has been replaced by the REST resource, is not handed out anymore and is
+ * closed as soon as it is not in use.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@NonNullByDefault
+class Rrd4JDatabasePool {
+
+    @FunctionalInterface
+    interface Opener {
+        RrdDb open(Path path) throws IOException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(Rrd4JDatabasePool.class);
+
+    private final int capacity;
+    private final Opener opener;
+
+    // in access order, the least recently used database first
+    private final Map<Path, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+    // path -> completed as soon as the database that is currently opened is available
+    private final Map<Path, CompletableFuture<@Nullable Void>> opening = new HashMap<>();
+    private boolean closed = false;
+
+    Rrd4JDatabasePool(int capacity, Opener opener) {
+        this.capacity = capacity;
+        this.opener = opener;
+    }
+
+    /**
+     * Acquire the database of a file. The database must be released by closing the returned handle.
+     *
+     * The database file is opened without holding the lock of the pool, so other databases can be acquired in the
+     * meantime.
+     *
+     * @param path the path of the database file
+     * @param create true if the database should be created if the file does not exist
+     * @return the handle of the database
+     * @throws IOException if the database could not be opened or the pool has been closed
+     */
+    Handle acquire(Path path, boolean create) throws IOException {
+        while (true) {
+            Object fileKey = fileKey(path);
+            CompletableFuture<@Nullable Void> opened;
+            boolean openByThisThread = false;
+            synchronized (this) {
+                checkOpen();
+                Handle handle = handles.get(path);
+                if (handle != null && (fileKey == null || !Objects.equals(fileKey, handle.fileKey))) {
+                    // the file has been deleted or replaced in the meantime
+                    handles.remove(path);
+                    handle.stale = true;
+                    if (handle.users == 0) {
+                        closeDatabase(handle);
+                    }
+                    handle = null;
+                }
+                if (handle != null) {
+                    handle.users++;
+                    return handle;
+                }
+                opened = opening.get(path);
+                if (opened == null) {
+                    if (!create && fileKey == null) {
+                        throw new NoSuchFileException(path.toString());
+                    }
+                    // this thread opens the database, others wait for it
+                    opened = new CompletableFuture<>();
+                    opening.put(path, opened);
+                    openByThisThread = true;
+                }
+            }
+            if (openByThisThread) {
+                return open(path, fileKey, opened);
+            }
+            // another thread is opening the database, try again as soon as it is done
+            opened.join();
+        }
+    }
+
+    private Handle open(Path path, @Nullable Object fileKey, CompletableFuture<@Nullable Void> opened)
+            throws IOException {
+        try {
+            RrdDb db = opener.open(path);
+            Handle handle = new Handle(path, db, fileKey != null ? fileKey : fileKey(path));
+            synchronized (this) {
+                if (closed) {
+                    closeDatabase(handle);
+                }
+                checkOpen();
+                handles.put(path, handle);
+                handle.users++;
+                evict();
+            }
+            return handle;
+        } finally {
+            synchronized (this) {
+                opening.remove(path);
+            }
+            opened.complete(null);
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The database pool has been closed");
+        }
+    }
+
+    private synchronized void release(Handle handle) {
+        handle.users--;
+        if (handle.stale) {
+            if (handle.users == 0) {
+                closeDatabase(handle);
+                // a deletion may wait for the database to be closed
+                notifyAll();
+            }
+        } else if (handles.size() > capacity) {
+            evict();
+        }
+    }
+
+    private static @Nullable Object fileKey(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            // the file key identifies the file on most platforms, otherwise fall back to the creation time
+            Object fileKey = attributes.fileKey();
+            return fileKey != null ? fileKey : attributes.creationTime();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void evict() {
+        Iterator<Handle> iterator = handles.values().iterator();
+        while (handles.size() > capacity && iterator.hasNext()) {
+            Handle handle = iterator.next();
+            if (handle.users == 0) {
+                iterator.remove();
+                closeDatabase(handle);
+            }
+        }
+    }
+
+    /**
+     * Delete the file of a database. If the database is open, it is closed before the file is deleted. If it is in use,
+     * the deletion waits until it has been released.
+     *
+     * @param path the path of the database file
+     * @return true if the file has been deleted, false if it did not exist
+     * @throws IOException if the file could not be deleted
+     */
+    boolean delete(Path path) throws IOException {
+        synchronized (this) {
+            Handle handle = handles.remove(path);
+            if (handle != null) {
+                handle.stale = true;
+                try {
+                    while (handle.users > 0) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for database '" + path + "'");
+                }
+                if (!handle.db.isClosed()) {
+                    closeDatabase(handle);
+                }
+            }
+        }
+        return Files.deleteIfExists(path);
+    }
+
+    /**
+     * Close all databases. The pool does not hand out databases anymore afterwards.
+     */
+    synchronized void close() {
+        closed = true;
+        handles.values().forEach(this::closeDatabase);
+        handles.clear();
+    }
+
+    private void closeDatabase(Handle handle) {
+        try {
+            handle.db.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close database '{}': {}", handle.path, e);
+        }
+    }
+
+    /**
+     * An acquired database.
+     */
+    class Handle implements AutoCloseable {
+        private final Path path;
+        private final RrdDb db;
+        private final @Nullable Object fileKey;
+        private int users;
+        private boolean stale;
+
+        private Handle(Path path, RrdDb db, @Nullable Object fileKey) {
+            this.path = path;
+            this.db = db;
+            this.fileKey = fileKey;
+        }
+
+        RrdDb getDb() {
+            return db;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -50,6 +50,7 @@ import javax.ws.rs.core.UriInfo;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +73,18 @@ public class Rrd4JDatabaseResource implements RESTResource {
     @Context
     UriInfo uriInfo;
 
+    @NonNullByDefault({})
+    private Rrd4JPersistenceService persistenceService;
+
+    @Reference
+    protected void setPersistenceService(Rrd4JPersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+    }
+
+    protected void unsetPersistenceService(Rrd4JPersistenceService persistenceService) {
+        this.persistenceService = null;
+    }
+
     @RolesAllowed({ USER, ADMIN })
     @GET
     @Produces(TEXT_PLAIN)
@@ -139,6 +152,8 @@ public class Rrd4JDatabaseResource implements RESTResource {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
                 java.nio.file.Path path = databasePath(entry.getName());
+                // close the database before its file is replaced
+                persistenceService.deleteDatabase(entry.getName());
                 Files.copy(zip, path, REPLACE_EXISTING);
             }
             return Response.ok().build();
@@ -155,7 +170,7 @@ public class Rrd4JDatabaseResource implements RESTResource {
     public Response deleteDatabases() throws IOException {
         try (DirectoryStream<java.nio.file.Path> paths = databasePaths()) {
             for (java.nio.file.Path path : paths) {
-            	Files.deleteIfExists(path);
+                persistenceService.deleteDatabase(itemName(path));
             }
         }
         return Response.ok().build();
@@ -200,8 +215,7 @@ public class Rrd4JDatabaseResource implements RESTResource {
     @ApiResponses(@ApiResponse(code = 200, message = "OK"))
     public Response deleteDatabase(@PathParam("itemName") @ApiParam(value = "item name", required = true) String itemName) throws IOException {
         logger.debug("Received HTTP DELETE request at '{}'", uriInfo.getPath());
-        java.nio.file.Path path = databasePath(itemName);
-        Files.deleteIfExists(path);
+        persistenceService.deleteDatabase(itemName);
         return Response.ok().build();
     }
 }
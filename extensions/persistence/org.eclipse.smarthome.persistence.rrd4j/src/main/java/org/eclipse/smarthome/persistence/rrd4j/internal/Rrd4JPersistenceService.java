@@ -14,6 +14,7 @@ package org.eclipse.smarthome.persistence.rrd4j.internal;
 
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Double.NaN;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering.ASCENDING;
 import static org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering.DESCENDING;
@@ -30,18 +31,25 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemStateConverter;
@@ -72,10 +80,16 @@ import org.slf4j.LoggerFactory;
  * To learn more about RRD4J please visit
  * <a href="https://github.com/rrd4j/rrd4j">their website</a>.
  *
+ * The databases are kept open in a {@link Rrd4JDatabasePool}. The stored values are collected per database and
+ * written in batches. Queries do not wait for the pending values to be written: the latest value is taken from the
+ * pending values if there are any, a query of a time range does not contain the pending values yet. The databases are
+ * deleted through {@link #deleteDatabase(String)}, which closes them before their files are deleted.
+ *
  * @author Martin Kühl - Initial contribution
+ * @author Eclipse SmartHome - Pooled databases and batched writes
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class, Rrd4JPersistenceService.class })
 public class Rrd4JPersistenceService implements QueryablePersistenceService {
     private static final String DATASOURCE_NAME = "state";
     private static final DsDef DATASOURCE = new DsDef(DATASOURCE_NAME, GAUGE, 60, NaN, NaN);
@@ -89,8 +103,18 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
         new ArcDef(AVERAGE, .5, 86400, 1825) //  1d over  5y
     };
 
+    private static final int MAX_OPEN_DATABASES = 100;
+    private static final long WRITE_DELAY_MILLIS = 1000;
+
 	private final Logger logger = LoggerFactory.getLogger(Rrd4JPersistenceService.class);
 
+    private final Rrd4JDatabasePool databases = new Rrd4JDatabasePool(MAX_OPEN_DATABASES, this::open);
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(SERVICE_NAME);
+
+    // alias -> values that have not been written yet, guarded by itself
+    private final Map<String, List<PendingValue>> pendingValues = new HashMap<>();
+    private @Nullable ScheduledFuture<?> writeJob;
+
     @NonNullByDefault({})
     private ItemRegistry itemRegistry;
     @NonNullByDefault({})
@@ -106,6 +130,16 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
     }
 
     public void deactivate() {
+        ScheduledFuture<?> writeJob;
+        synchronized (pendingValues) {
+            writeJob = this.writeJob;
+            this.writeJob = null;
+        }
+        if (writeJob != null) {
+            writeJob.cancel(false);
+        }
+        writeAllPendingValues();
+        databases.close();
     }
 
     @Reference
@@ -148,28 +182,86 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
             alias = item.getName();
         }
         long time = Util.getTime();
-        Path path = databasePath(alias);
-        try (RrdDb db = write(path)) {
-            double value = value(item, alias);
-            // if the db timestamp is too recent, pretend that we're from the future
-            long lastTime = db.getLastUpdateTime();
-            if (time <= lastTime) {
-                time = lastTime + 1;
+        double value = value(item, alias);
+        synchronized (pendingValues) {
+            pendingValues.computeIfAbsent(alias, key -> new ArrayList<>()).add(new PendingValue(time, value));
+            if (writeJob == null) {
+                writeJob = scheduler.schedule(this::writeAllPendingValues, WRITE_DELAY_MILLIS, MILLISECONDS);
             }
-            ConsolFun function = consolidationFunction(db);
-            // if more than one second has passed, repeat the last value
-            // this ensures that queries starting in between them see it
-            if (time > lastTime + 1 && isIdempotent(function)) {
-                double lastValue = db.getLastDatasourceValue(DATASOURCE_NAME);
-                insert(db, time - 1, lastValue);
+        }
+    }
+
+    private void writeAllPendingValues() {
+        Set<String> aliases;
+        synchronized (pendingValues) {
+            aliases = new HashSet<>(pendingValues.keySet());
+            writeJob = null;
+        }
+        for (String alias : aliases) {
+            writePendingValues(alias);
+        }
+    }
+
+    private void writePendingValues(String alias) {
+        synchronized (pendingValues) {
+            if (!pendingValues.containsKey(alias)) {
+                return;
+            }
+        }
+        Path path = databasePath(alias);
+        try (Rrd4JDatabasePool.Handle handle = databases.acquire(path, true)) {
+            RrdDb db = handle.getDb();
+            // the values are taken while holding the lock of the handle, so they are written in order; the database
+            // itself is only locked per sample, so queries do not wait for the whole batch
+            synchronized (handle) {
+                List<PendingValue> values;
+                synchronized (pendingValues) {
+                    values = pendingValues.remove(alias);
+                }
+                if (values == null) {
+                    return;
+                }
+                for (PendingValue value : values) {
+                    insert(db, value.time, value.value);
+                }
             }
-            // store the new value
-            insert(db, time, value);
         } catch (IOException e) {
-            logger.warn("Failed to store '{}'({}): {}", alias, item, e);
+            logger.warn("Failed to store '{}': {}", alias, e);
         }
     }
 
+    /**
+     * Delete the database of an item. The database is closed before its file is deleted, values of the item that have
+     * not been written yet are discarded.
+     *
+     * @param name the name of the item
+     * @return true if the database has been deleted, false if it did not exist
+     * @throws IOException if the database could not be deleted
+     */
+    boolean deleteDatabase(String name) throws IOException {
+        synchronized (pendingValues) {
+            pendingValues.remove(name);
+        }
+        return databases.delete(databasePath(name));
+    }
+
+    private void insert(RrdDb db, long time, double value) throws IOException {
+        // if the db timestamp is too recent, pretend that we're from the future
+        long lastTime = db.getLastUpdateTime();
+        if (time <= lastTime) {
+            time = lastTime + 1;
+        }
+        ConsolFun function = consolidationFunction(db);
+        // if more than one second has passed, repeat the last value
+        // this ensures that queries starting in between them see it
+        if (time > lastTime + 1 && isIdempotent(function)) {
+            double lastValue = db.getLastDatasourceValue(DATASOURCE_NAME);
+            update(db, time - 1, lastValue);
+        }
+        // store the new value
+        update(db, time, value);
+    }
+
     private boolean isIdempotent(ConsolFun function) {
         switch (function) {
             case AVERAGE:
@@ -202,7 +294,8 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
 
     private PersistenceItemInfo itemInfo(Path path) throws IOException {
         String name = itemName(path);
-        try (RrdDb db = read(path)) {
+        try (Rrd4JDatabasePool.Handle handle = databases.acquire(path, false)) {
+            RrdDb db = handle.getDb();
             Archive archive = archive(db);
             long startTime = archive.getStartTime();
             long endTime = archive.getEndTime();
@@ -247,8 +340,20 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
     }
 
     private Iterable<HistoricItem> queryLatest(String itemName) throws IOException {
+        PendingValue pendingValue = null;
+        synchronized (pendingValues) {
+            List<PendingValue> values = pendingValues.get(itemName);
+            if (values != null) {
+                pendingValue = values.get(values.size() - 1);
+            }
+        }
+        if (pendingValue != null) {
+            return streamOptional(convertToHistoric(itemName, pendingValue.value, pendingValue.time))
+                    .collect(toList());
+        }
         Path path = databasePath(itemName);
-        try (RrdDb db = read(path)) {
+        try (Rrd4JDatabasePool.Handle handle = databases.acquire(path, false)) {
+            RrdDb db = handle.getDb();
             double value = db.getLastDatasourceValue(DATASOURCE_NAME);
             long time = db.getLastArchiveUpdateTime();
             Optional<HistoricItem> item = convertToHistoric(itemName, value, time);
@@ -260,7 +365,8 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
     private Iterable<HistoricItem> queryFilter(FilterCriteria filter) throws IOException {
         String itemName = filter.getItemName();
         Path path = databasePath(itemName);
-        try (RrdDb db = read(path)) {
+        try (Rrd4JDatabasePool.Handle handle = databases.acquire(path, false)) {
+            RrdDb db = handle.getDb();
             ConsolFun function = consolidationFunction(db);
             long beginTime = timestamp(filter.getBeginDateZoned());
             long endTime = timestamp(filter.getEndDateZoned());
@@ -321,17 +427,13 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
         return archive(db).getConsolFun();
     }
 
-    private void insert(RrdDb db, long time, double value) throws IOException {
+    private void update(RrdDb db, long time, double value) throws IOException {
         Sample sample = db.createSample(time);
         sample.setValue(DATASOURCE_NAME, value);
         sample.update();
     }
 
-    private RrdDb read(Path path) throws IOException {
-        return new RrdDb(path.toString(), true);
-    }
-
-    private RrdDb write(Path path) throws IOException {
+    private RrdDb open(Path path) throws IOException {
         if (Files.exists(path)) {
             return new RrdDb(path.toString());
         }
@@ -347,4 +449,14 @@ public class Rrd4JPersistenceService implements QueryablePersistenceService {
         }
         return Stream.of(opt.get());
     }
+
+    private static class PendingValue {
+        private final long time;
+        private final double value;
+
+        PendingValue(long time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
 }
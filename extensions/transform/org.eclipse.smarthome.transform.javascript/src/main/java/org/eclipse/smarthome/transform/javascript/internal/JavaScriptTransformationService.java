@@ -12,20 +12,21 @@
  */
 package org.eclipse.smarthome.transform.javascript.internal;
 
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.transform.AbstractFileTransformationService;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Component;
@@ -36,11 +37,19 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by Java Script.
  *
+ * The scripts are compiled once by a shared script engine and cached until their files are modified. Each
+ * transformation is evaluated with its own bindings.
+ *
  * @author Pauli Anttila
+ * @author Eclipse SmartHome - Cache compiled scripts
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=JS" })
-public class JavaScriptTransformationService implements TransformationService {
+@Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=JS" })
+public class JavaScriptTransformationService extends AbstractFileTransformationService<CompiledScript> {
+
+    private final Logger logger = LoggerFactory.getLogger(JavaScriptTransformationService.class);
+
+    private @Nullable ScriptEngine engine;
 
     /**
      * Transforms the input <code>source</code> by Java Script. It expects the
@@ -55,38 +64,28 @@ public class JavaScriptTransformationService implements TransformationService {
      */
     @Override
     public @Nullable String transform(String filename, String source) throws TransformationException {
-        Logger logger = LoggerFactory.getLogger(JavaScriptTransformationService.class);
         if (filename == null || source == null) {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
         logger.debug("about to transform '{}' by the Java Script '{}'", source, filename);
 
-        Reader reader;
-
-        try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            reader = new InputStreamReader(new FileInputStream(path));
-        } catch (FileNotFoundException e) {
-            throw new TransformationException("An error occurred while loading script.", e);
-        }
-
-        ScriptEngineManager manager = new ScriptEngineManager();
-
-        ScriptEngine engine = manager.getEngineByName("javascript");
-        engine.put("input", source);
+        // unlike the other file based transformations, a failing script is reported to the caller
+        return internalTransform(getCachedTransform(filename), source);
+    }
 
+    @Override
+    protected String internalTransform(CompiledScript script, String source) throws TransformationException {
         Object result = null;
 
         long startTime = System.currentTimeMillis();
 
         try {
-            result = engine.eval(reader);
+            Bindings bindings = script.getEngine().createBindings();
+            bindings.put("input", source);
+            result = script.eval(bindings);
         } catch (ScriptException e) {
             throw new TransformationException("An error occurred while executing script.", e);
-        } finally {
-            IOUtils.closeQuietly(reader);
         }
 
         logger.trace("JavaScript execution elapsed {} ms", System.currentTimeMillis() - startTime);
@@ -94,4 +93,27 @@ public class JavaScriptTransformationService implements TransformationService {
         return String.valueOf(result);
     }
 
+    @Override
+    protected CompiledScript internalLoadTransform(String filename) throws TransformationException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(filename))) {
+            return ((Compilable) getEngine()).compile(reader);
+        } catch (IOException e) {
+            throw new TransformationException("An error occurred while loading script.", e);
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occurred while compiling script.", e);
+        }
+    }
+
+    private synchronized ScriptEngine getEngine() throws TransformationException {
+        ScriptEngine engine = this.engine;
+        if (engine == null) {
+            engine = new ScriptEngineManager().getEngineByName("javascript");
+            if (!(engine instanceof Compilable)) {
+                throw new TransformationException("No Java Script engine which supports compilation is available.");
+            }
+            this.engine = engine;
+        }
+        return engine;
+    }
+
 }
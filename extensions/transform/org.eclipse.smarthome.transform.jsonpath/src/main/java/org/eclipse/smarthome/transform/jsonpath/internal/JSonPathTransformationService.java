@@ -18,6 +18,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.eclipse.smarthome.core.transform.internal.CompiledFunctionCache;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
@@ -32,8 +33,12 @@ import com.jayway.jsonpath.PathNotFoundException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
  *
+ * <p>
+ * The compiled JSonPath Expressions are cached.
+ *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
+ * @author Eclipse SmartHome - Cache compiled expressions
  *
  */
 @NonNullByDefault
@@ -42,6 +47,9 @@ public class JSonPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    /* JSonPath of the transformation -> compiled path */
+    private final CompiledFunctionCache<JsonPath> compiledPaths = new CompiledFunctionCache<>();
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -59,7 +67,8 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            JsonPath jsonPath = compiledPaths.get(jsonPathExpression, path -> JsonPath.compile(path));
+            Object transformationResult = jsonPath.read(source);
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
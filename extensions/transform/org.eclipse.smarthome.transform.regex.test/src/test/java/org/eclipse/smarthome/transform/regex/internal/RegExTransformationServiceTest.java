@@ -78,4 +78,17 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_cachedExpression() throws TransformationException {
+        // method under test
+        String firstResponse = processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "X12,Y54");
+        String secondResponse = processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "Z3");
+        String matchResponse = processor.transform("([A-Z]+)[0-9]+", "Z3");
+
+        // Asserts
+        assertEquals("varX=12 varY=54 ", firstResponse);
+        assertEquals("varZ=3 ", secondResponse);
+        assertEquals("Z", matchResponse);
+    }
 }
@@ -19,6 +19,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.eclipse.smarthome.core.transform.internal.CompiledFunctionCache;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +31,11 @@ import org.slf4j.LoggerFactory;
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
+ * <p>
+ * The compiled Regular Expressions are cached.
+ *
  * @author Thomas.Eichstaedt-Engelen
+ * @author Eclipse SmartHome - Cache compiled expressions
  */
 @NonNullByDefault
 @Component(immediate = true, property = { "smarthome.transform=REGEX" })
@@ -40,6 +45,9 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    /* regular expression of the transformation -> compiled expression */
+    private final CompiledFunctionCache<CompiledExpression> compiledExpressions = new CompiledFunctionCache<>();
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -50,23 +58,23 @@ public class RegExTransformationService implements TransformationService {
 
         String result = "";
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        CompiledExpression expression = compiledExpressions.get(regExpression, CompiledExpression::new);
+
+        String substitution = expression.substitution;
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = expression.pattern.matcher(source.trim());
+            if (expression.global) {
+                result = substMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
+                result = substMatcher.replaceFirst(substitution);
             }
             if (result != null) {
                 return result;
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = expression.pattern.matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -95,4 +103,26 @@ public class RegExTransformationService implements TransformationService {
         return result;
     }
 
+    /**
+     * A compiled Regular Expression of a transformation, either in substitution form or for extracting a group.
+     */
+    private static class CompiledExpression {
+        final Pattern pattern;
+        final @Nullable String substitution;
+        final boolean global;
+
+        CompiledExpression(String regExpression) {
+            Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+            if (substMatcher.matches()) {
+                pattern = Pattern.compile(substMatcher.group(1));
+                substitution = substMatcher.group(2);
+                global = substMatcher.group(3).equals("g");
+            } else {
+                pattern = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL);
+                substitution = null;
+                global = false;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.smarthome.core.common.SafeCaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for calls through the {@link SafeCaller}, which the framework uses to call thing handlers, discovery
+ * services and listeners.
+ *
+ * The {@link SafeCallerImpl} is activated without an OSGi container and calls a trivial target, so the results show the
+ * overhead of the safe call itself.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SafeCallerBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long RECEIVE_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    private final LongAdder calls = new LongAdder();
+    private final Runnable target = calls::increment;
+
+    private SafeCallerImpl safeCaller;
+    private Runnable syncProxy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        safeCaller = new SafeCallerImpl();
+        safeCaller.activate(null);
+        syncProxy = safeCaller.create(target, Runnable.class).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        safeCaller.deactivate();
+    }
+
+    /**
+     * A direct call of the target, as a reference for the other benchmarks.
+     */
+    @Benchmark
+    public void directCall() {
+        target.run();
+    }
+
+    /**
+     * A synchronous call through a proxy that is built once.
+     */
+    @Benchmark
+    public void syncCall() {
+        syncProxy.run();
+    }
+
+    /**
+     * A synchronous call through a proxy that is built for the call, like most callers of the {@link SafeCaller} do.
+     */
+    @Benchmark
+    public void syncCallWithBuild() {
+        safeCaller.create(target, Runnable.class).build().run();
+    }
+
+    /**
+     * Asynchronous calls, measured until all calls of a batch have been executed.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void asyncCall() {
+        final long expected = calls.sum() + BATCH_SIZE;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            safeCaller.create(target, Runnable.class).withAsync().build().run();
+        }
+        final long start = System.nanoTime();
+        while (calls.sum() < expected) {
+            if (System.nanoTime() - start > RECEIVE_TIMEOUT) {
+                throw new IllegalStateException(
+                        "The asynchronous calls did not finish, " + (expected - calls.sum()) + " calls are missing.");
+            }
+            Thread.yield();
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2014,2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.events.TopicEventFilter;
+import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.items.events.ItemStateEvent;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Benchmarks for the event bus, from {@link OSGiEventPublisher#post(Event)} to the
+ * {@link EventSubscriber#receive(Event)} call.
+ *
+ * The event manager and publisher are wired by an {@link EventAdmin} that hands the OSGi events directly to the event
+ * manager, so no OSGi container is required. The published events are a mix of {@link ItemStateEvent}s and
+ * {@link ItemCommandEvent}s for a set of items. The subscribers are a mix of subscribers without filter, with a
+ * {@link TopicEventFilter} and with a custom {@link EventFilter}, like the subscribers of a running system.
+ *
+ * The time is measured until every subscriber has received all published events it is interested in. If events are
+ * dropped because the queue of a subscriber stayed full, the benchmark fails and reports the dropped events.
+ *
+ * @author Eclipse SmartHome - Initial contribution
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class EventBusBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int SEQUENCE_LENGTH = 1024;
+    private static final int BATCH_SIZE = 1000;
+    private static final long RECEIVE_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    /** The number of subscribers, including one subscriber for all item events. */
+    @Param({ "1", "10", "100", "500" })
+    private int subscribers;
+
+    /** The percentage of state events, the remaining events are command events. */
+    @Param({ "80" })
+    private int statePercentage;
+
+    private final String[] itemNames = new String[SEQUENCE_LENGTH];
+    private final Object[] types = new Object[SEQUENCE_LENGTH];
+    private int next;
+
+    /** The number of subscribers that receive the event at each index of the sequence. */
+    private final int[] receivers = new int[SEQUENCE_LENGTH];
+
+    /** The number of events received by all subscribers together. */
+    private final LongAdder received = new LongAdder();
+    private long expected;
+
+    private OSGiEventManager eventManager;
+    private OSGiEventPublisher eventPublisher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final State[] states = { new DecimalType(21.5), PercentType.HUNDRED, OnOffType.ON,
+                new StringType("benchmark") };
+        final Command[] commands = { OnOffType.ON, OnOffType.OFF, new PercentType(50) };
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            itemNames[i] = "item" + random.nextInt(ITEM_COUNT);
+            types[i] = random.nextInt(100) < statePercentage ? states[random.nextInt(states.length)]
+                    : commands[random.nextInt(commands.length)];
+        }
+
+        eventManager = new OSGiEventManager();
+        eventManager.activate(null);
+        eventManager.addEventFactory(new ItemEventFactory());
+
+        eventPublisher = new OSGiEventPublisher();
+        eventPublisher.setEventAdmin(new DirectEventAdmin(eventManager));
+
+        final BenchmarkSubscriber[] benchmarkSubscribers = new BenchmarkSubscriber[subscribers];
+        for (int i = 0; i < subscribers - 1; i++) {
+            benchmarkSubscribers[i] = createSubscriber(i);
+        }
+        benchmarkSubscribers[subscribers - 1] = new BenchmarkSubscriber(
+                new HashSet<>(Arrays.asList(ItemStateEvent.TYPE, ItemCommandEvent.TYPE)), null, received);
+        for (final BenchmarkSubscriber subscriber : benchmarkSubscribers) {
+            eventManager.addEventSubscriber(subscriber);
+        }
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            final Event event = createEvent(i);
+            for (final BenchmarkSubscriber subscriber : benchmarkSubscribers) {
+                if (subscriber.accepts(event)) {
+                    receivers[i]++;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventManager.deactivate(null);
+    }
+
+    /**
+     * The time from publishing a single event until it has been received.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void publishToReceiveLatency() {
+        publishNext();
+        awaitReceived();
+    }
+
+    /**
+     * The number of events that are published and received per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            publishNext();
+        }
+        awaitReceived();
+    }
+
+    private void publishNext() {
+        final int index = next++ & (SEQUENCE_LENGTH - 1);
+        expected += receivers[index];
+        eventPublisher.post(createEvent(index));
+    }
+
+    private Event createEvent(int index) {
+        final Object type = types[index];
+        if (type instanceof State) {
+            return ItemEventFactory.createStateEvent(itemNames[index], (State) type);
+        } else {
+            return ItemEventFactory.createCommandEvent(itemNames[index], (Command) type);
+        }
+    }
+
+    private void awaitReceived() {
+        final long start = System.nanoTime();
+        while (received.sum() < expected) {
+            if (System.nanoTime() - start > RECEIVE_TIMEOUT) {
+                final long dropped = eventManager.getDroppedEvents().values().stream().mapToLong(Long::longValue)
+                        .sum();
+                throw new IllegalStateException("The subscribers did not receive all events, "
+                        + (expected - received.sum()) + " events are missing, " + dropped + " have been dropped.");
+            }
+            Thread.yield();
+        }
+    }
+
+    private BenchmarkSubscriber createSubscriber(int index) {
+        final String itemName = "item" + (index % ITEM_COUNT);
+        switch (index % 3) {
+            case 0:
+                return new BenchmarkSubscriber(new HashSet<>(Arrays.asList(ItemStateEvent.TYPE)), null, received);
+            case 1:
+                return new BenchmarkSubscriber(
+                        new HashSet<>(Arrays.asList(ItemStateEvent.TYPE, ItemCommandEvent.TYPE)),
+                        new TopicEventFilter("smarthome/items/" + itemName + "/.*"), received);
+            default:
+                final String topicPrefix = "smarthome/items/" + itemName + "/";
+                return new BenchmarkSubscriber(new HashSet<>(Arrays.asList(ItemCommandEvent.TYPE)),
+                        event -> event.getTopic().startsWith(topicPrefix), received);
+        }
+    }
+
+    /**
+     * A subscriber that counts the received events.
+     */
+    private static class BenchmarkSubscriber implements EventSubscriber {
+
+        private final Set<String> eventTypes;
+        private final EventFilter eventFilter;
+        private final LongAdder received;
+
+        BenchmarkSubscriber(Set<String> eventTypes, EventFilter eventFilter, LongAdder received) {
+            this.eventTypes = eventTypes;
+            this.eventFilter = eventFilter;
+            this.received = received;
+        }
+
+        boolean accepts(Event event) {
+            return eventTypes.contains(event.getType()) && (eventFilter == null || eventFilter.apply(event));
+        }
+
+        @Override
+        public Set<String> getSubscribedEventTypes() {
+            return eventTypes;
+        }
+
+        @Override
+        public EventFilter getEventFilter() {
+            return eventFilter;
+        }
+
+        @Override
+        public void receive(Event event) {
+            received.increment();
+        }
+    }
+
+    /**
+     * An {@link EventAdmin} that hands all events synchronously to the event manager.
+     */
+    private static class DirectEventAdmin implements EventAdmin {
+
+        private final OSGiEventManager eventManager;
+
+        DirectEventAdmin(OSGiEventManager eventManager) {
+            this.eventManager = eventManager;
+        }
+
+        @Override
+        public void postEvent(org.osgi.service.event.Event event) {
+            eventManager.handleEvent(event);
+        }
+
+        @Override
+        public void sendEvent(org.osgi.service.event.Event event) {
+            eventManager.handleEvent(event);
+        }
+    }
+
+}